@@ -200,6 +200,15 @@ public interface Admin {
      */
     Collection<? extends CacheStatistics> getCacheStats(String cacheType) throws AdminException;
     
+    /**
+     * Get the Cache Statistics for the metadata lookup caches of the given VDB
+     * @param vdbName - Name of the VDB
+     * @param vdbVersion - VDB version
+     * @return Collection of {@link CacheStatistics} 
+     * @throws AdminException  
+     */
+    Collection<? extends CacheStatistics> getMetadataCacheStats(String vdbName, int vdbVersion) throws AdminException;
+    
     /**
      * Terminate the Session
      *
@@ -630,6 +630,20 @@ public class AdminFactory {
 	        }
 	        return null;
 		}
+		
+		@Override
+		public Collection<? extends CacheStatistics> getMetadataCacheStats(String vdbName, int vdbVersion) throws AdminException {
+	        final ModelNode request = buildRequest("teiid", "metadata-cache-statistics", "vdb-name", vdbName, "vdb-version", String.valueOf(vdbVersion));//$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	        try {
+	            ModelNode outcome = this.connection.execute(request);
+	            if (Util.isSuccess(outcome)) {
+	            	return getDomainAwareList(outcome, VDBMetadataMapper.CacheStatisticsMetadataMapper.INSTANCE);	            	
+	            }
+	        } catch (Exception e) {
+	        	 throw new AdminProcessingException(AdminPlugin.Event.TEIID70053, e);
+	        }
+	        return null;
+		}
 
 		@Override
 		public Collection<String> getCacheTypes() throws AdminException {
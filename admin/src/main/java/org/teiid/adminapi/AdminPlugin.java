@@ -77,6 +77,7 @@ public class AdminPlugin {
 		TEIID70049,
 		TEIID70050,	
 		TEIID70051,
-		TEIID70052
+		TEIID70052,
+		TEIID70053
 	}
 }
@@ -70,4 +70,19 @@ public interface WorkerPoolStatistics extends AdminObject, DomainAware{
      * @return Returns the highest queue size
      */
     public int getHighestQueued();
+    
+    /**
+     * @return The number of tasks that were queued before running
+     */
+    long getTotalQueued();
+    
+    /**
+     * @return The average time in milliseconds that queued tasks waited to run
+     */
+    long getAverageQueueWaitTime();
+    
+    /**
+     * @return The highest time in milliseconds that a queued task waited to run
+     */
+    long getHighestQueueWaitTime();
 }
@@ -974,6 +974,7 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 		private static final String HITRATIO = "hit-ratio"; //$NON-NLS-1$
 		private static final String TOTAL_ENTRIES = "total-entries"; //$NON-NLS-1$
 		private static final String REQUEST_COUNT = "request-count"; //$NON-NLS-1$
+		private static final String CACHE_NAME = "cache-name"; //$NON-NLS-1$
 		
 		public static CacheStatisticsMetadataMapper INSTANCE = new CacheStatisticsMetadataMapper();
 		
@@ -984,6 +985,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			node.get(TOTAL_ENTRIES).set(object.getTotalEntries());
 			node.get(HITRATIO).set(object.getHitRatio());
 			node.get(REQUEST_COUNT).set(object.getRequestCount());
+			if (object.getName() != null) {
+				node.get(CACHE_NAME).set(object.getName());
+			}
 			
 			wrapDomain(object, node);
 			return node;
@@ -997,6 +1001,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			cache.setTotalEntries(node.get(TOTAL_ENTRIES).asInt());
 			cache.setHitRatio(node.get(HITRATIO).asDouble());
 			cache.setRequestCount(node.get(REQUEST_COUNT).asInt());
+			if (node.get(CACHE_NAME).isDefined()) {
+				cache.setName(node.get(CACHE_NAME).asString());
+			}
 			
 			unwrapDomain(cache, node);
 			return cache;
@@ -1006,6 +1013,7 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			addAttribute(node, TOTAL_ENTRIES, ModelType.STRING, true);
 			addAttribute(node, HITRATIO, ModelType.STRING, true);
 			addAttribute(node, REQUEST_COUNT, ModelType.STRING, true);
+			addAttribute(node, CACHE_NAME, ModelType.STRING, false);
 			return node; 		
 		}
 	}	
@@ -1229,6 +1237,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 		private static final String TOTAL_COMPLETED = "total-completed"; //$NON-NLS-1$
 		private static final String HIGHEST_ACTIVE_THREADS = "highest-active-threads"; //$NON-NLS-1$
 		private static final String ACTIVE_THREADS = "active-threads"; //$NON-NLS-1$
+		private static final String TOTAL_QUEUED = "total-queued"; //$NON-NLS-1$
+		private static final String AVERAGE_QUEUE_WAIT_TIME = "average-queue-wait-time"; //$NON-NLS-1$
+		private static final String HIGHEST_QUEUE_WAIT_TIME = "highest-queue-wait-time"; //$NON-NLS-1$
 		
 		public static WorkerPoolStatisticsMetadataMapper INSTANCE = new WorkerPoolStatisticsMetadataMapper();
 		
@@ -1244,6 +1255,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			node.get(QUEUED).set(stats.getQueued());
 			node.get(HIGHEST_QUEUED).set(stats.getHighestQueued());
 			node.get(MAX_THREADS).set(stats.getMaxThreads());
+			node.get(TOTAL_QUEUED).set(stats.getTotalQueued());
+			node.get(AVERAGE_QUEUE_WAIT_TIME).set(stats.getAverageQueueWaitTime());
+			node.get(HIGHEST_QUEUE_WAIT_TIME).set(stats.getHighestQueueWaitTime());
 			wrapDomain(stats, node);
 			return node;
 		}
@@ -1261,6 +1275,11 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			stats.setQueued(node.get(QUEUED).asInt());
 			stats.setHighestQueued(node.get(HIGHEST_QUEUED).asInt());
 			stats.setMaxThreads(node.get(MAX_THREADS).asInt());
+			if (node.get(TOTAL_QUEUED).isDefined()) {
+				stats.setTotalQueued(node.get(TOTAL_QUEUED).asLong());
+				stats.setAverageQueueWaitTime(node.get(AVERAGE_QUEUE_WAIT_TIME).asLong());
+				stats.setHighestQueueWaitTime(node.get(HIGHEST_QUEUE_WAIT_TIME).asLong());
+			}
 			unwrapDomain(stats, node);
 			return stats;
 		}
@@ -1274,6 +1293,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			addAttribute(node, QUEUED, ModelType.INT, true);
 			addAttribute(node, HIGHEST_QUEUED, ModelType.INT, true);
 			addAttribute(node, MAX_THREADS, ModelType.INT, true);
+			addAttribute(node, TOTAL_QUEUED, ModelType.LONG, true);
+			addAttribute(node, AVERAGE_QUEUE_WAIT_TIME, ModelType.LONG, true);
+			addAttribute(node, HIGHEST_QUEUE_WAIT_TIME, ModelType.LONG, true);
 			return node;
 		}
 	}
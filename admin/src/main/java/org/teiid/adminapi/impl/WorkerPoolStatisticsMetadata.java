@@ -39,6 +39,9 @@ public class WorkerPoolStatisticsMetadata extends AdminObjectImpl implements Wor
     private int highestActiveThreads;
     private long totalSubmitted;
     private long totalCompleted;
+    private long totalQueued;
+    private long averageQueueWaitTime;
+    private long highestQueueWaitTime;
             
     @Override
     public int getActiveThreads() {
@@ -108,6 +111,33 @@ public class WorkerPoolStatisticsMetadata extends AdminObjectImpl implements Wor
 		this.totalCompleted = totalCompleted;
 	}
 	
+	@Override
+	public long getTotalQueued() {
+		return totalQueued;
+	}
+	
+	public void setTotalQueued(long totalQueued) {
+		this.totalQueued = totalQueued;
+	}
+	
+	@Override
+	public long getAverageQueueWaitTime() {
+		return averageQueueWaitTime;
+	}
+	
+	public void setAverageQueueWaitTime(long averageQueueWaitTime) {
+		this.averageQueueWaitTime = averageQueueWaitTime;
+	}
+	
+	@Override
+	public long getHighestQueueWaitTime() {
+		return highestQueueWaitTime;
+	}
+	
+	public void setHighestQueueWaitTime(long highestQueueWaitTime) {
+		this.highestQueueWaitTime = highestQueueWaitTime;
+	}
+	
     public void setQueueName(String name) {
 		setName(name);
 	}	
@@ -124,6 +154,9 @@ public class WorkerPoolStatisticsMetadata extends AdminObjectImpl implements Wor
         str.append("; highestActiveThreads = " + highestActiveThreads);     //$NON-NLS-1$
         str.append("; totalSubmitted = " + totalSubmitted);     //$NON-NLS-1$
         str.append("; totalCompleted = " + totalCompleted);     //$NON-NLS-1$
+        str.append("; totalQueued = " + totalQueued);     //$NON-NLS-1$
+        str.append("; averageQueueWaitTime = " + averageQueueWaitTime);     //$NON-NLS-1$
+        str.append("; highestQueueWaitTime = " + highestQueueWaitTime);     //$NON-NLS-1$
         return str.toString();
     }    
 
@@ -224,6 +224,12 @@ public class AdminShell {
 		return getAdmin().getCacheStats(identifier);
 	}
 	
+	@Doc(text = "Get metadata cache statistics for given vdb")
+	public static Collection<? extends CacheStatistics> getMetadataCacheStats(@Doc(text = "vdb name") String vdbName, 
+			@Doc(text = "vdb version") int vdbVersion) throws AdminException {
+		return getAdmin().getMetadataCacheStats(vdbName, vdbVersion);
+	}
+	
 	@Doc(text = "Remove a mapped role for the data role")
 	public static void removeDataRoleMapping(
 			@Doc(text = "vdb name") String vdbName, 
@@ -49,6 +49,22 @@ public interface EventDistributor {
 	@Replicated(remoteOnly=true)
 	void updateMatViewRow(String vdbName, int vdbVersion, String schema, String viewName, List<?> tuple, boolean delete);
 	
+	/**
+	 * Update the given materialized view with a set of row changes.
+	 * The changes are applied to a single snapshot of the view, so that concurrent readers see either none or all of them.
+	 * The tuples are expected to be in table order, which has the primary key first.
+	 * Deletes need to only send the key, not the entire row contents.  Upserts replace the existing row with the same key.
+	 * 
+	 * @param vdbName
+	 * @param vdbVersion
+	 * @param schema
+	 * @param viewName
+	 * @param deletes
+	 * @param upserts
+	 */
+	@Replicated(remoteOnly=true)
+	void updateMatViewRows(String vdbName, int vdbVersion, String schema, String viewName, List<? extends List<?>> deletes, List<? extends List<?>> upserts);
+	
 	/**
 	 * Notify that the table data has changed.
 	 * @param vdbName
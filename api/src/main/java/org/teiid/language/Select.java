@@ -25,6 +25,7 @@ package org.teiid.language;
 import java.util.List;
 import java.util.Map;
 
+import org.teiid.core.util.BloomFilter;
 import org.teiid.language.visitor.LanguageObjectVisitor;
 
 /**
@@ -39,6 +40,7 @@ public class Select extends QueryExpression {
     private GroupBy groupBy;
     private Condition having;
     private Map<String, List<? extends List<?>>> dependentValues;
+    private Map<String, BloomFilter> dependentFilters;
         
     public Select(List<DerivedColumn> derivedColumns, boolean distinct, List<TableReference> from, Condition where,
                      GroupBy groupBy, Condition having, OrderBy orderBy) {
@@ -152,4 +154,19 @@ public class Select extends QueryExpression {
     public void setDependentValues(Map<String, List<? extends List<?>>> dependentValues) {
 		this.dependentValues = dependentValues;
 	}
+    
+    /**
+     * Gets the dependent value filters.  A filtered dependent join is represented 
+     * by a {@link Comparison} of the dependent expression to a {@link Parameter} whose 
+     * dependent value id is the key of the filter.  The comparison is true if the
+     * filter might contain the value.
+     * @return the map of dependent filters or null if this is not a filtered dependent join
+     */
+    public Map<String, BloomFilter> getDependentFilters() {
+		return dependentFilters;
+	}
+    
+    public void setDependentFilters(Map<String, BloomFilter> dependentFilters) {
+		this.dependentFilters = dependentFilters;
+	}
 }
@@ -431,6 +431,14 @@ public class BaseDelegatingExecutionFactory<F, C> extends ExecutionFactory<F, C>
 		return delegate.supportsDependentJoins();
 	}
 	@Override
+	public boolean supportsDependentJoinBloomFilter() {
+		return delegate.supportsDependentJoinBloomFilter();
+	}
+	@Override
+	public boolean supportsPartitionedScans() {
+		return delegate.supportsPartitionedScans();
+	}
+	@Override
 	public boolean supportsOnlyLiteralComparison() {
 		return delegate.supportsOnlyLiteralComparison();
 	}
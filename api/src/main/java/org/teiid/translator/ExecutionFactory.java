@@ -993,6 +993,25 @@ public class ExecutionFactory<F, C> {
 		return false;
 	}
 	
+	/**
+	 * @return true if a dependent join may be pushed as a Bloom filter of the independent values.
+	 * See {@link Select#getDependentFilters()}
+	 * @since 8.3
+	 */
+	public boolean supportsDependentJoinBloomFilter() {
+		return false;
+	}
+	
+	/**
+	 * @return true if a scan of a single table may be split into range partitions 
+	 * that are executed concurrently.  Partitioning is requested with the teiid:partition-column
+	 * and teiid:partition-count table extension properties.
+	 * @since 8.3
+	 */
+	public boolean supportsPartitionedScans() {
+		return false;
+	}
+	
 		
 	public enum Format {
 		NUMBER,
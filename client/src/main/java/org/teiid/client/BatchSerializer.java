@@ -22,11 +22,17 @@
 
 package org.teiid.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.ObjectStreamConstants;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Array;
@@ -68,6 +74,11 @@ import org.teiid.jdbc.JDBCPlugin;
 public class BatchSerializer {
 	
     static final byte CURRENT_VERSION = (byte)2;
+    
+    /**
+     * Row count marker indicating that the batch follows the serialized message as raw column data
+     */
+    public static final int RAW_BATCH = Integer.MIN_VALUE;
 
 	private BatchSerializer() {} // Uninstantiable
     
@@ -352,6 +363,10 @@ public class BatchSerializer {
      * @since 4.2
      */
     static void writeIsNullData(ObjectOutput out, int col, List<? extends List<?>> batch) throws IOException {
+    	if (batch instanceof ColumnarBatch) {
+    		writeIsNullData(out, col, (ColumnarBatch)batch);
+    		return;
+    	}
         int numBytes = batch.size() / 8, row = 0, currentByte = 0;
         for (int byteNum = 0; byteNum < numBytes; byteNum++, row+=8) {
             currentByte  = (batch.get(row).get(col) == null) ? 0x80 : 0;
@@ -373,6 +388,30 @@ public class BatchSerializer {
         }
     }
     
+    static void writeIsNullData(ObjectOutput out, int col, ColumnarBatch batch) throws IOException {
+    	int currentByte = 0;
+    	int mask = 0x80;
+    	for (int row = 0; row < batch.size(); row++) {
+    		if (batch.isNull(row, col)) currentByte |= mask;
+    		mask >>= 1;
+    		if (mask == 0) {
+    			out.write(currentByte);
+    			currentByte = 0;
+    			mask = 0x80;
+    		}
+    	}
+    	if (mask != 0x80) {
+    		out.write(currentByte);
+    	}
+    }
+    
+    static Object getValue(List<? extends List<?>> batch, int row, int col) {
+    	if (batch instanceof ColumnarBatch) {
+    		return ((ColumnarBatch)batch).getValue(row, col);
+    	}
+    	return batch.get(row).get(col);
+    }
+    
     static void writeIsNullData(ObjectOutput out, int offset, Object[] batch) throws IOException {
         int currentByte = 0;
         for (int mask = 0x80; offset < batch.length; offset++, mask >>= 1) {
@@ -417,9 +456,19 @@ public class BatchSerializer {
     private static class ColumnSerializer {
         public void writeColumn(ObjectOutput out, int col, List<? extends List<?>> batch) throws IOException {
             writeIsNullData(out, col, batch);
+            if (batch instanceof ColumnarBatch && ((ColumnarBatch)batch).isPrimitive(col)) {
+            	//read the primitive values directly
+            	ColumnarBatch columnar = (ColumnarBatch)batch;
+            	for (int i = 0; i < columnar.size(); i++) {
+            		if (!columnar.isNull(i, col)) {
+            			writePrimitive(out, columnar, i, col);
+            		}
+            	}
+            	return;
+            }
             Object obj = null;
             for (int i = 0; i < batch.size(); i++) {
-                obj = batch.get(i).get(col);
+                obj = getValue(batch, i, col);
                 if (obj != null) {
                     writeObject(out, obj);
                 }
@@ -438,12 +487,18 @@ public class BatchSerializer {
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
         	out.writeObject(obj);
         }
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	writeObject(out, batch.getValue(row, col));
+        }
         protected Object readObject(ObjectInput in) throws IOException, ClassNotFoundException {
         	return in.readObject();
         }
     }
     
     private static class IntColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeInt(batch.getInt(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeInt(((Integer)obj).intValue());
         }
@@ -453,6 +508,9 @@ public class BatchSerializer {
     }
     
     private static class LongColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeLong(batch.getLong(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeLong(((Long)obj).longValue());
         }
@@ -462,6 +520,9 @@ public class BatchSerializer {
     }
     
     private static class FloatColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeFloat(batch.getFloat(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeFloat(((Float)obj).floatValue());
         }
@@ -471,6 +532,9 @@ public class BatchSerializer {
     }
     
     private static class DoubleColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeDouble(batch.getDouble(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeDouble(((Double)obj).doubleValue());
         }
@@ -480,6 +544,9 @@ public class BatchSerializer {
     }
     
     private static class ShortColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeShort(batch.getShort(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeShort(((Short)obj).shortValue());
         }
@@ -499,7 +566,7 @@ public class BatchSerializer {
             Object obj;
             for (int row = 0; row < batch.size(); row++) {
                 // Write the isNull value
-                obj = batch.get(row).get(col);
+                obj = getValue(batch, row, col);
                 if (obj == null ) {
                     currentByte |= mask;
                 }
@@ -558,6 +625,9 @@ public class BatchSerializer {
     }
     
     private static class ByteColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeByte(batch.getByte(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeByte(((Byte)obj).byteValue());
         }
@@ -567,6 +637,9 @@ public class BatchSerializer {
     }
     
     private static class CharColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeChar(batch.getChar(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeChar(((Character)obj).charValue());
         }
@@ -609,6 +682,9 @@ public class BatchSerializer {
     }
     
     private static class DateColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeLong(batch.getLong(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeLong(((java.sql.Date)obj).getTime());
         }
@@ -618,6 +694,9 @@ public class BatchSerializer {
     }
     
     private static class TimeColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeLong(batch.getLong(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             out.writeLong(((Time)obj).getTime());
         }
@@ -646,12 +725,17 @@ public class BatchSerializer {
 
     private static class DateColumnSerializer1 extends ColumnSerializer {
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
-            long time = ((java.sql.Date)obj).getTime();
-            if (time < MIN_DATE_32 || time > MAX_DATE_32) {
-            	throw new IOException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20029, obj.getClass().getName()));
+            writeTime(out, ((java.sql.Date)obj).getTime());
+        }
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	writeTime(out, batch.getLong(row, col));
+        }
+		private void writeTime(ObjectOutput out, long time) throws IOException {
+			if (time < MIN_DATE_32 || time > MAX_DATE_32) {
+            	throw new IOException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20029, java.sql.Date.class.getName()));
             }
 			out.writeInt((int)(time/60000) + DATE_NORMALIZER);
-        }
+		}
         protected Object readObject(ObjectInput in) throws IOException {
             return new java.sql.Date(((in.readInt()&0xffffffffL) - DATE_NORMALIZER)*60000);
         }
@@ -659,18 +743,27 @@ public class BatchSerializer {
     
     private static class TimeColumnSerializer1 extends ColumnSerializer {
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
-            long time = ((Time)obj).getTime();
-            if (time < MIN_TIME_32 || time > MAX_TIME_32) {
-            	throw new IOException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20029, obj.getClass().getName()));
+            writeTime(out, ((Time)obj).getTime());
+        }
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	writeTime(out, batch.getLong(row, col));
+        }
+		private void writeTime(ObjectOutput out, long time) throws IOException {
+			if (time < MIN_TIME_32 || time > MAX_TIME_32) {
+            	throw new IOException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20029, Time.class.getName()));
             }
 			out.writeInt((int)(time/1000));
-        }
+		}
         protected Object readObject(ObjectInput in) throws IOException {
             return new Time((in.readInt()&0xffffffffL)*1000);
         }
     }
     
     private static class TimestampColumnSerializer extends ColumnSerializer {
+        protected void writePrimitive(ObjectOutput out, ColumnarBatch batch, int row, int col) throws IOException {
+        	out.writeLong(batch.getLong(row, col));
+        	out.writeInt(batch.getNanos(row, col));
+        }
         protected void writeObject(ObjectOutput out, Object obj) throws IOException {
             Timestamp ts =  (Timestamp)obj;
             out.writeLong(ts.getTime());
@@ -737,7 +830,13 @@ public class BatchSerializer {
     }
     
     public static List<List<Object>> readBatch(ObjectInput in, String[] types) throws IOException, ClassNotFoundException {
-        int rows = in.readInt();
+        return readBatch(in, types, in.readInt());
+    }
+    
+    /**
+     * Read the remainder of a batch after the row count has already been read
+     */
+    public static List<List<Object>> readBatch(ObjectInput in, String[] types, int rows) throws IOException, ClassNotFoundException {
         if (rows == 0) {
             return new ArrayList<List<Object>>(0);
         }
@@ -762,4 +861,98 @@ public class BatchSerializer {
         }
         return batch;
     }
+    
+    /**
+     * Determine if a batch of the given types can be written without object serialization.
+     */
+    public static boolean supportsRawBatch(String[] types, byte version) {
+    	if (version < 1 || types == null) {
+    		return false;
+    	}
+    	for (String type : types) {
+    		ColumnSerializer s = getSerializer(type, version);
+    		if (s == defaultSerializer || s == arrayColumnSerializer || s == arrayColumnSerialier2 
+    				|| s instanceof ObjectColumnSerializer || s instanceof BinaryColumnSerializer
+    				|| s instanceof ClobColumnSerializer1 || s instanceof BlobColumnSerializer1 || s instanceof XmlColumnSerializer1) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+    
+    /**
+     * Write the batch directly to the stream without object stream block framing or handles.
+     * Only valid if {@link #supportsRawBatch(String[], byte)} is true.
+     */
+    public static void writeRawBatch(OutputStream out, String[] types, List<? extends List<?>> batch, byte version) throws IOException {
+    	RawObjectOutput raw = new RawObjectOutput(out);
+    	writeBatch(raw, types, batch, version);
+    	raw.flush();
+    }
+    
+    /**
+     * Read a batch written by {@link #writeRawBatch(OutputStream, String[], List, byte)}
+     */
+    public static List<List<Object>> readRawBatch(byte[] bytes, String[] types) throws IOException {
+    	try {
+			return readBatch(new RawObjectInput(new ByteArrayInputStream(bytes)), types);
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+    }
+    
+    /**
+     * @return the row count of a batch written by {@link #writeRawBatch(OutputStream, String[], List, byte)}
+     */
+    public static int getRawBatchSize(byte[] bytes) {
+    	int rows = ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    	if (rows < 0) {
+    		return -(rows+1);
+    	}
+    	return rows;
+    }
+    
+    /**
+     * The only objects written by the raw-capable serializers are long strings, 
+     * which are sent as length prefixed chars
+     */
+    private static class RawObjectOutput extends DataOutputStream implements ObjectOutput {
+    	
+    	public RawObjectOutput(OutputStream out) {
+			super(out);
+		}
+    	
+    	@Override
+    	public void writeObject(Object obj) throws IOException {
+    		if (!(obj instanceof String)) {
+    			throw new NotSerializableException(obj == null?null:obj.getClass().getName());
+    		}
+    		String str = (String)obj;
+    		writeInt(str.length());
+    		writeChars(str);
+    	}
+    	
+    	@Override
+    	public void close() throws IOException {
+    		flush();
+    	}
+    	
+    }
+    
+    private static class RawObjectInput extends DataInputStream implements ObjectInput {
+    	
+    	public RawObjectInput(InputStream in) {
+			super(in);
+		}
+    	
+    	@Override
+    	public Object readObject() throws IOException {
+    		char[] chars = new char[readInt()];
+    		for (int i = 0; i < chars.length; i++) {
+    			chars[i] = readChar();
+    		}
+    		return new String(chars);
+    	}
+    	
+    }
 }
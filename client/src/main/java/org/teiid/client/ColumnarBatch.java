@@ -0,0 +1,565 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.client;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.teiid.core.types.DataTypeManager;
+
+/**
+ * A batch of rows stored by column.  Fixed width types are held in primitive arrays
+ * with a null {@link BitSet}, so there are no boxed values and no list per row.
+ * All other types are held in an Object array.
+ * <br>
+ * The batch is readable through the row oriented {@link List} interface, where each
+ * row is a view over the columns.  Values may be set through the views, but rows may not
+ * be added or removed.
+ * <br>
+ * Columns may be shared between batches by {@link #setColumn(int, ColumnarBatch, int)} and
+ * {@link #project(int[])}.  A shared column is copied by a batch before it is modified, so
+ * that the other batches are not affected.
+ */
+public class ColumnarBatch extends AbstractList<List<?>> implements RandomAccess {
+
+	private abstract static class Column {
+		BitSet nulls = new BitSet();
+		boolean shared;
+
+		abstract Object getValue(int row);
+
+		void setValue(int row, Object value) {
+			if (value == null) {
+				nulls.set(row);
+			} else {
+				nulls.clear(row);
+				set(row, value);
+			}
+		}
+
+		abstract void set(int row, Object value);
+
+		/**
+		 * Create a new column of the same type with the values of the given rows
+		 */
+		Column select(int[] rows, int count) {
+			Column result = create(count);
+			for (int i = 0; i < count; i++) {
+				if (nulls.get(rows[i])) {
+					result.nulls.set(i);
+				} else {
+					result.copy(rows[i], i, this);
+				}
+			}
+			return result;
+		}
+
+		abstract Column create(int size);
+
+		abstract void copy(int fromRow, int toRow, Column from);
+
+		/**
+		 * Create an unshared copy of this column
+		 */
+		Column duplicate(int size) {
+			Column result = create(size);
+			result.nulls = (BitSet)nulls.clone();
+			for (int i = 0; i < size; i++) {
+				if (!nulls.get(i)) {
+					result.copy(i, i, this);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * @return the estimated heap size of the primitive data or -1 if values are objects
+		 */
+		abstract long getPrimitiveSize();
+	}
+
+	private static class IntColumn extends Column {
+		int[] values;
+		IntColumn(int size) { values = new int[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Integer.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Integer)value).intValue(); }
+		Column create(int size) { return new IntColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((IntColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 4l; }
+	}
+
+	private static class LongColumn extends Column {
+		long[] values;
+		LongColumn(int size) { values = new long[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Long.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Long)value).longValue(); }
+		Column create(int size) { return new LongColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((LongColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 8l; }
+	}
+
+	private static class DateColumn extends LongColumn {
+		DateColumn(int size) { super(size); }
+		Object getValue(int row) { return nulls.get(row)?null:new java.sql.Date(values[row]); }
+		void set(int row, Object value) { values[row] = ((java.sql.Date)value).getTime(); }
+		Column create(int size) { return new DateColumn(size); }
+	}
+
+	private static class TimeColumn extends LongColumn {
+		TimeColumn(int size) { super(size); }
+		Object getValue(int row) { return nulls.get(row)?null:new Time(values[row]); }
+		void set(int row, Object value) { values[row] = ((Time)value).getTime(); }
+		Column create(int size) { return new TimeColumn(size); }
+	}
+
+	private static class TimestampColumn extends LongColumn {
+		int[] nanos;
+		TimestampColumn(int size) { super(size); nanos = new int[size]; }
+		Object getValue(int row) {
+			if (nulls.get(row)) {
+				return null;
+			}
+			Timestamp ts = new Timestamp(values[row]);
+			ts.setNanos(nanos[row]);
+			return ts;
+		}
+		void set(int row, Object value) {
+			Timestamp ts = (Timestamp)value;
+			values[row] = ts.getTime();
+			nanos[row] = ts.getNanos();
+		}
+		Column create(int size) { return new TimestampColumn(size); }
+		void copy(int fromRow, int toRow, Column from) {
+			super.copy(fromRow, toRow, from);
+			nanos[toRow] = ((TimestampColumn)from).nanos[fromRow];
+		}
+		long getPrimitiveSize() { return super.getPrimitiveSize() + 16 + nanos.length * 4l; }
+	}
+
+	private static class DoubleColumn extends Column {
+		double[] values;
+		DoubleColumn(int size) { values = new double[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Double.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Double)value).doubleValue(); }
+		Column create(int size) { return new DoubleColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((DoubleColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 8l; }
+	}
+
+	private static class FloatColumn extends Column {
+		float[] values;
+		FloatColumn(int size) { values = new float[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Float.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Float)value).floatValue(); }
+		Column create(int size) { return new FloatColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((FloatColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 4l; }
+	}
+
+	private static class ShortColumn extends Column {
+		short[] values;
+		ShortColumn(int size) { values = new short[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Short.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Short)value).shortValue(); }
+		Column create(int size) { return new ShortColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((ShortColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 2l; }
+	}
+
+	private static class ByteColumn extends Column {
+		byte[] values;
+		ByteColumn(int size) { values = new byte[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Byte.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Byte)value).byteValue(); }
+		Column create(int size) { return new ByteColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((ByteColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length; }
+	}
+
+	private static class CharColumn extends Column {
+		char[] values;
+		CharColumn(int size) { values = new char[size]; }
+		Object getValue(int row) { return nulls.get(row)?null:Character.valueOf(values[row]); }
+		void set(int row, Object value) { values[row] = ((Character)value).charValue(); }
+		Column create(int size) { return new CharColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((CharColumn)from).values[fromRow]; }
+		long getPrimitiveSize() { return 16 + values.length * 2l; }
+	}
+
+	private static class BooleanColumn extends Column {
+		BitSet values;
+		int size;
+		BooleanColumn(int size) { values = new BitSet(size); this.size = size; }
+		Object getValue(int row) { return nulls.get(row)?null:Boolean.valueOf(values.get(row)); }
+		void set(int row, Object value) { values.set(row, ((Boolean)value).booleanValue()); }
+		Column create(int size) { return new BooleanColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values.set(toRow, ((BooleanColumn)from).values.get(fromRow)); }
+		long getPrimitiveSize() { return 32 + (size >> 3); }
+	}
+
+	private static class ObjectColumn extends Column {
+		Object[] values;
+		ObjectColumn(int size) { values = new Object[size]; }
+		Object getValue(int row) { return values[row]; }
+		void setValue(int row, Object value) { values[row] = value; }
+		void set(int row, Object value) { values[row] = value; }
+		Column create(int size) { return new ObjectColumn(size); }
+		void copy(int fromRow, int toRow, Column from) { values[toRow] = ((ObjectColumn)from).values[fromRow]; }
+		Column select(int[] rows, int count) {
+			ObjectColumn result = new ObjectColumn(count);
+			for (int i = 0; i < count; i++) {
+				result.values[i] = values[rows[i]];
+			}
+			return result;
+		}
+		Column duplicate(int size) {
+			ObjectColumn result = new ObjectColumn(0);
+			result.values = values.clone();
+			return result;
+		}
+		long getPrimitiveSize() { return -1; }
+	}
+
+	private final class Row extends AbstractList<Object> implements RandomAccess {
+		private int row;
+
+		Row(int row) {
+			this.row = row;
+		}
+
+		@Override
+		public Object get(int index) {
+			return columns[index].getValue(row);
+		}
+
+		@Override
+		public Object set(int index, Object element) {
+			Object old = columns[index].getValue(row);
+			getWritableColumn(index).setValue(row, element);
+			return old;
+		}
+
+		@Override
+		public int size() {
+			return columns.length;
+		}
+	}
+
+	/**
+	 * Return true if values of the given type are stored as primitives
+	 */
+	public static boolean isPrimitive(Class<?> type) {
+		return type == DataTypeManager.DefaultDataClasses.INTEGER
+		|| type == DataTypeManager.DefaultDataClasses.LONG
+		|| type == DataTypeManager.DefaultDataClasses.DOUBLE
+		|| type == DataTypeManager.DefaultDataClasses.FLOAT
+		|| type == DataTypeManager.DefaultDataClasses.SHORT
+		|| type == DataTypeManager.DefaultDataClasses.BYTE
+		|| type == DataTypeManager.DefaultDataClasses.CHAR
+		|| type == DataTypeManager.DefaultDataClasses.BOOLEAN
+		|| type == DataTypeManager.DefaultDataClasses.DATE
+		|| type == DataTypeManager.DefaultDataClasses.TIME
+		|| type == DataTypeManager.DefaultDataClasses.TIMESTAMP;
+	}
+
+	/**
+	 * Return true if any of the types are stored as primitives, which is
+	 * when a columnar batch will be more compact than a row batch
+	 */
+	public static boolean hasPrimitiveTypes(Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (isPrimitive(type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Column createColumn(Class<?> type, int size) {
+		if (type == DataTypeManager.DefaultDataClasses.INTEGER) {
+			return new IntColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.LONG) {
+			return new LongColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.DOUBLE) {
+			return new DoubleColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.FLOAT) {
+			return new FloatColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.SHORT) {
+			return new ShortColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.BYTE) {
+			return new ByteColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.CHAR) {
+			return new CharColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.BOOLEAN) {
+			return new BooleanColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.DATE) {
+			return new DateColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.TIME) {
+			return new TimeColumn(size);
+		} else if (type == DataTypeManager.DefaultDataClasses.TIMESTAMP) {
+			return new TimestampColumn(size);
+		}
+		return new ObjectColumn(size);
+	}
+
+	/**
+	 * Create a columnar copy of the given rows.
+	 * @throws ClassCastException if a value does not match the column type
+	 */
+	public static ColumnarBatch create(Class<?>[] types, List<? extends List<?>> rows) {
+		ColumnarBatch result = new ColumnarBatch(types, rows.size());
+		for (int col = 0; col < types.length; col++) {
+			Column column = result.columns[col];
+			for (int row = 0; row < result.size; row++) {
+				column.setValue(row, rows.get(row).get(col));
+			}
+		}
+		return result;
+	}
+
+	private Class<?>[] types;
+	private Column[] columns;
+	private int size;
+	private Row[] rows;
+
+	/**
+	 * Create a batch with all null values
+	 */
+	public ColumnarBatch(Class<?>[] types, int size) {
+		this.types = types;
+		this.size = size;
+		this.columns = new Column[types.length];
+		for (int col = 0; col < types.length; col++) {
+			this.columns[col] = createColumn(types[col], size);
+			this.columns[col].nulls.set(0, size);
+		}
+	}
+
+	private ColumnarBatch(Class<?>[] types, Column[] columns, int size) {
+		this.types = types;
+		this.columns = columns;
+		this.size = size;
+	}
+
+	@Override
+	public List<?> get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		//the views hold no values, so they are created once per row
+		if (rows == null) {
+			rows = new Row[size];
+		}
+		Row result = rows[index];
+		if (result == null) {
+			result = new Row(index);
+			rows[index] = result;
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public Class<?>[] getTypes() {
+		return types;
+	}
+
+	/**
+	 * Return true if the column values are stored as primitives
+	 */
+	public boolean isPrimitive(int col) {
+		return !(columns[col] instanceof ObjectColumn);
+	}
+
+	public boolean isNull(int row, int col) {
+		Column column = columns[col];
+		if (column instanceof ObjectColumn) {
+			return ((ObjectColumn)column).values[row] == null;
+		}
+		return column.nulls.get(row);
+	}
+
+	/**
+	 * Get the value, which will be boxed for primitive columns
+	 */
+	public Object getValue(int row, int col) {
+		return columns[col].getValue(row);
+	}
+
+	public void setValue(int row, int col, Object value) {
+		getWritableColumn(col).setValue(row, value);
+	}
+
+	/**
+	 * Get the column to modify, which is first copied if it is shared with another batch
+	 */
+	private Column getWritableColumn(int col) {
+		Column column = columns[col];
+		if (column.shared) {
+			column = column.duplicate(size);
+			columns[col] = column;
+		}
+		return column;
+	}
+
+	public int getInt(int row, int col) {
+		return ((IntColumn)columns[col]).values[row];
+	}
+
+	/**
+	 * Get a long value, which for date, time, and timestamp columns is the time in milliseconds
+	 */
+	public long getLong(int row, int col) {
+		return ((LongColumn)columns[col]).values[row];
+	}
+
+	public int getNanos(int row, int col) {
+		return ((TimestampColumn)columns[col]).nanos[row];
+	}
+
+	public double getDouble(int row, int col) {
+		return ((DoubleColumn)columns[col]).values[row];
+	}
+
+	public float getFloat(int row, int col) {
+		return ((FloatColumn)columns[col]).values[row];
+	}
+
+	public short getShort(int row, int col) {
+		return ((ShortColumn)columns[col]).values[row];
+	}
+
+	public byte getByte(int row, int col) {
+		return ((ByteColumn)columns[col]).values[row];
+	}
+
+	public char getChar(int row, int col) {
+		return ((CharColumn)columns[col]).values[row];
+	}
+
+	public boolean getBoolean(int row, int col) {
+		return ((BooleanColumn)columns[col]).values.get(row);
+	}
+
+	/**
+	 * Return the backing int values of the column.  Null rows have 
+	 * undefined values and must be checked with {@link #getNulls(int)}.
+	 */
+	public int[] getIntValues(int col) {
+		return ((IntColumn)columns[col]).values;
+	}
+
+	/**
+	 * Return the backing long values of the column, which for date, time, and 
+	 * timestamp columns is the time in milliseconds.  Null rows have 
+	 * undefined values and must be checked with {@link #getNulls(int)}.
+	 */
+	public long[] getLongValues(int col) {
+		return ((LongColumn)columns[col]).values;
+	}
+
+	/**
+	 * Return the backing double values of the column.  Null rows have 
+	 * undefined values and must be checked with {@link #getNulls(int)}.
+	 */
+	public double[] getDoubleValues(int col) {
+		return ((DoubleColumn)columns[col]).values;
+	}
+
+	/**
+	 * Return the null rows of a primitive column.  The BitSet is not copied
+	 * and should not be modified.
+	 */
+	public BitSet getNulls(int col) {
+		return columns[col].nulls;
+	}
+
+	/**
+	 * Use the column of another batch of the same size and type.  The column data is shared 
+	 * with the other batch until either batch modifies it.
+	 * @throws IllegalArgumentException if the size or type does not match
+	 */
+	public void setColumn(int col, ColumnarBatch from, int fromCol) {
+		if (from.size != this.size || from.types[fromCol] != this.types[col]) {
+			throw new IllegalArgumentException();
+		}
+		Column column = from.columns[fromCol];
+		column.shared = true;
+		this.columns[col] = column;
+	}
+
+	/**
+	 * Return the estimated heap size of the primitive column data or -1 if the column
+	 * holds objects.
+	 */
+	public long getPrimitiveSize(int col) {
+		long size = columns[col].getPrimitiveSize();
+		if (size < 0) {
+			return size;
+		}
+		return size + 32 + (this.size >> 3);
+	}
+
+	/**
+	 * Create a batch of the given columns.  The column data is shared
+	 * with this batch until either batch modifies it.
+	 */
+	public ColumnarBatch project(int[] cols) {
+		Column[] projected = new Column[cols.length];
+		Class<?>[] projectedTypes = new Class<?>[cols.length];
+		for (int i = 0; i < cols.length; i++) {
+			projected[i] = this.columns[cols[i]];
+			projected[i].shared = true;
+			projectedTypes[i] = this.types[cols[i]];
+		}
+		return new ColumnarBatch(projectedTypes, projected, size);
+	}
+
+	/**
+	 * Create a new batch with the given rows and columns.
+	 * @param rows the row indexes to select
+	 * @param count the number of row indexes to use
+	 * @param cols the column indexes to select
+	 */
+	public ColumnarBatch select(int[] rows, int count, int[] cols) {
+		Column[] selected = new Column[cols.length];
+		Class<?>[] selectedTypes = new Class<?>[cols.length];
+		for (int i = 0; i < cols.length; i++) {
+			selected[i] = this.columns[cols[i]].select(rows, count);
+			selectedTypes[i] = this.types[cols[i]];
+		}
+		return new ColumnarBatch(selectedTypes, selected, count);
+	}
+
+}
@@ -40,6 +40,12 @@ public interface DQP {
 	ResultsFuture<ResultsMessage> executeRequest(long reqID, RequestMessage message) throws TeiidProcessingException, TeiidComponentException;
 	
 	ResultsFuture<ResultsMessage> processCursorRequest(long reqID, int batchFirst, int fetchSize) throws TeiidProcessingException;
+	
+	/**
+	 * Request the rows following those of the last results sent.  The request may be issued while
+	 * other cursor requests are still pending, in which case it continues from where they end. 
+	 */
+	ResultsFuture<ResultsMessage> processNextCursorRequest(long reqID, int fetchSize) throws TeiidProcessingException;
 
 	ResultsFuture<?> closeRequest(long requestID) throws TeiidProcessingException, TeiidComponentException;
 	
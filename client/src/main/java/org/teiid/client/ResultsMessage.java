@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.OptionalDataException;
+import java.io.StreamCorruptedException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -38,6 +39,8 @@ import org.teiid.client.plan.PlanNode;
 import org.teiid.client.util.ExceptionHolder;
 import org.teiid.core.TeiidException;
 import org.teiid.core.util.ExternalizeUtil;
+import org.teiid.netty.handler.codec.serialization.CompactObjectInputStream;
+import org.teiid.netty.handler.codec.serialization.CompactObjectOutputStream;
 
 
 /**
@@ -76,6 +79,10 @@ public class ResultsMessage implements Externalizable {
     private String debugLog;
     
     private byte clientSerializationVersion;
+    
+    private boolean allowRawBatch;
+    
+    private boolean allowCompression;
         
     /** 
      * Query plan annotations, if OPTION SHOWPLAN or OPTION PLANONLY was used:
@@ -249,7 +256,15 @@ public class ResultsMessage implements Externalizable {
         dataTypes = ExternalizeUtil.readStringArray(in);
 
         // Row data
-        results = BatchSerializer.readBatch(in, dataTypes);
+        int rows = in.readInt();
+        if (rows == BatchSerializer.RAW_BATCH) {
+        	if (!(in instanceof CompactObjectInputStream)) {
+        		throw new StreamCorruptedException("Unexpected raw batch"); //$NON-NLS-1$
+        	}
+        	((CompactObjectInputStream)in).addRawBatch(this);
+        } else {
+        	results = BatchSerializer.readBatch(in, dataTypes, rows);
+        }
 
         // Plan Descriptions
         planDescription = (PlanNode)in.readObject();
@@ -288,7 +303,14 @@ public class ResultsMessage implements Externalizable {
         ExternalizeUtil.writeArray(out, dataTypes);
 
         // Results data
-        BatchSerializer.writeBatch(out, dataTypes, results, clientSerializationVersion);
+        if (allowRawBatch && results != null && !results.isEmpty() 
+        		&& out instanceof CompactObjectOutputStream 
+        		&& BatchSerializer.supportsRawBatch(dataTypes, clientSerializationVersion)
+        		&& ((CompactObjectOutputStream)out).addRawBatch(this)) {
+        	out.writeInt(BatchSerializer.RAW_BATCH);
+        } else {
+        	BatchSerializer.writeBatch(out, dataTypes, results, clientSerializationVersion);
+        }
 
         // Plan descriptions
         out.writeObject(this.planDescription);
@@ -375,6 +397,32 @@ public class ResultsMessage implements Externalizable {
 		this.clientSerializationVersion = clientSerializationVersion;
 	}
 	
+	/**
+	 * Set to true if the batch may be written after the serialized form 
+	 * of this message as raw column data
+	 */
+	public void setAllowRawBatch(boolean allowRawBatch) {
+		this.allowRawBatch = allowRawBatch;
+	}
+	
+	public boolean isAllowCompression() {
+		return allowCompression;
+	}
+	
+	/**
+	 * Set to true if the transport may compress the frame containing this message
+	 */
+	public void setAllowCompression(boolean allowCompression) {
+		this.allowCompression = allowCompression;
+	}
+	
+	/**
+	 * Set the rows from the raw column data of the batch
+	 */
+	public void setRawBatch(byte[] bytes) throws IOException {
+		this.results = BatchSerializer.readRawBatch(bytes, dataTypes);
+	}
+	
 	public void setUpdateCount(int updateCount) {
 		this.updateCount = updateCount;
 	}
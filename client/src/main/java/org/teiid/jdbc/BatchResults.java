@@ -24,6 +24,7 @@ package org.teiid.jdbc;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 
@@ -37,16 +38,20 @@ public class BatchResults {
 	}
 		
 	static class Batch{
-	    private List<?>[] batch;
+	    private List<? extends List<?>> batch;
 	    private int beginRow;
 	    private int endRow;
 	    private boolean isLast;
 	    private int lastRow = -1;
 	    
 	    Batch(List<?>[] batch, int beginRow, int endRow){
+	    	this(Arrays.asList(batch), beginRow, endRow);
+	    }
+	    
+	    Batch(List<? extends List<?>> batch, int beginRow, int endRow){
 	        this.batch = batch;
 	        this.beginRow = beginRow;
-	        this.endRow = this.beginRow + this.batch.length - 1;
+	        this.endRow = this.beginRow + this.batch.size() - 1;
 	        if (endRow != this.endRow) {
 	        	this.isLast = true;
 	        }
@@ -61,11 +66,11 @@ public class BatchResults {
 		}
 	    
 	    int getLength() {
-	        return batch.length;
+	        return batch.size();
 	    }
 	    
 	    List<?> getRow(int index) {
-	        return batch[index - beginRow];
+	        return batch.get(index - beginRow);
 	    }
 	    
 	    int getBeginRow() {
@@ -117,6 +117,16 @@ public interface ExecutionProperties {
     
     public static final String JDBC4COLUMNNAMEANDLABELSEMANTICS = "useJDBC4ColumnNameAndLabelSemantics"; //$NON-NLS-1$
     
+    /**
+     * The maximum number of forward only result batches to request ahead of the 
+     * current batch.  The number actually in flight is sized from the observed 
+     * batch latency and consumption rate.  
+     * 
+     * Default is 0, which disables prefetching.  Requires a server that 
+     * supports pipelined cursor requests.
+     */
+    public static final String PROP_PREFETCH_BATCHES = "prefetchBatches"; //$NON-NLS-1$
+    
     
 }
     
\ No newline at end of file
@@ -63,7 +63,8 @@ public class JDBCURL {
 	            ExecutionProperties.PROP_XML_VALIDATION,
 	            EmbeddedProfile.USE_CALLING_THREAD,
 	            ExecutionProperties.DISABLE_LOCAL_TRANSACTIONS,
-	            ExecutionProperties.JDBC4COLUMNNAMEANDLABELSEMANTICS}) {
+	            ExecutionProperties.JDBC4COLUMNNAMEANDLABELSEMANTICS,
+	            ExecutionProperties.PROP_PREFETCH_BATCHES}) {
 			result.put(key, key);
 		}
 		return result;
@@ -85,7 +86,8 @@ public class JDBCURL {
     	        TeiidURL.CONNECTION.PASSTHROUGH_AUTHENTICATION,
     	        TeiidURL.CONNECTION.JAAS_NAME,
     	        TeiidURL.CONNECTION.KERBEROS_SERVICE_PRINCIPLE_NAME,
-    	        TeiidURL.CONNECTION.ENCRYPT_REQUESTS));
+    	        TeiidURL.CONNECTION.ENCRYPT_REQUESTS,
+    	        TeiidURL.CONNECTION.COMPRESS_RESULTS));
     	props.addAll(EXECUTION_PROPERTIES.keySet());
     	Map<String, String> result = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
     	for (String string : props) {
@@ -29,6 +29,7 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -65,6 +66,19 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 	private static AsynchPositioningException ape = new AsynchPositioningException();
 	
 	private static final int BEFORE_FIRST_ROW = 0;
+	//bound on the values held by prefetched batches
+	private static final int MAX_PREFETCH_VALUES = 1 << 20;
+	
+	private static class PendingBatch implements ResultsFuture.CompletionListener<ResultsMessage> {
+		ResultsFuture<ResultsMessage> results;
+		long requested = System.nanoTime();
+		volatile long received;
+		
+		@Override
+		public void onCompletion(ResultsFuture<ResultsMessage> future) {
+			received = System.nanoTime();
+		}
+	}
 
 	// the object which was last read from Results
 	private Object currentValue;
@@ -95,6 +109,14 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 	//results requested
 	private ResultsFuture<ResultsMessage> asynchResults;
     boolean asynch;
+    
+    //forward only results requested ahead of the current batch
+    private int maxPrefetchBatches;
+    private LinkedList<PendingBatch> prefetched;
+    private long lastReceived;
+    private long batchLatency;
+    private long consumptionTime;
+    private long lastBatchTime;
 
 	/**
 	 * Constructor.
@@ -132,15 +154,34 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 			rmetadata = new FilteredResultsMetadata(rmetadata, resultColumns);
 		}
 		this.fetchSize = statement.getFetchSize();
+		if (this.cursorType == ResultSet.TYPE_FORWARD_ONLY && this.parameters == 0 && resultsMsg.getFinalRow() < 0) {
+			this.maxPrefetchBatches = getPrefetchBatches();
+		}
 		if (logger.isLoggable(Level.FINER)) {
 			logger.finer("Creating ResultSet requestID: " + requestID + " beginRow: " + resultsMsg.getFirstRow() + " resultsColumns: " + resultColumns + " parameters: " + parameters); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		}
 	}
 	
+	private int getPrefetchBatches() {
+		String prefetch = this.statement.getExecutionProperty(ExecutionProperties.PROP_PREFETCH_BATCHES);
+		if (prefetch != null) {
+			try {
+				return Math.max(0, Integer.parseInt(prefetch));
+			} catch (NumberFormatException e) {
+				// silently failover to no prefetching
+			}
+		}
+		return 0;
+	}
+	
 	public void setMaxFieldSize(int maxFieldSize) {
 		this.maxFieldSize = maxFieldSize;
 	}
 	
+	public int getMaxFieldSize() {
+		return maxFieldSize;
+	}
+	
     /**
      * Close this result set.
      */
@@ -157,6 +198,7 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 				}
     		}
             isClosed = true;
+            this.prefetched = null;
         }
     }
     
@@ -354,7 +396,13 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     public Batch requestBatch(int beginRow) throws SQLException{
     	checkClosed();
         try {
-        	ResultsFuture<ResultsMessage> results = submitRequestBatch(beginRow);
+        	long requestTime = System.nanoTime();
+        	PendingBatch pending = null;
+        	if (this.prefetched != null) {
+        		//forward only results are always requested in order
+        		pending = this.prefetched.poll();
+        	}
+        	ResultsFuture<ResultsMessage> results = pending != null?pending.results:submitRequestBatch(beginRow);
         	if (asynch && !results.isDone()) {
         		synchronized (this) {
             		asynchResults = results;
@@ -362,7 +410,11 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
         		throw ape;
         	}
         	ResultsMessage currentResultMsg = getResults(results);
-            return processBatch(currentResultMsg);
+            Batch batch = processBatch(currentResultMsg);
+            if (this.maxPrefetchBatches > 0 && !asynch) {
+            	prefetch(batch, pending, requestTime);
+            }
+            return batch;
 		} catch (InterruptedException e) {
 			throw TeiidSQLException.create(e);
 		} catch (ExecutionException e) {
@@ -372,6 +424,81 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 		}
     }
 
+	/**
+	 * Keep enough batches in flight to cover the observed batch latency at the
+	 * observed consumption rate.
+	 */
+	private void prefetch(Batch batch, PendingBatch pending, long requestTime) throws TeiidSQLException {
+		if (this.prefetched == null) {
+			this.prefetched = new LinkedList<PendingBatch>();
+		} else {
+			//time spent by the caller on the previous batch
+			this.consumptionTime = average(this.consumptionTime, requestTime - this.lastBatchTime);
+		}
+		if (pending != null && pending.received != 0) {
+			//requests queued behind others are only charged from the prior arrival 
+			this.batchLatency = average(this.batchLatency, pending.received - Math.max(pending.requested, this.lastReceived));
+			this.lastReceived = pending.received;
+		}
+		this.lastBatchTime = System.nanoTime();
+		if (batch.isLast() || batch.getLastRow() != -1 || isPrefetchedLast()) {
+			return;
+		}
+		int depth = 1;
+		if (this.batchLatency > 0) {
+			depth = (int)Math.min(this.maxPrefetchBatches, this.batchLatency / Math.max(1, this.consumptionTime) + 1);
+		}
+		//bound the prefetched values held by the client
+		depth = Math.max(1, Math.min(depth, MAX_PREFETCH_VALUES / Math.max(1, this.columnCount) / Math.max(1, this.fetchSize)));
+		while (this.prefetched.size() < depth) {
+			PendingBatch next = new PendingBatch();
+			if (logger.isLoggable(Level.FINER)) {
+				logger.finer("prefetch requestID: " + requestID + " depth: " + depth); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			try {
+				next.results = statement.getDQP().processNextCursorRequest(requestID, fetchSize);
+			} catch (TeiidProcessingException e) {
+				throw TeiidSQLException.create(e);
+			}
+			next.results.addCompletionListener(next);
+			this.prefetched.add(next);
+		}
+	}
+	
+	/**
+	 * @return the number of forward only batch requests in flight
+	 */
+	int getPrefetchDepth() {
+		LinkedList<PendingBatch> pending = this.prefetched;
+		return pending == null?0:pending.size();
+	}
+	
+	private boolean isPrefetchedLast() {
+		for (PendingBatch pending : this.prefetched) {
+			if (!pending.results.isDone()) {
+				continue;
+			}
+			try {
+				ResultsMessage message = pending.results.get();
+				if (message.getException() != null || message.getFinalRow() >= 0) {
+					return true;
+				}
+			} catch (InterruptedException e) {
+				return true;
+			} catch (ExecutionException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static long average(long current, long sample) {
+		if (current == 0) {
+			return sample;
+		}
+		return (3*current + sample)/4;
+	}
+
 	private ResultsFuture<ResultsMessage> submitRequestBatch(int beginRow)
 			throws TeiidSQLException {
 		ResultsFuture<ResultsMessage> results;
@@ -418,7 +545,7 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
 	private Batch getCurrentBatch(ResultsMessage currentResultMsg) {
 		this.updatedPlanDescription = currentResultMsg.getPlanDescription();
-		Batch result = new Batch(currentResultMsg.getResults(), currentResultMsg.getFirstRow(), currentResultMsg.getLastRow());
+		Batch result = new Batch(currentResultMsg.getResultsList(), currentResultMsg.getFirstRow(), currentResultMsg.getLastRow());
 		result.setLastRow(currentResultMsg.getFinalRow());
 		return result;
 	}
@@ -1152,7 +1279,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 		throw new TeiidSQLException(msg);
 	}
 		
-	protected Calendar getDefaultCalendar() {
+	/**
+	 * @return the session calendar used to adjust date/time values for the client
+	 */
+	public Calendar getDefaultCalendar() {
 		return statement.getDefaultCalendar();
 	}
 
@@ -41,6 +41,8 @@ public class Handshake implements Externalizable {
     private String version = ApplicationInfo.getInstance().getReleaseNumber();
     private byte[] publicKey;
     private AuthenticationType authType = AuthenticationType.CLEARTEXT;
+    private boolean rawBatches;
+    private boolean compression;
     
     /** 
      * @return Returns the version.
@@ -78,6 +80,30 @@ public class Handshake implements Externalizable {
 		this.authType = authType;
 	}
     
+    /**
+     * @return true if result batches may be sent after the serialized message 
+     * as raw column data.  The server offers and the client accepts.
+     */
+    public boolean isRawBatches() {
+		return rawBatches;
+	}
+    
+    public void setRawBatches(boolean rawBatches) {
+		this.rawBatches = rawBatches;
+	}
+    
+    /**
+     * @return true if compressed result frames may be used.  The server offers and 
+     * the client accepts, compression is then requested per session at logon. 
+     */
+    public boolean isCompression() {
+		return compression;
+	}
+    
+    public void setCompression(boolean compression) {
+		this.compression = compression;
+	}
+    
     @Override
     public void readExternal(ObjectInput in) throws IOException,
     		ClassNotFoundException {
@@ -85,6 +111,8 @@ public class Handshake implements Externalizable {
     	publicKey = (byte[])in.readObject();
     	try {
     		authType = AuthenticationType.values()[in.readByte()];
+    		rawBatches = in.readBoolean();
+    		compression = in.readBoolean();
     	} catch (EOFException e) {
     		
     	}
@@ -95,6 +123,8 @@ public class Handshake implements Externalizable {
     	out.writeObject(version);
     	out.writeObject(publicKey);
     	out.writeByte(authType.ordinal());
+    	out.writeBoolean(rawBatches);
+    	out.writeBoolean(compression);
     }
     
 }
@@ -0,0 +1,608 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.net.socket;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.teiid.client.util.ResultsFuture;
+import org.teiid.client.util.ResultsReceiver;
+import org.teiid.core.util.AccessibleBufferedInputStream;
+import org.teiid.core.util.NamedThreadFactory;
+import org.teiid.core.util.PropertiesUtils;
+import org.teiid.net.CommunicationException;
+import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
+import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+
+/**
+ * An {@link ObjectChannelFactory} using non-blocking sockets.
+ * <br/>
+ * All channels share a single selector thread that reads whatever is available from
+ * the sockets.  Messages are decoded by a shared pool whose threads are only
+ * in use while a message is partially received, so idle connections do not hold
+ * any threads.  Received messages are delivered asynchronously to the {@link ResultsReceiver}
+ * of the channel, which allows {@link ResultsFuture} callbacks to complete without
+ * a caller blocking on a read.
+ * <br/>
+ * SSL connections are not supported and are created by the {@link OioOjbectChannelFactory}.
+ */
+public final class NioObjectChannelFactory implements ObjectChannelFactory {
+
+	private final static int STREAM_BUFFER_SIZE = 1<<15;
+	private final static int DEFAULT_MAX_OBJECT_SIZE = 1 << 25;
+	private final static int MAX_PENDING_BYTES = STREAM_BUFFER_SIZE << 4;
+
+	private static Logger log = Logger.getLogger("org.teiid.client.sockets"); //$NON-NLS-1$
+
+	private static Selector selector;
+	private static ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<Runnable>();
+	private static ExecutorService decoders;
+
+	/**
+	 * Holds the bytes read by the selector until they are consumed by the decoder.
+	 * Once {@link NioObjectChannelFactory#MAX_PENDING_BYTES} are held reading should be 
+	 * suspended, and {@link #resume()} is called after the decoder has consumed half of them.
+	 */
+	private static class ReceiveStream extends InputStream {
+		private LinkedList<byte[]> chunks = new LinkedList<byte[]>();
+		private int offset;
+		private int available;
+		private boolean closed;
+		private boolean suspended;
+
+		/**
+		 * @return true if reading from the socket should be suspended
+		 */
+		synchronized boolean add(byte[] chunk) {
+			chunks.add(chunk);
+			available += chunk.length;
+			notifyAll();
+			if (!suspended && available >= MAX_PENDING_BYTES) {
+				suspended = true;
+				return true;
+			}
+			return false;
+		}
+		
+		protected void resume() {
+			
+		}
+
+		@Override
+		public synchronized void close() {
+			closed = true;
+			notifyAll();
+		}
+
+		@Override
+		public synchronized int available() {
+			return available;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			if (read(b, 0, 1) < 0) {
+				return -1;
+			}
+			return b[0] & 0xff;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (available == 0) {
+				if (closed) {
+					return -1;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+			}
+			int read = 0;
+			while (read < len && available > 0) {
+				byte[] chunk = chunks.getFirst();
+				int toCopy = Math.min(len - read, chunk.length - offset);
+				System.arraycopy(chunk, offset, b, off + read, toCopy);
+				read += toCopy;
+				offset += toCopy;
+				available -= toCopy;
+				if (offset == chunk.length) {
+					chunks.removeFirst();
+					offset = 0;
+				}
+			}
+			if (suspended && available <= MAX_PENDING_BYTES/2) {
+				suspended = false;
+				resume();
+			}
+			return read;
+		}
+	}
+
+	/**
+	 * Writes to the non-blocking socket, waiting on the selector if the socket
+	 * cannot accept more bytes.  As with a blocking socket write, there is no 
+	 * timeout - the soTimeout only applies to reads.
+	 */
+	private class ChannelOutputStream extends OutputStream {
+		private NioObjectChannel channel;
+
+		public ChannelOutputStream(NioObjectChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte)b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+			while (buffer.hasRemaining()) {
+				if (channel.socketChannel.write(buffer) == 0) {
+					channel.awaitWritable();
+				}
+			}
+		}
+	}
+
+	final class NioObjectChannel implements ObjectChannel.AsynchReadChannel {
+		private final SocketChannel socketChannel;
+		private SelectionKey key;
+		private ObjectOutputStream outputStream;
+		private final ReceiveStream receiveStream = new ReceiveStream() {
+			@Override
+			protected void resume() {
+				resumeReading();
+			}
+		};
+		private final AccessibleBufferedInputStream bufferedInput;
+		private final ObjectDecoderInputStream inputStream;
+		private boolean decoding;
+		private boolean readFailed;
+		private boolean writable;
+		private volatile boolean closed;
+		private LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+		private ResultsReceiver<Object> receiver;
+
+		private Runnable decodeTask = new Runnable() {
+			@Override
+			public void run() {
+				decode();
+			}
+		};
+
+		private NioObjectChannel(SocketChannel socketChannel, int maxObjectSize) throws IOException {
+			log.fine("creating new NioObjectChannel"); //$NON-NLS-1$
+			this.socketChannel = socketChannel;
+            outputStream = new ObjectEncoderOutputStream(new DataOutputStream(new ChannelOutputStream(this)), STREAM_BUFFER_SIZE);
+            final ClassLoader cl = this.getClass().getClassLoader();
+            bufferedInput = new AccessibleBufferedInputStream(receiveStream, STREAM_BUFFER_SIZE);
+            inputStream = new ObjectDecoderInputStream(bufferedInput, cl, maxObjectSize);
+		}
+
+		/**
+		 * Called by the selector thread with newly read bytes, or null if the socket has been closed
+		 */
+		void received(byte[] bytes) {
+			boolean suspend = false;
+			synchronized (receiveStream) {
+				if (bytes == null) {
+					receiveStream.close();
+				} else {
+					suspend = receiveStream.add(bytes);
+				}
+				if (!decoding && !readFailed) {
+					decoding = true;
+					decoders.execute(decodeTask);
+				}
+			}
+			if (suspend) {
+				//the decoder is behind, stop reading until it catches up
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+			}
+		}
+		
+		private void resumeReading() {
+			addSelectorTask(new Runnable() {
+				@Override
+				public void run() {
+					if (key != null && key.isValid()) {
+						key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Decode and deliver a single message.  If more input is pending, decoding 
+		 * continues in another task only after the delivery, so that messages are
+		 * delivered in the order they were received.
+		 */
+		private void decode() {
+			Object result = null;
+			try {
+				result = inputStream.readObject();
+			} catch (Throwable e) {
+				synchronized (receiveStream) {
+					readFailed = true;
+					decoding = false;
+				}
+				close();
+				deliver(e, true);
+				return;
+			}
+			try {
+				deliver(result, false);
+			} finally {
+				synchronized (receiveStream) {
+					if (hasInput()) {
+						decoders.execute(decodeTask);
+					} else {
+						decoding = false;
+					}
+				}
+			}
+		}
+
+		private boolean hasInput() {
+			try {
+				return bufferedInput.available() > 0;
+			} catch (IOException e) {
+				return false;
+			}
+		}
+
+		private void deliver(Object result, boolean failed) {
+			ResultsReceiver<Object> r = null;
+			synchronized (this) {
+				r = this.receiver;
+				if (r == null) {
+					received.add(failed?new ReadFailure((Throwable)result):result);
+					return;
+				}
+			}
+			if (failed) {
+				r.exceptionOccurred((Throwable)result);
+			} else {
+				r.receiveResults(result);
+			}
+		}
+
+		@Override
+		public void setReceiver(ResultsReceiver<Object> receiver) {
+			List<Object> pending = new ArrayList<Object>();
+			synchronized (this) {
+				received.drainTo(pending);
+				this.receiver = receiver;
+			}
+			for (Object object : pending) {
+				if (object instanceof ReadFailure) {
+					receiver.exceptionOccurred(((ReadFailure)object).exception);
+				} else {
+					receiver.receiveResults(object);
+				}
+			}
+		}
+
+		void awaitWritable() throws IOException {
+			synchronized (this) {
+				writable = false;
+			}
+			addSelectorTask(new Runnable() {
+				@Override
+				public void run() {
+					if (key != null && key.isValid()) {
+						key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+					}
+				}
+			});
+			synchronized (this) {
+				while (!writable) {
+					if (closed) {
+						throw new ClosedChannelException();
+					}
+					try {
+						this.wait();
+					} catch (InterruptedException e) {
+						throw new InterruptedIOException();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Called by the selector thread
+		 */
+		void writable() {
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+			synchronized (this) {
+				writable = true;
+				this.notifyAll();
+			}
+		}
+
+		@Override
+		public void close() {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				this.notifyAll();
+			}
+			log.finer("closing socket"); //$NON-NLS-1$
+			if (key != null) {
+				key.cancel();
+			}
+			try {
+				socketChannel.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			received(null);
+			selector.wakeup();
+		}
+
+		@Override
+		public SocketAddress getRemoteAddress() {
+			return socketChannel.socket().getRemoteSocketAddress();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return !closed;
+		}
+
+		@Override
+		public Object read() throws IOException, ClassNotFoundException {
+			log.finer("reading message from socket"); //$NON-NLS-1$
+			Object result = null;
+			try {
+				result = received.poll(soTimeout, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+			if (result == null) {
+				if (closed) {
+					throw new EOFException();
+				}
+				throw new SocketTimeoutException();
+			}
+			if (result instanceof ReadFailure) {
+				Throwable t = ((ReadFailure)result).exception;
+				if (t instanceof IOException) {
+					throw (IOException)t;
+				}
+				if (t instanceof ClassNotFoundException) {
+					throw (ClassNotFoundException)t;
+				}
+				throw new IOException(t);
+			}
+			return result;
+		}
+
+		@Override
+		public synchronized Future<?> write(Object msg) {
+			log.finer("writing message to socket"); //$NON-NLS-1$
+		    ResultsFuture<Void> result = new ResultsFuture<Void>();
+		    try {
+		        outputStream.writeObject(msg);
+		        outputStream.flush();
+		        outputStream.reset();
+		    	result.getResultsReceiver().receiveResults(null);
+		    } catch (IOException e) {
+		        close();
+		    	result.getResultsReceiver().exceptionOccurred(e);
+		    }
+		    return result;
+		}
+	}
+
+	private static class ReadFailure {
+		Throwable exception;
+
+		public ReadFailure(Throwable exception) {
+			this.exception = exception;
+		}
+	}
+
+	private int receiveBufferSize = 0;
+	private int sendBufferSize = 0;
+	private boolean conserveBandwidth;
+	private int soTimeout = 3000;
+	private int maxObjectSize = DEFAULT_MAX_OBJECT_SIZE;
+	private OioOjbectChannelFactory sslChannelFactory;
+
+	public NioObjectChannelFactory(Properties props) {
+		this.sslChannelFactory = new OioOjbectChannelFactory(props);
+		PropertiesUtils.setBeanProperties(this, props, "org.teiid.sockets"); //$NON-NLS-1$
+	}
+
+	private static synchronized void start() throws IOException {
+		if (selector != null) {
+			return;
+		}
+		ThreadPoolExecutor tpe = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), new NamedThreadFactory("NioObjectChannelDecoder")); //$NON-NLS-1$
+		decoders = tpe;
+		selector = Selector.open();
+		Thread selectorThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				select();
+			}
+		}, "NioObjectChannelSelector"); //$NON-NLS-1$
+		selectorThread.setDaemon(true);
+		selectorThread.start();
+	}
+
+	private static void addSelectorTask(Runnable task) {
+		selectorTasks.add(task);
+		selector.wakeup();
+	}
+
+	private static void select() {
+		ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+		while (true) {
+			try {
+				selector.select();
+				Runnable task = null;
+				while ((task = selectorTasks.poll()) != null) {
+					task.run();
+				}
+				for (Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext();) {
+					SelectionKey key = iter.next();
+					iter.remove();
+					NioObjectChannel channel = (NioObjectChannel)key.attachment();
+					try {
+						if (key.isValid() && key.isWritable()) {
+							channel.writable();
+						}
+						if (key.isValid() && key.isReadable()) {
+							buffer.clear();
+							int read = channel.socketChannel.read(buffer);
+							if (read < 0) {
+								channel.close();
+							} else if (read > 0) {
+								byte[] bytes = new byte[read];
+								buffer.flip();
+								buffer.get(bytes);
+								channel.received(bytes);
+							}
+						}
+					} catch (IOException e) {
+						log.log(Level.FINE, "Unable to read: socket was already closed.", e); //$NON-NLS-1$
+						channel.close();
+					}
+				}
+			} catch (Throwable e) {
+				log.log(Level.WARNING, "Unexpected exception in the socket selector", e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	@Override
+	public ObjectChannel createObjectChannel(SocketAddress address, boolean ssl) throws IOException,
+			CommunicationException {
+		if (ssl) {
+			return this.sslChannelFactory.createObjectChannel(address, ssl);
+		}
+		start();
+		final SocketChannel socketChannel = SocketChannel.open();
+		if (receiveBufferSize > 0) {
+			socketChannel.socket().setReceiveBufferSize(receiveBufferSize);
+		}
+		if (sendBufferSize > 0) {
+			socketChannel.socket().setSendBufferSize(sendBufferSize);
+		}
+		socketChannel.socket().setTcpNoDelay(!conserveBandwidth); // enable Nagle's algorithm to conserve bandwidth
+		try {
+			socketChannel.socket().connect(address);
+			socketChannel.configureBlocking(false);
+		} catch (IOException e) {
+			socketChannel.close();
+			throw e;
+		}
+		final NioObjectChannel channel = new NioObjectChannel(socketChannel, maxObjectSize);
+		addSelectorTask(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					channel.key = socketChannel.register(selector, SelectionKey.OP_READ, channel);
+				} catch (ClosedChannelException e) {
+					channel.close();
+				}
+			}
+		});
+		return channel;
+	}
+
+	public int getSendBufferSize() {
+		return sendBufferSize;
+	}
+
+	public void setSendBufferSize(int sendBufferSize) {
+		this.sendBufferSize = sendBufferSize;
+	}
+
+	public int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
+	public void setReceiveBufferSize(int receiveBufferSize) {
+		this.receiveBufferSize = receiveBufferSize;
+	}
+
+	public boolean isConserveBandwidth() {
+		return conserveBandwidth;
+	}
+
+	public void setConserveBandwidth(boolean conserveBandwidth) {
+		this.conserveBandwidth = conserveBandwidth;
+	}
+
+	public void setSoTimeout(int soTimeout) {
+		this.soTimeout = soTimeout;
+	}
+
+	public void setMaxObjectSize(int maxObjectSize) {
+		this.maxObjectSize = maxObjectSize;
+	}
+
+	public int getSoTimeout() {
+		return soTimeout;
+	}
+}
@@ -26,8 +26,24 @@ import java.io.IOException;
 import java.net.SocketAddress;
 import java.util.concurrent.Future;
 
+import org.teiid.client.util.ResultsReceiver;
+
 public interface ObjectChannel {
 	
+	/**
+	 * Implemented by channels that can deliver the objects they read to a receiver 
+	 * rather than requiring a thread to call {@link ObjectChannel#read()}
+	 */
+	interface AsynchReadChannel extends ObjectChannel {
+		
+		/**
+		 * Deliver all subsequent objects and read failures to the receiver.
+		 * Delivery is on a thread that is not responsible for further reads. 
+		 */
+		void setReceiver(ResultsReceiver<Object> receiver);
+		
+	}
+	
 	Object read() throws IOException, ClassNotFoundException;
 	
 	SocketAddress getRemoteAddress();
@@ -152,6 +152,7 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
 	//config properties
 	private long synchronousTtl = 240000l;
 	private int maxCachedInstances=16;
+	private boolean nonBlocking;
 
 	public static synchronized SocketServerConnectionFactory getInstance() {
 		if (INSTANCE == null) {
@@ -227,7 +228,11 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
 				}
 			}
 		}, ServerConnection.PING_INTERVAL, ServerConnection.PING_INTERVAL);
-		this.channelFactory = new OioOjbectChannelFactory(info);
+		if (nonBlocking) {
+			this.channelFactory = new NioObjectChannelFactory(info);
+		} else {
+			this.channelFactory = new OioOjbectChannelFactory(info);
+		}
 	}
 	
 	@Override
@@ -349,6 +354,19 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
 		this.maxCachedInstances = maxCachedInstances;
 	}
 	
+	public boolean isNonBlocking() {
+		return nonBlocking;
+	}
+	
+	/**
+	 * Set to true to use non-blocking sockets that share a single selector thread
+	 * and deliver results asynchronously.  Set via org.teiid.sockets.nonBlocking
+	 * @param nonBlocking
+	 */
+	public void setNonBlocking(boolean nonBlocking) {
+		this.nonBlocking = nonBlocking;
+	}
+	
 	@Override
 	public void connected(SocketServerInstance instance, SessionToken session) {
 		synchronized (sessions) {
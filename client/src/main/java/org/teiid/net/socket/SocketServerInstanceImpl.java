@@ -53,6 +53,7 @@ import org.teiid.core.crypto.CryptoException;
 import org.teiid.core.crypto.Cryptor;
 import org.teiid.core.crypto.DhKeyGenerator;
 import org.teiid.core.crypto.NullCryptor;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.jdbc.JDBCPlugin;
 import org.teiid.net.CommunicationException;
 import org.teiid.net.HostInfo;
@@ -66,6 +67,7 @@ import org.teiid.net.HostInfo;
 public class SocketServerInstanceImpl implements SocketServerInstance {
 	
 	static final int HANDSHAKE_RETRIES = 10;
+	static final boolean RAW_BATCHES = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.rawBatches", true); //$NON-NLS-1$
     private static Logger log = Logger.getLogger("org.teiid.client.sockets"); //$NON-NLS-1$
 
 	private static AtomicInteger MESSAGE_ID = new AtomicInteger();
@@ -81,6 +83,7 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
     private HashMap<Class<?>, Object> serviceMap = new HashMap<Class<?>, Object>();
     
     private boolean hasReader;
+    private volatile boolean asynchReads;
     
     public SocketServerInstanceImpl(HostInfo info, long synchTimeout) {
     	if (!info.isResolved()) {
@@ -94,6 +97,21 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
         this.socketChannel = channelFactory.createObjectChannel(new InetSocketAddress(info.getInetAddress(), info.getPortNumber()), info.isSsl());
         try {
         	doHandshake();
+        	if (this.socketChannel instanceof ObjectChannel.AsynchReadChannel) {
+        		//messages will be delivered as they are read, so callers need not perform reads
+        		this.asynchReads = true;
+        		((ObjectChannel.AsynchReadChannel)this.socketChannel).setReceiver(new ResultsReceiver<Object>() {
+        			@Override
+        			public void receiveResults(Object results) {
+        				receivedMessage(results);
+        			}
+        			
+        			@Override
+        			public void exceptionOccurred(Throwable e) {
+        				SocketServerInstanceImpl.this.exceptionOccurred(e);
+        			}
+        		});
+        	}
         } catch (CommunicationException e) {
         	this.socketChannel.close();
         	throw e;
@@ -135,6 +153,7 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
             serverVersion = handshake.getVersion();
             authType = handshake.getAuthType();
             handshake.setVersion();
+            handshake.setRawBatches(handshake.isRawBatches() && RAW_BATCHES);
             
             byte[] serverPublicKey = handshake.getPublicKey();
             
@@ -239,6 +258,10 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
     }
     
     public void read(long timeout, TimeUnit unit, ResultsFuture<?> future) throws TimeoutException, InterruptedException {
+    	if (asynchReads) {
+    		//the future will be completed by the channel
+    		return;
+    	}
     	long timeoutMillis = (int)Math.min(unit.toMillis(timeout), Integer.MAX_VALUE);
 		long start = System.currentTimeMillis();
 		while (!future.isDone()) {
@@ -28,6 +28,11 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
 import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.teiid.client.ResultsMessage;
 
 /**
  * @author The Netty Project (netty-dev@lists.jboss.org)
@@ -39,6 +44,7 @@ import java.io.StreamCorruptedException;
 public class CompactObjectInputStream extends ObjectInputStream {
 
     private final ClassLoader classLoader;
+    private List<ResultsMessage> rawBatches;
 
     CompactObjectInputStream(InputStream in) throws IOException {
         this(in, null);
@@ -48,6 +54,23 @@ public class CompactObjectInputStream extends ObjectInputStream {
         super(in);
         this.classLoader = classLoader;
     }
+    
+    /**
+     * Register a message whose batch follows the serialized form as raw data
+     */
+    public void addRawBatch(ResultsMessage message) {
+    	if (rawBatches == null) {
+    		rawBatches = new ArrayList<ResultsMessage>(2);
+    	}
+    	rawBatches.add(message);
+    }
+    
+    public List<ResultsMessage> getRawBatches() {
+    	if (rawBatches == null) {
+    		return Collections.emptyList();
+    	}
+		return rawBatches;
+	}
 
     @Override
     protected void readStreamHeader() throws IOException,
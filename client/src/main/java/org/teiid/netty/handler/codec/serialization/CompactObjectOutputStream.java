@@ -28,6 +28,7 @@ import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.SQLException;
 import java.sql.SQLXML;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -81,6 +82,7 @@ public class CompactObjectOutputStream extends ObjectOutputStream {
     
     private List<InputStream> streams = new LinkedList<InputStream>();
     private List<StreamFactoryReference> references = new LinkedList<StreamFactoryReference>();
+    private List<ResultsMessage> rawBatches;
     
     public static void addKnownClass(Class<?> clazz, byte code) {
     	KNOWN_CLASSES.put(clazz, Integer.valueOf(code));
@@ -143,8 +145,40 @@ public class CompactObjectOutputStream extends ObjectOutputStream {
     	super.reset();
     	streams.clear();
     	references.clear();
+    	if (rawBatches != null) {
+    		rawBatches.clear();
+    	}
+    }
+    
+    /**
+     * Allow {@link ResultsMessage} batches to be written after the serialized form
+     * by the caller.  See {@link #getRawBatches()}
+     */
+    public void enableRawBatches() {
+    	if (rawBatches == null) {
+    		rawBatches = new LinkedList<ResultsMessage>();
+    	}
+    }
+    
+    /**
+     * Register a message whose batch the caller will write as raw data
+     * @return false if raw batches are not enabled
+     */
+    public boolean addRawBatch(ResultsMessage message) {
+    	if (rawBatches == null) {
+    		return false;
+    	}
+    	rawBatches.add(message);
+    	return true;
     }
     
+    public List<ResultsMessage> getRawBatches() {
+    	if (rawBatches == null) {
+    		return Collections.emptyList();
+    	}
+		return rawBatches;
+	}
+    
     public List<StreamFactoryReference> getReferences() {
 		return references;
 	}
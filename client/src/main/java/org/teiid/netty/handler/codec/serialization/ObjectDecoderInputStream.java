@@ -24,7 +24,10 @@ package org.teiid.netty.handler.codec.serialization;
 
 import java.io.*;
 import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
+import org.teiid.client.ResultsMessage;
 import org.teiid.core.types.InputStreamFactory;
 import org.teiid.core.types.InputStreamFactory.StreamFactoryReference;
 import org.teiid.core.util.AccessibleBufferedInputStream;
@@ -51,6 +54,7 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
 
     private int remaining;
     private boolean foundLength;
+    private boolean compressed;
     
     private InputStream subStream = new InputStream() {
     	
@@ -96,6 +100,11 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
 	        	clearRemaining();
 	        	remaining = dis.readInt();
 	        	foundLength = true;
+	        	//a negative length indicates a compressed frame
+	        	compressed = remaining < 0 && remaining != Integer.MIN_VALUE;
+	        	if (compressed) {
+	        		remaining = -remaining;
+	        	}
 	        	if (remaining <= 0) {
 	    		    throw new StreamCorruptedException("invalid data length: " + remaining); //$NON-NLS-1$
 	    		}
@@ -104,9 +113,22 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
 	    		}
 	        }
 	        foundLength = false;
-	        CompactObjectInputStream cois = new CompactObjectInputStream(subStream, classLoader);
+	        InputStream frame = subStream;
+	        if (compressed) {
+	        	frame = inflateFrame();
+	        }
+	        CompactObjectInputStream cois = new CompactObjectInputStream(frame, classLoader);
 	        result = cois.readObject();
 	        streams = ExternalizeUtil.readList(cois, StreamFactoryReference.class);
+	        List<ResultsMessage> rawBatches = cois.getRawBatches();
+	        if (!rawBatches.isEmpty()) {
+	        	DataInputStream rawIn = new DataInputStream(frame);
+	        	for (ResultsMessage rm : rawBatches) {
+	        		byte[] bytes = new byte[rawIn.readInt()];
+	        		rawIn.readFully(bytes);
+	        		rm.setRawBatch(bytes);
+	        	}
+	        }
 	        streamIndex = 0;
     	}
     	while (streamIndex < streams.size()) {
@@ -161,6 +183,24 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
         return toReturn;
     }
     
+    private InputStream inflateFrame() throws IOException {
+    	int length = new DataInputStream(subStream).readInt();
+    	if (length <= 0) {
+		    throw new StreamCorruptedException("invalid data length: " + length); //$NON-NLS-1$
+		}
+		if (length > maxObjectSize) {
+		    throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, length, maxObjectSize));
+		}
+    	byte[] bytes = new byte[length];
+    	Inflater inflater = new Inflater();
+    	try {
+    		new DataInputStream(new InflaterInputStream(subStream, inflater)).readFully(bytes);
+    	} finally {
+    		inflater.end();
+    	}
+    	return new ByteArrayInputStream(bytes);
+    }
+    
     void clearRemaining() throws IOException {
     	while (remaining > 0) {
     		remaining -= in.skip(remaining);
@@ -31,6 +31,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -129,6 +130,26 @@ public class TestBatchSerializer {
         helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(4096), BatchSerializer.CURRENT_VERSION); // A bunch of rows. This should also test large strings
     }
     
+    @Test public void testSerializeColumnar() throws Exception {
+    	Class<?>[] classes = new Class<?>[sampleBatchTypes.length];
+    	for (int i = 0; i < classes.length; i++) {
+			classes[i] = DataTypeManager.getDataTypeClass(sampleBatchTypes[i]);
+		}
+    	List<?>[] batch = sampleBatchWithNulls(833);
+    	ColumnarBatch columnar = ColumnarBatch.create(classes, Arrays.asList(batch));
+    	assertEquals(Arrays.asList(batch), columnar);
+    	
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(byteStream);
+        BatchSerializer.writeBatch(out, sampleBatchTypes, columnar, BatchSerializer.CURRENT_VERSION);
+        out.close();
+        
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(byteStream.toByteArray()));
+        List<List<Object>> newBatch = BatchSerializer.readBatch(in, sampleBatchTypes);
+        in.close();
+        assertEquals(Arrays.asList(batch), newBatch);
+    }
+    
     @Test public void testSerializeLargeStrings() throws Exception {
         List<?> row = Arrays.asList(new Object[] {sampleString(66666)});
         helpTestSerialization(new String[] {DataTypeManager.DefaultDataTypes.STRING}, new List[] {row}, BatchSerializer.CURRENT_VERSION);
@@ -150,4 +171,37 @@ public class TestBatchSerializer {
         helpTestSerialization(new String[] {DataTypeManager.DefaultDataTypes.DATE}, new List[] {Arrays.asList(TimestampUtil.createDate(-2, 0, 1))}, (byte)1);
     }
 
+    @Test public void testRawBatch() throws Exception {
+    	assertFalse(BatchSerializer.supportsRawBatch(sampleBatchTypes, BatchSerializer.CURRENT_VERSION));
+    	List<String> types = new ArrayList<String>(Arrays.asList(sampleBatchTypes));
+    	types.remove(DataTypeManager.DefaultDataTypes.OBJECT);
+    	String[] rawTypes = types.toArray(new String[types.size()]);
+    	assertTrue(BatchSerializer.supportsRawBatch(rawTypes, BatchSerializer.CURRENT_VERSION));
+    	assertFalse(BatchSerializer.supportsRawBatch(rawTypes, (byte)0));
+    	
+    	List<List<Object>> batch = new ArrayList<List<Object>>();
+    	for (List<?> row : sampleBatchWithNulls(833)) {
+    		List<Object> rawRow = new ArrayList<Object>(row);
+    		rawRow.remove(14);
+    		batch.add(rawRow);
+    	}
+    	batch.get(1).set(11, sampleString(66666));
+    	
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        BatchSerializer.writeRawBatch(byteStream, rawTypes, batch, BatchSerializer.CURRENT_VERSION);
+        byte[] bytes = byteStream.toByteArray();
+        assertEquals(833, BatchSerializer.getRawBatchSize(bytes));
+        assertEquals(batch, BatchSerializer.readRawBatch(bytes, rawTypes));
+        
+        //a truncated batch should fail when set rather than when the rows are accessed
+        ResultsMessage rm = new ResultsMessage();
+        rm.setDataTypes(rawTypes);
+        try {
+        	rm.setRawBatch(Arrays.copyOf(bytes, bytes.length/2));
+        	fail();
+        } catch (IOException e) {
+        	
+        }
+    }
+
 }
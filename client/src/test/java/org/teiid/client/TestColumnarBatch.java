@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.client;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.teiid.core.types.DataTypeManager;
+
+@SuppressWarnings({"nls", "unchecked"})
+public class TestColumnarBatch {
+
+	private static ColumnarBatch createBatch() {
+		Class<?>[] types = new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER, DataTypeManager.DefaultDataClasses.STRING};
+		List<?>[] rows = new List<?>[] {
+				Arrays.asList(1, "a"),
+				Arrays.asList(null, "b"),
+				Arrays.asList(3, null),
+		};
+		return ColumnarBatch.create(types, Arrays.asList(rows));
+	}
+
+	@Test public void testSetColumnCopyOnWrite() {
+		ColumnarBatch batch = createBatch();
+		ColumnarBatch other = new ColumnarBatch(batch.getTypes(), batch.size());
+		other.setColumn(0, batch, 0);
+		other.setColumn(1, batch, 1);
+
+		other.setValue(0, 0, 5);
+		((List)other.get(1)).set(1, "c");
+
+		assertEquals(Arrays.asList(1, "a"), batch.get(0));
+		assertEquals(Arrays.asList(null, "b"), batch.get(1));
+		assertEquals(Arrays.asList(5, "a"), other.get(0));
+		assertEquals(Arrays.asList(null, "c"), other.get(1));
+		assertEquals(Arrays.asList(3, null), other.get(2));
+
+		//the original is still protected after the other batch has made its copy
+		batch.setValue(2, 0, null);
+		assertNull(batch.getValue(2, 0));
+		assertEquals(3, other.getValue(2, 0));
+	}
+
+	@Test public void testProjectCopyOnWrite() {
+		ColumnarBatch batch = createBatch();
+		ColumnarBatch projected = batch.project(new int[] {1, 0});
+
+		batch.setValue(0, 1, "x");
+		projected.setValue(2, 1, null);
+
+		assertEquals(Arrays.asList("a", 1), projected.get(0));
+		assertEquals(Arrays.asList(null, null), projected.get(2));
+		assertEquals(Arrays.asList(1, "x"), batch.get(0));
+		assertEquals(Arrays.asList(3, null), batch.get(2));
+	}
+
+	@Test public void testRowViewReuse() {
+		ColumnarBatch batch = createBatch();
+		assertSame(batch.get(1), batch.get(1));
+		((List)batch.get(1)).set(0, 2);
+		assertEquals(2, batch.getInt(1, 0));
+		assertFalse(batch.isNull(1, 0));
+	}
+
+}
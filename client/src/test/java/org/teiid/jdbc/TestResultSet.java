@@ -35,9 +35,16 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
+import org.mockito.Matchers;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.teiid.client.DQP;
 import org.teiid.client.ResultsMessage;
 import org.teiid.client.lob.LobChunk;
@@ -728,8 +735,121 @@ public class TestResultSet {
         assertEquals("<a/>", cs.getString(1));
     }
          
+    @Test public void testPrefetchDepth() throws Exception {
+    	ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    	try {
+    		//a slow server and a fast reader should use the full depth
+    		ResultSetImpl rs = helpTestPrefetch(createPrefetchStatement(10, 4), 10, 200, 20, executor, new AtomicInteger());
+    		assertEquals(4, helpReadPrefetched(rs, 200, 0));
+    		
+    		//a fast server and a slow reader only need the next batch
+    		rs = helpTestPrefetch(createPrefetchStatement(10, 4), 10, 200, 0, executor, new AtomicInteger());
+    		assertEquals(1, helpReadPrefetched(rs, 200, 1));
+    	} finally {
+    		executor.shutdownNow();
+    	}
+    }
+    
+    @Test public void testPrefetchValueBound() throws Exception {
+    	ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    	try {
+    		//with a large fetch size only two batches of a single column may be held
+    		ResultSetImpl rs = helpTestPrefetch(createPrefetchStatement(1 << 19, 4), 10, 200, 20, executor, new AtomicInteger());
+    		assertEquals(2, helpReadPrefetched(rs, 200, 0));
+    	} finally {
+    		executor.shutdownNow();
+    	}
+    }
+    
+    @Test public void testCloseWithPrefetchInFlight() throws Exception {
+    	ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    	StatementImpl statement = createPrefetchStatement(10, 4);
+    	AtomicInteger requests = new AtomicInteger();
+    	ResultSetImpl rs = helpTestPrefetch(statement, 10, 1000, 50, executor, requests);
+    	for (int i = 1; i <= 30; i++) {
+    		assertTrue(rs.next());
+    		assertEquals(i, rs.getInt(1));
+    	}
+    	assertTrue(rs.getPrefetchDepth() > 0);
+    	rs.close();
+    	verify(statement.getDQP()).closeRequest(0);
+    	assertEquals(0, rs.getPrefetchDepth());
+    	int issued = requests.get();
+    	//let the outstanding requests complete, they are simply dropped
+    	executor.shutdown();
+    	assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    	assertEquals(issued, requests.get());
+    	try {
+    		rs.next();
+    		fail("expected the result set to be closed");
+    	} catch (SQLException e) {
+    		
+    	}
+    }
+    
     /////////////////////// Helper Method ///////////////////
 
+    private StatementImpl createPrefetchStatement(int fetchSize, int prefetchBatches) throws SQLException {
+    	StatementImpl statement = createMockStatement(ResultSet.TYPE_FORWARD_ONLY);
+    	stub(statement.getFetchSize()).toReturn(fetchSize);
+    	stub(statement.getExecutionProperty(ExecutionProperties.PROP_PREFETCH_BATCHES)).toReturn(String.valueOf(prefetchBatches));
+    	return statement;
+    }
+    
+    /**
+     * Answer cursor requests with consecutive batches, which are completed after the given latency
+     */
+    private ResultSetImpl helpTestPrefetch(StatementImpl statement, final int batchLength, final int totalLength, 
+    		final long latency, final ScheduledExecutorService executor, final AtomicInteger requests) throws Exception {
+    	final AtomicInteger nextRow = new AtomicInteger(batchLength + 1);
+    	Answer<ResultsFuture<ResultsMessage>> answer = new Answer<ResultsFuture<ResultsMessage>>() {
+    		@Override
+    		public ResultsFuture<ResultsMessage> answer(InvocationOnMock invocation) throws Throwable {
+    			requests.incrementAndGet();
+    			final ResultsFuture<ResultsMessage> result = new ResultsFuture<ResultsMessage>();
+    			int begin = nextRow.get();
+    			int length = Math.max(0, Math.min(batchLength, totalLength - begin + 1));
+    			nextRow.addAndGet(length);
+    			final ResultsMessage msg = TestAllResultsImpl.exampleResultsMsg4(begin, length, begin + length - 1 >= totalLength);
+    			if (latency == 0) {
+    				result.getResultsReceiver().receiveResults(msg);
+    			} else {
+    				executor.schedule(new Runnable() {
+    					@Override
+    					public void run() {
+    						result.getResultsReceiver().receiveResults(msg);
+    					}
+    				}, latency, TimeUnit.MILLISECONDS);
+    			}
+    			return result;
+    		}
+    	};
+    	DQP dqp = statement.getDQP();
+    	stub(dqp.processCursorRequest(Matchers.eq(0l), Matchers.anyInt(), Matchers.anyInt())).toAnswer(answer);
+    	stub(dqp.processNextCursorRequest(Matchers.eq(0l), Matchers.anyInt())).toAnswer(answer);
+    	return new ResultSetImpl(TestAllResultsImpl.exampleResultsMsg4(1, batchLength, false), statement, null, 0);
+    }
+    
+    /**
+     * Read all rows checking their order
+     * @return the maximum prefetch depth
+     */
+    private int helpReadPrefetched(ResultSetImpl rs, int totalLength, long pause) throws Exception {
+    	int maxDepth = 0;
+    	for (int i = 1; i <= totalLength; i++) {
+    		assertTrue(rs.next());
+    		assertEquals(i, rs.getInt(1));
+    		maxDepth = Math.max(maxDepth, rs.getPrefetchDepth());
+    		if (pause > 0) {
+    			Thread.sleep(pause);
+    		}
+    	}
+    	assertFalse(rs.next());
+    	rs.close();
+    	return maxDepth;
+    }
+    
+
     private ResultSetImpl helpExecuteQuery() {
         try {
 			return helpExecuteQuery(BATCH_SIZE, 1000, ResultSet.TYPE_SCROLL_INSENSITIVE);
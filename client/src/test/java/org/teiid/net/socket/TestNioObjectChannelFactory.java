@@ -0,0 +1,203 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+
+package org.teiid.net.socket;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.teiid.client.security.ILogon;
+import org.teiid.client.util.ResultsFuture;
+import org.teiid.client.util.ResultsReceiver;
+import org.teiid.core.util.AccessibleBufferedInputStream;
+import org.teiid.net.HostInfo;
+import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
+import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+
+@SuppressWarnings("nls")
+public class TestNioObjectChannelFactory {
+	
+	private static final int FRAME_SIZE = 1 << 18;
+	
+	private ServerSocket serverSocket;
+	private NioObjectChannelFactory factory = new NioObjectChannelFactory(new Properties());
+	
+	@Before public void setUp() throws Exception {
+		serverSocket = new ServerSocket(0, 1, InetAddress.getByName("localhost"));
+	}
+	
+	@After public void tearDown() throws Exception {
+		serverSocket.close();
+	}
+	
+	private static ObjectOutputStream getOutputStream(Socket socket) throws Exception {
+		return new ObjectEncoderOutputStream(new DataOutputStream(socket.getOutputStream()), 1 << 15);
+	}
+	
+	private static ObjectInputStream getInputStream(Socket socket) throws Exception {
+		return new ObjectDecoderInputStream(new AccessibleBufferedInputStream(socket.getInputStream(), 1 << 15), TestNioObjectChannelFactory.class.getClassLoader(), 1 << 25);
+	}
+	
+	/**
+	 * Sends more than the pending limit, so that reading is suspended and resumed
+	 */
+	@Test public void testLargeMultiFrameResult() throws Exception {
+		ObjectChannel channel = factory.createObjectChannel(serverSocket.getLocalSocketAddress(), false);
+		final Socket socket = serverSocket.accept();
+		final LinkedBlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+		((ObjectChannel.AsynchReadChannel)channel).setReceiver(new ResultsReceiver<Object>() {
+			@Override
+			public void receiveResults(Object result) {
+				results.add(result);
+			}
+			
+			@Override
+			public void exceptionOccurred(Throwable e) {
+				results.add(e);
+			}
+		});
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					ObjectOutputStream out = getOutputStream(socket);
+					for (int i = 0; i < 20; i++) {
+						byte[] frame = new byte[FRAME_SIZE];
+						Arrays.fill(frame, (byte)i);
+						out.writeObject(frame);
+						out.flush();
+						out.reset();
+					}
+				} catch (Exception e) {
+					results.add(e);
+				}
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+		try {
+			for (int i = 0; i < 20; i++) {
+				Object result = results.poll(10, TimeUnit.SECONDS);
+				assertTrue(String.valueOf(result), result instanceof byte[]);
+				byte[] frame = (byte[])result;
+				assertEquals(FRAME_SIZE, frame.length);
+				assertEquals(i, frame[0]);
+				assertEquals(i, frame[FRAME_SIZE - 1]);
+			}
+		} finally {
+			channel.close();
+			socket.close();
+		}
+	}
+	
+	/**
+	 * The server does not read for longer than the soTimeout, which should not fail the write
+	 */
+	@Test public void testWriteToSlowReader() throws Exception {
+		factory.setSoTimeout(100);
+		final ObjectChannel channel = factory.createObjectChannel(serverSocket.getLocalSocketAddress(), false);
+		Socket socket = serverSocket.accept();
+		try {
+			final byte[] bytes = new byte[1 << 23];
+			Arrays.fill(bytes, (byte)1);
+			final ResultsFuture<Void> written = new ResultsFuture<Void>();
+			Thread writer = new Thread() {
+				@Override
+				public void run() {
+					try {
+						channel.write(bytes).get();
+						written.getResultsReceiver().receiveResults(null);
+					} catch (Exception e) {
+						written.getResultsReceiver().exceptionOccurred(e);
+					}
+				}
+			};
+			writer.setDaemon(true);
+			writer.start();
+			Thread.sleep(500);
+			assertFalse(written.isDone());
+			byte[] result = (byte[])getInputStream(socket).readObject();
+			assertEquals(bytes.length, result.length);
+			assertEquals(1, result[bytes.length - 1]);
+			written.get(10, TimeUnit.SECONDS);
+			assertTrue(channel.isOpen());
+		} finally {
+			channel.close();
+			socket.close();
+		}
+	}
+	
+	/**
+	 * The server closes the socket while a request is outstanding
+	 */
+	@Test public void testCloseFailsPendingFutures() throws Exception {
+		final LinkedBlockingQueue<Object> serverRead = new LinkedBlockingQueue<Object>();
+		Thread server = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Socket socket = serverSocket.accept();
+					ObjectOutputStream out = getOutputStream(socket);
+					out.writeObject(new Handshake());
+					out.flush();
+					ObjectInputStream in = getInputStream(socket);
+					serverRead.add(in.readObject());
+					serverRead.add(in.readObject());
+					socket.close();
+				} catch (Exception e) {
+					serverRead.add(e);
+				}
+			}
+		};
+		server.setDaemon(true);
+		server.start();
+		SocketServerInstanceImpl instance = new SocketServerInstanceImpl(new HostInfo("localhost", (InetSocketAddress)serverSocket.getLocalSocketAddress()), 10000);
+		instance.connect(factory);
+		ResultsFuture<?> future = instance.getService(ILogon.class).ping();
+		assertTrue(serverRead.poll(10, TimeUnit.SECONDS) instanceof Handshake);
+		assertTrue(serverRead.poll(10, TimeUnit.SECONDS) instanceof Message);
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("expected the close to fail the request");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof SingleInstanceCommunicationException);
+		}
+		assertFalse(instance.isOpen());
+	}
+	
+}
@@ -34,6 +34,7 @@ import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.junit.Test;
 import org.teiid.core.types.ClobImpl;
@@ -91,4 +92,33 @@ public class TestObjectDecoderInputStream {
 		Object result = in.readObject();
 		assertTrue(result instanceof ClobImpl);
 	}	
+	
+	@Test public void testCompressedFrame() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectEncoderOutputStream oeos = new ObjectEncoderOutputStream(new DataOutputStream(baos), 512);
+		List<String> obj = Arrays.asList("hello", "hello", "hello"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		oeos.writeObject(obj);
+		oeos.close();
+		byte[] bytes = baos.toByteArray();
+		
+		Deflater deflater = new Deflater();
+		deflater.setInput(bytes, 4, bytes.length - 4);
+		deflater.finish();
+		byte[] compressed = new byte[bytes.length * 2];
+		int length = deflater.deflate(compressed);
+		deflater.end();
+		
+		baos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(baos);
+		dos.writeInt(-(length + 4));
+		dos.writeInt(bytes.length - 4);
+		dos.write(compressed, 0, length);
+		//followed by an uncompressed frame
+		dos.write(bytes);
+		dos.close();
+		
+		ObjectDecoderInputStream odis = new ObjectDecoderInputStream(new AccessibleBufferedInputStream(new ByteArrayInputStream(baos.toByteArray()), 1024), Thread.currentThread().getContextClassLoader(), 1024);
+		assertEquals(obj, odis.readObject());
+		assertEquals(obj, odis.readObject());
+	}
 }
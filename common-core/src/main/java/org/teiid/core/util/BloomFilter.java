@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.core.util;
+
+import java.io.Serializable;
+
+/**
+ * A Bloom filter over the {@link Object#hashCode()} of values.
+ * <br/>
+ * The hash code is expanded to 64 bits with the murmur3 finalizer and the bit positions are
+ * chosen by double hashing with the high and low 32 bits, so that the filter may be
+ * evaluated by anything that can reproduce the Java hash code of the values.
+ * <br/>
+ * There are no false negatives.  False positives occur at approximately the
+ * probability the filter was sized for.
+ */
+public class BloomFilter implements Serializable {
+
+	private static final long serialVersionUID = -2453137326571476253L;
+	private static final double LN2 = Math.log(2);
+
+	private long[] bits;
+	private long bitCount;
+	private int hashCount;
+
+	/**
+	 * Create a filter sized for the given number of values
+	 * @param expectedValues
+	 * @param falsePositiveProbability between 0 and 1 exclusive
+	 */
+	public BloomFilter(long expectedValues, double falsePositiveProbability) {
+		long n = Math.max(1, expectedValues);
+		long m = (long)Math.ceil(-n * Math.log(falsePositiveProbability) / (LN2 * LN2));
+		m = Math.max(64, Math.min(m, Integer.MAX_VALUE));
+		this.bits = new long[(int)((m + 63) >>> 6)];
+		this.bitCount = ((long)this.bits.length) << 6;
+		this.hashCount = Math.max(1, (int)Math.round((double)m / n * LN2));
+	}
+
+	/**
+	 * Create a filter from the values returned by {@link #getBits()} and {@link #getHashCount()}
+	 */
+	public BloomFilter(long[] bits, int hashCount) {
+		this.bits = bits;
+		this.bitCount = ((long)bits.length) << 6;
+		this.hashCount = hashCount;
+	}
+
+	public void put(Object value) {
+		long hash = mix(value.hashCode());
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(h1 + i * h2);
+			bits[(int)(index >>> 6)] |= 1l << index;
+		}
+	}
+
+	/**
+	 * @return false if the value was definitely not added to the filter
+	 */
+	public boolean mightContain(Object value) {
+		long hash = mix(value.hashCode());
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(h1 + i * h2);
+			if ((bits[(int)(index >>> 6)] & (1l << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long index(int combined) {
+		if (combined < 0) {
+			combined = ~combined;
+		}
+		return combined % bitCount;
+	}
+
+	static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdl;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53l;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public long[] getBits() {
+		return bits;
+	}
+
+	public int getHashCount() {
+		return hashCount;
+	}
+
+	public long getBitCount() {
+		return bitCount;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.core.util;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache that is safe for concurrent use.
+ * <br/>
+ * Entries are spread by hash over independently locked {@link LRUCache} segments, so
+ * that lookups of different keys rarely contend.  Eviction is least recently used
+ * within each segment.
+ */
+public class ConcurrentLRUCache<K, V> implements Serializable {
+
+	private static final long serialVersionUID = 4721397582245412634L;
+
+	public static final int DEFAULT_SEGMENTS = 16;
+
+	private LRUCache<K, V>[] segments;
+	private int maxSize;
+	private AtomicLong hitCount = new AtomicLong();
+	private AtomicLong missCount = new AtomicLong();
+
+	public ConcurrentLRUCache(int maxSize) {
+		this(maxSize, DEFAULT_SEGMENTS);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentLRUCache(int maxSize, int segmentCount) {
+		this.maxSize = Math.max(1, maxSize);
+		segmentCount = Math.max(1, Math.min(segmentCount, this.maxSize));
+		int segmentSize = (this.maxSize + segmentCount - 1) / segmentCount;
+		this.segments = new LRUCache[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new LRUCache<K, V>(segmentSize);
+		}
+	}
+
+	private LRUCache<K, V> getSegment(Object key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[(hash & 0x7fffffff) % segments.length];
+	}
+
+	public V get(K key) {
+		LRUCache<K, V> segment = getSegment(key);
+		V result = null;
+		synchronized (segment) {
+			result = segment.get(key);
+		}
+		if (result == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return result;
+	}
+
+	public V put(K key, V value) {
+		LRUCache<K, V> segment = getSegment(key);
+		synchronized (segment) {
+			return segment.put(key, value);
+		}
+	}
+
+	public V remove(K key) {
+		LRUCache<K, V> segment = getSegment(key);
+		synchronized (segment) {
+			return segment.remove(key);
+		}
+	}
+
+	public void clear() {
+		for (LRUCache<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (LRUCache<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getRequestCount() {
+		return hitCount.get() + missCount.get();
+	}
+
+}
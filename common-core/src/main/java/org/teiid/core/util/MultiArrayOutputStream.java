@@ -59,7 +59,8 @@ public class MultiArrayOutputStream extends OutputStream {
         	count++;
         } else {
         	buf[index] = (byte)b;
-        	count = index = newIndex;
+        	index = newIndex;
+        	count++;
         }
 	}
 	
@@ -83,7 +84,8 @@ public class MultiArrayOutputStream extends OutputStream {
         	count += len;
         } else {
         	System.arraycopy(b, off, buf, index, len);
-        	count = index = newIndex;
+        	index = newIndex;
+        	count += len;
         }
 	}
 	
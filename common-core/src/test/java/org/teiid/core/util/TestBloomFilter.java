@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.core.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TestBloomFilter {
+
+	@Test public void testNoFalseNegatives() {
+		BloomFilter filter = new BloomFilter(1000, .01);
+		for (int i = 0; i < 1000; i++) {
+			filter.put(i);
+			filter.put("value" + i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(filter.mightContain(i));
+			assertTrue(filter.mightContain("value" + i));
+		}
+	}
+	
+	@Test public void testFalsePositiveRate() {
+		BloomFilter filter = new BloomFilter(10000, .01);
+		for (int i = 0; i < 10000; i++) {
+			filter.put(i);
+		}
+		int falsePositives = 0;
+		for (int i = 10000; i < 20000; i++) {
+			if (filter.mightContain(i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(String.valueOf(falsePositives), falsePositives < 300);
+	}
+	
+	@Test public void testCopy() {
+		BloomFilter filter = new BloomFilter(10, .01);
+		filter.put("a");
+		BloomFilter copy = new BloomFilter(filter.getBits().clone(), filter.getHashCount());
+		assertTrue(copy.mightContain("a"));
+		assertEquals(filter.getBitCount(), copy.getBitCount());
+	}
+
+}
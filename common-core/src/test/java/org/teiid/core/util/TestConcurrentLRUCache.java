@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.core.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TestConcurrentLRUCache {
+
+	@Test public void testStatistics() {
+		ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<String, Integer>(10);
+		assertNull(cache.get("a"));
+		cache.put("a", 1);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2, cache.getRequestCount());
+		assertEquals(1, cache.size());
+	}
+	
+	@Test public void testBounded() {
+		ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<Integer, Integer>(100, 4);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.size() <= 100);
+		//the most recent entries are retained
+		assertEquals(Integer.valueOf(999), cache.get(999));
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+	
+	@Test public void testLeastRecentlyUsed() {
+		ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<Integer, Integer>(2, 1);
+		cache.put(1, 1);
+		cache.put(2, 2);
+		cache.get(1);
+		cache.put(3, 3);
+		assertNull(cache.get(2));
+		assertEquals(Integer.valueOf(1), cache.get(1));
+	}
+
+}
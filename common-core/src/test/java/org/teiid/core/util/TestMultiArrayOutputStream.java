@@ -40,4 +40,13 @@ public class TestMultiArrayOutputStream {
 		assertEquals(1, maos.getIndex());
 	}
 	
+	@Test public void testCountAfterOverflow() throws IOException {
+		MultiArrayOutputStream maos = new MultiArrayOutputStream(4);
+		maos.write(new byte[6], 0, 6);
+		maos.write(new byte[2], 0, 2);
+		maos.write(1);
+		assertEquals(9, maos.getCount());
+		assertEquals(5, maos.getIndex());
+	}
+	
 }
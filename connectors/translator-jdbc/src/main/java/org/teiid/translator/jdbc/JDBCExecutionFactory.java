@@ -128,6 +128,8 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 	private boolean useCommentsInSourceQuery;
 	private String version;
 	private int maxInsertBatchSize = 2048;
+	private int maxInsertBatchTime = -1;
+	private boolean commitInsertBatches;
 	private DatbaseCalender databaseCalender;
 	private boolean supportsGeneratedKeys;
 
@@ -451,6 +453,11 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
     	return true;
     }
     
+    @Override
+    public boolean supportsPartitionedScans() {
+    	return true;
+    }
+    
     /**
      * Get the max number of inserts to perform in one batch.
      * @return
@@ -467,6 +474,33 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 		this.maxInsertBatchSize = maxInsertBatchSize;
 	}
     
+    /**
+     * Get the max time in milliseconds to spend binding a single prepared insert batch.
+     * @return
+     */
+    @TranslatorProperty(display="Max Prepared Insert Batch Time", description="The max time in milliseconds to spend binding a prepared insert batch before it is executed.  Values less than 1 indicate no limit.  Default -1.", advanced=true)
+    public int getMaxPreparedInsertBatchTime() {
+		return maxInsertBatchTime;
+	}
+    
+    public void setMaxPreparedInsertBatchTime(int maxInsertBatchTime) {
+		this.maxInsertBatchTime = maxInsertBatchTime;
+	}
+    
+    /**
+     * Get whether each prepared insert batch is committed as it is executed when the insert 
+     * is not part of a larger transaction.
+     * @return
+     */
+    @TranslatorProperty(display="Commit Prepared Insert Batches", description="If true each prepared insert batch will be committed after it is executed when there is no enclosing transaction.  A failure will then only roll back the current batch.  Default false.", advanced=true)
+    public boolean isCommitPreparedInsertBatches() {
+		return commitInsertBatches;
+	}
+    
+    public void setCommitPreparedInsertBatches(boolean commitInsertBatches) {
+		this.commitInsertBatches = commitInsertBatches;
+	}
+    
     /**
      * Gets the database calendar.  This will be set to the time zone
      * specified by the property {@link JDBCPropertyNames#DATABASE_TIME_ZONE}, or
@@ -187,13 +187,24 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                     if (commitType) {
                         connection.setAutoCommit(false);
                     }
-            		int maxBatchSize = (command instanceof Insert)?this.executionFactory.getMaxPreparedInsertBatchSize():Integer.MAX_VALUE;
+            		int maxBatchSize = Integer.MAX_VALUE;
+            		int maxBatchTime = -1;
+            		boolean commitBatches = false;
+            		if (command instanceof Insert) {
+            			maxBatchSize = this.executionFactory.getMaxPreparedInsertBatchSize();
+            			maxBatchTime = this.executionFactory.getMaxPreparedInsertBatchTime();
+            			commitBatches = commitType && this.executionFactory.isCommitPreparedInsertBatches();
+            		}
             		boolean done = false;
             		outer: while (!done) {
+            			long batchStart = maxBatchTime > 0?System.currentTimeMillis():0;
             			for (int i = 0; i < maxBatchSize; i++) {
             				if (vi.hasNext()) {
     	            			List<?> values = vi.next();
     	            			bind(pstatement, translatedComm.getPreparedValues(), values);
+    	            			if (maxBatchTime > 0 && System.currentTimeMillis() - batchStart >= maxBatchTime) {
+    	            				break;
+    	            			}
             				} else {
             					if (i == 0) {
 	            					break outer;
@@ -207,6 +218,9 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
             		    for (int i=0; i<results.length; i++) {
             		        updateCount += results[i];
             		    }
+            		    if (commitBatches) {
+            		    	connection.commit();
+            		    }
             		}
                 } else {
             		bind(pstatement, translatedComm.getPreparedValues(), null);
@@ -22,6 +22,8 @@
 
 package org.teiid.translator.jdbc;
 
+import static org.junit.Assert.*;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.util.Arrays;
@@ -62,4 +64,34 @@ public class TestJDBCUpdateExecution {
 		Mockito.verify(p, Mockito.times(2)).addBatch();
 	}
 	
+	@Test public void testInsertIteratorCommitBatches() throws Exception {
+		Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, IntNum) values (1, 2)"); //$NON-NLS-1$
+		Parameter param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(0);
+		List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+		values.set(0, param);
+		param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(1);
+		values.set(1, param);
+		command.setParameterValues(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(1, 2)).iterator());
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.stub(connection.getAutoCommit()).toReturn(true);
+		PreparedStatement p = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(p.executeBatch()).toReturn(new int [] {1});
+		Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?)")).toReturn(p); //$NON-NLS-1$
+		
+		JDBCExecutionFactory config = new JDBCExecutionFactory();
+		config.setMaxPreparedInsertBatchSize(1);
+		config.setCommitPreparedInsertBatches(true);
+		
+		JDBCUpdateExecution updateExecution = new JDBCUpdateExecution(command, connection, Mockito.mock(ExecutionContext.class), config);
+		updateExecution.execute();
+		assertArrayEquals(new int[] {2}, updateExecution.getUpdateCounts());
+		Mockito.verify(p, Mockito.times(2)).executeBatch();
+		//one commit per batch and the final commit when restoring auto commit
+		Mockito.verify(connection, Mockito.times(3)).commit();
+	}
+	
 }
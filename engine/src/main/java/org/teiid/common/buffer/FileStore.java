@@ -194,6 +194,21 @@ public abstract class FileStore implements Removable {
 	
 	protected abstract void removeDirect();
 	
+	/**
+	 * Get a read only view of the given region without copying through the heap.
+	 * The returned buffer will be positioned at 0 with a limit of length.
+	 * <br/>
+	 * The view is only valid until the store is truncated or removed, so callers
+	 * must prevent concurrent modification of the region while it is in use. 
+	 * @param start
+	 * @param length
+	 * @return the buffer or null if the region cannot be directly accessed
+	 * @throws IOException
+	 */
+	public ByteBuffer getReadBuffer(long start, int length) throws IOException {
+		return null;
+	}
+	
 	public InputStream createInputStream(final long start, final long length) {
 		return new ExtensibleBufferedInputStream() {
 			private long offset = start;
@@ -28,10 +28,12 @@ import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -576,6 +578,20 @@ public class STree implements Cloneable {
 		}
 	}
 	
+	/**
+	 * Get the managed batches of the leaf pages.  A clone shares the batches 
+	 * of the pages that have not been modified since it was created.
+	 */
+	public Set<Long> getLeafBatches() {
+		Set<Long> result = new HashSet<Long>();
+		for (SPage page = header[0]; page != null; page = page.next) {
+			if (page.managedBatch != null) {
+				result.add(page.managedBatch);
+			}
+		}
+		return result;
+	}
+	
 	public int getPageSize(boolean leaf) {
 		if (leaf) {
 			return leafSize;
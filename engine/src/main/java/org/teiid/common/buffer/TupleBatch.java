@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.teiid.client.ColumnarBatch;
+
 
 /**
  * Represents a set of indexed tuples.  The {@link #getBeginRow beginning row}
@@ -72,7 +74,12 @@ public class TupleBatch {
      */
     public TupleBatch(int beginRow, List<? extends List<?>> listOfTupleLists) {
         this.rowOffset = beginRow;
-        this.tuples = new ArrayList<List<?>>(listOfTupleLists);
+        if (listOfTupleLists instanceof ColumnarBatch) {
+        	//the rows are views, so don't copy them
+        	this.tuples = (ColumnarBatch)listOfTupleLists;
+        } else {
+        	this.tuples = new ArrayList<List<?>>(listOfTupleLists);
+        }
     }
 
     /**
@@ -113,6 +120,16 @@ public class TupleBatch {
 		return tuples;
 	}
     
+    /**
+     * @return the columnar form of the tuples or null if the batch is row based
+     */
+    public ColumnarBatch getColumnarTuples() {
+    	if (tuples instanceof ColumnarBatch) {
+    		return (ColumnarBatch)tuples;
+    	}
+    	return null;
+    }
+    
     /**
      * Get all tuples 
      * @return All tuples
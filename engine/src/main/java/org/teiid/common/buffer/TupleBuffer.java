@@ -28,6 +28,7 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.ResizingArrayList;
 import org.teiid.common.buffer.LobManager.ReferenceMode;
 import org.teiid.core.TeiidComponentException;
@@ -79,6 +80,7 @@ public class TupleBuffer {
 	private LobManager lobManager;
 	private String uuid;
 	private Object rowSourceLock;
+	private Class<?>[] columnarTypes;
 	
 	public TupleBuffer(BatchManager manager, String id, List<? extends Expression> schema, LobManager lobManager, int batchSize) {
 		this.manager = manager;
@@ -98,6 +100,27 @@ public class TupleBuffer {
 		}
 	}
 	
+	/**
+	 * Store the saved batches in a columnar form if there are primitive types.
+	 * @param columnar
+	 */
+	public void setColumnar(boolean columnar) {
+		this.columnarTypes = null;
+		if (columnar) {
+			Class<?>[] types = new Class<?>[schema.size()];
+			for (int i = 0; i < types.length; i++) {
+				types[i] = schema.get(i).getType();
+			}
+			if (ColumnarBatch.hasPrimitiveTypes(types)) {
+				this.columnarTypes = types;
+			}
+		}
+	}
+	
+	public boolean isColumnar() {
+		return this.columnarTypes != null;
+	}
+	
 	public void removeLobTracking() {
 		if (this.lobManager != null) {
 			this.lobManager.remove();
@@ -197,7 +220,17 @@ public class TupleBuffer {
 		if (batchBuffer == null || batchBuffer.isEmpty() || (!force && batchBuffer.size() < Math.max(1, batchSize / 32))) {
 			return;
 		}
-		Long mbatch = manager.createManagedBatch(batchBuffer, null, false);
+		List<? extends List<?>> toSave = batchBuffer;
+		if (this.columnarTypes != null) {
+			try {
+				toSave = ColumnarBatch.create(this.columnarTypes, batchBuffer);
+			} catch (ClassCastException e) {
+				//the values don't match the schema, keep using rows
+				LogManager.logDetail(LogConstants.CTX_BUFFER_MGR, e, "Could not create a columnar batch for", this.tupleSourceID); //$NON-NLS-1$
+				this.columnarTypes = null;
+			}
+		}
+		Long mbatch = manager.createManagedBatch(toSave, null, false);
 		this.batches.put(rowCount - batchBuffer.size() + 1, mbatch);
         batchBuffer = null;
 	}
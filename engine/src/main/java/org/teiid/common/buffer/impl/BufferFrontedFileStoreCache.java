@@ -352,6 +352,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 	private int maxStorageObjectSize = DEFAuLT_MAX_OBJECT_SIZE;
 	private long memoryBufferSpace = 1 << 26; //64MB
 	private boolean direct;
+	private boolean mappedReads;
 	
 	private int maxMemoryBlocks;
 	private AtomicLong readAttempts = new AtomicLong();
@@ -689,6 +690,8 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 		InputStream is = null;
 		Lock lock = null;
 		int memoryBlocks = 0;
+		FileStore fs = null;
+		long blockOffset = 0;
 		try {
 			synchronized (info) {
 				assert !info.pinned && info.loading; //load should be locked
@@ -710,9 +713,8 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 					}
 					BlockStore blockStore = sizeBasedStores[info.sizeIndex];
 					int segment = info.block/blockStore.blocksInUse.getBitsPerSegment();
-					FileStore fs = blockStore.stores[segment];
-					long blockOffset = (info.block%blockStore.blocksInUse.getBitsPerSegment())*blockStore.blockSize;
-					is = fs.createInputStream(blockOffset, info.memoryBlockCount<<LOG_BLOCK_SIZE);
+					fs = blockStore.stores[segment];
+					blockOffset = (info.block%blockStore.blocksInUse.getBitsPerSegment())*blockStore.blockSize;
 					lock = blockStore.locks[segment].writeLock();
 					memoryBlocks = info.memoryBlockCount;
 				} else {
@@ -720,7 +722,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 				}
 			}
 			if (lock != null) {
-				is = readIntoMemory(info, is, lock, memoryBlocks);
+				is = readIntoMemory(info, fs, blockOffset, lock, memoryBlocks);
 			}
 			ObjectInput dis = new ObjectInputStream(is);
 			dis.readFully(HEADER_SKIP_BUFFER);
@@ -744,10 +746,11 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 	/**
 	 * Transfer into memory to release memory/file locks
 	 */
-	private InputStream readIntoMemory(PhysicalInfo info, InputStream is,
+	private InputStream readIntoMemory(PhysicalInfo info, FileStore fs, long blockOffset,
 			Lock fileLock, int memoryBlocks) throws InterruptedException,
 			IOException {
 		checkForLowMemory();
+		InputStream is = null;
 		this.memoryWritePermits.acquire(memoryBlocks);
 		BlockManager manager = null;
 		boolean success = false;
@@ -762,11 +765,24 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 			
 			fileLock.lock();
 			locked = true;
-			ExtensibleBufferedOutputStream os = new BlockOutputStream(manager, -1);
-			//TODO: there is still an extra buffer being created here, we could FileChannels to do better
-			int b = -1;
-			while ((b = is.read()) != -1) {
-				os.write(b);
+			//the mapped view is only safe to use while holding the file lock 
+			ByteBuffer source = null;
+			if (mappedReads) {
+				source = fs.getReadBuffer(blockOffset, memoryBlocks<<LOG_BLOCK_SIZE);
+			}
+			byte[] chunk = null;
+			for (int i = 0; i < memoryBlocks; i++) {
+				ByteBuffer block = manager.getBlock(i);
+				if (source != null) {
+					source.limit(source.position() + block.remaining());
+					block.put(source);
+				} else {
+					if (chunk == null) {
+						chunk = new byte[BLOCK_SIZE];
+					}
+					fs.readFully(blockOffset + ((long)i<<LOG_BLOCK_SIZE), chunk, 0, BLOCK_SIZE);
+					block.put(chunk);
+				}
 			}
 			fileLock.unlock();
 			locked = false;
@@ -815,6 +831,28 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 		this.direct = direct;
 	}
 	
+	/**
+	 * Set to true to read storage blocks back into memory through memory mapped
+	 * views of the storage files rather than through heap buffers.
+	 * @param mappedReads
+	 */
+	public void setMappedReads(boolean mappedReads) {
+		this.mappedReads = mappedReads;
+	}
+	
+	public boolean isMappedReads() {
+		return mappedReads;
+	}
+	
+	/**
+	 * Set the number of segments for the memory buffer eviction queue.  
+	 * Should be set prior to initialization.
+	 * @param segments
+	 */
+	public void setEvictionSegments(int segments) {
+		this.memoryBufferEntries = new LrfuEvictionQueue<PhysicalInfo>(readAttempts, segments);
+	}
+	
 	@Override
 	public void addToCacheGroup(Long gid, Long oid) {
 		Map<Long, PhysicalInfo> map = physicalMapping.get(gid);
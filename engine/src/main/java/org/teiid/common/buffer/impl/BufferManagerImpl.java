@@ -45,6 +45,7 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.teiid.client.BatchSerializer;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.ResizingArrayList;
 import org.teiid.common.buffer.*;
 import org.teiid.common.buffer.AutoCleanupUtil.Removable;
@@ -157,6 +158,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
 		AtomicBoolean prefersMemory = new AtomicBoolean();
 		String[] types;
 		private LobManager lobManager;
+		boolean columnar;
 
 		private BatchManagerImpl(Long newID, Class<?>[] types) {
 			this.id = newID;
@@ -245,6 +247,14 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
 					}
 				}
 			}
+			if (columnar) {
+				try {
+					batch = ColumnarBatch.create(sizeUtility.getTypes(), batch);
+				} catch (ClassCastException e) {
+					//the values don't match the schema, keep using rows
+					columnar = false;
+				}
+			}
 			return batch;
 		}
 		
@@ -358,6 +368,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
     private int maxActivePlans = DQPConfiguration.DEFAULT_MAX_ACTIVE_PLANS; //used as a hint to set the reserveBatchKB
     private boolean useWeakReferences = true;
     private boolean inlineLobs = true;
+    private boolean columnarBatches;
     private int targetBytesPerRow = TARGET_BYTES_PER_ROW;
     private int maxSoftReferences;
 
@@ -486,6 +497,10 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         	LogManager.logDetail(LogConstants.CTX_BUFFER_MGR, "Creating TupleBuffer:", newID, elements, Arrays.toString(types), "of type", tupleSourceType); //$NON-NLS-1$ //$NON-NLS-2$
         }
     	tupleBuffer.setInlineLobs(inlineLobs);
+    	if (columnarBatches) {
+    		tupleBuffer.setColumnar(true);
+    		batchManager.columnar = tupleBuffer.isColumnar();
+    	}
         return tupleBuffer;
     }
     
@@ -1065,6 +1080,28 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
 	public void setInlineLobs(boolean inlineLobs) {
 		this.inlineLobs = inlineLobs;
 	}
+	
+	/**
+	 * Set to true to hold {@link TupleBuffer} batches in a columnar form 
+	 * with primitive values where possible.
+	 * @param columnarBatches
+	 */
+	public void setColumnarBatches(boolean columnarBatches) {
+		this.columnarBatches = columnarBatches;
+	}
+	
+	public boolean isColumnarBatches() {
+		return columnarBatches;
+	}
+	
+	/**
+	 * Set the number of segments for the memory entry eviction queue.  
+	 * Should be set prior to use.
+	 * @param segments
+	 */
+	public void setEvictionSegments(int segments) {
+		this.evictionQueue = new LrfuEvictionQueue<CacheEntry>(readAttempts, segments);
+	}
 
 	public int getMaxReserveKB() {
 		return (int)maxReserveBytes.get()>>10;
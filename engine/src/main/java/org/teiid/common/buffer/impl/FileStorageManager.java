@@ -26,6 +26,9 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -48,6 +51,7 @@ public class FileStorageManager implements StorageManager {
 	public static final int DEFAULT_MAX_OPEN_FILES = 64;
 	public static final long DEFAULT_MAX_BUFFERSPACE = 50L * 1024L * 1024L * 1024L;
 	private static final String FILE_PREFIX = "b_"; //$NON-NLS-1$
+	private static final long MAPPED_WINDOW_SIZE = 1 << 26; //64MB
 	
 	private long maxBufferSpace = DEFAULT_MAX_BUFFERSPACE;
 	private AtomicLong usedBufferSpace = new AtomicLong();
@@ -97,6 +101,8 @@ public class FileStorageManager implements StorageManager {
 	public class DiskStore extends FileStore {
 	    private String name;
 		private FileInfo fileInfo; 
+		private MappedByteBuffer mapped;
+		private long mappedStart;
 	    
 	    public DiskStore(String name) {
 			this.name = name;
@@ -158,16 +164,54 @@ public class FileStorageManager implements StorageManager {
 	    	if (fileInfo == null) {
 				fileInfo = new FileInfo(createFile(name));
 	        }
+	    	if (mapped != null && length < mappedStart + mapped.capacity()) {
+	    		mapped = null;
+	    	}
 	    	try {
 	    		fileInfo.open().setLength(length);
 	    	} finally {
 	    		fileInfo.close();
 	    	}
 	    }
+	    
+	    /**
+	     * Maps a window of the file that contains the region.  The window is retained
+	     * until a request falls outside of it or the file is shortened.
+	     */
+	    @Override
+	    public synchronized ByteBuffer getReadBuffer(long start, int length)
+	    		throws IOException {
+	    	if (fileInfo == null || length > MAPPED_WINDOW_SIZE) {
+	    		return null;
+	    	}
+	    	if (mapped == null || start < mappedStart || start + length > mappedStart + mapped.capacity()) {
+	    		long fileLength = fileInfo.file.length();
+	    		if (start + length > fileLength) {
+	    			return null;
+	    		}
+	    		long windowStart = start - (start % MAPPED_WINDOW_SIZE);
+	    		if (start + length > windowStart + MAPPED_WINDOW_SIZE) {
+	    			windowStart = start;
+	    		}
+	    		mapped = null;
+	    		try {
+	    			mapped = fileInfo.open().getChannel().map(MapMode.READ_ONLY, windowStart, Math.min(MAPPED_WINDOW_SIZE, fileLength - windowStart));
+	    		} finally {
+	    			fileInfo.close();
+	    		}
+	    		mappedStart = windowStart;
+	    	}
+	    	ByteBuffer result = mapped.duplicate();
+	    	int position = (int)(start - mappedStart);
+	    	result.limit(position + length);
+	    	result.position(position);
+	    	return result.slice();
+	    }
 		
 	    @Override
 		public synchronized void removeDirect() {
 			usedBufferSpace.addAndGet(-getLength());
+			mapped = null;
 			if (fileInfo != null){
 				fileInfo.delete();
 			}
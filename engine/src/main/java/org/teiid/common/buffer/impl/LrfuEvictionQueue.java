@@ -22,9 +22,12 @@
 
 package org.teiid.common.buffer.impl;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -34,6 +37,10 @@ import org.teiid.common.buffer.CacheKey;
 /**
  * A Concurrent LRFU eviction queue.  Has assumptions that match buffermanager usage.
  * Null values are not allowed.
+ * <br/>
+ * The queue may be split into segments by key id so that concurrent accesses to different
+ * entries do not contend on the same map.  The first entry is then the lowest of the 
+ * segment heads, which is the same as the unsegmented order absent concurrent modification.
  * @param <V>
  */
 public class LrfuEvictionQueue<V extends BaseCacheEntry> {
@@ -44,22 +51,122 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
 	//the level function limits the effective map size to ~ 2^16
 	//above which it performs comparably under multi-threaded load to a synchronized LinkedHashMap
 	//just with more CPU overhead vs. wait time.
-	protected NavigableMap<CacheKey, V> evictionQueue = new ConcurrentSkipListMap<CacheKey, V>();
+	protected NavigableMap<CacheKey, V>[] segments;
 	protected AtomicLong clock;
 	protected long maxInterval;
 	protected long halfLife;
+	private Collection<V> values;
 	
 	public LrfuEvictionQueue(AtomicLong clock) {
+		this(clock, 1);
+	}
+	
+	/**
+	 * @param segments the number of segments, which will be rounded up to a power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	public LrfuEvictionQueue(AtomicLong clock, int segments) {
 		this.clock = clock;
 		setHalfLife(DEFAULT_HALF_LIFE);
+		int size = 1;
+		while (size < segments) {
+			size <<= 1;
+		}
+		this.segments = new NavigableMap[size];
+		for (int i = 0; i < size; i++) {
+			this.segments[i] = new ConcurrentSkipListMap<CacheKey, V>();
+		}
+		if (size == 1) {
+			this.values = this.segments[0].values();
+		} else {
+			this.values = new AbstractCollection<V>() {
+				@Override
+				public Iterator<V> iterator() {
+					return new MergingIterator();
+				}
+				
+				@Override
+				public int size() {
+					int result = 0;
+					for (NavigableMap<CacheKey, V> segment : LrfuEvictionQueue.this.segments) {
+						result += segment.size();
+					}
+					return result;
+				}
+			};
+		}
+	}
+	
+	/**
+	 * Iterates the segments in approximate key order
+	 */
+	private class MergingIterator implements Iterator<V> {
+		@SuppressWarnings("unchecked")
+		private Iterator<Map.Entry<CacheKey, V>>[] iters = new Iterator[segments.length];
+		@SuppressWarnings("unchecked")
+		private Map.Entry<CacheKey, V>[] heads = new Map.Entry[segments.length];
+		
+		MergingIterator() {
+			for (int i = 0; i < segments.length; i++) {
+				iters[i] = segments[i].entrySet().iterator();
+				advance(i);
+			}
+		}
+		
+		private void advance(int i) {
+			heads[i] = iters[i].hasNext()?iters[i].next():null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			for (Map.Entry<CacheKey, V> head : heads) {
+				if (head != null) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public V next() {
+			int lowest = -1;
+			for (int i = 0; i < heads.length; i++) {
+				if (heads[i] != null && (lowest == -1 || heads[i].getKey().compareTo(heads[lowest].getKey()) < 0)) {
+					lowest = i;
+				}
+			}
+			if (lowest == -1) {
+				throw new NoSuchElementException();
+			}
+			V result = heads[lowest].getValue();
+			advance(lowest);
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+	
+	private NavigableMap<CacheKey, V> getSegment(CacheKey key) {
+		if (segments.length == 1) {
+			return segments[0];
+		}
+		long id = key.getId();
+		int hash = (int)(id ^ (id >>> 32));
+		hash ^= (hash >>> 16);
+		return segments[hash & (segments.length - 1)];
 	}
 
 	public boolean remove(V value) {
-		return evictionQueue.remove(value.getKey()) != null;
+		CacheKey key = value.getKey();
+		return getSegment(key).remove(key) != null;
 	}
 	
 	public boolean add(V value) {
-		return evictionQueue.put(value.getKey(), value) == null;
+		CacheKey key = value.getKey();
+		return getSegment(key).put(key, value) == null;
 	}
 	
 	public void touch(V value) {
@@ -67,21 +174,34 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
 		if (tick - MIN_INTERVAL < value.getKey().getLastAccess()) {
 			return;
 		}
-		evictionQueue.remove(value.getKey());
+		NavigableMap<CacheKey, V> segment = getSegment(value.getKey());
+		segment.remove(value.getKey());
 		recordAccess(value);
-		evictionQueue.put(value.getKey(), value);
+		segment.put(value.getKey(), value);
 	}
 		
 	public Collection<V> getEvictionQueue() {
-		return evictionQueue.values();
+		return values;
 	}
 	
 	public V firstEntry(boolean poll) {
+		NavigableMap<CacheKey, V> segment = segments[0];
+		if (segments.length > 1) {
+			//find the segment with the lowest head
+			CacheKey lowest = null;
+			for (NavigableMap<CacheKey, V> s : segments) {
+				Map.Entry<CacheKey, V> entry = s.firstEntry();
+				if (entry != null && (lowest == null || entry.getKey().compareTo(lowest) < 0)) {
+					lowest = entry.getKey();
+					segment = s;
+				}
+			}
+		}
 		Map.Entry<CacheKey, V> entry = null;
 		if (poll) {
-			entry = evictionQueue.pollFirstEntry();
+			entry = segment.pollFirstEntry();
 		} else {
-			entry = evictionQueue.firstEntry();
+			entry = segment.firstEntry();
 		}
 		if (entry != null) {
 			return entry.getValue();
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.teiid.client.ColumnarBatch;
 import org.teiid.core.types.BinaryType;
 import org.teiid.core.types.DataTypeManager;
 
@@ -83,7 +84,14 @@ public final class SizeUtility {
 		this.types = types;
 	}
 	
+	public Class<?>[] getTypes() {
+		return types;
+	}
+	
     public long getBatchSize(boolean accountForValueCache, List<? extends List<?>> data) {
+    	if (data instanceof ColumnarBatch) {
+    		return getBatchSize(accountForValueCache, (ColumnarBatch)data);
+    	}
         int colLength = types.length;
         int rowLength = data.size();
     
@@ -108,6 +116,39 @@ public final class SizeUtility {
         return size;
     }
     
+    /**
+     * Primitive columns are sized directly, object columns are sampled 
+     * as with row batches, but without the per row list overhead.
+     */
+    private long getBatchSize(boolean accountForValueCache, ColumnarBatch data) {
+    	int colLength = types.length;
+    	int rowLength = data.size();
+    	// batch and column array overhead
+    	long size = 32 + alignMemory(colLength * REFERENCE_SIZE);
+    	for (int col = 0; col < colLength; col++) {
+    		long primitiveSize = data.getPrimitiveSize(col);
+    		if (primitiveSize >= 0) {
+    			size += alignMemory(primitiveSize);
+    			continue;
+    		}
+    		// column object and array overhead
+    		size += 32 + alignMemory(rowLength * REFERENCE_SIZE);
+    		Class<?> type = types[col];
+    		if (VARIABLE_SIZE_TYPES.contains(type)) {
+    			int rowsSampled = 0;
+    			int estimatedSize = 0;
+    			for (int row = 0; row < rowLength; row=(row*2)+1) {
+    				rowsSampled++;
+    				estimatedSize += getSize(data.getValue(row, col), type, true, accountForValueCache);
+    			}
+    			size += estimatedSize/(float)rowsSampled * rowLength;
+    		} else {
+    			size += getSize(accountForValueCache, type) * rowLength;
+    		}
+    	}
+    	return size;
+    }
+    
     static int getSize(boolean isValueCacheEnabled,
 			Class<?> type) {
     	int[] vals = SIZE_ESTIMATES.get(type);
@@ -34,6 +34,7 @@ import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.ArrayImpl;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.BloomFilter;
 import org.teiid.language.*;
 import org.teiid.language.DerivedColumn;
 import org.teiid.language.Select;
@@ -135,6 +136,7 @@ public class LanguageBridgeFactory {
     private int valueIndex = 0;
     private List<List<?>> allValues = new LinkedList<List<?>>();
     private Map<String, List<? extends List<?>>> dependentSets;
+    private Map<String, BloomFilter> dependentFilters;
     private boolean convertIn;
     private boolean supportsConcat2;
 
@@ -162,6 +164,7 @@ public class LanguageBridgeFactory {
 	        if (command instanceof Query) {
 	            Select result = translate((Query)command);
 	            result.setDependentValues(this.dependentSets);
+	            result.setDependentFilters(this.dependentFilters);
 	            return result;
 	        } else if (command instanceof SetQuery) {
 	            return translate((SetQuery)command);
@@ -180,6 +183,7 @@ public class LanguageBridgeFactory {
     	} finally {
     		this.allValues.clear();
     		this.dependentSets = null;
+    		this.dependentFilters = null;
     		this.valueIndex = 0;
     	}
     }
@@ -347,6 +351,14 @@ public class LanguageBridgeFactory {
         Operator operator = Operator.EQ;
         Parameter p = new Parameter();
         p.setType(criteria.getExpression().getType());
+        if (criteria.getBloomFilter() != null) {
+        	p.setDependentValueId(criteria.getContextSymbol());
+        	if (this.dependentFilters == null) {
+        		this.dependentFilters = new HashMap<String, BloomFilter>();
+        	}
+        	this.dependentFilters.put(criteria.getContextSymbol(), criteria.getBloomFilter());
+        	return new org.teiid.language.Comparison(translate(criteria.getExpression()), p, operator);
+        }
         final TupleBuffer tb = criteria.getDependentValueSource().getTupleBuffer();
         p.setValueIndex(tb.getSchema().indexOf(criteria.getValueExpression()));
         p.setDependentValueId(criteria.getContextSymbol());
@@ -188,6 +188,7 @@ public class DQPCore implements DQP {
     private TempTableDataManager dataTierMgr;
     private SessionAwareCache<PreparedPlan> prepPlanCache;
     private SessionAwareCache<CachedResults> rsCache;
+    private SemanticCache semanticCache;
     private TransactionService transactionService;
     private EventDistributor eventDistributor;
     
@@ -399,6 +400,18 @@ public class DQPCore implements DQP {
 		workItem.requestMore(batchFirst, batchFirst + Math.min(fetchSize, this.config.getMaxRowsFetchSize()) - 1, resultsFuture.getResultsReceiver());
 		return resultsFuture;
 	}
+	
+	public ResultsFuture<ResultsMessage> processNextCursorRequest(long reqID,
+			int fetchSize) throws TeiidProcessingException {
+        if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+            LogManager.logDetail(LogConstants.CTX_DQP, "DQP process next cursor request");  //$NON-NLS-1$
+        }
+		DQPWorkContext workContext = DQPWorkContext.getWorkContext();
+        ResultsFuture<ResultsMessage> resultsFuture = new ResultsFuture<ResultsMessage>();
+		RequestWorkItem workItem = getRequestWorkItem(workContext.getRequestID(reqID));
+		workItem.requestNext(Math.min(fetchSize, this.config.getMaxRowsFetchSize()), resultsFuture.getResultsReceiver());
+		return resultsFuture;
+	}
 
 	void addRequest(RequestID requestID, RequestWorkItem workItem, ClientState state) {
 		this.requests.put(requestID, workItem);
@@ -644,6 +657,10 @@ public class DQPCore implements DQP {
 		return rsCache;
 	}
 	
+	SemanticCache getSemanticCache() {
+		return semanticCache;
+	}
+	
 	int getProcessorTimeSlice() {
 		return this.config.getTimeSliceInMilli();
 	}	
@@ -902,6 +919,7 @@ public class DQPCore implements DQP {
 	
 	public void setResultsetCache(SessionAwareCache<CachedResults> cache) {
 		this.rsCache = cache;
+		this.semanticCache = cache != null?new SemanticCache(cache):null;
 	}
 	
 	public void setPreparedPlanCache(SessionAwareCache<PreparedPlan> cache) {
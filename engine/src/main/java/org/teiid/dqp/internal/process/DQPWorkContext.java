@@ -119,6 +119,9 @@ public class DQPWorkContext implements Serializable {
     private boolean useCallingThread;
     private Version clientVersion = Version.SEVEN_4;
     private boolean admin;
+    private boolean rawBatches;
+    private boolean compressionSupported;
+    private boolean compressResults;
     
     public DQPWorkContext() {
 	}
@@ -311,6 +314,42 @@ public class DQPWorkContext implements Serializable {
 		this.clientVersion = clientVersion;
 	}
 	
+	public boolean isRawBatches() {
+		return rawBatches;
+	}
+	
+	/**
+	 * Set to true if the client accepted raw result batches in the handshake
+	 * @param rawBatches
+	 */
+	public void setRawBatches(boolean rawBatches) {
+		this.rawBatches = rawBatches;
+	}
+	
+	public boolean isCompressionSupported() {
+		return compressionSupported;
+	}
+	
+	/**
+	 * Set to true if compressed result frames were accepted in the handshake
+	 * @param compressionSupported
+	 */
+	public void setCompressionSupported(boolean compressionSupported) {
+		this.compressionSupported = compressionSupported;
+	}
+	
+	public boolean isCompressResults() {
+		return compressResults;
+	}
+	
+	/**
+	 * Set to true if the session requested compressed results at logon
+	 * @param compressResults
+	 */
+	public void setCompressResults(boolean compressResults) {
+		this.compressResults = compressResults;
+	}
+	
 	public void setAdmin(boolean admin) {
 		this.admin = admin;
 	}
@@ -73,6 +73,7 @@ import org.teiid.query.sql.lang.BatchedUpdateCommand;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.Insert;
 import org.teiid.query.sql.lang.Limit;
+import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
 import org.teiid.query.sql.lang.StoredProcedure;
 import org.teiid.query.sql.symbol.Constant;
@@ -131,6 +132,9 @@ public class Request implements SecurityFunctionEvaluator {
 	private int userRequestConcurrency;
 	private AuthorizationValidator authorizationValidator;
 	private Executor executor;
+	private SemanticCache semanticCache;
+	protected Query semanticCacheCommand;
+	protected boolean usedSemanticCache;
 
     void initialize(RequestMessage requestMsg,
                               BufferManager bufferManager,
@@ -162,6 +166,14 @@ public class Request implements SecurityFunctionEvaluator {
 		this.resultSetCacheEnabled = resultSetCacheEnabled;
 	}
 	
+	/**
+	 * Set the index of cached queries that may be used to answer this request
+	 * @param semanticCache
+	 */
+	void setSemanticCache(SemanticCache semanticCache) {
+		this.semanticCache = semanticCache;
+	}
+	
 	public void setAuthorizationValidator(
 			AuthorizationValidator authorizationValidator) {
 		this.authorizationValidator = authorizationValidator;
@@ -402,6 +414,11 @@ public class Request implements SecurityFunctionEvaluator {
         
         command = QueryRewriter.rewrite(command, metadata, context);
         
+        boolean useSemanticCache = this.semanticCache != null && command instanceof Query && this.context.getOptions().isSemanticResultSetCache();
+        if (useSemanticCache && SemanticCache.isCachable((Query)command)) {
+        	this.semanticCacheCommand = (Query)command.clone();
+        }
+        
         /*
          * Adds a row limit to a query if Statement.setMaxRows has been called and the command
          * doesn't already have a limit clause.
@@ -419,6 +436,14 @@ public class Request implements SecurityFunctionEvaluator {
 			analysisRecord.println("\n============================================================================"); //$NON-NLS-1$
             analysisRecord.println("USER COMMAND:\n" + command);		 //$NON-NLS-1$
         }
+        if (useSemanticCache) {
+        	processPlan = this.semanticCache.getPlan(this.workContext, (Query)command);
+        	if (processPlan != null) {
+        		this.usedSemanticCache = true;
+        		LogManager.logDetail(LogConstants.CTX_DQP, new Object[] { QueryPlugin.Util.getString("BasicInterceptor.ProcessTree_for__4"), requestId, processPlan }); //$NON-NLS-1$
+        		return;
+        	}
+        }
         // Run the optimizer
         try {
             processPlan = QueryOptimizer.optimizePlan(command, metadata, idGenerator, capabilitiesFinder, analysisRecord, context);
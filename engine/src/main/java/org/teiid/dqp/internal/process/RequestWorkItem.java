@@ -76,6 +76,7 @@ import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.sql.lang.CacheHint;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.SPParameter;
+import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.StoredProcedure;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.Symbol;
@@ -86,6 +87,20 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 	
 	//TODO: this could be configurable
 	private static final int OUTPUT_BUFFER_MAX_BATCHES = 20;
+	//bound on the results requests that may be pipelined behind the current request
+	static final int MAX_QUEUED_REQUESTS = 16;
+	
+	private static class ResultsRequest {
+		int begin; //0 to continue from the last row sent
+		int count;
+		ResultsReceiver<ResultsMessage> receiver;
+		
+		ResultsRequest(int begin, int count, ResultsReceiver<ResultsMessage> receiver) {
+			this.begin = begin;
+			this.count = count;
+			this.receiver = receiver;
+		}
+	}
 
 	private final class WorkWrapper<T> implements
 			DQPCore.CompletionListener<T> {
@@ -135,6 +150,7 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
     private Request request; //provides the processing plan, held on a temporary basis
     private final int processorTimeslice;
 	private CacheID cid;
+	private Query semanticCacheCommand;
 	private final TransactionService transactionService;
 	private final DQPWorkContext dqpWorkContext;
 	boolean active;
@@ -164,6 +180,9 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 	private ResultsReceiver<ResultsMessage> resultsReceiver;
 	private int begin;
 	private int end;
+	private int lastSentRow;
+	private LinkedList<ResultsRequest> queuedRequests = new LinkedList<ResultsRequest>();
+	private int queuedRowCount;
     private TupleBatch savedBatch;
     private Map<Integer, LobWorkItem> lobStreams = Collections.synchronizedMap(new HashMap<Integer, LobWorkItem>(4));    
     
@@ -196,12 +215,31 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 	 * @param endRow
 	 */
     synchronized void requestResults(int beginRow, int endRow, ResultsReceiver<ResultsMessage> receiver) {
+    	requestResults(new ResultsRequest(beginRow, endRow - beginRow + 1, receiver));
+	}
+    
+	/**
+	 * Ask for the results following the last results sent, or following 
+	 * the results of the requests still pending when this request is reached.
+	 * @param count
+	 */
+    synchronized void requestNextResults(int count, ResultsReceiver<ResultsMessage> receiver) {
+    	requestResults(new ResultsRequest(0, count, receiver));
+    }
+
+	private void requestResults(ResultsRequest request) {
 		if (this.resultsReceiver != null) {
-			throw new IllegalStateException("Results already requested"); //$NON-NLS-1$\
+			if (this.queuedRequests.size() >= MAX_QUEUED_REQUESTS) {
+				throw new IllegalStateException("Results already requested"); //$NON-NLS-1$
+			}
+			//pipelined requests are answered in order
+			this.queuedRequests.add(request);
+			this.queuedRowCount += request.count;
+			return;
 		}
-		this.resultsReceiver = receiver;
-		this.begin = beginRow;
-		this.end = endRow;
+		this.resultsReceiver = request.receiver;
+		this.begin = request.begin > 0?request.begin:this.lastSentRow + 1;
+		this.end = this.begin + request.count - 1;
 	}
     
 	@Override
@@ -539,18 +577,24 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 				}
 			}
 		}
+		if (cachable) {
+			request.setSemanticCache(dqpCore.getSemanticCache());
+		}
 		try {
 			request.processRequest();
 		} finally {
 			analysisRecord = request.analysisRecord;
 		}
 		originalCommand = request.userCommand;
-        if (cachable && (requestMsg.useResultSetCache() || originalCommand.getCacheHint() != null) && rsCache != null && originalCommand.areResultsCachable()) {
+        if (cachable && (requestMsg.useResultSetCache() || originalCommand.getCacheHint() != null) && rsCache != null && originalCommand.areResultsCachable()
+        		&& !request.usedSemanticCache) {
         	this.cid = cacheId;
+        	this.semanticCacheCommand = request.semanticCacheCommand;
         	//turn on the collection of data objects used
         	request.processor.getContext().setDataObjects(new HashSet<Object>(4));
         }
 		processor = request.processor;
+		processor.getContext().setWorkItem(this);
 		this.dqpCore.logMMCommand(this, Event.PLAN, null);
 		collector = new BatchCollector(processor, processor.getBufferManager(), this.request.context, isForwardOnly()) {
 			protected void flushBatchDirect(TupleBatch batch, boolean add) throws TeiidComponentException,TeiidProcessingException {
@@ -575,7 +619,7 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 					} else if (!processor.hasFinalBuffer() //restrict the buffer size for forward only results
 							&& !batch.getTerminationFlag() 
 							&& transactionState != TransactionState.ACTIVE
-							&& this.getTupleBuffer().getManagedRowCount() >= OUTPUT_BUFFER_MAX_BATCHES * this.getTupleBuffer().getBatchSize()) {
+							&& this.getTupleBuffer().getManagedRowCount() >= OUTPUT_BUFFER_MAX_BATCHES * this.getTupleBuffer().getBatchSize() + getQueuedRowCount()) {
 						if (!dqpCore.hasWaitingPlans(RequestWorkItem.this)) {
 							//requestMore will trigger more processing
 							throw BlockedException.block(requestID, "Blocking due to full results TupleBuffer", //$NON-NLS-1$
@@ -661,6 +705,9 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 			LogManager.logInfo(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30008, originalCommand));
 		}
         dqpCore.getRsCache().put(cid, determinismLevel, cr, originalCommand.getCacheHint() != null?originalCommand.getCacheHint().getTtl():null);
+        if (semanticCacheCommand != null && cr.getRowLimit() == 0) {
+        	dqpCore.getSemanticCache().add(dqpWorkContext, Request.createParseInfo(requestMsg), requestMsg.getCommandString(), semanticCacheCommand);
+        }
 	}
 	
 	public SessionAwareCache<CachedResults> getRsCache() {
@@ -674,6 +721,7 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 		ResultsMessage response = null;
 		ResultsReceiver<ResultsMessage> receiver = null;
 		boolean result = true;
+		boolean queued = false;
 		synchronized (this) {
 			if (batch == null || !this.requestMsg.getRequestOptions().isContinuous()) {
 				if (this.resultsReceiver == null
@@ -761,9 +809,20 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 	         */
             receiver = this.resultsReceiver;
             this.resultsReceiver = null;    
+            this.lastSentRow = response.getLastRow();
+            ResultsRequest next = this.queuedRequests.poll();
+            if (next != null) {
+            	this.queuedRowCount -= next.count;
+            	requestResults(next);
+            	queued = true;
+            }
 		}
 		cancelCancelTask();
         receiver.receiveResults(response);
+        if (queued) {
+        	//check the next request against the buffered results
+        	moreWork();
+        }
         return result;
 	}
 
@@ -790,6 +849,8 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
         }
         ResultsMessage result = new ResultsMessage(batch, columnNames, dataTypes);
         result.setClientSerializationVersion(this.dqpWorkContext.getClientVersion().getClientSerializationVersion());
+        result.setAllowRawBatch(this.dqpWorkContext.isRawBatches());
+        result.setAllowCompression(this.dqpWorkContext.isCompressResults());
         setAnalysisRecords(result);
         return result;
     }
@@ -814,9 +875,13 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
 
     private void sendError() {
     	ResultsReceiver<ResultsMessage> receiver = null;
+    	List<ResultsRequest> queued = null;
     	synchronized (this) {
     		receiver = this.resultsReceiver;
     		this.resultsReceiver = null;
+    		queued = new ArrayList<ResultsRequest>(this.queuedRequests);
+    		this.queuedRequests.clear();
+    		this.queuedRowCount = 0;
     		if (receiver == null) {
     			LogManager.logDetail(LogConstants.CTX_DQP, processingException, "Unable to send error to client as results were already sent.", requestID); //$NON-NLS-1$
     			return;
@@ -832,6 +897,13 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
         response.setException(exception);
         setAnalysisRecords(response);
         receiver.receiveResults(response);
+        for (ResultsRequest request : queued) {
+        	request.receiver.receiveResults(response);
+        }
+    }
+    
+    private synchronized int getQueuedRowCount() {
+    	return queuedRowCount;
     }
 
 	private Throwable addCancelCode(Throwable exception) {
@@ -946,6 +1018,11 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
     	this.doMoreWork(); 
     }
     
+    public void requestNext(int count, ResultsReceiver<ResultsMessage> receiver) {
+    	this.requestNextResults(count, receiver);
+    	this.doMoreWork(); 
+    }
+    
     public void closeAtomicRequest(AtomicRequestID atomicRequestId) {
         connectorInfo.remove(atomicRequestId);
         LogManager.logTrace(LogConstants.CTX_DQP, new Object[] {"closed atomic-request:", atomicRequestId});  //$NON-NLS-1$
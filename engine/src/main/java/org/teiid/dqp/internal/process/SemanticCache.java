@@ -0,0 +1,305 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.dqp.internal.process;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.teiid.common.buffer.IndexedTupleSource;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.util.LRUCache;
+import org.teiid.dqp.internal.process.SessionAwareCache.CacheID;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.query.optimizer.relational.rules.RuleAssignOutputElements;
+import org.teiid.query.parser.ParseInfo;
+import org.teiid.query.processor.ProcessorPlan;
+import org.teiid.query.processor.relational.LimitNode;
+import org.teiid.query.processor.relational.ProjectNode;
+import org.teiid.query.processor.relational.RelationalNode;
+import org.teiid.query.processor.relational.RelationalPlan;
+import org.teiid.query.processor.relational.SelectNode;
+import org.teiid.query.processor.relational.SortNode;
+import org.teiid.query.processor.relational.SortUtility.Mode;
+import org.teiid.query.sql.LanguageObject;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.OrderByItem;
+import org.teiid.query.sql.lang.Query;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.visitor.ElementCollectorVisitor;
+import org.teiid.query.sql.visitor.ReferenceCollectorVisitor;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
+
+/**
+ * An index of the rewritten form of simple queries held in the result set cache.
+ * <br/>
+ * A new query over the same from clause whose criteria contains all of the conjuncts
+ * of a cached query, and that only references columns projected by the cached query,
+ * is answered by filtering and projecting the cached results rather than being planned
+ * and sent to the sources.
+ */
+public class SemanticCache {
+
+	private static final int MAX_GROUPS = 1024;
+	private static final int MAX_ENTRIES_PER_GROUP = 16;
+
+	private static class Entry {
+		String sql;
+		ParseInfo parseInfo;
+		Query command;
+	}
+
+	/**
+	 * Reads the rows of a cached result
+	 */
+	static class CachedResultsNode extends RelationalNode {
+
+		private TupleBuffer results;
+		private IndexedTupleSource tupleSource;
+
+		public CachedResultsNode(int nodeID, TupleBuffer results) {
+			super(nodeID);
+			this.results = results;
+		}
+
+		@Override
+		protected TupleBatch nextBatchDirect() throws TeiidComponentException, TeiidProcessingException {
+			if (tupleSource == null) {
+				tupleSource = results.createIndexedTupleSource();
+			}
+			while (tupleSource.hasNext()) {
+				addBatchRow(tupleSource.nextTuple());
+				if (isBatchFull()) {
+					return pullBatch();
+				}
+			}
+			terminateBatches();
+			return pullBatch();
+		}
+
+		@Override
+		public void closeDirect() {
+			if (tupleSource != null) {
+				tupleSource.closeSource();
+				tupleSource = null;
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			tupleSource = null;
+		}
+
+		@Override
+		public Object clone() {
+			CachedResultsNode clone = new CachedResultsNode(getID(), results);
+			copyTo(clone);
+			return clone;
+		}
+
+	}
+
+	private SessionAwareCache<CachedResults> rsCache;
+	private LRUCache<String, LinkedList<Entry>> entries = new LRUCache<String, LinkedList<Entry>>(MAX_GROUPS);
+
+	public SemanticCache(SessionAwareCache<CachedResults> rsCache) {
+		this.rsCache = rsCache;
+	}
+
+	/**
+	 * Determine if the rewritten command may be used to answer other queries
+	 * @param query
+	 */
+	static boolean isCachable(Query query) {
+		if (!isMatchable(query) || query.getLimit() != null || query.getSelect().isDistinct()) {
+			return false;
+		}
+		for (Expression ex : query.getSelect().getProjectedSymbols()) {
+			if (!(ex instanceof ElementSymbol)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine if the rewritten command may be answered from a cached query
+	 * @param query
+	 */
+	static boolean isMatchable(Query query) {
+		if (query.getFrom() == null || query.getInto() != null || query.getIsXML() || query.hasAggregates()
+				|| query.getOption() != null || query.getWith() != null
+				|| !ReferenceCollectorVisitor.getReferences(query).isEmpty()
+				|| !ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(query).isEmpty()
+				|| !RuleAssignOutputElements.getWindowFunctions(query.getSelect().getProjectedSymbols()).isEmpty()) {
+			return false;
+		}
+		if (query.getOrderBy() != null) {
+			for (OrderByItem item : query.getOrderBy().getOrderByItems()) {
+				if (item.isUnrelated()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static String getKey(DQPWorkContext workContext, Query query) {
+		return workContext.getVdbName() + "." + workContext.getVdbVersion() + " " + query.getFrom(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Add the rewritten form of a command that has been placed in the result set cache
+	 */
+	public void add(DQPWorkContext workContext, ParseInfo parseInfo, String sql, Query query) {
+		Entry entry = new Entry();
+		entry.sql = sql;
+		entry.parseInfo = parseInfo;
+		entry.command = query;
+		String key = getKey(workContext, query);
+		synchronized (entries) {
+			LinkedList<Entry> group = entries.get(key);
+			if (group == null) {
+				group = new LinkedList<Entry>();
+				entries.put(key, group);
+			}
+			for (Entry existing : group) {
+				if (existing.sql.equals(sql)) {
+					return;
+				}
+			}
+			group.addFirst(entry);
+			if (group.size() > MAX_ENTRIES_PER_GROUP) {
+				group.removeLast();
+			}
+		}
+	}
+
+	/**
+	 * Get a plan that answers the rewritten query from a cached result
+	 * @return the plan or null if there is no cached result that subsumes the query
+	 */
+	public ProcessorPlan getPlan(DQPWorkContext workContext, Query query) {
+		if (!isMatchable(query)) {
+			return null;
+		}
+		List<Entry> candidates = null;
+		synchronized (entries) {
+			LinkedList<Entry> group = entries.get(getKey(workContext, query));
+			if (group == null) {
+				return null;
+			}
+			candidates = new ArrayList<Entry>(group);
+		}
+		for (Entry entry : candidates) {
+			if (!entry.command.getFrom().equals(query.getFrom())) {
+				continue;
+			}
+			List<Criteria> residual = getResidualCriteria(entry.command, query);
+			if (residual == null) {
+				continue;
+			}
+			List<Expression> cachedColumns = entry.command.getProjectedSymbols();
+			Set<ElementSymbol> required = new HashSet<ElementSymbol>();
+			ElementCollectorVisitor.getElements(query.getSelect(), required);
+			ElementCollectorVisitor.getElements(residual, required);
+			if (!cachedColumns.containsAll(required)) {
+				continue;
+			}
+			CacheID cid = new CacheID(workContext, entry.parseInfo, entry.sql);
+			CachedResults cr = rsCache.get(cid);
+			if (cr == null || cr.getRowLimit() != 0) {
+				continue;
+			}
+			LogManager.logDetail(LogConstants.CTX_DQP, "Using cached results of", entry.sql, "for", query); //$NON-NLS-1$ //$NON-NLS-2$
+			return createPlan(query, LanguageObject.Util.deepClone(cachedColumns, Expression.class), cr.getResults(), Criteria.combineCriteria(residual));
+		}
+		return null;
+	}
+
+	/**
+	 * @return the conjuncts of the query criteria not present in the cached criteria or
+	 * null if the cached criteria is not contained in the query criteria
+	 */
+	static List<Criteria> getResidualCriteria(Query cached, Query query) {
+		List<Criteria> conjuncts = new ArrayList<Criteria>(Criteria.separateCriteriaByAnd(query.getCriteria()));
+		for (Criteria crit : Criteria.separateCriteriaByAnd(cached.getCriteria())) {
+			if (!conjuncts.remove(crit)) {
+				return null;
+			}
+		}
+		return conjuncts;
+	}
+
+	private ProcessorPlan createPlan(Query query, List<Expression> cachedColumns, TupleBuffer results, Criteria residual) {
+		int id = 0;
+		RelationalNode node = new CachedResultsNode(++id, results);
+		node.setElements(cachedColumns);
+		if (residual != null) {
+			SelectNode select = new SelectNode(++id);
+			select.setCriteria(residual);
+			select.setElements(cachedColumns);
+			select.addChild(node);
+			node = select;
+		}
+		List<Expression> projected = query.getProjectedSymbols();
+		ProjectNode project = new ProjectNode(++id);
+		project.setSelectSymbols(query.getSelect().getProjectedSymbols());
+		project.setElements(projected);
+		project.addChild(node);
+		node = project;
+		if (query.getOrderBy() != null || query.getSelect().isDistinct()) {
+			SortNode sort = new SortNode(++id);
+			if (query.getOrderBy() != null) {
+				sort.setSortElements(query.getOrderBy().getOrderByItems());
+				if (query.getSelect().isDistinct()) {
+					sort.setMode(Mode.DUP_REMOVE_SORT);
+				}
+			} else {
+				sort.setMode(Mode.DUP_REMOVE);
+			}
+			sort.setElements(projected);
+			sort.addChild(node);
+			node = sort;
+		}
+		if (query.getLimit() != null) {
+			LimitNode limit = new LimitNode(++id, query.getLimit().getRowLimit(), query.getLimit().getOffset());
+			limit.setImplicit(query.getLimit().isImplicit());
+			limit.setElements(projected);
+			limit.addChild(node);
+			node = limit;
+		}
+		RelationalPlan plan = new RelationalPlan(node);
+		plan.setOutputElements(projected);
+		return plan;
+	}
+
+}
@@ -25,11 +25,10 @@ package org.teiid.dqp.internal.process;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
@@ -39,6 +38,7 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.resource.spi.work.Work;
 
@@ -65,6 +65,11 @@ import org.teiid.query.QueryPlugin;
  * backed {@link ThreadPoolExecutor}.
  * <br/>
  * There is also only a single master scheduling thread with actual executions deferred.
+ * <br/>
+ * Thread accounting and the priority queue are lock free so that submissions from many 
+ * sessions do not contend on a single monitor.  A worker that completes a task hands itself 
+ * off to the next queued task.  Ordering is by {@link PrioritizedRunnable} priority, then 
+ * creation time, then submission order.
  * 
  * TODO: there is a race condition between retiring threads and adding work, which may create extra threads.  
  * That is a flaw with attempting to reuse, rather than create threads.  
@@ -215,30 +220,55 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 		}
 	}
 	
-	private volatile int activeCount;
-	private volatile int highestActiveCount;
-	private volatile int highestQueueSize;
+	/**
+	 * A queue entry that preserves the submission order for tasks with the 
+	 * same priority and creation time
+	 */
+	private static class QueuedTask {
+		final PrioritizedRunnable runnable;
+		final long sequence;
+		final long queuedTime = System.currentTimeMillis();
+		
+		QueuedTask(PrioritizedRunnable runnable, long sequence) {
+			this.runnable = runnable;
+			this.sequence = sequence;
+		}
+	}
+	
+	private AtomicInteger activeCount = new AtomicInteger();
+	private AtomicInteger highestActiveCount = new AtomicInteger();
+	private AtomicInteger queueSize = new AtomicInteger();
+	private AtomicInteger highestQueueSize = new AtomicInteger();
 	private volatile boolean terminated;
-	private volatile int submittedCount;
-	private volatile int completedCount;
+	private AtomicLong submittedCount = new AtomicLong();
+	private AtomicLong completedCount = new AtomicLong();
+	private AtomicLong totalQueued = new AtomicLong();
+	private AtomicLong totalQueueWaitTime = new AtomicLong();
+	private AtomicLong highestQueueWaitTime = new AtomicLong();
+	private AtomicLong sequence = new AtomicLong();
 	private Object poolLock = new Object();
 	private AtomicInteger threadCounter = new AtomicInteger();
-	private Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Thread, Boolean>()));
-	private Set<ScheduledFutureTask> scheduledTasks = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ScheduledFutureTask, Boolean>()));
+	private Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+	private Set<ScheduledFutureTask> scheduledTasks = Collections.newSetFromMap(new ConcurrentHashMap<ScheduledFutureTask, Boolean>());
 	
 	private String poolName;
 	private int maximumPoolSize;
-	private Queue<PrioritizedRunnable> queue = new PriorityQueue<PrioritizedRunnable>(11, new Comparator<PrioritizedRunnable>() {
+	private ConcurrentSkipListSet<QueuedTask> queue = new ConcurrentSkipListSet<QueuedTask>(new Comparator<QueuedTask>() {
 		@Override
-		public int compare(PrioritizedRunnable pr1, PrioritizedRunnable pr2) {
+		public int compare(QueuedTask qt1, QueuedTask qt2) {
+			PrioritizedRunnable pr1 = qt1.runnable;
+			PrioritizedRunnable pr2 = qt2.runnable;
 			int result = pr1.getPriority() - pr2.getPriority();
 			if (result == 0) {
-				return Long.signum(pr1.getCreationTime() - pr2.getCreationTime());
+				result = Long.signum(pr1.getCreationTime() - pr2.getCreationTime());
+				if (result == 0) {
+					return Long.signum(qt1.sequence - qt2.sequence);
+				}
 			}
 			return result;
 		}
 	});
-	private long warnWaitTime = 500;
+	private volatile long warnWaitTime = 500;
 	
 	public ThreadReuseExecutor(String name, int maximumPoolSize) {
 		this.maximumPoolSize = maximumPoolSize;
@@ -262,25 +292,74 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 	}
 
 	private void executeDirect(final PrioritizedRunnable command) {
-		boolean atMaxThreads = false;
-		synchronized (poolLock) {
-			checkForTermination();
-			submittedCount++;
-			atMaxThreads = activeCount == maximumPoolSize;
-			if (atMaxThreads) {
-				queue.add(command);
-				int queueSize = queue.size();
-				if (queueSize > highestQueueSize) {
-					highestQueueSize = queueSize;
-				}
-			} else {
-				activeCount++;
-				highestActiveCount = Math.max(activeCount, highestActiveCount);
+		checkForTermination();
+		submittedCount.getAndIncrement();
+		if (reserveThread()) {
+			startWorker(command);
+			return;
+		}
+		queue.add(new QueuedTask(command, sequence.getAndIncrement()));
+		updateMax(highestQueueSize, queueSize.incrementAndGet());
+		//a worker may have retired after we checked
+		if (reserveThread()) {
+			startWorker(null);
+		}
+	}
+	
+	/**
+	 * Claim a thread slot if below the maximum
+	 */
+	private boolean reserveThread() {
+		while (true) {
+			int count = activeCount.get();
+			if (count >= maximumPoolSize) {
+				return false;
+			}
+			if (activeCount.compareAndSet(count, count + 1)) {
+				updateMax(highestActiveCount, count + 1);
+				return true;
 			}
 		}
-		if (atMaxThreads) {
-			return;
+	}
+	
+	private static void updateMax(AtomicInteger max, int value) {
+		int current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+	
+	private PrioritizedRunnable poll() {
+		QueuedTask task = queue.pollFirst();
+		if (task == null) {
+			return null;
+		}
+		queueSize.getAndDecrement();
+		long wait = System.currentTimeMillis() - task.queuedTime;
+		totalQueued.getAndIncrement();
+		totalQueueWaitTime.getAndAdd(wait);
+		long current = highestQueueWaitTime.get();
+		while (wait > current && !highestQueueWaitTime.compareAndSet(current, wait)) {
+			current = highestQueueWaitTime.get();
+		}
+		return task.runnable;
+	}
+	
+	/**
+	 * Release the thread slot.  Returns true if the slot was reclaimed to run 
+	 * work that was queued concurrently.
+	 */
+	private boolean retire() {
+		int count = activeCount.decrementAndGet();
+		if (count == 0 && terminated) {
+			synchronized (poolLock) {
+				poolLock.notifyAll();
+			}
 		}
+		return !queue.isEmpty() && reserveThread();
+	}
+
+	private void startWorker(final PrioritizedRunnable command) {
 		tpe.execute(new Runnable() {
 			@Override
 			public void run() {
@@ -292,36 +371,41 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 					LogManager.logTrace(LogConstants.CTX_RUNTIME, "Beginning work with virtual worker", t.getName()); //$NON-NLS-1$ 
 				}
 				PrioritizedRunnable r = command;
-				while (r != null) {
+				if (r == null) {
+					r = poll();
+				}
+				while (r != null || retire()) {
+					if (r == null) {
+						r = poll();
+						continue;
+					}
 					boolean success = false;
 					try {
 						r.run();
 						success = true;
 					} finally {
-						synchronized (poolLock) {
-							if (success) {
-								completedCount++;
-								//we only poll if successful, to let the exception handling happen immediately otherwise
-								r = queue.poll();
-							}
-							if (!success || r == null) {
-								threads.remove(t);
-								activeCount--;
-								if (activeCount == 0 && terminated) {
-									poolLock.notifyAll();
-								}		
+						if (success) {
+							completedCount.getAndIncrement();
+							//we only poll if successful, to let the exception handling happen immediately otherwise
+							r = poll();
+						} else {
+							threads.remove(t);
+							if (retire()) {
+								//let another worker take the queued work
+								startWorker(null);
 							}
 						}
 						if (success) {
 							long warnTime = warnWaitTime;
 							if (r != null && System.currentTimeMillis() - r.getCreationTime() > warnTime) {
-								LogManager.logWarning(LogConstants.CTX_RUNTIME, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30009, maximumPoolSize, poolName, highestQueueSize, warnTime));
+								LogManager.logWarning(LogConstants.CTX_RUNTIME, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30009, maximumPoolSize, poolName, highestQueueSize.get(), warnTime));
 								warnWaitTime*=2; //we don't really care if this is synchronized
 							}
 						}
 						t.setName(name);
 					}
 				}
+				threads.remove(t);
 			};
 		});
 	}
@@ -333,19 +417,19 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 	}
 	
 	public int getActiveCount() {
-		return activeCount;
+		return activeCount.get();
 	}
 	
-	public int getSubmittedCount() {
-		return submittedCount;
+	public long getSubmittedCount() {
+		return submittedCount.get();
 	}
 	
-	public int getCompletedCount() {
-		return completedCount;
+	public long getCompletedCount() {
+		return completedCount.get();
 	}
 	
 	public int getPoolSize() {
-		return activeCount;
+		return activeCount.get();
 	}
 	
 	public boolean isTerminated() {
@@ -354,49 +438,50 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 	
 	public void shutdown() {
 		this.terminated = true;
-		synchronized (scheduledTasks) {
-			for (ScheduledFuture<?> future : new ArrayList<ScheduledFuture<?>>(scheduledTasks)) {
-				future.cancel(false);
-			}
-			scheduledTasks.clear();
+		for (ScheduledFuture<?> future : new ArrayList<ScheduledFuture<?>>(scheduledTasks)) {
+			future.cancel(false);
 		}
+		scheduledTasks.clear();
 	}
 	
 	public int getLargestPoolSize() {
-		return this.highestActiveCount;
+		return this.highestActiveCount.get();
 	}
 	
 	public WorkerPoolStatisticsMetadata getStats() {
 		WorkerPoolStatisticsMetadata stats = new WorkerPoolStatisticsMetadata();
 		stats.setName(poolName);
-		stats.setQueued(queue.size());
-		stats.setHighestQueued(highestQueueSize);
+		stats.setQueued(queueSize.get());
+		stats.setHighestQueued(highestQueueSize.get());
 		stats.setActiveThreads(getActiveCount());
 		stats.setMaxThreads(this.maximumPoolSize);
 		stats.setTotalSubmitted(getSubmittedCount());
 		stats.setHighestActiveThreads(getLargestPoolSize());
 		stats.setTotalCompleted(getCompletedCount());
+		long queued = totalQueued.get();
+		stats.setTotalQueued(queued);
+		if (queued > 0) {
+			stats.setAverageQueueWaitTime(totalQueueWaitTime.get()/queued);
+		}
+		stats.setHighestQueueWaitTime(highestQueueWaitTime.get());
 		return stats;
 	}
 	
 	public boolean hasWork() {
-		synchronized (poolLock) {
-			return this.getSubmittedCount() - this.getCompletedCount() > 0 && !this.isTerminated();
-		}
+		return this.getSubmittedCount() - this.getCompletedCount() > 0 && !this.isTerminated();
 	}
 
 	public List<Runnable> shutdownNow() {
 		this.shutdown();
-		synchronized (poolLock) {
-			synchronized (threads) {
-				for (Thread t : threads) {
-					t.interrupt();
-				}
-			}
-			List<Runnable> result = new ArrayList<Runnable>(queue);
-			queue.clear();
-			return result;
+		for (Thread t : threads) {
+			t.interrupt();
 		}
+		List<Runnable> result = new ArrayList<Runnable>();
+		PrioritizedRunnable r = null;
+		while ((r = poll()) != null) {
+			result.add(r);
+		}
+		return result;
 	}
 	
 	public boolean awaitTermination(long timeout, TimeUnit unit)
@@ -404,7 +489,7 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 		long timeoutMillis = unit.toMillis(timeout);
 		long finalMillis = System.currentTimeMillis() + timeoutMillis;
 		synchronized (poolLock) {
-			while (this.activeCount > 0 || !terminated) {
+			while (this.activeCount.get() > 0 || !terminated) {
 				if (timeoutMillis < 1) {
 					return false;
 				}
@@ -419,22 +504,18 @@ public class ThreadReuseExecutor implements TeiidExecutor {
 			TimeUnit unit) {
 		checkForTermination();
 		ScheduledFutureTask sft = new ScheduledFutureTask(new RunnableWrapper(command), false);
-		synchronized (scheduledTasks) {
-			ScheduledFuture<?> future = stpe.schedule(sft.getParent(), delay, unit);
-			sft.setScheduledFuture(future);
-			return sft;
-		}
+		ScheduledFuture<?> future = stpe.schedule(sft.getParent(), delay, unit);
+		sft.setScheduledFuture(future);
+		return sft;
 	}
 
 	public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command,
 			long initialDelay, long period, TimeUnit unit) {
 		checkForTermination();
 		ScheduledFutureTask sft = new ScheduledFutureTask(new RunnableWrapper(command), true);
-		synchronized (scheduledTasks) {
-			ScheduledFuture<?> future = stpe.scheduleAtFixedRate(sft.getParent(), initialDelay, period, unit);
-			sft.setScheduledFuture(future);
-			return sft;
-		}		
+		ScheduledFuture<?> future = stpe.scheduleAtFixedRate(sft.getParent(), initialDelay, period, unit);
+		sft.setScheduledFuture(future);
+		return sft;
 	}
 			
 }
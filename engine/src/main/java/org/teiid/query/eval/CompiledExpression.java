@@ -0,0 +1,541 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.eval;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.api.exception.query.FunctionExecutionException;
+import org.teiid.client.ColumnarBatch;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.EquivalenceUtil;
+import org.teiid.query.QueryPlugin;
+import org.teiid.query.function.FunctionDescriptor;
+import org.teiid.query.function.FunctionLibrary;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.ExpressionCriteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
+import org.teiid.query.sql.lang.NotCriteria;
+import org.teiid.query.sql.symbol.CaseExpression;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.DerivedExpression;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
+import org.teiid.query.sql.symbol.SearchedCaseExpression;
+
+/**
+ * A resolved {@link Expression} or {@link Criteria} flattened into a tree of 
+ * evaluation nodes with the tuple indexes and function descriptors bound ahead of time.
+ * This removes the instanceof dispatch and element map lookups performed per row 
+ * by the {@link Evaluator}.
+ * <br/>
+ * Constructs that cannot be compiled, such as subqueries, xml functions, 
+ * and correlated references, are delegated back to the {@link Evaluator}.
+ * <br/>
+ * Compiled expressions may also be evaluated a batch at a time to produce a selection 
+ * vector for criteria or a column of values for expressions.  Comparisons of element 
+ * references against constants are evaluated directly over the primitive columns 
+ * of a {@link ColumnarBatch}.
+ * <br/>
+ * Compiled expressions hold no processing state, so they may be shared 
+ * by plan clones.
+ */
+public abstract class CompiledExpression {
+	
+	private static final class ElementNode extends CompiledExpression {
+		private final int index;
+		
+		ElementNode(Expression expression, int index) {
+			super(expression);
+			this.index = index;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) {
+			return tuple.get(index);
+		}
+		
+		@Override
+		void evaluate(Evaluator evaluator, List<? extends List<?>> tuples,
+				ColumnarBatch result, int col) throws ExpressionEvaluationException,
+				BlockedException, TeiidComponentException {
+			if (tuples instanceof ColumnarBatch) {
+				ColumnarBatch batch = (ColumnarBatch)tuples;
+				if (batch.getTypes()[index] == result.getTypes()[col]) {
+					result.setColumn(col, batch, index);
+					return;
+				}
+			}
+			super.evaluate(evaluator, tuples, result, col);
+		}
+	}
+	
+	private static final class ConstantNode extends CompiledExpression {
+		private final Object value;
+		
+		ConstantNode(Constant expression) {
+			super(expression);
+			this.value = expression.getValue();
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) {
+			return value;
+		}
+	}
+	
+	private static final class FunctionNode extends CompiledExpression {
+		private final FunctionDescriptor fd;
+		private final CompiledExpression[] args;
+		private final int start;
+		
+		FunctionNode(Function expression, CompiledExpression[] args) {
+			super(expression);
+			this.fd = expression.getFunctionDescriptor();
+			this.args = args;
+			this.start = fd.requiresContext()?1:0;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			Object[] values = new Object[args.length + start];
+			if (start == 1) {
+				values[0] = evaluator.context;
+			}
+			for (int i = 0; i < args.length; i++) {
+				values[i + start] = args[i].evaluate(evaluator, tuple);
+			}
+			return fd.invokeFunction(values, evaluator.context, null);
+		}
+	}
+	
+	private static final class CompareNode extends CompiledExpression {
+		private final CompiledExpression left;
+		private final CompiledExpression right;
+		
+		CompareNode(CompareCriteria expression, CompiledExpression left, CompiledExpression right) {
+			super(expression);
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			Object leftValue = null;
+			try {
+				leftValue = left.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+				throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "left", expression)); //$NON-NLS-1$
+			}
+			if (leftValue == null) {
+				return null;
+			}
+			Object rightValue = null;
+			try {
+				rightValue = right.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+				throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "right", expression)); //$NON-NLS-1$
+			}
+			if (rightValue == null) {
+				return null;
+			}
+			return Evaluator.compare((CompareCriteria)expression, leftValue, rightValue);
+		}
+		
+		@Override
+		int select(Evaluator evaluator, List<? extends List<?>> tuples,
+				int[] selection, int count) throws ExpressionEvaluationException,
+				BlockedException, TeiidComponentException {
+			if (!(tuples instanceof ColumnarBatch) || !(left instanceof ElementNode) || !(right instanceof ConstantNode)) {
+				return super.select(evaluator, tuples, selection, count);
+			}
+			ColumnarBatch batch = (ColumnarBatch)tuples;
+			int col = ((ElementNode)left).index;
+			Object value = ((ConstantNode)right).value;
+			if (value == null) {
+				return 0;
+			}
+			int operator = ((CompareCriteria)expression).getOperator();
+			Class<?> type = batch.getTypes()[col];
+			if (type != value.getClass()) {
+				return super.select(evaluator, tuples, selection, count);
+			}
+			BitSet nulls = batch.getNulls(col);
+			int result = 0;
+			if (type == DataTypeManager.DefaultDataClasses.INTEGER) {
+				int[] values = batch.getIntValues(col);
+				int constant = (Integer)value;
+				for (int i = 0; i < count; i++) {
+					int row = selection[i];
+					if (!nulls.get(row) && matches(operator, values[row] < constant ? -1 : (values[row] == constant ? 0 : 1))) {
+						selection[result++] = row;
+					}
+				}
+			} else if (type == DataTypeManager.DefaultDataClasses.LONG 
+					|| type == DataTypeManager.DefaultDataClasses.DATE
+					|| type == DataTypeManager.DefaultDataClasses.TIME) {
+				long[] values = batch.getLongValues(col);
+				long constant = type == DataTypeManager.DefaultDataClasses.LONG?(Long)value:((java.util.Date)value).getTime();
+				for (int i = 0; i < count; i++) {
+					int row = selection[i];
+					if (!nulls.get(row) && matches(operator, values[row] < constant ? -1 : (values[row] == constant ? 0 : 1))) {
+						selection[result++] = row;
+					}
+				}
+			} else if (type == DataTypeManager.DefaultDataClasses.DOUBLE) {
+				double[] values = batch.getDoubleValues(col);
+				double constant = (Double)value;
+				for (int i = 0; i < count; i++) {
+					int row = selection[i];
+					if (!nulls.get(row) && matches(operator, Double.compare(values[row], constant))) {
+						selection[result++] = row;
+					}
+				}
+			} else {
+				return super.select(evaluator, tuples, selection, count);
+			}
+			return result;
+		}
+	}
+	
+	private static final class CompoundNode extends CompiledExpression {
+		private final boolean and;
+		private final CompiledExpression[] crits;
+		
+		CompoundNode(CompoundCriteria expression, boolean and, CompiledExpression[] crits) {
+			super(expression);
+			this.and = and;
+			this.crits = crits;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			Boolean result = and?Boolean.TRUE:Boolean.FALSE;
+			for (int i = 0; i < crits.length; i++) {
+				Boolean value = (Boolean)crits[i].evaluate(evaluator, tuple);
+				if (value == null) {
+					result = null;
+				} else if (!value.booleanValue()) {
+					if (and) {
+						return Boolean.FALSE;
+					}
+				} else if (!and) {
+					return Boolean.TRUE;
+				}
+			}
+			return result;
+		}
+		
+		@Override
+		int select(Evaluator evaluator, List<? extends List<?>> tuples,
+				int[] selection, int count) throws ExpressionEvaluationException,
+				BlockedException, TeiidComponentException {
+			if (!and) {
+				return super.select(evaluator, tuples, selection, count);
+			}
+			//each conjunct only needs to be evaluated against the rows that remain
+			for (int i = 0; i < crits.length && count > 0; i++) {
+				count = crits[i].select(evaluator, tuples, selection, count);
+			}
+			return count;
+		}
+	}
+	
+	private static final class NotNode extends CompiledExpression {
+		private final CompiledExpression crit;
+		
+		NotNode(NotCriteria expression, CompiledExpression crit) {
+			super(expression);
+			this.crit = crit;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			Boolean result = (Boolean)crit.evaluate(evaluator, tuple);
+			if (result == null) {
+				return null;
+			}
+			return !result.booleanValue();
+		}
+	}
+	
+	private static final class IsNullNode extends CompiledExpression {
+		private final CompiledExpression value;
+		private final boolean negated;
+		
+		IsNullNode(IsNullCriteria expression, CompiledExpression value) {
+			super(expression);
+			this.value = value;
+			this.negated = expression.isNegated();
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			Object result = null;
+			try {
+				result = value.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+				throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30323, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30323, expression));
+			}
+			return result == null ^ negated;
+		}
+	}
+	
+	private static final class CaseNode extends CompiledExpression {
+		private final CompiledExpression value;
+		private final CompiledExpression[] whens;
+		private final CompiledExpression[] thens;
+		private final CompiledExpression elseExpression;
+		
+		CaseNode(Expression expression, CompiledExpression value, CompiledExpression[] whens, CompiledExpression[] thens, CompiledExpression elseExpression) {
+			super(expression);
+			this.value = value;
+			this.whens = whens;
+			this.thens = thens;
+			this.elseExpression = elseExpression;
+		}
+
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			if (value != null) {
+				Object exprVal = value.evaluate(evaluator, tuple);
+				for (int i = 0; i < whens.length; i++) {
+					if (EquivalenceUtil.areEqual(exprVal, whens[i].evaluate(evaluator, tuple))) {
+						return thens[i].evaluate(evaluator, tuple);
+					}
+				}
+			} else {
+				for (int i = 0; i < whens.length; i++) {
+					if (Boolean.TRUE.equals(whens[i].evaluate(evaluator, tuple))) {
+						return thens[i].evaluate(evaluator, tuple);
+					}
+				}
+			}
+			if (elseExpression != null) {
+				return elseExpression.evaluate(evaluator, tuple);
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Delegates to the {@link Evaluator} for anything that is not compiled
+	 */
+	private static final class InterpretedNode extends CompiledExpression {
+		
+		InterpretedNode(Expression expression) {
+			super(expression);
+		}
+		
+		@Override
+		Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+			if (expression instanceof Criteria) {
+				return evaluator.evaluateTVL((Criteria)expression, tuple);
+			}
+			return evaluator.internalEvaluate(expression, tuple);
+		}
+		
+		@Override
+		public boolean isCompiled() {
+			return false;
+		}
+	}
+	
+	protected final Expression expression;
+	
+	CompiledExpression(Expression expression) {
+		this.expression = expression;
+	}
+	
+	/**
+	 * Compile the expression.
+	 * @param expression a resolved expression
+	 * @param elements the map of expressions to tuple indexes used by the {@link Evaluator}
+	 * @return the compiled form, which will delegate to the interpreter
+	 * for constructs that cannot be compiled.
+	 */
+	public static CompiledExpression compile(Expression expression, Map<? extends Expression, Integer> elements) {
+		if (expression instanceof DerivedExpression) {
+			if (elements != null) {
+				Integer index = elements.get(expression);
+				if (index != null) {
+					return new ElementNode(expression, index);
+				}
+			}
+			if (expression instanceof ExpressionSymbol) {
+				return compile(((ExpressionSymbol)expression).getExpression(), elements);
+			}
+		} else if (expression instanceof Constant) {
+			return new ConstantNode((Constant)expression);
+		} else if (expression instanceof Function) {
+			Function function = (Function)expression;
+			FunctionDescriptor fd = function.getFunctionDescriptor();
+			if (fd != null && !function.getName().equalsIgnoreCase(FunctionLibrary.LOOKUP)) {
+				try {
+					fd.checkNotPushdown();
+					return new FunctionNode(function, compile(function.getArgs(), elements));
+				} catch (FunctionExecutionException e) {
+					//let the interpreter raise the error
+				}
+			}
+		} else if (expression instanceof CompareCriteria) {
+			CompareCriteria crit = (CompareCriteria)expression;
+			return new CompareNode(crit, compile(crit.getLeftExpression(), elements), compile(crit.getRightExpression(), elements));
+		} else if (expression instanceof CompoundCriteria) {
+			CompoundCriteria crit = (CompoundCriteria)expression;
+			List<Criteria> crits = new ArrayList<Criteria>(crit.getCriteria().size());
+			flatten(crit, crits);
+			return new CompoundNode(crit, crit.getOperator() == CompoundCriteria.AND, compile(crits.toArray(new Expression[crits.size()]), elements));
+		} else if (expression instanceof NotCriteria) {
+			NotCriteria crit = (NotCriteria)expression;
+			return new NotNode(crit, compile(crit.getCriteria(), elements));
+		} else if (expression instanceof IsNullCriteria) {
+			IsNullCriteria crit = (IsNullCriteria)expression;
+			return new IsNullNode(crit, compile(crit.getExpression(), elements));
+		} else if (expression instanceof ExpressionCriteria) {
+			return compile(((ExpressionCriteria)expression).getExpression(), elements);
+		} else if (expression instanceof CaseExpression) {
+			CaseExpression expr = (CaseExpression)expression;
+			CompiledExpression[] whens = new CompiledExpression[expr.getWhenCount()];
+			CompiledExpression[] thens = new CompiledExpression[expr.getWhenCount()];
+			for (int i = 0; i < whens.length; i++) {
+				whens[i] = compile(expr.getWhenExpression(i), elements);
+				thens[i] = compile(expr.getThenExpression(i), elements);
+			}
+			return new CaseNode(expr, compile(expr.getExpression(), elements), whens, thens, compileOptional(expr.getElseExpression(), elements));
+		} else if (expression instanceof SearchedCaseExpression) {
+			SearchedCaseExpression expr = (SearchedCaseExpression)expression;
+			CompiledExpression[] whens = new CompiledExpression[expr.getWhenCount()];
+			CompiledExpression[] thens = new CompiledExpression[expr.getWhenCount()];
+			for (int i = 0; i < whens.length; i++) {
+				whens[i] = compile(expr.getWhenCriteria(i), elements);
+				thens[i] = compile(expr.getThenExpression(i), elements);
+			}
+			return new CaseNode(expr, null, whens, thens, compileOptional(expr.getElseExpression(), elements));
+		}
+		return new InterpretedNode(expression);
+	}
+	
+	private static CompiledExpression compileOptional(Expression expression, Map<? extends Expression, Integer> elements) {
+		if (expression == null) {
+			return null;
+		}
+		return compile(expression, elements);
+	}
+
+	private static CompiledExpression[] compile(Expression[] expressions, Map<? extends Expression, Integer> elements) {
+		CompiledExpression[] result = new CompiledExpression[expressions.length];
+		for (int i = 0; i < expressions.length; i++) {
+			result[i] = compile(expressions[i], elements);
+		}
+		return result;
+	}
+	
+	/**
+	 * Nested criteria with the same operator can be evaluated as a single level
+	 */
+	private static void flatten(CompoundCriteria crit, List<Criteria> result) {
+		for (Criteria child : crit.getCriteria()) {
+			if (child instanceof CompoundCriteria && ((CompoundCriteria)child).getOperator() == crit.getOperator()) {
+				flatten((CompoundCriteria)child, result);
+			} else {
+				result.add(child);
+			}
+		}
+	}
+	
+	abstract Object evaluate(Evaluator evaluator, List<?> tuple) throws ExpressionEvaluationException, BlockedException, TeiidComponentException;
+	
+	/**
+	 * Evaluate this criteria against the candidate rows, keeping only the rows 
+	 * that evaluate to true.
+	 * @param tuples the batch
+	 * @param selection the candidate row indexes in ascending order, which will be overwritten 
+	 * with the matching row indexes
+	 * @param count the number of candidate row indexes
+	 * @return the number of matching rows
+	 */
+	int select(Evaluator evaluator, List<? extends List<?>> tuples, int[] selection, int count) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		int result = 0;
+		for (int i = 0; i < count; i++) {
+			int row = selection[i];
+			if (Boolean.TRUE.equals(evaluate(evaluator, tuples.get(row)))) {
+				selection[result++] = row;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Evaluate this expression for every row of the batch, setting the values 
+	 * into the given column of the result.
+	 */
+	void evaluate(Evaluator evaluator, List<? extends List<?>> tuples, ColumnarBatch result, int col) throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		for (int row = 0; row < tuples.size(); row++) {
+			result.setValue(row, col, evaluate(evaluator, tuples.get(row)));
+		}
+	}
+	
+	private static boolean matches(int operator, int compare) {
+		switch (operator) {
+		case CompareCriteria.EQ:
+			return compare == 0;
+		case CompareCriteria.NE:
+			return compare != 0;
+		case CompareCriteria.LT:
+			return compare < 0;
+		case CompareCriteria.LE:
+			return compare <= 0;
+		case CompareCriteria.GT:
+			return compare > 0;
+		case CompareCriteria.GE:
+			return compare >= 0;
+		}
+		throw new AssertionError("unknown operator"); //$NON-NLS-1$
+	}
+	
+	/**
+	 * @return true if the root of this expression does not delegate to the interpreter
+	 */
+	public boolean isCompiled() {
+		return true;
+	}
+	
+	public Expression getExpression() {
+		return expression;
+	}
+	
+	@Override
+	public String toString() {
+		return String.valueOf(expression);
+	}
+
+}
@@ -48,6 +48,7 @@ import net.sf.saxon.trans.XPathException;
 
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.api.exception.query.FunctionExecutionException;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.SourceWarning;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.core.ComponentNotFoundException;
@@ -598,7 +599,54 @@ public class Evaluator {
 	    }
 	}
 	
-	private Object internalEvaluate(Expression expression, List<?> tuple)
+	/**
+	 * Evaluate a {@link CompiledExpression} that represents a {@link Criteria}
+	 */
+	public boolean evaluateCriteria(CompiledExpression criteria, List<?> tuple)
+		throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		
+		return Boolean.TRUE.equals(criteria.evaluate(this, tuple));
+	}
+	
+	public Object evaluate(CompiledExpression expression, List<?> tuple)
+		throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+	
+	    try {
+			return expression.evaluate(this, tuple);
+	    } catch (ExpressionEvaluationException e) {
+	         throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30328, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30328, new Object[] {expression.getExpression(), e.getMessage()}));
+	    }
+	}
+	
+	/**
+	 * Evaluate a {@link CompiledExpression} that represents a {@link Criteria} against
+	 * the candidate rows of a batch.
+	 * @param selection the candidate row indexes in ascending order, which will be overwritten
+	 * with the matching row indexes
+	 * @param count the number of candidate row indexes
+	 * @return the number of matching rows
+	 */
+	public int evaluateSelection(CompiledExpression criteria, List<? extends List<?>> tuples, int[] selection, int count)
+		throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		
+		return criteria.select(this, tuples, selection, count);
+	}
+	
+	/**
+	 * Evaluate a {@link CompiledExpression} for every row of a batch, setting the values into
+	 * the given column of the result.
+	 */
+	public void evaluate(CompiledExpression expression, List<? extends List<?>> tuples, ColumnarBatch result, int col)
+		throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		
+	    try {
+			expression.evaluate(this, tuples, result, col);
+	    } catch (ExpressionEvaluationException e) {
+	         throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30328, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30328, new Object[] {expression.getExpression(), e.getMessage()}));
+	    }
+	}
+	
+	Object internalEvaluate(Expression expression, List<?> tuple)
 	   throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
 	
 	   if(expression instanceof DerivedExpression) {
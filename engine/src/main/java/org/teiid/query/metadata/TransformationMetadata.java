@@ -34,6 +34,7 @@ import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
 
 import org.jboss.vfs.VirtualFile;
+import org.teiid.adminapi.impl.CacheStatisticsMetadata;
 import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
@@ -43,10 +44,13 @@ import org.teiid.core.types.ClobImpl;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.InputStreamFactory;
 import org.teiid.core.types.SQLXMLImpl;
+import org.teiid.core.TeiidException;
 import org.teiid.core.util.ArgCheck;
-import org.teiid.core.util.LRUCache;
+import org.teiid.core.util.ConcurrentLRUCache;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.StringUtil;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
 import org.teiid.metadata.*;
 import org.teiid.metadata.BaseColumn.NullType;
 import org.teiid.metadata.Column.SearchType;
@@ -69,6 +73,14 @@ import org.teiid.query.sql.lang.SPParameter;
 public class TransformationMetadata extends BasicQueryMetadata implements Serializable {
 	
 	public static final String ALLOWED_LANGUAGES = "allowed-languages"; //$NON-NLS-1$
+	/**
+	 * vdb property for the capacity of each of the metadata lookup caches
+	 */
+	public static final String METADATA_CACHE_SIZE = "metadata-cache-size"; //$NON-NLS-1$
+	/**
+	 * vdb property to populate the metadata lookup caches when the vdb is deployed
+	 */
+	public static final String METADATA_CACHE_WARMUP = "metadata-cache-warmup"; //$NON-NLS-1$
 
 	private static final class LiveQueryNode extends QueryNode {
 		Procedure p;
@@ -160,10 +172,10 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
     /*
      * TODO: move caching to jboss cache structure
      */
-    private Map<String, Object> metadataCache = Collections.synchronizedMap(new LRUCache<String, Object>(250));
-    private Map<String, Object> groupInfoCache = Collections.synchronizedMap(new LRUCache<String, Object>(250));
-    private Map<String, Collection<Table>> partialNameToFullNameCache = Collections.synchronizedMap(new LRUCache<String, Collection<Table>>(1000));
-    private Map<String, Collection<StoredProcedureInfo>> procedureCache = Collections.synchronizedMap(new LRUCache<String, Collection<StoredProcedureInfo>>(200));
+    private ConcurrentLRUCache<String, Object> metadataCache;
+    private ConcurrentLRUCache<String, Object> groupInfoCache;
+    private ConcurrentLRUCache<String, Collection<Table>> partialNameToFullNameCache;
+    private ConcurrentLRUCache<String, Collection<StoredProcedureInfo>> procedureCache;
     /**
      * TransformationMetadata constructor
      * @param context Object containing the info needed to lookup metadta.
@@ -192,6 +204,37 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
         } else {
             this.functionLibrary = new FunctionLibrary(systemFunctions, functionTrees.toArray(new FunctionTree[functionTrees.size()]));
         }
+        int cacheSize = -1;
+        if (this.vdbMetaData != null) {
+        	String size = this.vdbMetaData.getPropertyValue(METADATA_CACHE_SIZE);
+        	if (size != null) {
+        		try {
+        			cacheSize = Integer.parseInt(size);
+        		} catch (NumberFormatException e) {
+        			//use the defaults
+        		}
+        	}
+        }
+        createCaches(cacheSize);
+    }
+    
+    /**
+     * Size the lookup caches to the given capacity or, when not positive, to 
+     * the number of tables and procedures in the store
+     */
+    private void createCaches(int cacheSize) {
+    	int tables = 0;
+    	int procedures = 0;
+    	if (cacheSize <= 0) {
+	    	for (Schema schema : this.store.getSchemas().values()) {
+	    		tables += schema.getTables().size();
+	    		procedures += schema.getProcedures().size();
+	    	}
+    	}
+    	this.metadataCache = new ConcurrentLRUCache<String, Object>(cacheSize > 0?cacheSize:Math.max(250, tables));
+    	this.groupInfoCache = new ConcurrentLRUCache<String, Object>(cacheSize > 0?cacheSize:Math.max(250, tables));
+    	this.partialNameToFullNameCache = new ConcurrentLRUCache<String, Collection<Table>>(cacheSize > 0?cacheSize:Math.max(1000, tables));
+    	this.procedureCache = new ConcurrentLRUCache<String, Collection<StoredProcedureInfo>>(cacheSize > 0?cacheSize:Math.max(200, procedures));
     }
     
     private TransformationMetadata(final CompositeMetadataStore store, FunctionLibrary functionLibrary) {
@@ -1085,6 +1128,53 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
 		return record.getUUID() + "/" + key; //$NON-NLS-1$
 	}
 
+	/**
+	 * Populate the partial name and procedure caches with the 
+	 * tables and procedures of the vdb up to the cache capacities.
+	 */
+	public void warmCaches() {
+		try {
+			for (Schema schema : this.store.getSchemas().values()) {
+				for (Table table : schema.getTables().values()) {
+					if (this.partialNameToFullNameCache.size() >= this.partialNameToFullNameCache.getMaxSize()) {
+						break;
+					}
+					getGroupsForPartialName(table.getName());
+				}
+				for (Procedure procedure : schema.getProcedures().values()) {
+					if (this.procedureCache.size() >= this.procedureCache.getMaxSize()) {
+						break;
+					}
+					getStoredProcInfoDirect(procedure.getFullName());
+				}
+			}
+		} catch (TeiidException e) {
+			LogManager.logDetail(LogConstants.CTX_DQP, e, "Could not warm the metadata caches"); //$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * @return the statistics of the metadata lookup caches
+	 */
+	public List<CacheStatisticsMetadata> getCacheStatistics() {
+		List<CacheStatisticsMetadata> result = new ArrayList<CacheStatisticsMetadata>(4);
+		result.add(getCacheStatistics("metadata", this.metadataCache)); //$NON-NLS-1$
+		result.add(getCacheStatistics("group-info", this.groupInfoCache)); //$NON-NLS-1$
+		result.add(getCacheStatistics("partial-name", this.partialNameToFullNameCache)); //$NON-NLS-1$
+		result.add(getCacheStatistics("procedure", this.procedureCache)); //$NON-NLS-1$
+		return result;
+	}
+	
+	private static CacheStatisticsMetadata getCacheStatistics(String name, ConcurrentLRUCache<?, ?> cache) {
+		CacheStatisticsMetadata stats = new CacheStatisticsMetadata();
+		stats.setName(name);
+		long requestCount = cache.getRequestCount();
+		stats.setHitRatio(requestCount == 0?0:((double)cache.getHitCount()/requestCount)*100);
+		stats.setTotalEntries(cache.size());
+		stats.setRequestCount((int)Math.min(Integer.MAX_VALUE, requestCount));
+		return stats;
+	}
+
 	@Override
 	public FunctionLibrary getFunctionLibrary() {
 		return this.functionLibrary;
@@ -333,7 +333,9 @@ public interface SourceCapabilities {
         ONLY_FORMAT_LITERALS,
         CRITERIA_ON_SUBQUERY,
         ARRAY_TYPE, 
-        QUERY_SUBQUERIES_ONLY_CORRELATED;
+        QUERY_SUBQUERIES_ONLY_CORRELATED,
+        DEPENDENT_JOIN_BLOOM_FILTER,
+        PARTITIONED_SCAN;
         
         private final String toString;
         
@@ -22,6 +22,8 @@
 
 package org.teiid.query.optimizer.relational;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,6 +31,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -42,6 +45,7 @@ import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.id.IDGenerator;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
 import org.teiid.core.util.Assertion;
 import org.teiid.dqp.internal.process.multisource.MultiSourceElementReplacementVisitor;
 import org.teiid.language.SQLConstants.NonReserved;
@@ -49,6 +53,7 @@ import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
 import org.teiid.query.metadata.QueryMetadataInterface;
+import org.teiid.query.metadata.SupportConstants;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
@@ -59,6 +64,7 @@ import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
 import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.optimizer.relational.rules.CapabilitiesUtil;
 import org.teiid.query.optimizer.relational.rules.FrameUtil;
+import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
 import org.teiid.query.optimizer.relational.rules.RuleAssignOutputElements;
 import org.teiid.query.optimizer.relational.rules.RuleChooseJoinStrategy;
 import org.teiid.query.processor.ProcessorPlan;
@@ -89,6 +95,20 @@ import org.teiid.query.util.CommandContext;
 
 
 public class PlanToProcessConverter {
+	
+	/**
+	 * Table extension property naming a non-nullable numeric or date column used to partition scans
+	 */
+	public static final String PARTITION_COLUMN = "teiid:partition-column"; //$NON-NLS-1$
+	/**
+	 * Table extension property for the number of range partitions of a scan
+	 */
+	public static final String PARTITION_COUNT = "teiid:partition-count"; //$NON-NLS-1$
+	/**
+	 * The minimum estimated rows per partition for a scan to be partitioned
+	 */
+	static final int MIN_PARTITION_ROWS = 10000;
+	
 	protected QueryMetadataInterface metadata;
 	private IDGenerator idGenerator;
 	private AnalysisRecord analysisRecord;
@@ -214,6 +234,9 @@ public class PlanToProcessConverter {
                             SourceCapabilities caps = capFinder.findCapabilities(modelName);
                             if (caps.supportsCapability(Capability.INSERT_WITH_ITERATOR)) {
                             	pinode.setMode(org.teiid.query.processor.relational.ProjectIntoNode.Mode.ITERATOR);
+                            	if (context != null && context.getOptions().isStreamingInsert()) {
+                            		pinode.setChunkSize(ProjectIntoNode.DEFAULT_CHUNK_SIZE);
+                            	}
                             } else if (caps.supportsCapability(Capability.BATCHED_UPDATES)) {
                             	pinode.setMode(org.teiid.query.processor.relational.ProjectIntoNode.Mode.BATCH);
                             } else {
@@ -258,9 +281,11 @@ public class PlanToProcessConverter {
                 List joinCrits = (List) node.getProperty(NodeConstants.Info.JOIN_CRITERIA);
                 String depValueSource = (String) node.getProperty(NodeConstants.Info.DEPENDENT_VALUE_SOURCE);
                 SortOption leftSort = (SortOption)node.getProperty(NodeConstants.Info.SORT_LEFT);
-                if(stype == JoinStrategyType.MERGE || stype == JoinStrategyType.ENHANCED_SORT) {
-                	MergeJoinStrategy mjStrategy = null;
-                	if (stype.equals(JoinStrategyType.ENHANCED_SORT)) { 
+                if(stype == JoinStrategyType.MERGE || stype == JoinStrategyType.ENHANCED_SORT || stype == JoinStrategyType.HASH) {
+                	JoinStrategy mjStrategy = null;
+                	if (stype.equals(JoinStrategyType.HASH)) {
+                		mjStrategy = new HashJoinStrategy();
+                	} else if (stype.equals(JoinStrategyType.ENHANCED_SORT)) { 
                 		EnhancedSortMergeJoinStrategy esmjStrategy = new EnhancedSortMergeJoinStrategy(leftSort, (SortOption)node.getProperty(NodeConstants.Info.SORT_RIGHT));
                 		esmjStrategy.setSemiDep(node.hasBooleanProperty(Info.IS_SEMI_DEP));
                 		mjStrategy = esmjStrategy;
@@ -334,6 +359,8 @@ public class PlanToProcessConverter {
                             	depAccessNode.setPushdown(CapabilitiesUtil.supports(Capability.DEPENDENT_JOIN, modelID, metadata, capFinder));
                                 depAccessNode.setMaxSetSize(CapabilitiesUtil.getMaxInCriteriaSize(modelID, metadata, capFinder));
                                 depAccessNode.setMaxPredicates(CapabilitiesUtil.getMaxDependentPredicates(modelID, metadata, capFinder));   
+                                depAccessNode.setPushdownBloomFilter(CapabilitiesUtil.supports(Capability.DEPENDENT_JOIN_BLOOM_FILTER, modelID, metadata, capFinder));
+                                depAccessNode.setRangeCriteria(CapabilitiesUtil.supports(Capability.CRITERIA_COMPARE_ORDERED, modelID, metadata, capFinder));
                             }
                             processNode = depAccessNode;
                             aNode = depAccessNode;
@@ -407,8 +434,13 @@ public class PlanToProcessConverter {
 	                    if (!aNode.isShouldEvaluate()) {
 	                    	aNode.minimizeProject(command);
 	                    }
-	                    //check if valid to share this with other nodes
-	                    if (ev != null && ev.getDeterminismLevel().compareTo(Determinism.COMMAND_DETERMINISTIC) >= 0 && command.areResultsCachable()) {
+	                    RelationalNode partitioned = null;
+	                    if (processNode == aNode) {
+	                    	partitioned = partitionScan(aNode, node, modelID);
+	                    }
+	                    if (partitioned != null) {
+	                    	processNode = partitioned;
+	                    } else if (ev != null && ev.getDeterminismLevel().compareTo(Determinism.COMMAND_DETERMINISTIC) >= 0 && command.areResultsCachable()) {
 	                    	checkForSharedSourceCommand(aNode);
 	                    }
                     }
@@ -470,6 +502,7 @@ public class PlanToProcessConverter {
 				if (orderBy != null) {
 			        gnode.setOrderBy(orderBy.getOrderByItems());
 				}
+				gnode.setHashGrouping(NewCalculateCostUtil.isHashGroupingPreferred(node));
 				processNode = gnode;
 				break;
 
@@ -517,6 +550,12 @@ public class PlanToProcessConverter {
 					TextTable tt = (TextTable)source;
 					updateGroupName(node, tt);
 					ttn.setTable(tt);
+					PlanNode parent = node.getParent();
+					while (parent != null && (parent.getType() == NodeConstants.Types.SELECT || parent.getType() == NodeConstants.Types.PROJECT)) {
+						parent = parent.getParent();
+					}
+					//the text order is not needed if the rows will be sorted or have duplicates removed
+					ttn.setOrdered(parent == null || (parent.getType() != NodeConstants.Types.SORT && parent.getType() != NodeConstants.Types.DUP_REMOVE));
 					processNode = ttn;
 					break;
 				}
@@ -593,6 +632,153 @@ public class PlanToProcessConverter {
 		return processNode;
 	}
 	
+	/**
+	 * Split the scan of a single physical table into range partitions on the 
+	 * {@link #PARTITION_COLUMN} that are executed concurrently under a union.  
+	 * The range is taken from the column min/max values.  The first and last partitions are 
+	 * open ended so that the statistics need not be exact.
+	 * <br/>
+	 * Only large scans are partitioned - the estimated cardinality must be at least {@link #MIN_PARTITION_ROWS} 
+	 * per partition, or if unknown the query must have no criteria.
+	 * @return the union of the partitions or null if the scan should not be partitioned 
+	 */
+	private RelationalNode partitionScan(AccessNode accessNode, PlanNode node, Object modelID) throws QueryMetadataException, TeiidComponentException {
+		if (modelID == null || accessNode.getClass() != AccessNode.class || !(accessNode.getCommand() instanceof Query)
+				|| !CapabilitiesUtil.supports(Capability.PARTITIONED_SCAN, modelID, metadata, capFinder)
+				|| !CapabilitiesUtil.supports(Capability.CRITERIA_COMPARE_ORDERED, modelID, metadata, capFinder)) {
+			return null;
+		}
+		Query query = (Query)accessNode.getCommand();
+		if (query.getFrom() == null || query.getFrom().getClauses().size() != 1 
+				|| !(query.getFrom().getClauses().get(0) instanceof UnaryFromClause)
+				|| query.getGroupBy() != null || query.getHaving() != null || query.hasAggregates() 
+				|| query.getSelect().isDistinct() || query.getLimit() != null || query.getInto() != null || query.getWith() != null) {
+			return null;
+		}
+		GroupSymbol group = ((UnaryFromClause)query.getFrom().getClauses().get(0)).getGroup();
+		if (group.isProcedure() || group.getMetadataID() instanceof TempMetadataID) {
+			return null;
+		}
+		Properties props = metadata.getExtensionProperties(group.getMetadataID());
+		String column = props.getProperty(PARTITION_COLUMN);
+		String countString = props.getProperty(PARTITION_COUNT);
+		if (column == null || countString == null) {
+			return null;
+		}
+		int count = 0;
+		try {
+			count = Integer.parseInt(countString);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (count < 2) {
+			return null;
+		}
+		float cardinality = NewCalculateCostUtil.computeCostForTree(node, metadata);
+		if (cardinality == NewCalculateCostUtil.UNKNOWN_VALUE) {
+			if (query.getCriteria() != null) {
+				return null;
+			}
+		} else if (cardinality < (float)count * MIN_PARTITION_ROWS) {
+			return null;
+		}
+		ElementSymbol key = null;
+		for (Object elementID : metadata.getElementIDsInGroupID(group.getMetadataID())) {
+			String name = metadata.getName(elementID);
+			if (name.equalsIgnoreCase(column)) {
+				key = new ElementSymbol(name, group.clone());
+				key.setMetadataID(elementID);
+				key.setType(DataTypeManager.getDataTypeClass(metadata.getElementType(elementID)));
+				break;
+			}
+		}
+		if (key == null || metadata.elementSupports(key.getMetadataID(), SupportConstants.Element.NULL)) {
+			return null;
+		}
+		boolean reverse = false;
+		if (query.getOrderBy() != null) {
+			//the partitions preserve ordering only by the partition column
+			OrderByItem item = query.getOrderBy().getOrderByItems().get(0);
+			Expression ex = SymbolMap.getExpression(item.getSymbol());
+			if (!(ex instanceof ElementSymbol) || !key.getMetadataID().equals(((ElementSymbol)ex).getMetadataID())) {
+				return null;
+			}
+			reverse = !item.isAscending();
+		}
+		List<Constant> bounds = getPartitionBounds(key, count);
+		if (bounds == null) {
+			return null;
+		}
+		UnionAllNode unionNode = new UnionAllNode(getID());
+		unionNode.setElements(accessNode.getElements());
+		unionNode.setOrdered(query.getOrderBy() != null);
+		for (int i = 0; i <= bounds.size(); i++) {
+			int index = reverse?bounds.size() - i:i;
+			Criteria crit = null;
+			if (index > 0) {
+				crit = new CompareCriteria(key.clone(), CompareCriteria.GE, bounds.get(index - 1));
+			}
+			if (index < bounds.size()) {
+				crit = Criteria.combineCriteria(crit, new CompareCriteria(key.clone(), CompareCriteria.LT, bounds.get(index)));
+			}
+			Query partition = (Query)query.clone();
+			partition.setCriteria(Criteria.combineCriteria(partition.getCriteria(), crit));
+			AccessNode instanceNode = (AccessNode) accessNode.clone();
+			instanceNode.setElements(accessNode.getElements());
+			instanceNode.setID(getID());
+			instanceNode.setCommand(partition);
+			unionNode.addChild(instanceNode);
+		}
+		return unionNode;
+	}
+	
+	/**
+	 * @return the increasing inner bounds of the partitions or null if the range is unknown or too small
+	 */
+	private List<Constant> getPartitionBounds(ElementSymbol key, int count) throws QueryMetadataException, TeiidComponentException {
+		String min = (String)metadata.getMinimumValue(key.getMetadataID());
+		String max = (String)metadata.getMaximumValue(key.getMetadataID());
+		if (min == null || max == null) {
+			return null;
+		}
+		Class<?> type = key.getType();
+		boolean temporal = type == DataTypeManager.DefaultDataClasses.TIMESTAMP || type == DataTypeManager.DefaultDataClasses.DATE;
+		if (!temporal && !Number.class.isAssignableFrom(type)) {
+			return null;
+		}
+		List<Constant> bounds = new ArrayList<Constant>(count - 1);
+		try {
+			long minValue = 0;
+			long maxValue = 0;
+			if (temporal) {
+				//dates use the timestamp format, see NewCalculateCostUtil
+				minValue = Timestamp.valueOf(min).getTime();
+				maxValue = Timestamp.valueOf(max).getTime();
+			} else {
+				minValue = new BigDecimal(min).longValue();
+				maxValue = new BigDecimal(max).longValue();
+			}
+			if (maxValue - minValue < count) {
+				return null;
+			}
+			Object last = null;
+			for (int i = 1; i < count; i++) {
+				long bound = minValue + (long)((maxValue - minValue) * ((double)i / count));
+				Object value = DataTypeManager.transformValue(temporal?new Timestamp(bound):Long.valueOf(bound), type);
+				if (value.equals(last)) {
+					continue;
+				}
+				bounds.add(new Constant(value, type));
+				last = value;
+			}
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (TransformationException e) {
+			return null;
+		}
+		return bounds;
+	}
+	
 	private void checkForSharedSourceCommand(AccessNode aNode) {
 		//create a top level key to avoid the full command toString
 		String modelName = aNode.getModelName();
@@ -47,6 +47,7 @@ import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
 import org.teiid.query.resolver.util.ResolverUtil;
 import org.teiid.query.sql.lang.*;
 import org.teiid.query.sql.lang.SetQuery.Operation;
+import org.teiid.query.sql.symbol.AggregateSymbol;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
@@ -64,7 +65,24 @@ public class NewCalculateCostUtil {
 
     public static final int UNKNOWN_JOIN_SCALING = 20;
 	public static final float UNKNOWN_VALUE = -1;
-    
+
+	/**
+	 * The minimum ratio of input rows to groups for hash grouping to be used
+	 */
+	static final int HASH_GROUPING_RATIO = 4;
+
+	/**
+	 * Types where equals/hashCode is consistent with {@link Constant#COMPARATOR}
+	 */
+	private static final Set<Class<?>> HASH_TYPES = new HashSet<Class<?>>(Arrays.asList(
+			DataTypeManager.DefaultDataClasses.STRING, DataTypeManager.DefaultDataClasses.CHAR,
+			DataTypeManager.DefaultDataClasses.BOOLEAN, DataTypeManager.DefaultDataClasses.BYTE,
+			DataTypeManager.DefaultDataClasses.SHORT, DataTypeManager.DefaultDataClasses.INTEGER,
+			DataTypeManager.DefaultDataClasses.LONG, DataTypeManager.DefaultDataClasses.BIG_INTEGER,
+			DataTypeManager.DefaultDataClasses.FLOAT, DataTypeManager.DefaultDataClasses.DOUBLE,
+			DataTypeManager.DefaultDataClasses.DATE, DataTypeManager.DefaultDataClasses.TIME,
+			DataTypeManager.DefaultDataClasses.TIMESTAMP));
+
     // the following variables are used to hold cost estimates (roughly in milliseconds)
     private final static float compareTime = .0001f; //TODO: a better estimate would be based upon the number of conjuncts
     private final static float readTime = .001f; //TODO: should come from the connector
@@ -115,7 +133,7 @@ public class NewCalculateCostUtil {
      * @throws QueryMetadataException
      * @throws TeiidComponentException
      */
-    static float computeCostForTree(PlanNode node, QueryMetadataInterface metadata) 
+    public static float computeCostForTree(PlanNode node, QueryMetadataInterface metadata) 
         throws QueryMetadataException, TeiidComponentException {
 
     	updateCardinality(node, metadata);
@@ -1090,6 +1108,63 @@ public class NewCalculateCostUtil {
     private static float safeLog(float x) {
         return (float)Math.max(1, Math.log(x));
     }
+
+    /**
+     * Determine if a grouping node should accumulate its groups in a hash table rather than
+     * sorting its input.  This requires that the number of groups is known to be small
+     * relative to the input and that the grouping values have equals semantics consistent
+     * with the comparator used by sorting.
+     * @param node the GROUP plan node
+     * @return true if hash grouping is preferred
+     */
+    public static boolean isHashGroupingPreferred(PlanNode node) {
+    	if (node.getType() != NodeConstants.Types.GROUP
+    			|| !node.hasCollectionProperty(NodeConstants.Info.GROUP_COLS)
+    			|| node.hasProperty(NodeConstants.Info.SORT_ORDER)
+    			|| node.hasBooleanProperty(NodeConstants.Info.IS_DUP_REMOVAL)) {
+    		return false;
+    	}
+    	float groups = node.getCardinality();
+    	float input = node.getFirstChild().getCardinality();
+    	if (groups == UNKNOWN_VALUE || input == UNKNOWN_VALUE || groups * HASH_GROUPING_RATIO > input) {
+    		return false;
+    	}
+    	if (!isHashable((List<Expression>)node.getProperty(NodeConstants.Info.GROUP_COLS), null)) {
+    		return false;
+    	}
+    	SymbolMap groupingMap = (SymbolMap)node.getProperty(NodeConstants.Info.SYMBOL_MAP);
+    	if (groupingMap != null) {
+	    	for (Expression ex : groupingMap.asMap().values()) {
+	    		//distinct and ordered aggregates require a buffer per group
+	    		if (ex instanceof AggregateSymbol && (((AggregateSymbol)ex).isDistinct() || ((AggregateSymbol)ex).getOrderBy() != null)) {
+	    			return false;
+	    		}
+	    	}
+    	}
+    	return true;
+    }
+    
+    /**
+     * Determine if the values of the expressions may be compared with equals/hashCode
+     * rather than the {@link Constant#COMPARATOR}.
+     * @param expressions
+     * @param otherExpressions if not null, the corresponding expressions must have the same type
+     */
+    public static boolean isHashable(List<? extends Expression> expressions, List<? extends Expression> otherExpressions) {
+    	if (Constant.COLLATION_LOCALE != null || DataTypeManager.PAD_SPACE) {
+    		return false;
+    	}
+    	for (int i = 0; i < expressions.size(); i++) {
+    		Class<?> type = expressions.get(i).getType();
+    		if (!HASH_TYPES.contains(type)) {
+    			return false;
+    		}
+    		if (otherExpressions != null && otherExpressions.get(i).getType() != type) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
     
     /**
      * Computes the cost of a Dependent Join
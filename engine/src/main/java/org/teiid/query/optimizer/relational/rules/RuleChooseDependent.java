@@ -23,6 +23,7 @@
 package org.teiid.query.optimizer.relational.rules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -35,6 +36,7 @@ import org.teiid.core.types.DataTypeManager.DefaultDataClasses;
 import org.teiid.query.analysis.AnalysisRecord;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
+import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.optimizer.relational.OptimizerRule;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
 import org.teiid.query.optimizer.relational.RuleStack;
@@ -67,6 +69,7 @@ public final class RuleChooseDependent implements OptimizerRule {
     }
 
 	public static final int DEFAULT_INDEPENDENT_CARDINALITY = 10;
+	public static final int DEFAULT_ADAPTIVE_MAX_NDV = 1000;
     
     public PlanNode execute(PlanNode plan, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, RuleStack rules, AnalysisRecord analysisRecord, CommandContext context)
         throws QueryPlannerException, QueryMetadataException, TeiidComponentException {
@@ -113,6 +116,21 @@ public final class RuleChooseDependent implements OptimizerRule {
                     pushCriteria |= markDependent(siblingNode, joinNode, metadata, null);
                 } else if (siblingCost != NewCalculateCostUtil.UNKNOWN_VALUE && siblingCost < RuleChooseDependent.DEFAULT_INDEPENDENT_CARDINALITY) {
                     pushCriteria |= markDependent(sourceNode, joinNode, metadata, null);
+                } else if (context != null && context.getOptions().isAdaptiveDependentJoin() 
+                		&& (sourceCost == NewCalculateCostUtil.UNKNOWN_VALUE || siblingCost == NewCalculateCostUtil.UNKNOWN_VALUE)) {
+                	//defer the decision to runtime, the dependent side will back off to a full scan if there are too many independent values
+                	List<PlanNode> dependentNodes = Arrays.asList(sourceNode);
+                	if (bothCandidates) {
+                		dependentNodes = sourceCost != NewCalculateCostUtil.UNKNOWN_VALUE?Arrays.asList(siblingNode, sourceNode):Arrays.asList(sourceNode, siblingNode);
+                	}
+                	for (PlanNode node : dependentNodes) {
+                		float maxNdv = getAdaptiveMaxNdv(node, joinNode, metadata, capFinder);
+                		if (maxNdv != NewCalculateCostUtil.UNKNOWN_VALUE) {
+                			node.recordDebugAnnotation("costing information unavailable", null, "marking as adaptive dependent side of join", analysisRecord, null); //$NON-NLS-1$ //$NON-NLS-2$
+                			pushCriteria |= markDependent(node, joinNode, metadata, null, maxNdv);
+                			break;
+                		}
+                	}
                 }
             }
         }
@@ -261,6 +279,15 @@ public final class RuleChooseDependent implements OptimizerRule {
      * @throws QueryMetadataException 
      */
     boolean markDependent(PlanNode sourceNode, PlanNode joinNode, QueryMetadataInterface metadata, DependentCostAnalysis dca) throws QueryMetadataException, TeiidComponentException {
+    	return markDependent(sourceNode, joinNode, metadata, dca, NewCalculateCostUtil.UNKNOWN_VALUE);
+    }
+    
+    /**
+     * Mark the specified access node to be made dependent
+     * @param maxNdv if known the number of distinct independent values after which the 
+     * dependent side will back off to a full scan at runtime
+     */
+    boolean markDependent(PlanNode sourceNode, PlanNode joinNode, QueryMetadataInterface metadata, DependentCostAnalysis dca, float maxNdv) throws QueryMetadataException, TeiidComponentException {
 
         boolean isLeft = joinNode.getFirstChild() == sourceNode;
         
@@ -278,6 +305,12 @@ public final class RuleChooseDependent implements OptimizerRule {
 
         PlanNode crit = getDependentCriteriaNode(id, independentExpressions, dependentExpressions, isLeft?joinNode.getLastChild():joinNode.getFirstChild(), metadata, dca);
         
+        if (maxNdv != NewCalculateCostUtil.UNKNOWN_VALUE) {
+        	DependentSetCriteria dsc = (DependentSetCriteria)crit.getProperty(NodeConstants.Info.SELECT_CRITERIA);
+        	dsc.setMaxNdv(maxNdv);
+        	dsc.setAdaptive(true);
+        }
+        
         sourceNode.addAsParent(crit);
               
         if (isLeft) {
@@ -286,6 +319,33 @@ public final class RuleChooseDependent implements OptimizerRule {
         return true;
     }
 
+    /**
+     * Determine the number of independent values that can be sent with a single dependent 
+     * query.  Any more than that and the runtime backoff will use a full scan instead.
+     * @return the max ndv or {@link NewCalculateCostUtil#UNKNOWN_VALUE} if the dependent side is not an access node
+     * that supports IN criteria
+     */
+    private float getAdaptiveMaxNdv(PlanNode dependentNode, PlanNode joinNode, QueryMetadataInterface metadata, CapabilitiesFinder capFinder) throws QueryMetadataException, TeiidComponentException {
+    	PlanNode accessNode = FrameUtil.findJoinSourceNode(dependentNode);
+    	if (accessNode == null || accessNode.getType() != NodeConstants.Types.ACCESS) {
+    		return NewCalculateCostUtil.UNKNOWN_VALUE;
+    	}
+    	List dependentExpressions = (List)(joinNode.getFirstChild() == dependentNode?joinNode.getProperty(NodeConstants.Info.LEFT_EXPRESSIONS):joinNode.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS));
+    	Object modelID = RuleRaiseAccess.getModelIDFromAccess(accessNode, metadata);
+    	if (!CapabilitiesUtil.supports(Capability.CRITERIA_IN, modelID, metadata, capFinder)) {
+    		return NewCalculateCostUtil.UNKNOWN_VALUE;
+    	}
+    	float setCriteriaBatchSize = CapabilitiesUtil.getMaxInCriteriaSize(modelID, metadata, capFinder);
+    	if (setCriteriaBatchSize < 1) {
+    		setCriteriaBatchSize = DEFAULT_ADAPTIVE_MAX_NDV;
+    	}
+    	int numberOfSets = CapabilitiesUtil.getMaxDependentPredicates(modelID, metadata, capFinder);
+    	if (numberOfSets > 0 && dependentExpressions != null) {
+    		setCriteriaBatchSize *= Math.max(1, numberOfSets/dependentExpressions.size());
+    	}
+    	return setCriteriaBatchSize;
+    }
+
     /** 
      * @param independentExpressions
      * @param dependentExpressions
@@ -33,6 +33,7 @@ import java.util.Set;
 
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.api.exception.query.QueryPlannerException;
+import org.teiid.common.buffer.BufferManager;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.query.analysis.AnalysisRecord;
 import org.teiid.query.metadata.QueryMetadataInterface;
@@ -180,7 +181,14 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
         		}
             }
 
-			boolean pushedLeft = insertSort(joinNode.getFirstChild(), leftExpressions, joinNode, metadata, capabilitiesFinder, pushLeft);	
+			//a hash join does not need the sides sorted, so the sorts are not pushed to the sources
+			boolean hash = joinNode.getProperty(NodeConstants.Info.JOIN_TYPE) == JoinType.JOIN_INNER 
+					&& useHashJoin(joinNode, leftExpressions, rightExpressions, 
+							requiresSort(joinNode.getFirstChild(), leftExpressions, metadata, capabilitiesFinder, pushLeft), 
+							requiresSort(joinNode.getLastChild(), rightExpressions, metadata, capabilitiesFinder, pushRight), 
+							metadata, context);
+			
+			boolean pushedLeft = insertSort(joinNode.getFirstChild(), leftExpressions, joinNode, metadata, capabilitiesFinder, pushLeft && !hash);	
 			
 	        if (origExpressionCount == 1 
 	        		&& joinNode.getProperty(NodeConstants.Info.JOIN_TYPE) == JoinType.JOIN_INNER 
@@ -194,16 +202,101 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
 	        	}
 			}
 
-			boolean pushedRight = insertSort(joinNode.getLastChild(), rightExpressions, joinNode, metadata, capabilitiesFinder, pushRight);
+			boolean pushedRight = insertSort(joinNode.getLastChild(), rightExpressions, joinNode, metadata, capabilitiesFinder, pushRight && !hash);
 			
         	if (joinNode.getProperty(NodeConstants.Info.JOIN_TYPE) == JoinType.JOIN_INNER && (!pushedRight || !pushedLeft)) {
-        		joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.ENHANCED_SORT);
+        		//a sort node is planned above a grouping source, which requires the merge
+        		if (hash && joinNode.getProperty(NodeConstants.Info.SORT_LEFT) == SortOption.SORT 
+        				&& joinNode.getProperty(NodeConstants.Info.SORT_RIGHT) == SortOption.SORT) {
+        			joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.HASH);
+        		} else {
+        			joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.ENHANCED_SORT);
+        		}
         	}
         }
         
         return plan;
     }
 
+    /**
+     * Use a hash join rather than a merge join when it is estimated to be cheaper.  Both read each side once, 
+     * so only the additional buffer I/O is compared.  The merge join writes and reads back each side that must 
+     * be sorted locally and does not fit in the processing memory, while the hash join is only considered when 
+     * the smaller side, from which the hash table is built, fits in the processing memory.  
+     * On a tie the merge join is kept, since the sorts may be pushed to the sources.
+     */
+    private static boolean useHashJoin(PlanNode joinNode, List<Expression> leftExpressions, List<Expression> rightExpressions, 
+    		boolean sortLeft, boolean sortRight, QueryMetadataInterface metadata, CommandContext context) throws QueryMetadataException, TeiidComponentException {
+    	if (context == null 
+    			|| context.getBufferManager() == null
+    			|| joinNode.getProperty(NodeConstants.Info.DEPENDENT_VALUE_SOURCE) != null 
+    			|| !NewCalculateCostUtil.isHashable(leftExpressions, rightExpressions)) {
+    		return false;
+    	}
+    	float leftCost = NewCalculateCostUtil.computeCostForTree(joinNode.getFirstChild(), metadata);
+    	float rightCost = NewCalculateCostUtil.computeCostForTree(joinNode.getLastChild(), metadata);
+    	if (leftCost == NewCalculateCostUtil.UNKNOWN_VALUE || rightCost == NewCalculateCostUtil.UNKNOWN_VALUE
+    			|| Math.max(leftCost, rightCost) <= context.getProcessorBatchSize()) {
+    		return false;
+    	}
+    	BufferManager bm = context.getBufferManager();
+    	List<? extends Expression> leftCols = (List<? extends Expression>) joinNode.getFirstChild().getProperty(NodeConstants.Info.OUTPUT_COLS);
+    	List<? extends Expression> rightCols = (List<? extends Expression>) joinNode.getLastChild().getProperty(NodeConstants.Info.OUTPUT_COLS);
+    	boolean buildLeft = leftCost <= rightCost;
+    	List<? extends Expression> buildCols = buildLeft ? leftCols : rightCols;
+    	float buildBatches = getBatches(buildLeft ? leftCost : rightCost, buildCols, bm);
+    	if (buildBatches * bm.getSchemaSize(buildCols) > bm.getMaxProcessingSize()) {
+    		return false;
+    	}
+    	float hashCost = 0; //the hash table is held in memory and the other side is streamed
+    	float mergeCost = 0;
+    	if (sortLeft) {
+    		mergeCost += getSortCost(leftCost, leftCols, bm);
+    	}
+    	if (sortRight) {
+    		mergeCost += getSortCost(rightCost, rightCols, bm);
+    	}
+    	return hashCost < mergeCost;
+    }
+    
+    private static float getBatches(float rows, List<? extends Expression> cols, BufferManager bm) {
+    	return (float)Math.ceil(rows / bm.getProcessorBatchSize(cols));
+    }
+
+    /**
+     * Estimate the rows written and read back by a local sort, which is 0 if the sort 
+     * can be performed in memory.  The memory and merge fan-in used by the SortUtility 
+     * are both the number of batches that fit in the processing memory.
+     */
+    static float getSortCost(float rows, List<? extends Expression> cols, BufferManager bm) {
+    	float batches = getBatches(rows, cols, bm);
+    	float memoryBatches = Math.max(2, bm.getMaxProcessingSize() / bm.getSchemaSize(cols));
+    	if (batches <= memoryBatches) {
+    		return 0;
+    	}
+    	double passes = Math.max(1, Math.ceil(Math.log(batches / memoryBatches) / Math.log(memoryBatches)));
+    	return (float)(2 * rows * passes);
+    }
+    
+    /**
+     * @return true if the join side will be sorted locally for a merge join, 
+     * rather than having the sort pushed to the source or already ordered by a grouping
+     */
+    private static boolean requiresSort(PlanNode childNode, List<Expression> expressions, QueryMetadataInterface metadata, CapabilitiesFinder capFinder,
+    		boolean attemptPush) throws QueryMetadataException, TeiidComponentException {
+    	PlanNode sourceNode = FrameUtil.findJoinSourceNode(childNode);
+    	if (sourceNode.getType() == NodeConstants.Types.GROUP) {
+    		return false;
+    	}
+    	if (!attemptPush || sourceNode.getType() != NodeConstants.Types.ACCESS) {
+    		return true;
+    	}
+        Set<Expression> outputSymbols = new LinkedHashSet<Expression>((List<Expression>)childNode.getProperty(NodeConstants.Info.OUTPUT_COLS));
+        outputSymbols.addAll(expressions);
+        PlanNode sortNode = createSortNode(new ArrayList<Expression>(new LinkedHashSet<Expression>(expressions)), outputSymbols);
+        return !RuleRaiseAccess.canRaiseOverSort(sourceNode, metadata, capFinder, sortNode, null, false);
+    }
+
     /**
      * Insert a sort node under the merge join node.  If necessary, also insert a project
      * node to handle function evaluation.  
@@ -170,7 +170,8 @@ public class RulePlanSorts implements OptimizerRule {
 			break;
 		case NodeConstants.Types.JOIN:
 			if (node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_LOOP 
-					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_TABLE) {
+					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_TABLE
+					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.HASH) {
 				break;
 			}
 			/*
@@ -25,6 +25,7 @@ package org.teiid.query.processor.relational;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
@@ -34,6 +35,7 @@ import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.DependentSetCriteria;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
+import org.teiid.query.sql.symbol.Expression;
 
 
 /**
@@ -48,6 +50,8 @@ public class DependentAccessNode extends AccessNode {
     private int maxSetSize;
     private int maxPredicates;
     private boolean pushdown;
+    private boolean pushdownBloomFilter;
+    private boolean rangeCriteria;
 
     //processing state
     private DependentCriteriaProcessor criteriaProcessor;
@@ -57,6 +61,9 @@ public class DependentAccessNode extends AccessNode {
      * Cached rewritten command to be used as the base for all dependent queries.
      */
     private Command rewrittenCommand;
+    //the local filters of the dependent rows
+    private int[] filterIndexes;
+    private DependentValueSource.ValueFilter[] filters;
     
     public DependentAccessNode(int nodeID) {
         super(nodeID);
@@ -79,6 +86,8 @@ public class DependentAccessNode extends AccessNode {
         dependentCrit = null;
         sort = true;
         rewrittenCommand = null;
+        filterIndexes = null;
+        filters = null;
     }
     
     @Override
@@ -100,6 +109,8 @@ public class DependentAccessNode extends AccessNode {
         clonedNode.maxSetSize = this.maxSetSize;
         clonedNode.maxPredicates = this.maxPredicates;
         clonedNode.pushdown = this.pushdown;
+        clonedNode.pushdownBloomFilter = this.pushdownBloomFilter;
+        clonedNode.rangeCriteria = this.rangeCriteria;
         super.copyTo(clonedNode);
         return clonedNode;
     }
@@ -156,10 +167,14 @@ public class DependentAccessNode extends AccessNode {
 
         if (this.criteriaProcessor == null) {
             this.criteriaProcessor = new DependentCriteriaProcessor(this.maxSetSize, this.maxPredicates, this, query.getCriteria());
+            this.criteriaProcessor.setBloomFilter(getContext().getOptions().isDependentJoinBloomFilter(), this.pushdownBloomFilter, this.rangeCriteria);
         }
         
         if (this.dependentCrit == null) {
             dependentCrit = criteriaProcessor.prepareCriteria();
+            if (this.filters == null) {
+            	initFilters();
+            }
         }
         
         query.setCriteria(dependentCrit);
@@ -191,6 +206,39 @@ public class DependentAccessNode extends AccessNode {
         return result;
     }
 
+    private void initFilters() {
+    	Map<Expression, DependentValueSource.ValueFilter> valueFilters = criteriaProcessor.getValueFilters();
+    	List<Integer> indexes = new ArrayList<Integer>(valueFilters.size());
+    	List<DependentValueSource.ValueFilter> applicable = new ArrayList<DependentValueSource.ValueFilter>(valueFilters.size());
+    	for (Map.Entry<Expression, DependentValueSource.ValueFilter> entry : valueFilters.entrySet()) {
+    		int index = getElements().indexOf(entry.getKey());
+    		if (index != -1) {
+    			indexes.add(index);
+    			applicable.add(entry.getValue());
+    		}
+		}
+    	this.filterIndexes = new int[indexes.size()];
+    	for (int i = 0; i < filterIndexes.length; i++) {
+    		filterIndexes[i] = indexes.get(i);
+    	}
+    	this.filters = applicable.toArray(new DependentValueSource.ValueFilter[applicable.size()]);
+    }
+    
+    /**
+     * Prune the dependent rows that cannot match the independent values
+     */
+    @Override
+    protected void addBatchRow(List<?> row) {
+    	if (filters != null) {
+    		for (int i = 0; i < filters.length; i++) {
+    			if (!filters[i].matches(row.get(filterIndexes[i]))) {
+    				return;
+    			}
+    		}
+    	}
+    	super.addBatchRow(row);
+    }
+    
     /**
      * @see org.teiid.query.processor.relational.AccessNode#hasNextCommand()
      */
@@ -205,6 +253,14 @@ public class DependentAccessNode extends AccessNode {
 		this.pushdown = pushdown;
 	}
 	
+	public void setPushdownBloomFilter(boolean pushdownBloomFilter) {
+		this.pushdownBloomFilter = pushdownBloomFilter;
+	}
+	
+	public void setRangeCriteria(boolean rangeCriteria) {
+		this.rangeCriteria = rangeCriteria;
+	}
+	
 	@Override
 	public Boolean requiresTransaction(boolean transactionalReads) {
 		if (transactionalReads || !(this.getCommand() instanceof QueryCommand)) {
@@ -65,8 +65,14 @@ public class DependentCriteriaProcessor {
         
         float maxNdv = NewCalculateCostUtil.UNKNOWN_VALUE;
         
+        boolean adaptive;
+        
         boolean overMax;
         
+        Expression expression;
+        
+        DependentValueSource.ValueFilter filter;
+        
         long replacementSize() {
     		return replacement.size() * valueCount;
     	}
@@ -156,10 +162,20 @@ public class DependentCriteriaProcessor {
                     	}
                 	}
                 	if (!setState.overMax && distinctCount > setState.maxNdv) {
-                		LogManager.logWarning(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30011, valueSource, setState.valueExpression, setState.maxNdv));
+                		if (setState.adaptive) {
+                			//an expected outcome when the planner deferred the decision to runtime
+                			LogManager.logDetail(LogConstants.CTX_DQP, "Adaptive dependent join", valueSource, setState.valueExpression, "has more than", setState.maxNdv, "distinct values, using a full scan"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                		} else {
+                			LogManager.logWarning(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30011, valueSource, setState.valueExpression, setState.maxNdv));
+                		}
                 		setState.overMax = true;
                 	}
     			}
+            	for (SetState setState : dependentSetStates) {
+            		if (shouldFilter(setState, dvs.getTupleBuffer().getRowCount())) {
+            			setState.filter = dvs.getValueFilter(setState.valueExpression, BLOOM_FILTER_PROBABILITY);
+            		}
+            	}
             }
         }
         
@@ -181,12 +197,16 @@ public class DependentCriteriaProcessor {
     
     private static final int SORT = 2;
     private static final int SET_PROCESSING = 3;
+    private static final double BLOOM_FILTER_PROBABILITY = .01;
 
     //constructor state
     private int maxSetSize;
     private int maxPredicates;
     private RelationalNode dependentNode;
     private Criteria dependentCrit;
+    private boolean useBloomFilter;
+    private boolean pushdownBloomFilter;
+    private boolean rangeCriteria;
 
     //initialization state
     private List<Criteria> queryCriteria;
@@ -235,6 +255,7 @@ public class DependentCriteriaProcessor {
                 SetState state = new SetState();
                 setStates.put(i, state);
                 state.valueExpression = dsc.getValueExpression();
+                state.expression = dsc.getExpression();
                 if (dsc.hasMultipleAttributes()) {
                 	state.valueCount = ((Array)dsc.getExpression()).getExpressions().size();
                 }
@@ -246,10 +267,49 @@ public class DependentCriteriaProcessor {
                 }
                 ts.getDepedentSetStates().add(state);
                 state.maxNdv = dsc.getMaxNdv();
+                state.adaptive = dsc.isAdaptive();
             } 
         }        
     }
 
+    /**
+     * Use a {@link DependentValueSource.ValueFilter} rather than set criteria when the 
+     * independent values would require more than the max number of predicates or exceed the max ndv.
+     * @param useBloomFilter
+     * @param pushdownBloomFilter true if the source supports the filter as a {@link DependentSetCriteria}
+     * @param rangeCriteria true if the source supports ordered comparisons
+     */
+    public void setBloomFilter(boolean useBloomFilter, boolean pushdownBloomFilter, boolean rangeCriteria) {
+		this.useBloomFilter = useBloomFilter;
+		this.pushdownBloomFilter = pushdownBloomFilter;
+		this.rangeCriteria = rangeCriteria;
+	}
+    
+    private boolean shouldFilter(SetState setState, int distinctCount) {
+    	if (!useBloomFilter || setState.valueExpression instanceof Array 
+    			|| setState.expression.getType() != setState.valueExpression.getType()
+    			|| !DataTypeManager.isHashable(setState.valueExpression.getType())) {
+    		return false;
+    	}
+    	if (setState.overMax) {
+    		return true;
+    	}
+    	return this.maxSetSize > 0 && distinctCount > (long)this.maxSetSize * Math.max(1, this.maxPredicates);
+    }
+    
+    /**
+     * @return the filters that should be applied to the dependent rows by the dependent expression
+     */
+    public Map<Expression, DependentValueSource.ValueFilter> getValueFilters() {
+    	Map<Expression, DependentValueSource.ValueFilter> result = new HashMap<Expression, DependentValueSource.ValueFilter>();
+    	for (SetState state : setStates.values()) {
+    		if (state.filter != null) {
+    			result.put(state.expression, state.filter);
+    		}
+    	}
+    	return result;
+    }
+
     public void close() {
         if (dependentState != null) {
             for (TupleState state : dependentState.values()) {
@@ -358,7 +418,7 @@ public class DependentCriteriaProcessor {
 		                boolean lessThanMax = true;
 		
 		                for (SetState state : source) {
-		                	if (state.overMax) {
+		                	if (state.overMax || state.filter != null) {
 		                		doneCount++;
 		                		continue;
 		                	}
@@ -422,6 +482,11 @@ public class DependentCriteriaProcessor {
     }
     
     public Criteria replaceDependentCriteria(AbstractSetCriteria crit, SetState state) throws TeiidComponentException {
+    	if (state.filter != null) {
+            DependentValueSource originalVs = (DependentValueSource)dependentNode.getContext().getVariableContext().getGlobalValue(((DependentSetCriteria)crit).getContextSymbol());
+            originalVs.setUnused(true);
+            return replaceFilteredCriteria((DependentSetCriteria)crit, state.filter);
+    	}
     	if (state.overMax) {
             DependentValueSource originalVs = (DependentValueSource)dependentNode.getContext().getVariableContext().getGlobalValue(((DependentSetCriteria)crit).getContextSymbol());
             originalVs.setUnused(true);
@@ -463,6 +528,39 @@ public class DependentCriteriaProcessor {
     	return new CompoundCriteria(CompoundCriteria.OR, orCrits);
     }
     
+    /**
+     * The rows are filtered locally, so the source only needs to be sent the 
+     * range and the filter if supported.
+     */
+    private Criteria replaceFilteredCriteria(DependentSetCriteria crit, DependentValueSource.ValueFilter filter) {
+    	if (filter.getMin() == null) {
+    		return QueryRewriter.FALSE_CRITERIA;
+    	}
+    	List<Criteria> crits = new ArrayList<Criteria>(3);
+    	if (this.rangeCriteria && isRangeSafe(crit.getExpression().getType())) {
+    		crits.add(new CompareCriteria(crit.getExpression(), CompareCriteria.GE, newConstant(filter.getMin())));
+    		crits.add(new CompareCriteria(crit.getExpression(), CompareCriteria.LE, newConstant(filter.getMax())));
+    	}
+    	if (this.pushdownBloomFilter) {
+    		DependentSetCriteria dsc = crit.clone();
+    		dsc.setBloomFilter(filter.getBloomFilter());
+    		crits.add(dsc);
+    	}
+    	if (crits.isEmpty()) {
+    		return QueryRewriter.TRUE_CRITERIA;
+    	}
+    	return Criteria.combineCriteria(crits);
+    }
+    
+    /**
+     * The min/max are determined with the Java ordering.  The source collation of string 
+     * values is not known, so a range over them could exclude matching rows.
+     */
+    static boolean isRangeSafe(Class<?> type) {
+    	return type != DataTypeManager.DefaultDataClasses.STRING 
+    			&& type != DataTypeManager.DefaultDataClasses.CHAR;
+    }
+    
     private Constant newConstant(Object val) {
     	Constant c = new Constant(val);
     	c.setBindEligible(true);
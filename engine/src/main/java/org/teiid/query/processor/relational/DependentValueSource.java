@@ -36,6 +36,7 @@ import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.ArrayImpl;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.util.Assertion;
+import org.teiid.core.util.BloomFilter;
 import org.teiid.query.sql.symbol.Array;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.Expression;
@@ -47,10 +48,46 @@ import org.teiid.query.sql.util.ValueIteratorSource;
  */
 public class DependentValueSource implements
                                  ValueIteratorSource {
+	
+	/**
+	 * A probabilistic filter of the non-null values of an expression along with
+	 * the range of the values.
+	 */
+	public static class ValueFilter {
+		private BloomFilter bloomFilter;
+		private Object min;
+		private Object max;
+		
+		public boolean matches(Object value) {
+			if (value == null || min == null) {
+				return false;
+			}
+			if (Constant.COMPARATOR.compare(value, min) < 0 || Constant.COMPARATOR.compare(value, max) > 0) {
+				return false;
+			}
+			return bloomFilter.mightContain(value);
+		}
+		
+		public BloomFilter getBloomFilter() {
+			return bloomFilter;
+		}
+		
+		/**
+		 * @return the minimum value or null if there are no non-null values
+		 */
+		public Object getMin() {
+			return min;
+		}
+		
+		public Object getMax() {
+			return max;
+		}
+	}
 
     private TupleBuffer buffer;
     private List<? extends Expression> schema;
     private Map<Expression, Set<Object>> cachedSets;
+    private Map<Expression, ValueFilter> cachedFilters;
     private boolean unused; //TODO: use this value instead of the context
     private boolean distinct;
 
@@ -150,6 +187,41 @@ public class DependentValueSource implements
     	return result;
     }
     
+    /**
+     * Get a {@link ValueFilter} of the values of the given non-array expression.
+     * @param falsePositiveProbability the target false positive probability of the Bloom filter
+     */
+    public ValueFilter getValueFilter(Expression valueExpression, double falsePositiveProbability) throws TeiidComponentException {
+    	ValueFilter result = null;
+    	if (cachedFilters != null) {
+    		result = cachedFilters.get(valueExpression);
+    	}
+    	if (result == null) {
+    		result = new ValueFilter();
+    		result.bloomFilter = new BloomFilter(buffer.getRowCount(), falsePositiveProbability);
+    		TupleSourceValueIterator ve = getValueIterator(valueExpression);
+    		while (ve.hasNext()) {
+    			Object value = ve.next();
+    			if (value == null) {
+    				continue;
+    			}
+    			result.bloomFilter.put(value);
+    			if (result.min == null || Constant.COMPARATOR.compare(value, result.min) < 0) {
+    				result.min = value;
+    			}
+    			if (result.max == null || Constant.COMPARATOR.compare(value, result.max) > 0) {
+    				result.max = value;
+    			}
+    		}
+    		ve.close();
+    		if (cachedFilters == null) {
+    			cachedFilters = new HashMap<Expression, ValueFilter>();
+    		}
+    		cachedFilters.put(valueExpression, result);
+    	}
+    	return result;
+    }
+    
     @Override
     public boolean isUnused() {
 		return unused;
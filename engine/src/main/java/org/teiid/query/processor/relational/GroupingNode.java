@@ -27,6 +27,7 @@ import static org.teiid.query.analysis.AnalysisRecord.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
@@ -36,12 +37,17 @@ import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.common.buffer.TupleSource;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.language.SortSpecification.NullOrdering;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.function.aggregate.*;
 import org.teiid.query.processor.BatchCollector;
@@ -92,6 +98,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
 	private List<OrderByItem> orderBy;
 	private boolean removeDuplicates;
 	private SymbolMap outputMapping;
+	private boolean hashGrouping;
     
     // Collection phase
     private int phase = COLLECTION;
@@ -108,10 +115,19 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     private AggregateFunction[] functions;
     private List<?> lastRow;
 	private List<?> currentGroupTuple;
+	
+	// Hash phase
+	private LinkedHashMap<List<Object>, AggregateFunction[]> groups;
+	private Iterator<AggregateFunction[]> groupIterator;
+	private TupleBuffer spillBuffer;
+	private TupleBuffer hashSourceBuffer;
+	private int maxGroups;
+	private int reserved;
 
     private static final int COLLECTION = 1;
     private static final int SORT = 2;
     private static final int GROUP = 3;
+    private static final int HASH = 4;
 	private int[] indexes;
 
 	public GroupingNode(int nodeID) {
@@ -129,6 +145,9 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         lastRow = null;
         currentGroupTuple = null;
         
+        groups = null;
+        groupIterator = null;
+        
         if (this.functions != null) {
 	    	for (AggregateFunction function : this.functions) {
 				function.reset();
@@ -147,6 +166,15 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     public void setOutputMapping(SymbolMap outputMapping) {
 		this.outputMapping = outputMapping;
 	}
+    
+    /**
+     * Set to true to accumulate the groups in a hash table rather than sorting the input.
+     * Only valid if the output does not need to be sorted by the grouping columns.
+     * @param hashGrouping
+     */
+    public void setHashGrouping(boolean hashGrouping) {
+		this.hashGrouping = hashGrouping;
+	}
 
 	@Override
 	public void initialize(CommandContext context, BufferManager bufferManager,
@@ -175,8 +203,14 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             }
         }
         
-        // Construct aggregate function state accumulators
-        functions = new AggregateFunction[getElements().size()];
+        functions = createFunctions();
+    }
+
+	/**
+	 * Construct aggregate function state accumulators
+	 */
+	private AggregateFunction[] createFunctions() {
+		AggregateFunction[] functions = new AggregateFunction[getElements().size()];
         for(int i=0; i<getElements().size(); i++) {
             Expression symbol = getElements().get(i);
             if (this.outputMapping != null) {
@@ -192,7 +226,8 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
                 functions[i].initialize(outputType, new Class<?>[]{symbol.getType()});
             }
         }
-    }
+        return functions;
+	}
 	
 	static Integer getIndex(Expression ex, LinkedHashMap<Expression, Integer> expressionIndexes) {
 		Integer index = expressionIndexes.get(ex);
@@ -319,6 +354,11 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             return groupPhase();
         }
         
+        // Accumulate the groups in memory and emit a row for each
+        if(this.phase == HASH) {
+        	return hashPhase();
+        }
+        
         this.terminateBatches();
         return pullBatch();
     }
@@ -338,6 +378,13 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             // No need to sort
             this.groupTupleSource = getCollectionTupleSource();
             this.phase = GROUP;
+        } else if (this.hashGrouping && !this.removeDuplicates) {
+        	this.indexes = new int[orderBy.size()];
+        	for (int i = 0; i < this.indexes.length; i++) {
+				this.indexes[i] = i;
+			}
+        	this.groupTupleSource = getCollectionTupleSource();
+        	this.phase = HASH;
         } else {
         	List<NullOrdering> nullOrdering = new ArrayList<NullOrdering>(orderBy.size());
         	List<Boolean> sortTypes = new ArrayList<Boolean>(orderBy.size());
@@ -422,6 +469,97 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         return pullBatch();
     }
 
+    /**
+     * Accumulate the groups in a hash table.  If the table cannot be grown with the available 
+     * buffer reserve, the tuples for groups not already present are spilled and processed
+     * in a subsequent pass after the current groups have been output.
+     */
+    private TupleBatch hashPhase() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+    	if (this.groupIterator == null) {
+    		if (this.groups == null) {
+    			this.groups = new LinkedHashMap<List<Object>, AggregateFunction[]>();
+    			this.maxGroups = getBatchSize();
+    		}
+    		int schemaSize = getBufferManager().getSchemaSize(getElements());
+	        while(true) {
+	        	if (currentGroupTuple == null) {
+	        		currentGroupTuple = this.groupTupleSource.nextTuple();
+	        		if (currentGroupTuple == null) {
+	        			break;
+	        		}
+	        	}
+	        	List<Object> key = new ArrayList<Object>(indexes.length);
+	        	for (int i = 0; i < indexes.length; i++) {
+					key.add(currentGroupTuple.get(indexes[i]));
+				}
+	        	AggregateFunction[] groupFunctions = this.groups.get(key);
+	        	if (groupFunctions == null) {
+	        		if (this.groups.size() >= this.maxGroups && this.spillBuffer == null) {
+	        			int reserve = getBufferManager().reserveBuffers(schemaSize, 
+	        					(this.reserved + schemaSize <= getBufferManager().getMaxProcessingSize())?BufferReserveMode.FORCE:BufferReserveMode.NO_WAIT);
+	        			this.reserved += reserve;
+	        			if (reserve == schemaSize) {
+	        				this.maxGroups += getBatchSize();
+	        			} else {
+	        				this.spillBuffer = getBufferManager().createTupleBuffer(new ArrayList<Expression>(collectedExpressions.keySet()), getConnectionID(), TupleSourceType.PROCESSOR);
+	        				this.spillBuffer.setForwardOnly(true);
+	        				if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+	        					LogManager.logDetail(LogConstants.CTX_DQP, "Spilling grouping input after", this.groups.size(), "groups", this.spillBuffer); //$NON-NLS-1$ //$NON-NLS-2$
+	        				}
+	        			}
+	        		}
+	        		if (this.spillBuffer != null) {
+	        			this.spillBuffer.addTuple(currentGroupTuple);
+	        			currentGroupTuple = null;
+	        			continue;
+	        		}
+	        		groupFunctions = createFunctions();
+	        		this.groups.put(key, groupFunctions);
+	        	}
+	            // Update function accumulators with new row - can throw blocked exception
+	        	for (int i = 0; i < groupFunctions.length; i++) {
+	        		groupFunctions[i].addInput(currentGroupTuple, getContext());
+	        	}
+	            currentGroupTuple = null;
+	        }
+	        releaseReserved();
+	        this.groupIterator = this.groups.values().iterator();
+    	}
+    	while (this.groupIterator.hasNext()) {
+    		AggregateFunction[] groupFunctions = this.groupIterator.next();
+            List<Object> row = new ArrayList<Object>(groupFunctions.length);
+            for(int i=0; i<groupFunctions.length; i++) {
+                row.add( groupFunctions[i].getResult(getContext()) );
+            }
+            this.groupIterator.remove();
+            addBatchRow(row);
+            if (this.isBatchFull()) {
+            	return pullBatch();
+            }
+    	}
+    	this.groupIterator = null;
+    	if (this.hashSourceBuffer != null) {
+    		this.hashSourceBuffer.remove();
+    		this.hashSourceBuffer = null;
+    	}
+    	if (this.spillBuffer != null) {
+    		//process the remaining groups
+    		this.spillBuffer.close();
+    		this.hashSourceBuffer = this.spillBuffer;
+    		this.spillBuffer = null;
+    		this.maxGroups = getBatchSize();
+    		this.groupTupleSource = this.hashSourceBuffer.createIndexedTupleSource();
+    		return hashPhase();
+    	}
+        this.terminateBatches();
+        return pullBatch();
+    }
+
+	private void releaseReserved() {
+		getBufferManager().releaseBuffers(this.reserved);
+		this.reserved = 0;
+	}
+
 	public static boolean sameGroup(int[] indexes, List<?> newTuple, List<?> oldTuple) {
 		if (indexes == null) {
 			return true;
@@ -442,6 +580,15 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     		this.sortBuffer.remove();
     		this.sortBuffer = null;
     	}
+    	if (this.spillBuffer != null) {
+    		this.spillBuffer.remove();
+    		this.spillBuffer = null;
+    	}
+    	if (this.hashSourceBuffer != null) {
+    		this.hashSourceBuffer.remove();
+    		this.hashSourceBuffer = null;
+    	}
+    	releaseReserved();
     }
 
 	protected void getNodeString(StringBuffer str) {
@@ -458,6 +605,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
 		clonedNode.removeDuplicates = removeDuplicates;
 		clonedNode.outputMapping = outputMapping;
 		clonedNode.orderBy = orderBy;
+		clonedNode.hashGrouping = hashGrouping;
 		return clonedNode;
 	}
 
@@ -474,6 +622,9 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             props.addProperty(PROP_GROUP_COLS, groupCols);
         }
         props.addProperty(PROP_SORT_MODE, String.valueOf(this.removeDuplicates));
+        if (hashGrouping) {
+        	props.addProperty(PROP_GROUP_MODE, "HASH"); //$NON-NLS-1$
+        }
 
         return props;
     }
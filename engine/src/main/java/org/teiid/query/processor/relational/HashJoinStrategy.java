@@ -0,0 +1,382 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.IndexedTupleSource;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
+import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
+import org.teiid.query.processor.relational.SourceState.ImplicitBuffer;
+
+
+/**
+ * A hybrid hash join for inner equi-joins.
+ *
+ * The smaller side (by the estimated cardinality) is fully buffered and used to build
+ * an in-memory hash table keyed by the join expressions.  The other side is then streamed
+ * and probed against the table, so that neither side needs to be sorted.
+ *
+ * If the build side will not fit in the reserved processing memory, both sides are
+ * partitioned by the hash of the key.  The first partition is joined in memory while
+ * the probe side is streamed and the remaining partitions are then joined one at a time
+ * from their buffers.
+ *
+ * The hash table never holds more build rows than fit in the reservation.  The build rows 
+ * of a partition that do not fit, for example due to skewed keys, are joined in blocks 
+ * with a scan of the probe partition for each block.
+ */
+public class HashJoinStrategy extends JoinStrategy {
+
+	private SourceState buildSource;
+	private SourceState probeSource;
+	private boolean buildLeft;
+
+	private int partitionCount = 1;
+	private TupleBuffer[] buildPartitions;
+	private TupleBuffer[] probePartitions;
+	private int partition;
+	private boolean streaming = true;
+	private int capacity;
+
+	private Map<List<Object>, List<List<?>>> table;
+	private IndexedTupleSource buildTs;
+	private TupleSource probeTs;
+	private List<?> probeTuple;
+	private List<List<?>> matches;
+	private int matchIndex;
+	private int reserved;
+
+	@Override
+	public void close() {
+		if (joinNode == null) {
+			return;
+		}
+		try {
+			if (this.buildTs != null) {
+				this.buildTs.closeSource();
+			}
+			removePartitions(this.buildPartitions);
+			removePartitions(this.probePartitions);
+			if (this.probeTs != null && !this.streaming) {
+				this.probeTs.closeSource();
+			}
+			releaseReserved();
+		} finally {
+			super.close();
+		}
+		this.buildPartitions = null;
+		this.probePartitions = null;
+		this.table = null;
+		this.buildTs = null;
+		this.probeTs = null;
+		this.probeTuple = null;
+		this.matches = null;
+		this.buildSource = null;
+		this.probeSource = null;
+	}
+
+	private void removePartitions(TupleBuffer[] partitions) {
+		if (partitions == null) {
+			return;
+		}
+		for (TupleBuffer tb : partitions) {
+			if (tb != null) {
+				tb.remove();
+			}
+		}
+	}
+
+	private void releaseReserved() {
+		this.joinNode.getBufferManager().releaseBuffers(this.reserved);
+		this.reserved = 0;
+	}
+
+	@Override
+	public void initialize(JoinNode joinNode) {
+		super.initialize(joinNode);
+		this.partitionCount = 1;
+		this.partition = 0;
+		this.streaming = true;
+		this.matchIndex = 0;
+	}
+
+	@Override
+	protected void loadLeft() throws TeiidComponentException,
+			TeiidProcessingException {
+		if (this.joinNode.isDependent()) {
+			this.leftSource.getTupleBuffer();
+		}
+	}
+
+	@Override
+	protected void loadRight() throws TeiidComponentException,
+			TeiidProcessingException {
+		if (this.buildSource == null) {
+			this.buildLeft = this.leftSource.hasBuffer() || isSmaller(this.leftSource, this.rightSource);
+			this.buildSource = buildLeft?this.leftSource:this.rightSource;
+			this.probeSource = buildLeft?this.rightSource:this.leftSource;
+			this.probeSource.setImplicitBuffer(ImplicitBuffer.NONE);
+		}
+		TupleBuffer buildBuffer = this.buildSource.getTupleBuffer();
+		BufferManager bm = this.joinNode.getBufferManager();
+		int schemaSize = Math.max(1, bm.getSchemaSize(this.buildSource.getSource().getOutputElements()));
+		int batches = buildBuffer.getRowCount() / buildBuffer.getBatchSize() + 1;
+		int toReserve = schemaSize * batches;
+		int maxProcessing = bm.getMaxProcessingSize();
+		if (toReserve <= maxProcessing) {
+			this.reserved = bm.reserveBuffers(toReserve, BufferReserveMode.FORCE);
+		} else {
+			this.reserved = bm.reserveBuffers(toReserve, BufferReserveMode.NO_WAIT);
+			if (this.reserved == 0) {
+				this.reserved = bm.reserveBuffers(maxProcessing, BufferReserveMode.FORCE);
+				//there's no benefit to a partition smaller than a batch
+				this.partitionCount = Math.min(batches, toReserve / Math.max(1, maxProcessing) + 1);
+			}
+		}
+		this.capacity = Math.max(1, this.reserved / schemaSize) * buildBuffer.getBatchSize();
+		if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+			LogManager.logDetail(LogConstants.CTX_DQP, "hash join building", buildLeft?"left":"right", "with partitions", partitionCount, this.joinNode.getID()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		this.table = new HashMap<List<Object>, List<List<?>>>();
+		this.buildPartitions = new TupleBuffer[this.partitionCount];
+		this.probePartitions = new TupleBuffer[this.partitionCount];
+		for (int i = 1; i < this.partitionCount; i++) {
+			this.buildPartitions[i] = createPartition(this.buildSource);
+			this.probePartitions[i] = createPartition(this.probeSource);
+		}
+		IndexedTupleSource its = buildBuffer.createIndexedTupleSource(!(buildLeft && this.joinNode.isDependent()));
+		int[] indexes = this.buildSource.getExpressionIndexes();
+		int rows = 0;
+		while (its.hasNext()) {
+			List<?> tuple = its.nextTuple();
+			List<Object> key = getKey(tuple, indexes);
+			if (key == null) {
+				continue;
+			}
+			int p = getPartition(key);
+			if (p == 0 && rows < this.capacity) {
+				addToTable(key, tuple);
+				rows++;
+				continue;
+			} 
+			if (this.buildPartitions[p] == null) {
+				//the first partition overflowed, so the probe rows must be kept as well
+				this.buildPartitions[p] = createPartition(this.buildSource);
+				this.probePartitions[p] = createPartition(this.probeSource);
+			}
+			this.buildPartitions[p].addTuple(tuple);
+		}
+		its.closeSource();
+		for (TupleBuffer tb : this.buildPartitions) {
+			if (tb != null) {
+				tb.close();
+			}
+		}
+	}
+
+	private boolean isSmaller(SourceState left, SourceState right) {
+		float leftCard = getCardinality(left);
+		if (leftCard == NewCalculateCostUtil.UNKNOWN_VALUE) {
+			return false;
+		}
+		float rightCard = getCardinality(right);
+		return rightCard == NewCalculateCostUtil.UNKNOWN_VALUE || leftCard < rightCard;
+	}
+
+	private float getCardinality(SourceState state) {
+		Number cardinality = state.getSource().getEstimateNodeCardinality();
+		if (cardinality == null) {
+			return NewCalculateCostUtil.UNKNOWN_VALUE;
+		}
+		return cardinality.floatValue();
+	}
+
+	private TupleBuffer createPartition(SourceState state) throws TeiidComponentException {
+		return this.joinNode.getBufferManager().createTupleBuffer(state.getSource().getElements(), this.joinNode.getConnectionID(), TupleSourceType.PROCESSOR);
+	}
+
+	private void addToTable(List<Object> key, List<?> tuple) {
+		List<List<?>> values = this.table.get(key);
+		if (values == null) {
+			values = new ArrayList<List<?>>(2);
+			this.table.put(key, values);
+		}
+		values.add(tuple);
+	}
+
+	/**
+	 * @return the key values or null if any are null, since they cannot match
+	 */
+	static List<Object> getKey(List<?> tuple, int[] indexes) {
+		List<Object> key = new ArrayList<Object>(indexes.length);
+		for (int i : indexes) {
+			Object value = tuple.get(i);
+			if (value == null) {
+				return null;
+			}
+			key.add(value);
+		}
+		return key;
+	}
+
+	private int getPartition(List<Object> key) {
+		if (this.partitionCount == 1) {
+			return 0;
+		}
+		return (key.hashCode() & Integer.MAX_VALUE) % this.partitionCount;
+	}
+
+	@Override
+	protected void process() throws TeiidComponentException,
+			TeiidProcessingException {
+		while (true) {
+			if (this.probeTs == null) {
+				if (this.streaming) {
+					this.probeTs = this.probeSource.getIterator();
+				} else if (!loadPartition()) {
+					return;
+				}
+			}
+			if (this.probeTuple == null) {
+				List<?> tuple = this.probeTs.nextTuple();
+				if (tuple == null) {
+					if (this.streaming) {
+						for (TupleBuffer tb : this.probePartitions) {
+							if (tb != null) {
+								tb.close();
+							}
+						}
+						this.streaming = false;
+						this.partition = 0;
+					} else {
+						this.probeTs.closeSource();
+						if (this.buildTs == null) {
+							//the last block of the partition has been joined
+							this.probePartitions[this.partition] = null;
+							this.partition++;
+						}
+					}
+					this.probeTs = null;
+					continue;
+				}
+				List<Object> key = getKey(tuple, this.probeSource.getExpressionIndexes());
+				if (key == null) {
+					continue;
+				}
+				if (this.streaming) {
+					int p = getPartition(key);
+					if (this.probePartitions[p] != null) {
+						this.probePartitions[p].addTuple(tuple);
+					}
+					if (p != 0) {
+						continue;
+					}
+				}
+				this.matches = this.table.get(key);
+				if (this.matches == null) {
+					continue;
+				}
+				this.probeTuple = tuple;
+				this.matchIndex = 0;
+			}
+			while (this.matchIndex < this.matches.size()) {
+				List<?> buildTuple = this.matches.get(this.matchIndex);
+				List outputTuple = buildLeft?outputTuple(buildTuple, this.probeTuple):outputTuple(this.probeTuple, buildTuple);
+				boolean matchesCriteria = this.joinNode.matchesCriteria(outputTuple);
+				this.matchIndex++;
+				if (matchesCriteria) {
+					this.joinNode.addBatchRow(outputTuple);
+				}
+			}
+			this.probeTuple = null;
+			this.matches = null;
+		}
+	}
+
+	/**
+	 * Load the next block of build rows of the current partition that fits in the 
+	 * reservation into the hash table and start a scan of the corresponding probe partition.
+	 * @return false if there are no more partitions
+	 */
+	private boolean loadPartition() throws TeiidComponentException,
+			TeiidProcessingException {
+		while (this.partition < this.partitionCount) {
+			this.table.clear();
+			if (this.buildTs == null) {
+				TupleBuffer buildPartition = this.buildPartitions[this.partition];
+				TupleBuffer probePartition = this.probePartitions[this.partition];
+				this.buildPartitions[this.partition] = null;
+				if (buildPartition == null || buildPartition.getRowCount() == 0 || probePartition.getRowCount() == 0) {
+					if (buildPartition != null) {
+						buildPartition.remove();
+						probePartition.remove();
+					}
+					this.probePartitions[this.partition] = null;
+					this.partition++;
+					continue;
+				}
+				this.buildTs = buildPartition.createIndexedTupleSource(true);
+			}
+			int[] indexes = this.buildSource.getExpressionIndexes();
+			int rows = 0;
+			while (rows < this.capacity && this.buildTs.hasNext()) {
+				List<?> tuple = this.buildTs.nextTuple();
+				addToTable(getKey(tuple, indexes), tuple);
+				rows++;
+			}
+			boolean lastBlock = !this.buildTs.hasNext();
+			if (lastBlock) {
+				this.buildTs.closeSource();
+				this.buildTs = null;
+			}
+			//the probe partition is removed after the scan for the last block
+			this.probeTs = this.probePartitions[this.partition].createIndexedTupleSource(lastBlock);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public HashJoinStrategy clone() {
+		return new HashJoinStrategy();
+	}
+
+	@Override
+	public String toString() {
+		return "HASH JOIN"; //$NON-NLS-1$
+	}
+
+}
@@ -53,6 +53,11 @@ import org.teiid.query.sql.symbol.GroupSymbol;
 
 public class ProjectIntoNode extends RelationalNode {
 
+	/**
+	 * The default number of rows sent per iterator insert when streaming
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+	
 	public enum Mode {
 		BATCH, ITERATOR, SINGLE
 	}
@@ -65,6 +70,7 @@ public class ProjectIntoNode extends RelationalNode {
     private List intoElements;
     private String modelName;
     private Mode mode;
+    private int chunkSize;
     
     // Processing state
     private int batchRow = 1;
@@ -168,7 +174,9 @@ public class ProjectIntoNode extends RelationalNode {
             		buffer = getBufferManager().createTupleBuffer(intoElements, getConnectionID(), TupleSourceType.PROCESSOR);
             	}
             	buffer.addTupleBatch(currentBatch, true);
-            	if (currentBatch.getTerminationFlag() && (buffer.getRowCount() != 0 || intoGroup.isImplicitTempGroupSymbol())) {
+            	if ((currentBatch.getTerminationFlag() && (buffer.getRowCount() != 0 || intoGroup.isImplicitTempGroupSymbol()))
+            			|| (chunkSize > 0 && buffer.getRowCount() >= chunkSize)) {
+            		//when streaming, send what has been buffered so far rather than waiting for the whole source
             		Insert insert = new Insert(intoGroup, intoElements, null);
             		buffer.close();
             		insert.setTupleSource(buffer.createIndexedTupleSource(true));
@@ -256,6 +264,7 @@ public class ProjectIntoNode extends RelationalNode {
         clonedNode.intoElements = intoElements;
         clonedNode.modelName = this.modelName;
         clonedNode.mode = this.mode;
+        clonedNode.chunkSize = this.chunkSize;
         clonedNode.constraint = this.constraint;
         return clonedNode;
     }
@@ -289,6 +298,19 @@ public class ProjectIntoNode extends RelationalNode {
     public void setMode(Mode mode) {
 		this.mode = mode;
 	}
+    
+    public int getChunkSize() {
+		return chunkSize;
+	}
+    
+    /**
+     * Set the number of rows to buffer before sending an iterator insert to the source.
+     * Values less than 1 buffer all rows into a single insert.
+     * @param chunkSize
+     */
+    public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
 
     public boolean isTempGroupInsert() {
 		return intoGroup.isTempGroupSymbol();
@@ -304,7 +326,7 @@ public class ProjectIntoNode extends RelationalNode {
     
     @Override
     public Boolean requiresTransaction(boolean transactionalReads) {
-		if (getMode() != Mode.ITERATOR) {
+		if (getMode() != Mode.ITERATOR || chunkSize > 0) {
 			return true;
 		}
 		return null;
@@ -30,19 +30,26 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
+import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.sql.LanguageObject;
 import org.teiid.query.sql.symbol.AliasSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.util.SymbolMap;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
+import org.teiid.query.util.CommandContext;
 
 
 public class ProjectNode extends SubqueryAwareRelationalNode {
@@ -54,6 +61,13 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     private boolean needsProject = true;
     private List<Expression> expressions;
     private int[] projectionIndexes;
+    //the child indexes if all symbols are simple element references, used for columnar batches
+    private int[] elementIndexes;
+    //shared with clones so that the expressions are compiled once per plan
+    private AtomicReference<CompiledExpression[]> compiledHolder = new AtomicReference<CompiledExpression[]>();
+    private CompiledExpression[] compiledExpressions;
+    //evaluate the expressions a batch at a time into columns
+    private boolean vectorized;
 
     // Saved state when blocked on evaluating a row - must be reset
     private TupleBatch currentBatch;
@@ -92,6 +106,31 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     	for (Expression ses : this.selectSymbols) {
 			this.expressions.add(SymbolMap.getExpression(ses));
 		}
+    	this.compiledHolder = new AtomicReference<CompiledExpression[]>();
+    	this.compiledExpressions = null;
+	}
+	
+	@Override
+	public void initialize(CommandContext context, BufferManager bufferManager,
+			ProcessorDataManager dataMgr) {
+		super.initialize(context, bufferManager, dataMgr);
+		if (!needsProject || context == null) {
+			return;
+		}
+		boolean vectorize = context.getOptions().isVectorizedEvaluation();
+		if (this.compiledExpressions == null && (vectorize || context.getOptions().isCompileExpressions())) {
+			CompiledExpression[] compiled = new CompiledExpression[this.expressions.size()];
+			for (int i = 0; i < compiled.length; i++) {
+				if (this.projectionIndexes[i] == -1) {
+					compiled[i] = CompiledExpression.compile(this.expressions.get(i), this.elementMap);
+				}
+			}
+			this.compiledHolder.compareAndSet(null, compiled);
+			this.compiledExpressions = this.compiledHolder.get();
+		}
+		//subqueries may block mid-batch, so they are evaluated a row at a time
+		this.vectorized = vectorize && this.compiledExpressions != null && this.getChildren()[0] != null
+				&& ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(this.expressions).isEmpty();
 	}
 	
 	@Override
@@ -110,6 +149,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         // 2. project elements are either elements or aggregate symbols (no processing required)
         // 3. order of input values == order of output values
         needsProject = childElements.size() != selectSymbols.size();
+        elementIndexes = new int[selectSymbols.size()];
         for(int i=0; i<selectSymbols.size(); i++) {
             Expression symbol = selectSymbols.get(i);
             
@@ -117,12 +157,14 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
                 Integer index = elementMap.get(symbol);
                 if(index != null && index.intValue() == i) {
                 	projectionIndexes[i] = index;
+                	updateElementIndex(i, index);
                     continue;
                 }
                 symbol = ((AliasSymbol)symbol).getSymbol();
             }
 
             Integer index = elementMap.get(symbol);
+            updateElementIndex(i, index);
             if(index == null || index.intValue() != i) {
                 // input / output element order is not the same
                 needsProject = true;
@@ -132,6 +174,17 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         }
 	}
 	
+	private void updateElementIndex(int i, Integer index) {
+		if (elementIndexes == null) {
+			return;
+		}
+		if (index == null) {
+			elementIndexes = null;
+		} else {
+			elementIndexes[i] = index;
+		}
+	}
+	
 	public TupleBatch nextBatchDirect()
 		throws BlockedException, TeiidComponentException, TeiidProcessingException {
 		
@@ -152,6 +205,18 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
             	currentBatch = null;
                 return result;
             }
+            
+            // Columnar batches of element references can be projected without row copies
+            ColumnarBatch columnar = currentBatch.getColumnarTuples();
+            if (columnar != null && elementIndexes != null && !hasPendingRows()) {
+            	setBatchRows(columnar.project(elementIndexes));
+            	currentRow = currentBatch.getEndRow() + 1;
+            }
+        }
+        
+        if (vectorized && currentRow == currentBatch.getBeginRow() && !hasPendingRows()) {
+        	setBatchRows(projectBatch());
+        	currentRow = currentBatch.getEndRow() + 1;
         }
 
         while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
@@ -180,12 +245,42 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     	return pullBatch();
 	}
 
+	/**
+	 * Evaluate the current batch a column at a time.  If blocked the batch
+	 * will be evaluated again from the beginning.
+	 */
+	private ColumnarBatch projectBatch() throws BlockedException,
+			TeiidComponentException, ExpressionEvaluationException {
+		List<List<?>> tuples = currentBatch.getTuples();
+		ColumnarBatch columnar = currentBatch.getColumnarTuples();
+		Class<?>[] types = new Class<?>[this.expressions.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = this.expressions.get(i).getType();
+		}
+		ColumnarBatch result = new ColumnarBatch(types, tuples.size());
+		for (int col = 0; col < types.length; col++) {
+			int index = this.projectionIndexes[col];
+			if (index == -1) {
+				getEvaluator(this.elementMap).evaluate(this.compiledExpressions[col], tuples, result, col);
+			} else if (columnar != null && columnar.getTypes()[index] == types[col]) {
+				result.setColumn(col, columnar, index);
+			} else {
+				for (int row = 0; row < tuples.size(); row++) {
+					result.setValue(row, col, tuples.get(row).get(index));
+				}
+			}
+		}
+		return result;
+	}
+
 	private void updateTuple(Expression symbol, int projectionIndex, List<?> values, List<Object> tuple)
 		throws BlockedException, TeiidComponentException, ExpressionEvaluationException {
 
         int index = this.projectionIndexes[projectionIndex];
         if(index != -1) {
 			tuple.add(values.get(index));
+        } else if (this.compiledExpressions != null) {
+        	tuple.add(getEvaluator(this.elementMap).evaluate(this.compiledExpressions[projectionIndex], values));
         } else { 
 			tuple.add(getEvaluator(this.elementMap).evaluate(symbol, values));
 		}
@@ -209,6 +304,9 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         target.elementMap = elementMap;
         target.expressions = expressions;
         target.projectionIndexes = projectionIndexes;
+        target.elementIndexes = elementIndexes;
+        target.compiledHolder = compiledHolder;
+        target.compiledExpressions = compiledHolder.get();
     }
 
     public PlanNode getDescriptionProperties() {
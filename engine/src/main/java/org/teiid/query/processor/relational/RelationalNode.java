@@ -216,6 +216,14 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         this.getProcessingState().batchRows.add(row);
     }
 
+    /**
+     * Use the rows as the pending batch.  There must not be pending rows and
+     * no rows may be added before the batch is pulled.
+     */
+    protected void setBatchRows(List<? extends List<?>> rows) {
+    	this.getProcessingState().batchRows = rows;
+    }
+
     protected void terminateBatches() {
         this.getProcessingState().lastBatch = true;
     }
@@ -338,7 +346,7 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         	closeDirect();
             for(int i=0; i<children.length; i++) {
                 if(children[i] != null) {
-                    children[i].close();
+                    closeChild(i);
                 } else {
                     break;
                 }
@@ -350,6 +358,14 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
 	public void closeDirect() {
 		
 	}
+	
+	/**
+	 * Close the child at the given index.  Nodes that process their children with 
+	 * other threads may defer the close to the thread using the child.
+	 */
+	protected void closeChild(int index) throws TeiidComponentException {
+		children[index].close();
+	}
 
     /**
      * Check if the node has been already closed
@@ -28,7 +28,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
@@ -36,10 +39,13 @@ import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
+import org.teiid.query.eval.Evaluator;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.sql.LanguageObject;
 import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
 import org.teiid.query.util.CommandContext;
 
 
@@ -47,6 +53,11 @@ public class SelectNode extends SubqueryAwareRelationalNode {
 
 	private Criteria criteria;
 	private List<Expression> projectedExpressions;
+	//shared with clones so that the criteria is compiled once per plan
+	private AtomicReference<CompiledExpression> compiledHolder = new AtomicReference<CompiledExpression>();
+	private CompiledExpression compiledCriteria;
+	//evaluate the criteria a batch at a time
+	private boolean vectorized;
     
     // Derived element lookup map
     private Map<Expression, Integer> elementMap; 
@@ -55,6 +66,12 @@ public class SelectNode extends SubqueryAwareRelationalNode {
     // State if blocked on evaluating a criteria
     private TupleBatch currentBatch;
     private int currentRow = 1;
+    private boolean selecting;
+    private int[] selectedRows;
+    private int selectedCount;
+    //the selection vector has been computed for the current batch
+    private boolean selected;
+    private int selectedIndex;
 
 	protected SelectNode() {
 		super();
@@ -69,10 +86,17 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         
         currentBatch = null;
         currentRow = 1;
+        selecting = false;
+        selectedRows = null;
+        selectedCount = 0;
+        selected = false;
+        selectedIndex = 0;
     }
 
 	public void setCriteria(Criteria criteria) { 
 		this.criteria = criteria;
+		this.compiledHolder = new AtomicReference<CompiledExpression>();
+		this.compiledCriteria = null;
 	}
 
 	public Criteria getCriteria() { // made public to support change in ProcedurePlanner
@@ -92,6 +116,25 @@ public class SelectNode extends SubqueryAwareRelationalNode {
             this.elementMap = createLookupMap(this.getChildren()[0].getElements());
             this.projectionIndexes = getProjectionIndexes(this.elementMap, projectedExpressions!=null?projectedExpressions:getElements());
         }
+        if (this.criteria == null || context == null) {
+        	return;
+        }
+        boolean vectorize = context.getOptions().isVectorizedEvaluation();
+        if (this.compiledCriteria == null && (vectorize || context.getOptions().isCompileExpressions())) {
+        	this.compiledHolder.compareAndSet(null, CompiledExpression.compile(this.criteria, this.elementMap));
+        	this.compiledCriteria = this.compiledHolder.get();
+        }
+        //subqueries may block mid-batch, so they are evaluated a row at a time
+        this.vectorized = vectorize && this.compiledCriteria != null 
+        		&& ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(this.criteria).isEmpty();
+	}
+	
+	private boolean evaluate(List<?> tuple) throws BlockedException, TeiidComponentException, ExpressionEvaluationException {
+		Evaluator evaluator = getEvaluator(this.elementMap);
+		if (this.compiledCriteria != null) {
+			return evaluator.evaluateCriteria(this.compiledCriteria, tuple);
+		}
+		return evaluator.evaluate(this.criteria, tuple);
 	}
 	
     /**
@@ -103,11 +146,46 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         if(currentBatch == null) {
         	currentBatch = this.getChildren()[0].nextBatch();
         }
+        
+        ColumnarBatch columnar = currentBatch.getColumnarTuples();
+        if (vectorized) {
+        	if (!selected) {
+        		selectBatch(columnar);
+        	}
+        	List<List<?>> tuples = currentBatch.getTuples();
+        	while (selectedIndex < selectedCount && !isBatchFull()) {
+        		addBatchRow(projectTuple(this.projectionIndexes, tuples.get(selectedRows[selectedIndex++])));
+        	}
+        	if (selectedIndex == selectedCount) {
+        		currentRow = currentBatch.getEndRow() + 1;
+        		selected = false;
+        	}
+        } else if (columnar != null && currentRow == currentBatch.getBeginRow() && !hasPendingRows()) {
+        	//collect the matching row indexes and copy the column values once
+        	selecting = true;
+        	if (selectedRows == null || selectedRows.length < columnar.size()) {
+        		selectedRows = new int[columnar.size()];
+        	}
+        }
+        if (selecting) {
+        	while (currentRow <= currentBatch.getEndRow()) {
+        		List<?> tuple = currentBatch.getTuple(currentRow);
+        		if(evaluate(tuple)) {
+        			selectedRows[selectedCount++] = currentRow - currentBatch.getBeginRow();
+        		}
+        		currentRow++;
+        	}
+        	if (selectedCount > 0) {
+        		setBatchRows(columnar.select(selectedRows, selectedCount, this.projectionIndexes));
+        	}
+        	selecting = false;
+        	selectedCount = 0;
+        }
 
-        while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
+        while (!vectorized && currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
     		List<?> tuple = currentBatch.getTuple(currentRow);
 
-            if(getEvaluator(this.elementMap).evaluate(this.criteria, tuple)) {
+            if(evaluate(tuple)) {
                 addBatchRow(projectTuple(this.projectionIndexes, tuple));
             }
             currentRow++;
@@ -122,6 +200,31 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         
     	return pullBatch();
 	}
+
+	/**
+	 * Compute the selection vector for the whole current batch.  If blocked
+	 * the batch will be evaluated again from the beginning.
+	 */
+	private void selectBatch(ColumnarBatch columnar) throws BlockedException,
+			TeiidComponentException, ExpressionEvaluationException {
+		int size = currentBatch.getRowCount();
+		if (selectedRows == null || selectedRows.length < size) {
+			selectedRows = new int[size];
+		}
+		for (int i = 0; i < size; i++) {
+			selectedRows[i] = i;
+		}
+		selectedCount = getEvaluator(this.elementMap).evaluateSelection(this.compiledCriteria, currentBatch.getTuples(), selectedRows, size);
+		selectedIndex = 0;
+		selected = true;
+		if (columnar != null && !hasPendingRows()) {
+			//copy the matching column values once
+			if (selectedCount > 0) {
+				setBatchRows(columnar.select(selectedRows, selectedCount, this.projectionIndexes));
+			}
+			selectedIndex = selectedCount;
+		}
+	}
     
 	protected void getNodeString(StringBuffer str) {
 		super.getNodeString(str);
@@ -137,6 +240,8 @@ public class SelectNode extends SubqueryAwareRelationalNode {
 	protected void copyTo(SelectNode target){
 		super.copyTo(target);
 		target.criteria = criteria;
+		target.compiledHolder = compiledHolder;
+		target.compiledCriteria = compiledHolder.get();
 		target.elementMap = elementMap;
 		target.projectionIndexes = projectionIndexes;
 		target.projectedExpressions = projectedExpressions;
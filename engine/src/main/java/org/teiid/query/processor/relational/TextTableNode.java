@@ -31,6 +31,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -40,10 +42,13 @@ import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.ClobImpl;
 import org.teiid.core.types.ClobType;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.TransformationException;
+import org.teiid.core.util.ExecutorUtils;
+import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.sql.LanguageObject;
@@ -55,11 +60,28 @@ import org.teiid.query.util.CommandContext;
 /**
  * Handles text file processing.
  * 
+ * With the parallelTextTable option delimited and row delimited fixed width text 
+ * without selectors is read in chunks that end on record boundaries.  Each chunk is 
+ * parsed directly into typed rows by a task on the context executor and the plan 
+ * thread returns the rows of the parsed chunks.  An ordered node returns the chunks 
+ * in the order they were read.
+ * 
  * TODO: allow for a configurable line terminator
  */
 public class TextTableNode extends SubqueryAwareRelationalNode {
 
+	/**
+	 * The number of chars read for each chunk of text parsed in parallel
+	 */
+	static final int CHUNK_SIZE = 1 << 16;
+	
+	/**
+	 * The number of chunks that may be read ahead of the rows being returned
+	 */
+	static final int MAX_PENDING_CHUNKS = 4;
+	
 	private TextTable table;
+	private boolean ordered = true;
 	
 	//initialized state
 	private int skip = 0;
@@ -80,6 +102,17 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 	private boolean cr;
 	private boolean eof;
 	
+	//parallel state
+	private LinkedList<Chunk> chunks;
+	private char[] remainder;
+	private int remainderLength;
+	private int chunkLines;
+	private int[] fieldIndexes;
+	private Class<?>[] fieldTypes;
+	private List<List<?>> currentRows;
+	private int currentIndex;
+	private boolean waiting;
+	
 	public TextTableNode(int nodeID) {
 		super(nodeID);
 	}
@@ -148,6 +181,21 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 		this.textLine = 0;
 		this.cr = false;
 		this.eof = false;
+		if (this.chunks != null) {
+			synchronized (this) {
+				for (Chunk chunk : this.chunks) {
+					chunk.cancelled = true;
+				}
+				this.chunks = null;
+				this.waiting = false;
+			}
+		}
+		this.remainder = null;
+		this.remainderLength = 0;
+		this.fieldIndexes = null;
+		this.fieldTypes = null;
+		this.currentRows = null;
+		this.currentIndex = 0;
 		if (this.parentLines != null) {
 			for (Map.Entry<String, List<String>> entry : this.parentLines.entrySet()) {
 				entry.setValue(null);
@@ -158,12 +206,25 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 	public void setTable(TextTable table) {
 		this.table = table;
 	}
+	
+	public boolean isOrdered() {
+		return ordered;
+	}
+	
+	/**
+	 * Set to false if the rows need not be returned in the order of the text
+	 * @param ordered
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
 
 	@Override
 	public TextTableNode clone() {
 		TextTableNode clone = new TextTableNode(getID());
 		this.copyTo(clone);
 		clone.setTable(table);
+		clone.setOrdered(ordered);
 		return clone;
 	}
 
@@ -173,6 +234,9 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 		
 		if (reader == null) {
 			initReader();
+			if (reader != null && shouldParseInParallel()) {
+				startParallel();
+			}
 		}
 
 		if (reader == null) {
@@ -180,6 +244,10 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 			return pullBatch();
 		}
 		
+		if (chunks != null) {
+			return nextParallelBatch();
+		}
+		
 		while (!isBatchFull()) {
 			String line = readLine(lineWidth, table.isFixedWidth());
 			
@@ -239,6 +307,287 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 		return pullBatch();
 	}
 
+	private boolean shouldParseInParallel() {
+		CommandContext context = getContext();
+		if (context == null || !context.getOptions().isParallelTextTable() 
+				|| context.getExecutor() == null || context.getExecutor() == ExecutorUtils.getDirectExecutor()) {
+			return false;
+		}
+		//selectors and text without row delimiters are only handled a line at a time
+		return table.isUsingRowDelimiter() && table.getSelector() == null && parentLines == null;
+	}
+	
+	private void startParallel() throws TeiidProcessingException {
+		fieldIndexes = new int[projectionIndexes.length];
+		fieldTypes = new Class<?>[projectionIndexes.length];
+		for (int i = 0; i < projectionIndexes.length; i++) {
+			TextColumn col = table.getColumns().get(projectionIndexes[i]);
+			if (nameIndexes != null) {
+				fieldIndexes[i] = nameIndexes.get(col.getName());
+			} else {
+				fieldIndexes[i] = projectionIndexes[i];
+			}
+			fieldTypes[i] = col.getSymbol().getType();
+		}
+		remainder = new char[1];
+		if (cr) {
+			//the header ended with \r, so skip a following \n
+			cr = false;
+			try {
+				int c = reader.read();
+				if (c == -1) {
+					eof = true;
+				} else if (c != '\n') {
+					remainder[0] = (char)c;
+					remainderLength = 1;
+				}
+			} catch (IOException e) {
+				 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30179, e);
+			}
+		}
+		chunks = new LinkedList<Chunk>();
+	}
+	
+	/**
+	 * Return the rows of parsed chunks, reading and starting the parsing of
+	 * new chunks as room is made.
+	 */
+	private TupleBatch nextParallelBatch() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+		while (!isBatchFull()) {
+			if (currentRows != null) {
+				while (currentIndex < currentRows.size() && !isBatchFull()) {
+					addBatchRow(currentRows.get(currentIndex++));
+				}
+				if (currentIndex < currentRows.size()) {
+					break;
+				}
+				currentRows = null;
+			}
+			readChunks();
+			Chunk chunk = takeChunk();
+			if (chunk != null) {
+				currentRows = chunk.rows;
+				currentIndex = 0;
+				continue;
+			}
+			synchronized (this) {
+				if (chunks.isEmpty()) {
+					terminateBatches();
+					break;
+				}
+			}
+			if (hasPendingRows()) {
+				break;
+			}
+			waitForChunk();
+		}
+		return pullBatch();
+	}
+	
+	private void readChunks() throws TeiidProcessingException {
+		while (true) {
+			synchronized (this) {
+				if (chunks.size() >= MAX_PENDING_CHUNKS) {
+					return;
+				}
+			}
+			Chunk chunk = readChunk();
+			if (chunk == null) {
+				return;
+			}
+			synchronized (this) {
+				chunks.add(chunk);
+			}
+			getContext().getExecutor().execute(chunk);
+		}
+	}
+	
+	/**
+	 * Read the text up to the end of the last complete record that fits in
+	 * the chunk size.  The chunk is grown if it does not contain a complete record.
+	 * @return the chunk or null if there is no more text
+	 */
+	private Chunk readChunk() throws TeiidProcessingException {
+		if (eof && remainderLength == 0) {
+			return null;
+		}
+		char[] chars = new char[Math.max(CHUNK_SIZE, remainderLength << 1)];
+		System.arraycopy(remainder, 0, chars, 0, remainderLength);
+		int length = remainderLength;
+		while (true) {
+			if (!eof) {
+				try {
+					while (length < chars.length) {
+						int read = reader.read(chars, length, chars.length - length);
+						if (read == -1) {
+							eof = true;
+							break;
+						}
+						length += read;
+					}
+				} catch (IOException e) {
+					 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30179, e);
+				}
+			}
+			if (eof) {
+				remainderLength = 0;
+				if (length == 0) {
+					return null;
+				}
+				return new Chunk(chars, length, textLine);
+			}
+			int end = findRecordEnd(chars, length);
+			if (end < 0) {
+				chars = Arrays.copyOf(chars, chars.length << 1);
+				continue;
+			}
+			remainderLength = length - end;
+			remainder = Arrays.copyOfRange(chars, end, length);
+			Chunk chunk = new Chunk(chars, end, textLine);
+			textLine += chunkLines;
+			return chunk;
+		}
+	}
+	
+	/**
+	 * Find the end of the last complete record by tracking only the qualifier
+	 * and escape state, which carry a record across line terminators.
+	 * Also sets the number of lines up to that end.
+	 * @return the index after the last record terminator or -1 if there is none
+	 */
+	private int findRecordEnd(char[] chars, int length) {
+		int end = -1;
+		int lines = 0;
+		int lineStart = 0;
+		boolean qualified = false;
+		boolean escaped = false;
+		boolean continued = false;
+		boolean fixed = table.isFixedWidth();
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			if (c == '\r' || c == '\n') {
+				boolean empty = i == lineStart;
+				if (c == '\r') {
+					if (i + 1 == length) {
+						break; //may be followed by \n
+					}
+					if (chars[i + 1] == '\n') {
+						i++;
+					}
+				}
+				lines++;
+				lineStart = i + 1;
+				if (escaped) {
+					escaped = false;
+					continued = true; //empty lines are skipped before the rest of the value
+				} else if (!qualified && !(continued && empty)) {
+					continued = false;
+					end = i + 1;
+					chunkLines = lines;
+				}
+			} else if (!fixed) {
+				if (c == quote) {
+					if (noQuote) {
+						escaped = !escaped;
+					} else {
+						qualified = !qualified;
+					}
+				} else {
+					escaped = false;
+				}
+			}
+		}
+		if (end < 0 && !fixed && length - lineStart > lineWidth) {
+			//let the parser report the line as too long
+			chunkLines = lines;
+			return length;
+		}
+		return end;
+	}
+	
+	/**
+	 * Remove the next parsed chunk - the first chunk if ordered, otherwise any 
+	 * parsed chunk.
+	 * @return the chunk or null if none has been parsed
+	 */
+	private synchronized Chunk takeChunk() throws TeiidComponentException, TeiidProcessingException {
+		for (Iterator<Chunk> iter = chunks.iterator(); iter.hasNext();) {
+			Chunk chunk = iter.next();
+			if (chunk.done) {
+				if (chunk.exception != null) {
+					rethrow(chunk.exception);
+				}
+				iter.remove();
+				return chunk;
+			}
+			if (ordered) {
+				break;
+			}
+		}
+		return null;
+	}
+	
+	private boolean isChunkReady() {
+		for (Chunk chunk : chunks) {
+			if (chunk.done || ordered) {
+				return chunk.done;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Block until a chunk has been parsed.  When processing in the DQP the 
+	 * work item is notified once the chunk is parsed, otherwise the plan thread waits.
+	 */
+	private void waitForChunk() throws BlockedException, TeiidComponentException {
+		RequestWorkItem workItem = getContext().getWorkItem();
+		synchronized (this) {
+			if (isChunkReady()) {
+				return;
+			}
+			if (workItem == null) {
+				try {
+					this.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new TeiidComponentException(e);
+				}
+				return;
+			}
+			waiting = true;
+		}
+		throw BlockedException.block(getContext().getRequestId(), "Blocking on text table parsing.", getID()); //$NON-NLS-1$
+	}
+	
+	void chunkDone(Chunk chunk) {
+		synchronized (this) {
+			chunk.done = true;
+			this.notifyAll();
+			if (!waiting || chunks == null || !isChunkReady()) {
+				return;
+			}
+			waiting = false;
+		}
+		RequestWorkItem workItem = getContext().getWorkItem();
+		if (workItem != null) {
+			workItem.moreWork();
+		}
+	}
+	
+	private static void rethrow(Throwable e) throws TeiidComponentException, TeiidProcessingException {
+		if (e instanceof TeiidComponentException) {
+			throw (TeiidComponentException)e;
+		}
+		if (e instanceof TeiidProcessingException) {
+			throw (TeiidProcessingException)e;
+		}
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException)e;
+		}
+		throw new TeiidRuntimeException(e);
+	}
+
 	private String readLine(int maxLength, boolean exact) throws TeiidProcessingException {
 		if (eof) {
 			return null;
@@ -486,6 +835,251 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 		return result;
 	}
 	
+	/**
+	 * Text that starts and ends on record boundaries, parsed into rows 
+	 * with the same rules as the line at a time processing.
+	 */
+	private final class Chunk implements Runnable {
+		final char[] chars;
+		final int length;
+		final int lineWidth = TextTableNode.this.lineWidth;
+		final String systemId = TextTableNode.this.systemId;
+		final int[] fieldIndexes = TextTableNode.this.fieldIndexes;
+		final Class<?>[] fieldTypes = TextTableNode.this.fieldTypes;
+		List<List<?>> rows;
+		Throwable exception;
+		boolean done;
+		boolean cancelled;
+		
+		//parsing state
+		private int pos;
+		private int line;
+		private int lineStart;
+		private int lineEnd;
+		private boolean lineCr;
+		
+		Chunk(char[] chars, int length, int startLine) {
+			this.chars = chars;
+			this.length = length;
+			this.line = startLine;
+		}
+		
+		@Override
+		public void run() {
+			synchronized (TextTableNode.this) {
+				if (cancelled) {
+					return;
+				}
+			}
+			try {
+				rows = parse();
+			} catch (Throwable e) {
+				exception = e;
+			}
+			chunkDone(this);
+		}
+		
+		private List<List<?>> parse() throws TeiidProcessingException {
+			int fieldCount = 0;
+			for (int index : fieldIndexes) {
+				fieldCount = Math.max(fieldCount, index + 1);
+			}
+			String[] values = new String[fieldCount];
+			StringBuilder builder = new StringBuilder();
+			List<List<?>> result = new ArrayList<List<?>>();
+			while (nextLine()) {
+				int count = 0;
+				if (table.isFixedWidth()) {
+					count = parseFixedWidth(values);
+				} else {
+					count = parseDelimited(values, builder);
+				}
+				List<Object> tuple = new ArrayList<Object>(fieldIndexes.length);
+				for (int i = 0; i < fieldIndexes.length; i++) {
+					int index = fieldIndexes[i];
+					if (index >= count) {
+						tuple.add(null);
+						continue;
+					}
+					try {
+						tuple.add(DataTypeManager.transformValue(values[index], fieldTypes[i]));
+					} catch (TransformationException e) {
+						 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30176, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30176, table.getColumns().get(projectionIndexes[i]).getName(), line, systemId));
+					}
+				}
+				result.add(tuple);
+			}
+			return result;
+		}
+		
+		/**
+		 * Move to the next non-empty line
+		 * @return false if there are no more lines
+		 */
+		private boolean nextLine() throws TeiidProcessingException {
+			while (pos < length) {
+				int start = pos;
+				int end = start;
+				while (end < length && chars[end] != '\r' && chars[end] != '\n') {
+					end++;
+				}
+				pos = end;
+				lineCr = false;
+				if (pos < length) {
+					if (chars[pos] == '\r') {
+						lineCr = true;
+						pos++;
+						if (pos < length && chars[pos] == '\n') {
+							pos++;
+						}
+					} else {
+						pos++;
+					}
+				}
+				line++;
+				if (end == start) {
+					continue; //skip empty lines
+				}
+				if (table.isFixedWidth()) {
+					if (end - start < lineWidth) {
+						 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30177, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30177, end - start, lineWidth, line, systemId));
+					}
+					//drop the rest of the line
+					end = start + lineWidth;
+				} else if (end - start > lineWidth) {
+					 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30178, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30178, line, systemId, lineWidth));
+				}
+				lineStart = start;
+				lineEnd = end;
+				return true;
+			}
+			return false;
+		}
+		
+		private int parseFixedWidth(String[] values) {
+			int beginIndex = lineStart;
+			int count = 0;
+			for (TextColumn col : table.getColumns()) {
+				if (count < values.length) {
+					values[count] = getValue(beginIndex, beginIndex + col.getWidth(), col.isNoTrim());
+				}
+				beginIndex += col.getWidth();
+				count++;
+			}
+			return count;
+		}
+		
+		private String getValue(int start, int end, boolean noTrim) {
+			if (!noTrim) {
+				while (start < end && chars[start] <= ' ') {
+					start++;
+				}
+				while (end > start && chars[end - 1] <= ' ') {
+					end--;
+				}
+				if (start == end) {
+					return null;
+				}
+			}
+			return new String(chars, start, end - start);
+		}
+		
+		private int parseDelimited(String[] values, StringBuilder builder) throws TeiidProcessingException {
+			int count = 0;
+			builder.setLength(0);
+			boolean escaped = false;
+			boolean wasQualified = false;
+			boolean qualified = false;
+			while (true) {
+				for (int i = lineStart; i < lineEnd; i++) {
+					char chr = chars[i];
+					if (chr == delimiter) {
+						if (escaped || qualified) {
+							builder.append(chr);
+							escaped = false;
+						} else {
+							count = addValue(values, count, wasQualified, builder);
+							wasQualified = false;
+						} 
+					} else if (chr == quote) {
+						if (noQuote) { 	//it's the escape char
+							if (escaped) {
+								builder.append(quote);
+							} 
+							escaped = !escaped;
+						} else {
+							if (qualified) {
+								qualified = false;
+							} else {
+								if (wasQualified) {
+									qualified = true;
+									builder.append(chr);
+								} else {
+									for (int j = 0; j < builder.length(); j++) {
+										if (builder.charAt(j) > ' ') {
+											 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, line, systemId));
+										}
+									}
+									qualified = true;
+									builder.setLength(0); //start the entry over
+									wasQualified = true;
+								}
+							}
+						}
+					} else {
+						if (escaped) {
+							//don't understand other escape sequences yet
+							 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30184, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30184, chr, line, systemId));
+						}
+						if (wasQualified && !qualified) {
+							if (!Character.isWhitespace(chr)) {
+								 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, line, systemId));
+							}
+							//else just ignore
+						} else {
+							builder.append(chr);
+						}
+					}
+				}
+				if (escaped) {
+					//allow for escaped new lines
+					if (lineCr) {
+						builder.append('\r'); 
+					}
+					builder.append('\n');
+					escaped = false;
+					if (!nextLine()) {
+						return addValue(values, count, wasQualified, builder);
+					}
+					continue;
+				}
+				if (!qualified) {
+					//close the last entry
+					return addValue(values, count, wasQualified, builder);
+				}
+				if (!nextLine()) {
+					 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30182, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30182, systemId));
+				}
+			}
+		}
+		
+		private int addValue(String[] values, int count, boolean wasQualified, StringBuilder builder) {
+			if (count < values.length) {
+				String val = builder.toString();
+				if (!wasQualified) {
+					val = val.trim();
+					if (val.length() == 0) {
+						val = null;
+					}
+				}
+				values[count] = val;
+			}
+			builder.setLength(0);
+			return count + 1;
+		}
+		
+	}
+	
 	@Override
 	protected Collection<? extends LanguageObject> getObjects() {
 		return Arrays.asList(this.table.getFile());
@@ -23,6 +23,7 @@
 package org.teiid.query.processor.relational;
 
 import java.util.Collections;
+import java.util.LinkedList;
 
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
@@ -30,17 +31,140 @@ import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.util.ExecutorUtils;
+import org.teiid.dqp.internal.process.RequestWorkItem;
+import org.teiid.dqp.service.TransactionContext;
+import org.teiid.dqp.service.TransactionContext.Scope;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
 import org.teiid.query.processor.ProcessorDataManager;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
 import org.teiid.query.util.CommandContext;
 
 
+/**
+ * Returns the batches of each child in turn.
+ * 
+ * With the parallelUnion option each child that can be processed independently
+ * of the plan thread is pulled by its own task on the context executor.  The tasks 
+ * fill a bounded queue per child and the plan thread returns the queued batches.
+ * 
+ * An ordered union returns all of the batches of a child before moving on to the next.
+ */
 public class UnionAllNode extends RelationalNode {
 
+	/**
+	 * The number of batches that a child may queue before its task stops
+	 */
+	static final int MAX_QUEUED_BATCHES = 2;
+	
+	private final class Branch implements Runnable {
+		final int index;
+		final LinkedList<TupleBatch> queue = new LinkedList<TupleBatch>();
+		boolean running;
+		boolean started;
+		boolean retry;
+		boolean done;
+		boolean closed;
+		boolean closeChild;
+		Throwable exception;
+		
+		Branch(int index) {
+			this.index = index;
+		}
+		
+		@Override
+		public void run() {
+			synchronized (UnionAllNode.this) {
+				if (!running) {
+					//cancelled by close before it was started
+					return;
+				}
+				started = true;
+			}
+			RelationalNode child = getChildren()[index];
+			boolean close = false;
+			while (true) {
+				try {
+					while (true) {
+						synchronized (UnionAllNode.this) {
+							if (closed || queue.size() >= MAX_QUEUED_BATCHES) {
+								close = stop();
+								break;
+							}
+						}
+						TupleBatch batch = child.nextBatch();
+						synchronized (UnionAllNode.this) {
+							if (!closed) {
+								queue.add(batch);
+							}
+							done = batch.getTerminationFlag();
+							if (done) {
+								close = stop();
+							}
+						}
+						notifyPlan();
+						if (done) {
+							break;
+						}
+					}
+				} catch (BlockedException e) {
+					synchronized (UnionAllNode.this) {
+						//the plan thread was woken while we were running, so the child may be able to continue
+						if (retry && !closed) {
+							retry = false;
+							continue;
+						}
+						close = stop();
+					}
+				} catch (Throwable e) {
+					synchronized (UnionAllNode.this) {
+						exception = e;
+						close = stop();
+					}
+					notifyPlan();
+				}
+				break;
+			}
+			finish(child, close);
+		}
+		
+		/**
+		 * Mark the task as stopped, which must be done while holding the node lock.
+		 * @return true if the node was closed while the task was running, in which case the
+		 * task must close the child.
+		 */
+		boolean stop() {
+			running = false;
+			started = false;
+			boolean result = closeChild;
+			closeChild = false;
+			return result;
+		}
+		
+		void finish(RelationalNode child, boolean close) {
+			if (!close) {
+				return;
+			}
+			try {
+				child.close();
+			} catch (TeiidComponentException e) {
+				LogManager.logDetail(LogConstants.CTX_DQP, e, "Could not close union child", index, getID()); //$NON-NLS-1$
+			}
+		}
+	}
+	
     private boolean[] sourceDone;
     
     private int outputRow = 1;
     private int reserved;
     private int schemaSize;
+    
+    private Branch[] branches;
+    private int nextBranch;
+    private boolean waiting;
+    private boolean ordered;
 	
 	public UnionAllNode(int nodeID) {
 		super(nodeID);
@@ -51,6 +175,9 @@ public class UnionAllNode extends RelationalNode {
         
         sourceDone = null;
         outputRow = 1;   
+        branches = null;
+        nextBranch = 0;
+        waiting = false;
     }    
     
     @Override
@@ -65,15 +192,89 @@ public class UnionAllNode extends RelationalNode {
 
         // Initialize done flags
         sourceDone = new boolean[getChildren().length];
+        if (shouldProcessInParallel()) {
+        	branches = new Branch[getChildren().length];
+        	for (int i = 0; i < branches.length; i++) {
+				branches[i] = new Branch(i);
+			}
+        }
         if (reserved == 0) {
-        	reserved = getBufferManager().reserveBuffers((getChildren().length - 1) * schemaSize, BufferReserveMode.FORCE);
+        	reserved = getBufferManager().reserveBuffers(getReservedBatches() * schemaSize, BufferReserveMode.FORCE);
         }
         // Open the children
         super.open();
 	}
+	
+	private int getReservedBatches() {
+		if (branches != null) {
+			return getChildCount() * MAX_QUEUED_BATCHES;
+		}
+		return getChildren().length - 1;
+	}
+	
+	private int getChildCount() {
+		RelationalNode[] children = getChildren();
+		int count = 0;
+		while (count < children.length && children[count] != null) {
+			count++;
+		}
+		return count;
+	}
+	
+	private boolean shouldProcessInParallel() {
+		CommandContext context = getContext();
+		if (context == null || !context.getOptions().isParallelUnion() 
+				|| context.getExecutor() == ExecutorUtils.getDirectExecutor() || getChildCount() < 2) {
+			return false;
+		}
+		//source access in a transaction is associated with the plan thread
+		TransactionContext tc = context.getTransactionContext();
+		if (tc != null && tc.getTransactionType() != Scope.NONE) {
+			return false;
+		}
+		RelationalNode[] children = getChildren();
+		for (int i = 0; i < children.length && children[i] != null; i++) {
+			if (!isParallelSafe(children[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Determine if the node and its children may be processed by a thread other 
+	 * than the plan thread.  Only simple access, project, select and limit nodes 
+	 * without subqueries are allowed. 
+	 */
+	protected boolean isParallelSafe(RelationalNode node) {
+		if (node.getClass() == AccessNode.class) {
+			//evaluation happens on open, which is still performed by the plan thread
+			return true;
+		}
+		if (!(node instanceof ProjectNode || node instanceof SelectNode || node instanceof LimitNode)) {
+			return false;
+		}
+		if (node instanceof SubqueryAwareRelationalNode 
+				&& !ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(((SubqueryAwareRelationalNode)node).getObjects()).isEmpty()) {
+			return false;
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			if (!isParallelSafe(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
 
     public TupleBatch nextBatchDirect() 
         throws BlockedException, TeiidComponentException, TeiidProcessingException {
+    	
+    	if (branches != null) {
+    		return nextParallelBatch();
+    	}
 
         // Walk through all children and for each one that isn't done, try to retrieve a batch
         // When all sources are done, set the termination flag on that batch
@@ -94,13 +295,13 @@ public class UnionAllNode extends RelationalNode {
                             // Mark source as being done and decrement the activeSources counter
                             sourceDone[i] = true;
                             activeSources--;
-                            if (reserved > 0) {
-                            	getBufferManager().releaseBuffers(schemaSize);
-                            	reserved-=schemaSize;
-                            }
+                            releaseSource(1);
                         }
                     } catch(BlockedException e) {
                         // no problem - try the next one
+                    	if (ordered) {
+                    		break;
+                    	}
                     }
                 } else {
                     // We already have a batch, so we know that 
@@ -113,7 +314,12 @@ public class UnionAllNode extends RelationalNode {
             }
         }
         
-        // Determine what to return
+        return createOutputBatch(activeSources, batch);
+    }
+
+	private TupleBatch createOutputBatch(int activeSources, TupleBatch batch)
+			throws BlockedException {
+		// Determine what to return
         TupleBatch outputBatch = null;
         if(batch != null) {
             // Rebuild the batch to reset the output row
@@ -137,18 +343,140 @@ public class UnionAllNode extends RelationalNode {
         }
         
         return outputBatch;
-    }    
+	}
+	
+	private void releaseSource(int batches) {
+		if (reserved > 0) {
+			int toRelease = Math.min(reserved, batches * schemaSize);
+			getBufferManager().releaseBuffers(toRelease);
+			reserved-=toRelease;
+		}
+	}
+	
+	/**
+	 * Take a queued batch from the next child in turn and start a task for 
+	 * each child that is not running and has room in its queue.
+	 */
+	private TupleBatch nextParallelBatch() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+		LinkedList<Branch> toStart = new LinkedList<Branch>();
+		TupleBatch batch = null;
+		int activeSources = 0;
+		synchronized (this) {
+			for (int j = 0; j < branches.length; j++) {
+				int i = ordered?j:(nextBranch + j) % branches.length;
+				if (sourceDone[i]) {
+					continue;
+				}
+				Branch branch = branches[i];
+				if (batch == null && (!ordered || activeSources == 0)) {
+					if (branch.exception != null) {
+						rethrow(branch.exception);
+					}
+					if (!branch.queue.isEmpty()) {
+						batch = branch.queue.removeFirst();
+						nextBranch = i + 1;
+						if (batch.getTerminationFlag()) {
+							sourceDone[i] = true;
+							releaseSource(MAX_QUEUED_BATCHES);
+							continue;
+						}
+					}
+				}
+				activeSources++;
+				if (branch.running) {
+					branch.retry = true;
+				} else if (!branch.done && branch.exception == null && branch.queue.size() < MAX_QUEUED_BATCHES) {
+					branch.running = true;
+					toStart.add(branch);
+				}
+			}
+			waiting = batch == null && activeSources > 0;
+		}
+		for (Branch branch : toStart) {
+			getContext().getExecutor().execute(branch);
+		}
+		return createOutputBatch(activeSources, batch);
+	}
+	
+	/**
+	 * Wake the plan thread if it is blocked waiting on the children.
+	 */
+	void notifyPlan() {
+		synchronized (this) {
+			if (!waiting) {
+				return;
+			}
+			waiting = false;
+		}
+		RequestWorkItem workItem = getContext().getWorkItem();
+		if (workItem != null) {
+			workItem.moreWork();
+		}
+	}
+	
+	private static void rethrow(Throwable e) throws TeiidComponentException, TeiidProcessingException {
+		if (e instanceof TeiidComponentException) {
+			throw (TeiidComponentException)e;
+		}
+		if (e instanceof TeiidProcessingException) {
+			throw (TeiidProcessingException)e;
+		}
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException)e;
+		}
+		throw new TeiidRuntimeException(e);
+	}
     
     @Override
     public void closeDirect() {
+    	if (branches != null) {
+    		synchronized (this) {
+    			for (Branch branch : branches) {
+    				branch.closed = true;
+    				branch.queue.clear();
+    			}
+    		}
+    	}
     	getBufferManager().releaseBuffers(reserved);
     	reserved = 0;
     }
+    
+    /**
+     * A child must not be closed while a task is processing it, so the task closes 
+     * the child when it stops.  A task that has not started is cancelled.
+     */
+    @Override
+    protected void closeChild(int index) throws TeiidComponentException {
+    	if (branches != null) {
+    		synchronized (this) {
+    			Branch branch = branches[index];
+    			if (branch.started) {
+    				branch.closeChild = true;
+    				return;
+    			}
+    			branch.running = false;
+    		}
+    	}
+    	super.closeChild(index);
+    }
 
 	public Object clone(){
 		UnionAllNode clonedNode = new UnionAllNode(super.getID());
 		super.copyTo(clonedNode);
+		clonedNode.ordered = this.ordered;
 		return clonedNode;
 	}
+	
+	public boolean isOrdered() {
+		return ordered;
+	}
+	
+	/**
+	 * Set to true if the output must preserve the order of the children
+	 * @param ordered
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
     
 }
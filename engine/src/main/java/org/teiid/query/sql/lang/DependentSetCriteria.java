@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.teiid.core.util.BloomFilter;
 import org.teiid.core.util.EquivalenceUtil;
 import org.teiid.core.util.HashCodeUtil;
 import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
@@ -62,6 +63,10 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
      */
     private float ndv = NewCalculateCostUtil.UNKNOWN_VALUE;
     private float maxNdv = NewCalculateCostUtil.UNKNOWN_VALUE;
+    /**
+     * true if the max ndv was chosen by the planner without costing information
+     */
+    private boolean adaptive;
     
     private float[] ndvs;
     private float[] maxNdvs;
@@ -71,6 +76,11 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
      */
     private DependentValueSource dependentValueSource;
     
+    /**
+     * set only for bloom filter pushdown
+     */
+    private BloomFilter bloomFilter;
+    
     /** 
      * Construct with the left expression 
      */
@@ -130,6 +140,14 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
 		this.maxNdv = maxNdv;
 	}
     
+    public boolean isAdaptive() {
+		return adaptive;
+	}
+    
+    public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+    
     public float getNdv() {
 		return ndv;
 	}
@@ -214,8 +232,10 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
         criteriaCopy.id = this.id;
         criteriaCopy.ndv = this.ndv;
         criteriaCopy.maxNdv = this.maxNdv;
+        criteriaCopy.adaptive = this.adaptive;
         criteriaCopy.maxNdvs = this.maxNdvs;
         criteriaCopy.ndvs = this.ndvs;
+        criteriaCopy.bloomFilter = this.bloomFilter;
         return criteriaCopy;
     }
     
@@ -235,4 +255,12 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
 		this.dependentValueSource = dependentValueSource;
 	}
     
+    public BloomFilter getBloomFilter() {
+		return bloomFilter;
+	}
+    
+    public void setBloomFilter(BloomFilter bloomFilter) {
+		this.bloomFilter = bloomFilter;
+	}
+    
 }
@@ -50,6 +50,16 @@ public interface GlobalTableStore {
 	Serializable getAddress();
 	
 	List<?> updateMatViewRow(String matTableName, List<?> tuple, boolean delete) throws TeiidComponentException;
+	
+	/**
+	 * Incrementally refresh a materialized view by applying a change set keyed by its primary key.
+	 * @param matTableName
+	 * @param deletes tuples starting with the primary key values of the rows to remove
+	 * @param upserts full rows to insert or that replace the existing row with the same key
+	 * @return the number of rows affected
+	 * @throws TeiidComponentException
+	 */
+	int updateMatViewRows(String matTableName, List<? extends List<?>> deletes, List<? extends List<?>> upserts) throws TeiidComponentException;
 
 	TempTable createMatTable(String tableName, GroupSymbol group)
 	throws TeiidComponentException, QueryMetadataException, TeiidProcessingException;
@@ -391,6 +391,29 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		}
 		return null;
 	}
+	
+	@Override
+	public int updateMatViewRows(String matTableName,
+			List<? extends List<?>> deletes, List<? extends List<?>> upserts)
+			throws TeiidComponentException {
+		TempTable tempTable = tableStore.getTempTable(matTableName);
+		if (tempTable == null) {
+			return 0;
+		}
+		TempMetadataID id = tableStore.getMetadataStore().getTempGroupID(matTableName);
+		synchronized (id) {
+			//apply the whole change set to a single snapshot so that active readers never see a partial refresh
+			boolean clone = tempTable.getActive().get() != 0;
+			if (clone) {
+				tempTable = tempTable.clone();
+			}
+			int result = tempTable.updateTuples(deletes, upserts);
+			if (clone) {
+				swapTempTable(matTableName, tempTable);
+			}
+			return result;
+		}
+	}
 
 	@Override
 	public TempTableStore getTempTableStore() {
@@ -60,6 +60,7 @@ import org.teiid.query.QueryPlugin;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.processor.CollectionTupleSource;
+import org.teiid.query.processor.relational.ListNestedSortComparator;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.SortUtility;
 import org.teiid.query.processor.relational.SortUtility.Mode;
@@ -335,6 +336,7 @@ public class TempTable implements Cloneable, SearchableTable {
 	private int uniqueColIndex;
 	
 	private AtomicInteger activeReaders = new AtomicInteger();
+	private int reloadCount;
 
 	TempTable(TempMetadataID tid, BufferManager bm, List<ElementSymbol> columns, int primaryKeyLength, String sessionID) {
 		this.tid = tid;
@@ -393,6 +395,7 @@ public class TempTable implements Cloneable, SearchableTable {
 			}
 			clone.tree = tree.clone();
 			clone.activeReaders = new AtomicInteger();
+			clone.reloadCount = 0;
 			return clone;
 		} catch (CloneNotSupportedException e) {
 			 throw new TeiidRuntimeException(e);
@@ -810,27 +813,16 @@ public class TempTable implements Cloneable, SearchableTable {
 	List<?> updateTuple(List<?> tuple, boolean remove) throws TeiidComponentException {
 		try {
 			lock.writeLock().lock();
+			List<?> result = null;
 			if (remove) {
-				List<?> result = tree.remove(tuple);
+				result = removeIndexed(tuple);
 				if (result == null) {
 					return null;
 				}
-				if (indexTables != null) {
-					for (TempTable index : this.indexTables.values()) {
-						tuple = RelationalNode.projectTuple(RelationalNode.getProjectionIndexes(index.getColumnMap(), index.columns), result);
-						index.tree.remove(tuple);
-					}
-				}
-				tid.getTableData().dataModified(1);
-				return result;
-			} 
-			List<?> result = tree.insert(tuple, InsertMode.UPDATE, -1);
-			if (indexTables != null) {
-				for (TempTable index : this.indexTables.values()) {
-					tuple = RelationalNode.projectTuple(RelationalNode.getProjectionIndexes(index.getColumnMap(), index.columns), tuple);
-					index.tree.insert(tuple, InsertMode.UPDATE, -1);
-				}
+			} else {
+				result = upsertIndexed(tuple);
 			}
+			tid.setCardinality(tree.getRowCount());
 			tid.getTableData().dataModified(1);
 			return result;
 		} finally {
@@ -838,6 +830,175 @@ public class TempTable implements Cloneable, SearchableTable {
 		}
 	}
 	
+	/**
+	 * Apply a change set keyed by the primary key under a single write lock.
+	 * <br/>
+	 * The deletes are applied first, then the inserts/updates.  Each set is applied 
+	 * in key order so that consecutive changes touch the same pages.
+	 * @param deletes tuples starting with the primary key values
+	 * @param upserts full tuples that are inserted or replace the row with the same key
+	 * @return the number of rows affected
+	 * @throws TeiidComponentException
+	 */
+	int updateTuples(List<? extends List<?>> deletes, List<? extends List<?>> upserts) throws TeiidComponentException {
+		int updateCount = 0;
+		try {
+			lock.writeLock().lock();
+			for (List<?> tuple : sortByKey(deletes)) {
+				if (removeIndexed(tuple) != null) {
+					updateCount++;
+				}
+			}
+			for (List<?> tuple : sortByKey(upserts)) {
+				upsertIndexed(tuple);
+				updateCount++;
+			}
+			if (updateCount > 0) {
+				tid.setCardinality(tree.getRowCount());
+				tid.getTableData().dataModified(updateCount);
+			}
+			return updateCount;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Create a copy of this table with the rows of the tuple source as its contents.
+	 * <br/>
+	 * The new rows are sorted by the primary key and merged against the existing rows so
+	 * that only the differences are written.  Pages with no changes remain shared with this 
+	 * table rather than being rebuilt.  The merge reads from a snapshot of the rows, so 
+	 * no lock is held on this table while the new contents are processed.  The metadata 
+	 * is not updated until the copy replaces this table, see {@link #reloaded()}.  Requires a primary key.
+	 * @param ts the new contents
+	 * @param cols the columns of the tuple source
+	 * @return the refreshed copy
+	 */
+	@SuppressWarnings("unchecked")
+	TempTable reload(TupleSource ts, List<ElementSymbol> cols) throws TeiidComponentException, TeiidProcessingException {
+		int keyLength = getPkLength();
+		SortUtility sort = new SortUtility(ts, columns.subList(0, keyLength), Collections.nCopies(keyLength, OrderBy.ASC), Mode.SORT, bm, sessionID, cols);
+		TupleBuffer sorted = sort.sort();
+		int[] indexes = RelationalNode.getProjectionIndexes(RelationalNode.createLookupMap(cols), columns);
+		ListNestedSortComparator comparator = tree.getComparator();
+		TempTable clone = null;
+		STree snapshot = null;
+		lock.readLock().lock();
+		try {
+			clone = clone();
+			snapshot = tree.clone();
+		} finally {
+			lock.readLock().unlock();
+		}
+		int updateCount = 0;
+		try {
+			TupleSource newTuples = sorted.createIndexedTupleSource(true);
+			TupleBrowser browser = new TupleBrowser(snapshot, null, null, OrderBy.ASC);
+			List<?> oldTuple = browser.nextTuple();
+			List<?> newTuple = nextProjectedTuple(newTuples, indexes);
+			List<?> lastTuple = null;
+			while (oldTuple != null || newTuple != null) {
+				int comp = -1;
+				if (newTuple != null) {
+					comp = oldTuple == null ? 1 : comparator.compare(oldTuple, newTuple);
+				}
+				if (comp < 0) {
+					//no longer present
+					clone.removeIndexed(oldTuple);
+					updateCount++;
+					oldTuple = browser.nextTuple();
+					continue;
+				}
+				if (lastTuple != null && comparator.compare(lastTuple, newTuple) == 0) {
+					throw new TeiidProcessingException(QueryPlugin.Event.TEIID30238, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30238, this.tid.getID()));
+				}
+				if (comp > 0 || !oldTuple.equals(newTuple)) {
+					clone.upsertIndexed(newTuple);
+					updateCount++;
+				}
+				if (comp == 0) {
+					oldTuple = browser.nextTuple();
+				}
+				lastTuple = newTuple;
+				newTuple = nextProjectedTuple(newTuples, indexes);
+			}
+		} finally {
+			sorted.remove();
+		}
+		clone.reloadCount = updateCount;
+		LogManager.logDetail(LogConstants.CTX_DQP, "Reloaded table", this, "with", updateCount, "changed rows"); //$NON-NLS-1$ //$NON-NLS-2$
+		return clone;
+	}
+	
+	/**
+	 * Update the metadata for the changes made by {@link #reload(TupleSource, List)}.
+	 * Should be called when this copy replaces the existing table.
+	 */
+	void reloaded() {
+		if (reloadCount > 0) {
+			tid.setCardinality(tree.getRowCount());
+			tid.getTableData().dataModified(reloadCount);
+			reloadCount = 0;
+		}
+	}
+	
+	private static List<?> nextProjectedTuple(TupleSource ts, int[] indexes) throws TeiidComponentException, TeiidProcessingException {
+		List<?> tuple = ts.nextTuple();
+		if (tuple == null) {
+			return null;
+		}
+		return RelationalNode.projectTuple(indexes, tuple);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<List<?>> sortByKey(List<? extends List<?>> tuples) {
+		List<List<?>> result = new ArrayList<List<?>>(tuples);
+		if (result.size() > 1) {
+			Collections.sort((List)result, tree.getComparator());
+		}
+		return result;
+	}
+	
+	/**
+	 * Remove the row with the same key as the tuple and its secondary index entries
+	 * @return the removed row or null if there was no matching row
+	 */
+	private List<?> removeIndexed(List<?> tuple) throws TeiidComponentException {
+		List<?> result = tree.remove(tuple);
+		if (result != null && indexTables != null) {
+			for (TempTable index : this.indexTables.values()) {
+				index.tree.remove(projectIndexTuple(index, result));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Insert or replace the row with the same key as the tuple and update its secondary index entries
+	 * @return the replaced row or null if the row was inserted
+	 */
+	private List<?> upsertIndexed(List<?> tuple) throws TeiidComponentException {
+		List<?> result = tree.insert(tuple, InsertMode.UPDATE, -1);
+		if (indexTables != null) {
+			for (TempTable index : this.indexTables.values()) {
+				List<?> indexTuple = projectIndexTuple(index, tuple);
+				if (result != null) {
+					List<?> oldIndexTuple = projectIndexTuple(index, result);
+					if (!oldIndexTuple.equals(indexTuple)) {
+						index.tree.remove(oldIndexTuple);
+					}
+				}
+				index.tree.insert(indexTuple, InsertMode.UPDATE, -1);
+			}
+		}
+		return result;
+	}
+	
+	private List<?> projectIndexTuple(TempTable index, List<?> tuple) {
+		return RelationalNode.projectTuple(RelationalNode.getProjectionIndexes(this.columnMap, index.columns), tuple);
+	}
+	
 	private void updateTuple(List<?> tuple) throws TeiidComponentException {
 		if (tree.insert(tuple, InsertMode.UPDATE, -1) == null) {
 			throw new AssertionError("Update failed"); //$NON-NLS-1$
@@ -443,8 +443,18 @@ public class TempTableDataManager implements ProcessorDataManager {
 		LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30013, tableName));
 		QueryMetadataInterface metadata = context.getMetadata();
 		List<ElementSymbol> allColumns = ResolverUtil.resolveElementsInGroup(group, metadata); 
-		TempTable table = globalStore.createMatTable(tableName, group);
-		table.setUpdatable(false);
+		TempTable existing = null;
+		if (context.getOptions().isCopyOnWriteMatViewReload()) {
+			existing = globalStore.getTempTableStore().getTempTable(tableName);
+			if (existing != null && existing.getPkLength() == 0) {
+				existing = null;
+			}
+		}
+		TempTable table = existing;
+		if (existing == null) {
+			table = globalStore.createMatTable(tableName, group);
+			table.setUpdatable(false);
+		}
 		int rowCount = -1;
 		try {
 			String fullName = metadata.getFullName(group.getMetadataID());
@@ -454,21 +464,27 @@ public class TempTableDataManager implements ProcessorDataManager {
 			qp.getContext().setDataObjects(null);
 			TupleSource ts = new BatchCollector.BatchProducerTupleSource(qp);
 			
-			table.insert(ts, allColumns, false, null);
-			table.getTree().compact();
-			rowCount = table.getRowCount();
-			//TODO: could pre-process indexes to remove overlap
-			for (Object index : metadata.getIndexesInGroup(group.getMetadataID())) {
-				List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, index);
-				table.addIndex(columns, false);
-			}
-			for (Object key : metadata.getUniqueKeysInGroup(group.getMetadataID())) {
-				List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, key);
-				table.addIndex(columns, true);
-			}
-			CacheHint hint = table.getCacheHint();
-			if (hint != null && table.getPkLength() > 0) {
-				table.setUpdatable(hint.isUpdatable(false));
+			if (existing != null) {
+				//write only the changed pages of a copy, the existing table and indexes are retained
+				table = existing.reload(ts, allColumns);
+				rowCount = table.getRowCount();
+			} else {
+				table.insert(ts, allColumns, false, null);
+				table.getTree().compact();
+				rowCount = table.getRowCount();
+				//TODO: could pre-process indexes to remove overlap
+				for (Object index : metadata.getIndexesInGroup(group.getMetadataID())) {
+					List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, index);
+					table.addIndex(columns, false);
+				}
+				for (Object key : metadata.getUniqueKeysInGroup(group.getMetadataID())) {
+					List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, key);
+					table.addIndex(columns, true);
+				}
+				CacheHint hint = table.getCacheHint();
+				if (hint != null && table.getPkLength() > 0) {
+					table.setUpdatable(hint.isUpdatable(false));
+				}
 			}
 		} catch (TeiidComponentException e) {
 			LogManager.logError(LogConstants.CTX_MATVIEWS, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30015, tableName));
@@ -480,6 +496,9 @@ public class TempTableDataManager implements ProcessorDataManager {
 			if (rowCount == -1) {
 				globalStore.failedLoad(tableName);
 			} else {
+				if (existing != null) {
+					table.reloaded();
+				}
 				globalStore.loaded(tableName, table);
 				LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30014, tableName, rowCount));
 			}
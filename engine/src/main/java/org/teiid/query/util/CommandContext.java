@@ -23,6 +23,7 @@
 package org.teiid.query.util;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -44,6 +45,7 @@ import org.teiid.core.util.ExecutorUtils;
 import org.teiid.core.util.LRUCache;
 import org.teiid.dqp.internal.process.DQPWorkContext;
 import org.teiid.dqp.internal.process.PreparedPlan;
+import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.dqp.internal.process.SessionAwareCache;
 import org.teiid.dqp.internal.process.SessionAwareCache.CacheID;
 import org.teiid.dqp.internal.process.TupleSourceCache;
@@ -146,6 +148,7 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 	    private List<Exception> warnings = null;
 	    
 	    private Options options = null;
+	    private WeakReference<RequestWorkItem> workItem;
 	    private boolean returnAutoGeneratedKeys;
 	    private GeneratedKeysImpl generatedKeys;
 	}
@@ -830,6 +833,20 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     	this.globalState.options = options;
     }
     
+    /**
+     * @return the work item processing this request or null if not processing in the DQP
+     */
+    public RequestWorkItem getWorkItem() {
+    	if (this.globalState.workItem == null) {
+    		return null;
+    	}
+    	return this.globalState.workItem.get();
+    }
+    
+    public void setWorkItem(RequestWorkItem workItem) {
+    	this.globalState.workItem = new WeakReference<RequestWorkItem>(workItem);
+    }
+    
 	@Override
 	public boolean isReturnAutoGeneratedKeys() {
 		return this.globalState.returnAutoGeneratedKeys;
@@ -32,11 +32,29 @@ public class Options {
 	public static final String UNNEST_DEFAULT = "org.teiid.subqueryUnnestDefault"; //$NON-NLS-1$
 	public static final String PUSHDOWN_DEFAULT_NULL_ORDER = "org.teiid.pushdownDefaultNullOrder"; //$NON-NLS-1$
 	public static final String IMPLICIT_MULTISOURCE_JOIN = "org.teiid.implicitMultiSourceJoin"; //$NON-NLS-1$
+	public static final String PARALLEL_UNION = "org.teiid.parallelUnion"; //$NON-NLS-1$
+	public static final String COMPILE_EXPRESSIONS = "org.teiid.compileExpressions"; //$NON-NLS-1$
+	public static final String VECTORIZED_EVALUATION = "org.teiid.vectorizedEvaluation"; //$NON-NLS-1$
+	public static final String DEPENDENT_JOIN_BLOOM_FILTER = "org.teiid.dependentJoinBloomFilter"; //$NON-NLS-1$
+	public static final String ADAPTIVE_DEPENDENT_JOIN = "org.teiid.adaptiveDependentJoin"; //$NON-NLS-1$
+	public static final String SEMANTIC_RESULT_SET_CACHE = "org.teiid.semanticResultSetCache"; //$NON-NLS-1$
+	public static final String COPY_ON_WRITE_MAT_VIEW_RELOAD = "org.teiid.copyOnWriteMatViewReload"; //$NON-NLS-1$
+	public static final String STREAMING_INSERT = "org.teiid.streamingInsert"; //$NON-NLS-1$
+	public static final String PARALLEL_TEXT_TABLE = "org.teiid.parallelTextTable"; //$NON-NLS-1$
 
 	private Properties properties;
 	private boolean subqueryUnnestDefault;
 	private boolean pushdownDefaultNullOrder;
 	private boolean implicitMultiSourceJoin = true;
+	private boolean parallelUnion;
+	private boolean compileExpressions;
+	private boolean vectorizedEvaluation;
+	private boolean dependentJoinBloomFilter;
+	private boolean adaptiveDependentJoin;
+	private boolean semanticResultSetCache;
+	private boolean copyOnWriteMatViewReload;
+	private boolean streamingInsert;
+	private boolean parallelTextTable;
 	
 	public Properties getProperties() {
 		return properties;
@@ -84,5 +102,122 @@ public class Options {
 		this.implicitMultiSourceJoin = b;
 		return this;
 	}
+	
+	public void setParallelUnion(boolean parallelUnion) {
+		this.parallelUnion = parallelUnion;
+	}
+	
+	public boolean isParallelUnion() {
+		return parallelUnion;
+	}
+	
+	public Options parallelUnion(boolean b) {
+		this.parallelUnion = b;
+		return this;
+	}
+	
+	public void setCompileExpressions(boolean compileExpressions) {
+		this.compileExpressions = compileExpressions;
+	}
+	
+	public boolean isCompileExpressions() {
+		return compileExpressions;
+	}
+	
+	public Options compileExpressions(boolean b) {
+		this.compileExpressions = b;
+		return this;
+	}
+	
+	public void setVectorizedEvaluation(boolean vectorizedEvaluation) {
+		this.vectorizedEvaluation = vectorizedEvaluation;
+	}
+	
+	public boolean isVectorizedEvaluation() {
+		return vectorizedEvaluation;
+	}
+	
+	public Options vectorizedEvaluation(boolean b) {
+		this.vectorizedEvaluation = b;
+		return this;
+	}
+	
+	public void setDependentJoinBloomFilter(boolean dependentJoinBloomFilter) {
+		this.dependentJoinBloomFilter = dependentJoinBloomFilter;
+	}
+	
+	public boolean isDependentJoinBloomFilter() {
+		return dependentJoinBloomFilter;
+	}
+	
+	public Options dependentJoinBloomFilter(boolean b) {
+		this.dependentJoinBloomFilter = b;
+		return this;
+	}
+	
+	public void setAdaptiveDependentJoin(boolean adaptiveDependentJoin) {
+		this.adaptiveDependentJoin = adaptiveDependentJoin;
+	}
+	
+	public boolean isAdaptiveDependentJoin() {
+		return adaptiveDependentJoin;
+	}
+	
+	public Options adaptiveDependentJoin(boolean b) {
+		this.adaptiveDependentJoin = b;
+		return this;
+	}
+	
+	public void setSemanticResultSetCache(boolean semanticResultSetCache) {
+		this.semanticResultSetCache = semanticResultSetCache;
+	}
+	
+	public boolean isSemanticResultSetCache() {
+		return semanticResultSetCache;
+	}
+	
+	public Options semanticResultSetCache(boolean b) {
+		this.semanticResultSetCache = b;
+		return this;
+	}
+	
+	public void setCopyOnWriteMatViewReload(boolean copyOnWriteMatViewReload) {
+		this.copyOnWriteMatViewReload = copyOnWriteMatViewReload;
+	}
+	
+	public boolean isCopyOnWriteMatViewReload() {
+		return copyOnWriteMatViewReload;
+	}
+	
+	public Options copyOnWriteMatViewReload(boolean b) {
+		this.copyOnWriteMatViewReload = b;
+		return this;
+	}
+	
+	public void setStreamingInsert(boolean streamingInsert) {
+		this.streamingInsert = streamingInsert;
+	}
+	
+	public boolean isStreamingInsert() {
+		return streamingInsert;
+	}
+	
+	public Options streamingInsert(boolean b) {
+		this.streamingInsert = b;
+		return this;
+	}
+	
+	public void setParallelTextTable(boolean parallelTextTable) {
+		this.parallelTextTable = parallelTextTable;
+	}
+	
+	public boolean isParallelTextTable() {
+		return parallelTextTable;
+	}
+	
+	public Options parallelTextTable(boolean b) {
+		this.parallelTextTable = b;
+		return this;
+	}
 
 }
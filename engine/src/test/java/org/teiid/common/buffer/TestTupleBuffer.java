@@ -30,7 +30,9 @@ import java.util.List;
 import javax.sql.rowset.serial.SerialClob;
 
 import org.junit.Test;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
 import org.teiid.core.types.ClobType;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.query.sql.symbol.ElementSymbol;
@@ -86,6 +88,30 @@ public class TestTupleBuffer {
 		assertTrue(batch.getTerminationFlag());
 	}
 	
+	@Test public void testColumnar() throws Exception {
+		ElementSymbol x = new ElementSymbol("x"); //$NON-NLS-1$
+		x.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		ElementSymbol y = new ElementSymbol("y"); //$NON-NLS-1$
+		y.setType(DataTypeManager.DefaultDataClasses.STRING);
+		List<ElementSymbol> schema = Arrays.asList(x, y);
+		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
+		bm.setColumnarBatches(true);
+		TupleBuffer tb = bm.createTupleBuffer(schema, "x", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+		assertTrue(tb.isColumnar());
+		tb.setBatchSize(2);
+		tb.addTuple(Arrays.asList(1, "a")); //$NON-NLS-1$
+		tb.addTuple(Arrays.asList(null, "b")); //$NON-NLS-1$
+		tb.addTuple(Arrays.asList(3, null));
+		tb.close();
+		TupleBatch batch = tb.getBatch(1);
+		ColumnarBatch columnar = batch.getColumnarTuples();
+		assertNotNull(columnar);
+		assertEquals(1, columnar.getInt(0, 0));
+		assertTrue(columnar.isNull(1, 0));
+		assertEquals(Arrays.asList(null, "b"), batch.getTuple(2)); //$NON-NLS-1$
+		assertEquals(Arrays.asList(3, null), tb.getBatch(3).getTuple(3));
+	}
+	
 	@Test public void testLobHandling() throws Exception {
 		ElementSymbol x = new ElementSymbol("x"); //$NON-NLS-1$
 		x.setType(DataTypeManager.DefaultDataClasses.CLOB);
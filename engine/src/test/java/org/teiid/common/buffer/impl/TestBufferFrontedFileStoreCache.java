@@ -24,15 +24,20 @@ package org.teiid.common.buffer.impl;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import org.teiid.common.buffer.CacheEntry;
+import org.teiid.common.buffer.FileStore;
 import org.teiid.common.buffer.Serializer;
 import org.teiid.core.TeiidComponentException;
+import org.teiid.core.util.UnitTestUtil;
 
 public class TestBufferFrontedFileStoreCache {
 	
@@ -177,6 +182,86 @@ public class TestBufferFrontedFileStoreCache {
 		assertEquals(Integer.valueOf(5001), ce.getObject());
 	}
 
+	@Test public void testMappedReads() throws Exception {
+		final Map<String, FileStore> stores = new HashMap<String, FileStore>();
+		FileStorageManager fsm = new FileStorageManager();
+		fsm.setStorageDirectory(UnitTestUtil.getTestScratchPath() + File.separator + "mapped"); //$NON-NLS-1$
+		SplittableStorageManager ssm = new SplittableStorageManager(fsm) {
+			@Override
+			public FileStore createFileStore(String name) {
+				FileStore store = super.createFileStore(name);
+				stores.put(name, store);
+				return store;
+			}
+		};
+		BufferFrontedFileStoreCache cache = new BufferFrontedFileStoreCache();
+		cache.setMemoryBufferSpace(1 << 22);
+		cache.setMaxStorageObjectSize(1 << 22);
+		cache.setDirect(false);
+		cache.setMappedReads(true);
+		cache.setStorageManager(ssm);
+		cache.initialize();
+		
+		Serializer<Integer> s = new SimpleSerializer();
+		cache.createCacheGroup(s.getId());
+		//each object uses a block of the 256KB store, which has a single file
+		long blockSize = BufferFrontedFileStoreCache.BLOCK_SIZE << 5;
+		for (long i = 2; i < 5; i++) {
+			addAndEvict(cache, i, s);
+		}
+		FileStore store = stores.get(blockSize + "_0"); //$NON-NLS-1$
+		assertTrue(store.getLength() > 2 * blockSize);
+		
+		for (long i = 2; i < 5; i++) {
+			assertEquals(Integer.valueOf(60000 + (int)i), get(cache, i, s).getObject());
+		}
+		assertEquals(3, cache.getStorageReads());
+		
+		//remove the last object and shorten the file as the defrag does
+		cache.remove(s.getId(), 4l);
+		store.setLength(2 * blockSize);
+		
+		for (long i = 2; i < 4; i++) {
+			evict(cache, i, s);
+			assertEquals(Integer.valueOf(60000 + (int)i), get(cache, i, s).getObject());
+		}
+		assertEquals(5, cache.getStorageReads());
+		
+		//grow the file again, which must be read through a new view
+		addAndEvict(cache, 5l, s);
+		assertTrue(store.getLength() > 2 * blockSize);
+		assertEquals(Integer.valueOf(60005), get(cache, 5l, s).getObject());
+		assertEquals(6, cache.getStorageReads());
+		
+		cache.removeCacheGroup(s.getId());
+		assertEquals(0, cache.getDataBlocksInUse());
+		store.remove();
+	}
+
+	private static void addAndEvict(BufferFrontedFileStoreCache cache, Long oid, Serializer<Integer> s) {
+		CacheEntry ce = new CacheEntry(oid);
+		ce.setObject(Integer.valueOf(60000 + oid.intValue()));
+		cache.addToCacheGroup(s.getId(), oid);
+		cache.add(ce, s);
+		evict(cache, oid, s);
+		PhysicalInfo info = cache.lockForLoad(oid, s);
+		cache.unlockForLoad(info);
+		assertEquals(5, info.sizeIndex);
+	}
+
+	/**
+	 * Move the object from the memory buffer to storage
+	 */
+	private static void evict(BufferFrontedFileStoreCache cache, Long oid, Serializer<Integer> s) {
+		PhysicalInfo info = cache.lockForLoad(oid, s);
+		cache.unlockForLoad(info);
+		synchronized (info) {
+			info.evicting = true;
+		}
+		cache.free(info, true, false);
+		assertTrue(info.block != BufferFrontedFileStoreCache.EMPTY_ADDRESS);
+	}
+
 	private static BufferFrontedFileStoreCache createLayeredCache(int bufferSpace, int objectSize) throws TeiidComponentException {
 		BufferFrontedFileStoreCache fsc = new BufferFrontedFileStoreCache();
 		fsc.setMemoryBufferSpace(bufferSpace);
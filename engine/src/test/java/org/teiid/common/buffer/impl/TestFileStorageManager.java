@@ -28,6 +28,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -114,6 +115,31 @@ public class TestFileStorageManager {
     	fsos.close();
     }
 
+    @Test public void testReadBuffer() throws Exception {
+    	FileStorageManager sm = getStorageManager(null, null);
+    	FileStore store = sm.createFileStore("0");
+    	assertNull(store.getReadBuffer(0, 10));
+    	byte[] bytes = writeBytes(store, 0);
+    	ByteBuffer bb = store.getReadBuffer(1024, 1024);
+    	assertEquals(1024, bb.remaining());
+    	byte[] bytesRead = new byte[1024];
+    	bb.get(bytesRead);
+    	assertTrue(Arrays.equals(Arrays.copyOfRange(bytes, 1024, 2048), bytesRead));
+    	//past the end of the file
+    	assertNull(store.getReadBuffer(1024, 2048));
+    	
+    	//should see the new bytes after growing
+    	bytes = writeBytes(store, 2048);
+    	bb = store.getReadBuffer(2048, 2048);
+    	bytesRead = new byte[2048];
+    	bb.get(bytesRead);
+    	assertTrue(Arrays.equals(bytes, bytesRead));
+    	
+    	store.setLength(1024);
+    	assertNull(store.getReadBuffer(0, 2048));
+    	store.remove();
+    }
+
     static Random r = new Random();
     
 	static void writeBytes(FileStore store) throws IOException {
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 import org.teiid.common.buffer.BaseCacheEntry;
+import org.teiid.common.buffer.CacheKey;
 
 public class TestLrfuEvictionQueue {
 	
@@ -41,4 +42,22 @@ public class TestLrfuEvictionQueue {
 		}
 	}
 
+	@Test public void testSegmentedOrder() {
+		LrfuEvictionQueue<BaseCacheEntry> q = new LrfuEvictionQueue<BaseCacheEntry>(new AtomicLong(), 3);
+		for (long i = 0; i < 100; i++) {
+			//reverse the ordering relative to the ids
+			q.add(new BaseCacheEntry(new CacheKey(i, 0, 100 - i)));
+		}
+		assertEquals(100, q.getEvictionQueue().size());
+		long last = 0;
+		for (BaseCacheEntry entry : q.getEvictionQueue()) {
+			assertTrue(entry.getKey().getOrderingValue() > last);
+			last = entry.getKey().getOrderingValue();
+		}
+		for (long i = 99; i >= 0; i--) {
+			assertEquals(Long.valueOf(i), q.firstEntry(true).getId());
+		}
+		assertNull(q.firstEntry(false));
+	}
+
 }
@@ -27,11 +27,13 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import javax.resource.spi.work.Work;
 
@@ -223,6 +225,71 @@ public class TestThreadReuseExecutor {
     	assertEquals(Integer.valueOf(3), order.remove());
     	assertEquals(Integer.valueOf(2), order.remove());
     	assertEquals(Integer.valueOf(4), order.remove());
+    	WorkerPoolStatisticsMetadata stats = pool.getStats();
+    	assertEquals(3, stats.getTotalQueued());
+    	assertTrue(stats.getHighestQueueWaitTime() >= stats.getAverageQueueWaitTime());
+    }
+    
+    @Test public void testMultipleProducers() throws Exception {
+    	final int MAX_THREADS = 4;
+    	final int PRODUCERS = 8;
+    	final int TASKS = 2000;
+    	final ThreadReuseExecutor pool = new ThreadReuseExecutor("test", MAX_THREADS); //$NON-NLS-1$
+    	final AtomicIntegerArray runs = new AtomicIntegerArray(PRODUCERS * TASKS);
+    	final AtomicInteger active = new AtomicInteger();
+    	final AtomicInteger highestActive = new AtomicInteger();
+    	final CountDownLatch start = new CountDownLatch(1);
+    	final CountDownLatch submitted = new CountDownLatch(PRODUCERS);
+    	for (int i = 0; i < PRODUCERS; i++) {
+    		final int producer = i;
+    		Thread t = new Thread() {
+    			@Override
+    			public void run() {
+    				try {
+    					start.await();
+    					for (int j = 0; j < TASKS; j++) {
+    						final int task = producer * TASKS + j;
+    						pool.execute(new Runnable() {
+    							@Override
+    							public void run() {
+    								int current = active.incrementAndGet();
+    								while (true) {
+    									int highest = highestActive.get();
+    									if (current <= highest || highestActive.compareAndSet(highest, current)) {
+    										break;
+    									}
+    								}
+    								runs.incrementAndGet(task);
+    								Thread.yield();
+    								active.decrementAndGet();
+    							}
+    						});
+    					}
+    				} catch (InterruptedException e) {
+    					Thread.currentThread().interrupt();
+    				} finally {
+    					submitted.countDown();
+    				}
+    			}
+    		};
+    		t.start();
+    	}
+    	start.countDown();
+    	assertTrue(submitted.await(10, TimeUnit.SECONDS));
+    	
+    	//the queued work must still be run after shutdown
+    	pool.shutdown();
+    	assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    	assertTrue(pool.isTerminated());
+    	
+    	for (int i = 0; i < runs.length(); i++) {
+    		assertEquals("task " + i, 1, runs.get(i)); //$NON-NLS-1$
+    	}
+    	assertTrue(highestActive.get() <= MAX_THREADS);
+    	WorkerPoolStatisticsMetadata stats = pool.getStats();
+    	assertEquals(PRODUCERS * TASKS, stats.getTotalCompleted());
+    	assertTrue(stats.getHighestActiveThreads() <= MAX_THREADS);
+    	assertEquals(0, stats.getQueued());
     }
         
 }
@@ -29,10 +29,15 @@ import java.util.List;
 
 import junit.framework.TestCase;
 
+import org.teiid.core.util.BloomFilter;
 import org.teiid.core.util.EquivalenceUtil;
+import org.teiid.language.Comparison;
 import org.teiid.language.DerivedColumn;
+import org.teiid.language.Parameter;
 import org.teiid.language.Select;
 import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.DependentSetCriteria;
+import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.UnaryFromClause;
 import org.teiid.query.sql.symbol.ElementSymbol;
@@ -109,6 +114,21 @@ public class TestQueryImpl extends TestCase {
         assertTrue(EquivalenceUtil.areEquivalent(expected, types));
     }
 
+    public void testDependentFilter() throws Exception {
+    	BloomFilter filter = new BloomFilter(10, .01);
+    	filter.put("a"); //$NON-NLS-1$
+    	DependentSetCriteria dsc = new DependentSetCriteria(TestElementImpl.helpExample("vm1.g1", "e1"), "x"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    	dsc.setBloomFilter(filter);
+    	//the processor sends a clone of the criteria
+    	Query query = new Query(helpExampleSelect(false), helpExampleFrom(), dsc.clone(), null, null, null, null);
+    	Select select = (Select)TstLanguageBridgeFactory.factory.translate((Command)query);
+    	assertNull(select.getDependentValues());
+    	assertEquals(1, select.getDependentFilters().size());
+    	assertSame(filter, select.getDependentFilters().get("x")); //$NON-NLS-1$
+    	Comparison comparison = (Comparison)select.getWhere();
+    	assertEquals("x", ((Parameter)comparison.getRightExpression()).getDependentValueId()); //$NON-NLS-1$
+    }
+
 	public static org.teiid.query.sql.lang.From helpExampleFrom() {
 	    List<UnaryFromClause> clauses = new ArrayList<UnaryFromClause>();
 	    clauses.add(new UnaryFromClause(TestGroupImpl.helpExample("vm1.g1"))); //$NON-NLS-1$
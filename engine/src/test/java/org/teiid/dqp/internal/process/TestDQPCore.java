@@ -25,7 +25,10 @@ package org.teiid.dqp.internal.process;
 import static org.junit.Assert.*;
 
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +63,7 @@ import org.teiid.query.optimizer.TestOptimizer;
 import org.teiid.query.optimizer.capabilities.BasicSourceCapabilities;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.Options;
 import org.teiid.translator.SourceSystemFunctions;
 
 @SuppressWarnings("nls")
@@ -322,6 +326,39 @@ public class TestDQPCore {
         }
     }
     
+    @Test public void testPipelinedCursorRequests() throws Exception {
+    	//the sql should return 400 rows
+        String sql = "SELECT A.IntKey FROM BQT1.SmallA as A, BQT1.SmallA as B, (select intkey from BQT1.SmallA limit 4) as C"; //$NON-NLS-1$
+        
+        RequestMessage reqMsg = exampleRequestMessage(sql);
+        reqMsg.setCursorType(ResultSet.TYPE_FORWARD_ONLY);
+        ((BufferManagerImpl)core.getBufferManager()).setProcessorBatchSize(1);
+        Future<ResultsMessage> message = core.executeRequest(reqMsg.getExecutionId(), reqMsg);
+        ResultsMessage rm = message.get(500000, TimeUnit.MILLISECONDS);
+        assertNull(rm.getException());
+
+        int rowsPerBatch = 8;
+		assertEquals(rowsPerBatch, rm.getResultsList().size());
+		
+		//issue the requests without waiting for the results
+		List<Future<ResultsMessage>> pending = new ArrayList<Future<ResultsMessage>>();
+		for (int i = 0; i < 10; i++) {
+			pending.add(core.processNextCursorRequest(reqMsg.getExecutionId(), rowsPerBatch));
+		}
+		for (int i = 0; i < pending.size(); i++) {
+			rm = pending.get(i).get(5000, TimeUnit.MILLISECONDS);
+			assertNull(rm.getException());
+	        assertEquals(rowsPerBatch, rm.getResultsList().size());
+	        assertEquals((i + 1) * rowsPerBatch + 1, rm.getFirstRow());
+		}
+		
+		//an explicit request following the pipelined requests
+        message = core.processCursorRequest(reqMsg.getExecutionId(), 11 * rowsPerBatch + 1, rowsPerBatch);
+        rm = message.get(5000, TimeUnit.MILLISECONDS);
+        assertNull(rm.getException());
+        assertEquals(11 * rowsPerBatch + 1, rm.getFirstRow());
+    }
+    
     @Test public void testBufferReuse() throws Exception {
     	//the sql should return 100 rows
         String sql = "SELECT A.IntKey FROM BQT1.SmallA as A, BQT1.SmallA as B ORDER BY A.IntKey"; //$NON-NLS-1$
@@ -551,6 +588,35 @@ public class TestDQPCore {
         assertEquals(1, this.core.getRsCache().getCacheHitCount());
     }
     
+    @Test public void testSemanticRsCache() throws Exception {
+    	System.setProperty(Options.SEMANTIC_RESULT_SET_CACHE, Boolean.TRUE.toString());
+    	try {
+	        agds.setUseIntCounter(true);
+	        RequestMessage reqMsg = exampleRequestMessage("select IntKey, StringKey FROM BQT1.SmallA"); //$NON-NLS-1$
+	        reqMsg.setUseResultSetCache(true);
+	        ResultsMessage rm = execute("A", 1, reqMsg); //$NON-NLS-1$
+	        assertEquals(10, rm.getResultsList().size());
+	        assertEquals(1, agds.getExecuteCount().get());
+	        
+	        //answered by filtering the cached results
+	        reqMsg = exampleRequestMessage("select IntKey FROM BQT1.SmallA where IntKey < 5 order by IntKey desc"); //$NON-NLS-1$
+	        reqMsg.setUseResultSetCache(true);
+	        rm = execute("A", 1, reqMsg); //$NON-NLS-1$
+	        assertEquals(5, rm.getResultsList().size());
+	        assertEquals(Arrays.asList(4), rm.getResultsList().get(0));
+	        assertEquals(1, agds.getExecuteCount().get());
+	        assertEquals(1, this.core.getRsCache().getCacheHitCount());
+	        
+	        //not covered by the cached columns
+	        reqMsg = exampleRequestMessage("select IntKey FROM BQT1.SmallA where IntNum < 5"); //$NON-NLS-1$
+	        reqMsg.setUseResultSetCache(true);
+	        rm = execute("A", 1, reqMsg); //$NON-NLS-1$
+	        assertEquals(2, agds.getExecuteCount().get());
+    	} finally {
+    		System.clearProperty(Options.SEMANTIC_RESULT_SET_CACHE);
+    	}
+    }
+    
     @Test public void testLobConcurrency() throws Exception {
     	RequestMessage reqMsg = exampleRequestMessage("select to_bytes(stringkey, 'utf-8') FROM BQT1.SmallA"); 
         reqMsg.setTxnAutoWrapMode(RequestMessage.TXN_WRAP_OFF);
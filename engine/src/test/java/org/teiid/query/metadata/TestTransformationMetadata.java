@@ -27,12 +27,14 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import org.jboss.vfs.VFS;
 import org.junit.Test;
 import org.teiid.adminapi.Model;
+import org.teiid.adminapi.impl.CacheStatisticsMetadata;
 import org.teiid.adminapi.impl.ModelMetaData;
 import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.api.exception.query.QueryMetadataException;
@@ -70,6 +72,21 @@ public class TestTransformationMetadata {
 		assertEquals("x.y", spi.getProcedureCallableName());
 	}
 
+	@Test public void testCacheWarmup() throws Exception {
+		TransformationMetadata tm = exampleTransformationMetadata();
+		tm.warmCaches();
+		tm.getStoredProcedureInfoForProcedure("x.y"); //$NON-NLS-1$
+		List<CacheStatisticsMetadata> stats = tm.getCacheStatistics();
+		CacheStatisticsMetadata partialNames = stats.get(2);
+		assertEquals("partial-name", partialNames.getName());
+		assertEquals(2, partialNames.getTotalEntries());
+		CacheStatisticsMetadata procedures = stats.get(3);
+		assertEquals("procedure", procedures.getName());
+		assertEquals(2, procedures.getTotalEntries());
+		assertEquals(3, procedures.getRequestCount());
+		assertEquals(100/3d, procedures.getHitRatio(), .0001);
+	}
+
 	private TransformationMetadata exampleTransformationMetadata()
 			throws TranslatorException {
 		Map<String, Datatype> datatypes = new HashMap<String, Datatype>();
@@ -34,6 +34,7 @@ import java.util.Set;
 import org.junit.Test;
 import org.teiid.api.exception.query.QueryPlannerException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
@@ -387,6 +388,8 @@ public class TestOptimizer {
                 } 
             } else if (strategy instanceof NestedTableJoinStrategy) {
             	updateCounts(NestedTableJoinStrategy.class, counts, types);
+            } else if (strategy instanceof HashJoinStrategy) {
+            	updateCounts(HashJoinStrategy.class, counts, types);
             }
             if (((JoinNode)relationalNode).isDependent()) {
                 updateCounts(DependentJoin.class, counts, types);
@@ -2915,6 +2918,50 @@ public class TestOptimizer {
         });         
     } 
 
+    /** 
+     * The larger side must be sorted locally and does not fit in the processing memory, 
+     * but the smaller side does, so a hash join is used rather than a merge join 
+     */
+    @Test public void testUseHashJoin() throws Exception {
+        BasicSourceCapabilities caps = new BasicSourceCapabilities();
+        caps.setCapabilitySupport(Capability.CRITERIA_COMPARE_EQ, true);
+        caps.setCapabilitySupport(Capability.QUERY_FROM_GROUP_ALIAS, true);
+
+        ProcessorPlan plan = helpPlanJoinWithMemory(caps, new String[] { "SELECT pm1.g1.e1 FROM pm1.g1", "SELECT pm1.g2.e1 FROM pm1.g2" }); //$NON-NLS-1$ //$NON-NLS-2$
+        checkNodeTypes(plan, new int[] {0, 1}, new Class[] {MergeJoinStrategy.class, HashJoinStrategy.class});
+    }
+
+    /** 
+     * The same as testUseHashJoin, but the sorts can be pushed to the source, so the merge join requires no 
+     * additional buffer I/O and is kept 
+     */
+    @Test public void testUseMergeJoinWithPushedSorts() throws Exception {
+        BasicSourceCapabilities caps = new BasicSourceCapabilities();
+        caps.setCapabilitySupport(Capability.CRITERIA_COMPARE_EQ, true);
+        caps.setCapabilitySupport(Capability.QUERY_FROM_GROUP_ALIAS, true);
+        caps.setCapabilitySupport(Capability.QUERY_ORDERBY, true);
+
+        ProcessorPlan plan = helpPlanJoinWithMemory(caps, new String[] { "SELECT pm1.g1.e1 FROM pm1.g1 ORDER BY pm1.g1.e1", "SELECT pm1.g2.e1 FROM pm1.g2 ORDER BY pm1.g2.e1" }); //$NON-NLS-1$ //$NON-NLS-2$
+        checkNodeTypes(plan, new int[] {1, 0}, new Class[] {MergeJoinStrategy.class, HashJoinStrategy.class});
+    }
+
+	private ProcessorPlan helpPlanJoinWithMemory(BasicSourceCapabilities caps, String[] expectedAtomic) throws Exception {
+		String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm1.g2 WHERE pm1.g1.e1 = pm1.g2.e1";//$NON-NLS-1$
+		FakeCapabilitiesFinder capFinder = new FakeCapabilitiesFinder();
+        capFinder.addCapabilities("pm1", caps); //$NON-NLS-1$
+
+        QueryMetadataInterface metadata = RealMetadataFactory.example1();
+        RealMetadataFactory.setCardinality("pm1.g1", 100000, metadata); //$NON-NLS-1$
+        RealMetadataFactory.setCardinality("pm1.g2", 500000, metadata); //$NON-NLS-1$
+        
+        //a string row is estimated at 150-300 bytes, so 64MB holds pm1.g1, but not pm1.g2
+        CommandContext cc = new CommandContext();
+        cc.setBufferManager(BufferManagerFactory.getTestBufferManager(1 << 26, BufferManager.DEFAULT_PROCESSOR_BATCH_SIZE));
+        ProcessorPlan plan = getPlan(helpGetCommand(sql, metadata, null), metadata, capFinder, null, true, cc);
+        checkAtomicQueries(expectedAtomic, plan);
+		return plan;
+	}
+
     /** Should use merge join, since costs are not known, neither access node is "strong" */
     @Test public void testUseMergeJoin5_CostsNotKnown(){
         // Create query
@@ -22,6 +22,8 @@
 
 package org.teiid.query.optimizer;
 
+import static org.junit.Assert.*;
+
 import org.junit.Test;
 import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.optimizer.TestOptimizer.ComparisonMode;
@@ -30,6 +32,9 @@ import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.FakeCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.processor.ProcessorPlan;
+import org.teiid.query.processor.relational.AccessNode;
+import org.teiid.query.processor.relational.RelationalPlan;
+import org.teiid.query.processor.relational.UnionAllNode;
 import org.teiid.query.unittest.RealMetadataFactory;
 
 @SuppressWarnings("nls")
@@ -356,4 +361,46 @@ public class TestUnionPlanning {
         });                                    
     }  
 
+    @Test public void testPartitionedScan() throws Exception {
+    	TransformationMetadata metadata = getPartitionedMetadata();
+    	BasicSourceCapabilities caps = TestOptimizer.getTypicalCapabilities();
+    	caps.setCapabilitySupport(Capability.PARTITIONED_SCAN, true);
+    	ProcessorPlan plan = TestOptimizer.helpPlan("select x, y from t where y = 'a' order by x desc", metadata, null, new DefaultCapabilitiesFinder(caps), 
+    			new String[] {"SELECT x, y FROM phy.t WHERE (y = 'a') AND (x < 10) ORDER BY x DESC", 
+    			"SELECT x, y FROM phy.t WHERE (y = 'a') AND (x >= 10) AND (x < 20) ORDER BY x DESC", 
+    			"SELECT x, y FROM phy.t WHERE (y = 'a') AND (x >= 20) ORDER BY x DESC"}, ComparisonMode.CORRECTED_COMMAND_STRING);
+    	
+    	UnionAllNode union = (UnionAllNode)((RelationalPlan)plan).getRootNode();
+    	assertTrue(union.isOrdered());
+    	//descending order reads the highest partition first
+    	assertTrue(((AccessNode)union.getChildren()[0]).getCommand().toString().contains("x >= 20"));
+    	
+    	//without the capability the scan is not partitioned
+    	TestOptimizer.helpPlan("select x, y from t", metadata, null, new DefaultCapabilitiesFinder(TestOptimizer.getTypicalCapabilities()), 
+    			new String[] {"SELECT x, y FROM phy.t"}, ComparisonMode.CORRECTED_COMMAND_STRING);
+    }
+    
+    @Test public void testPartitionedScanSelectiveCriteria() throws Exception {
+    	TransformationMetadata metadata = getPartitionedMetadata();
+    	BasicSourceCapabilities caps = TestOptimizer.getTypicalCapabilities();
+    	caps.setCapabilitySupport(Capability.PARTITIONED_SCAN, true);
+    	//a key lookup is too small to partition
+    	TestOptimizer.helpPlan("select x, y from t where x = 1", metadata, null, new DefaultCapabilitiesFinder(caps), 
+    			new String[] {"SELECT x, y FROM phy.t WHERE x = 1"}, ComparisonMode.CORRECTED_COMMAND_STRING);
+    	
+    	//without a cardinality only an unrestricted scan is partitioned
+    	metadata = RealMetadataFactory.fromDDL("create foreign table t (x integer not null options (MIN_VALUE '0', MAX_VALUE '30'), y string) " 
+    			+ "options (\"teiid:partition-column\" 'x', \"teiid:partition-count\" '3');", "x", "phy");
+    	TestOptimizer.helpPlan("select x, y from t where y = 'a'", metadata, null, new DefaultCapabilitiesFinder(caps), 
+    			new String[] {"SELECT x, y FROM phy.t WHERE y = 'a'"}, ComparisonMode.CORRECTED_COMMAND_STRING);
+    	TestOptimizer.helpPlan("select x, y from t", metadata, null, new DefaultCapabilitiesFinder(caps), 
+    			new String[] {"SELECT x, y FROM phy.t WHERE x < 10", "SELECT x, y FROM phy.t WHERE (x >= 10) AND (x < 20)", 
+    			"SELECT x, y FROM phy.t WHERE x >= 20"}, ComparisonMode.CORRECTED_COMMAND_STRING);
+    }
+
+	private TransformationMetadata getPartitionedMetadata() throws Exception {
+		return RealMetadataFactory.fromDDL("create foreign table t (x integer not null options (MIN_VALUE '0', MAX_VALUE '30'), y string options (DISTINCT_VALUES '2'), primary key (x)) " 
+    			+ "options (CARDINALITY 1000000, \"teiid:partition-column\" 'x', \"teiid:partition-count\" '3');", "x", "phy");
+	}
+
 }
@@ -27,6 +27,7 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 import org.teiid.api.exception.query.QueryMetadataException;
@@ -41,12 +42,14 @@ import org.teiid.query.optimizer.capabilities.BasicSourceCapabilities;
 import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.FakeCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
+import org.teiid.query.processor.relational.DependentAccessNode;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.RelationalPlan;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 import org.teiid.translator.ExecutionFactory.NullOrder;
 
 @SuppressWarnings({"unchecked", "nls"})
@@ -687,6 +690,98 @@ public class TestDependentJoins {
         TestProcessor.helpProcess(plan, dataManager, expected);
     }
 
+    @Test public void testLargeSetInDepAccessBloomFilter() throws Exception {
+        String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e2=pm6.g1.e2 OPTION MAKEDEP pm6.g1"; //$NON-NLS-1$
+
+        List[] expected = new List[] {
+            Arrays.asList("b"), //$NON-NLS-1$
+            Arrays.asList("b"), //$NON-NLS-1$
+        };
+        
+        FakeDataManager dataManager = new FakeDataManager();
+        helpTestBloomFilter(sql, true, dataManager, expected, TestProcessor.createCommandContext());
+        
+        //the independent values are sent as a single range rather than a query per value 
+        assertEquals(new HashSet<String>(Arrays.asList("SELECT pm6.g1.e2 FROM pm6.g1 WHERE (pm6.g1.e2 >= 0) AND (pm6.g1.e2 <= 2)")), getQueries(dataManager, "pm6.g1")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    @Test public void testLargeSetInDepAccessBloomFilterLocalPruning() throws Exception {
+        String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e2=pm6.g1.e2 OPTION MAKEDEP pm6.g1"; //$NON-NLS-1$
+
+        List[] expected = new List[] {
+            Arrays.asList("b"), //$NON-NLS-1$
+            Arrays.asList("b"), //$NON-NLS-1$
+        };
+        
+        CommandContext cc = TestProcessor.createCommandContext();
+        cc.setCollectNodeStatistics(true);
+        FakeDataManager dataManager = new FakeDataManager();
+        ProcessorPlan plan = helpTestBloomFilter(sql, false, dataManager, expected, cc);
+        
+        //the source does not support the range, so the row with e2 = 3 is only removed by the filter
+        Set<String> queries = getQueries(dataManager, "pm6.g1"); //$NON-NLS-1$
+        assertEquals(1, queries.size());
+        assertTrue(queries.toString(), queries.iterator().next().indexOf("<=") == -1); //$NON-NLS-1$
+        assertEquals(2, findDependentAccessNode(((RelationalPlan)plan).getRootNode()).getNodeStatistics().getNodeOutputRows());
+    }
+
+    /**
+     * The source collation is not known, so a string range is not sent
+     */
+    @Test public void testLargeSetInDepAccessBloomFilterString() throws Exception {
+        String sql = "SELECT pm1.g1.e2 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e1=pm6.g1.e1 OPTION MAKEDEP pm6.g1"; //$NON-NLS-1$
+
+        List[] expected = new List[] {
+            Arrays.asList(1),
+        };
+        
+        FakeDataManager dataManager = new FakeDataManager();
+        helpTestBloomFilter(sql, true, dataManager, expected, TestProcessor.createCommandContext());
+        
+        Set<String> queries = getQueries(dataManager, "pm6.g1"); //$NON-NLS-1$
+        assertEquals(1, queries.size());
+        assertTrue(queries.toString(), queries.iterator().next().indexOf(">=") == -1); //$NON-NLS-1$
+    }
+    
+	private ProcessorPlan helpTestBloomFilter(String sql, boolean rangeCriteria, FakeDataManager dataManager, List[] expected, CommandContext cc) throws Exception {
+        sampleData4(dataManager);
+
+        FakeCapabilitiesFinder capFinder = new FakeCapabilitiesFinder();
+        BasicSourceCapabilities depcaps = new BasicSourceCapabilities();
+        depcaps.setCapabilitySupport(Capability.CRITERIA_IN, true);
+        depcaps.setCapabilitySupport(Capability.CRITERIA_COMPARE_ORDERED, rangeCriteria);
+        depcaps.setSourceProperty(Capability.MAX_IN_CRITERIA_SIZE, 1);
+
+        BasicSourceCapabilities caps = new BasicSourceCapabilities();
+        caps.setCapabilitySupport(Capability.CRITERIA_IN, true);
+
+        capFinder.addCapabilities("pm1", caps); //$NON-NLS-1$
+        capFinder.addCapabilities("pm6", depcaps); //$NON-NLS-1$
+
+        Command command = TestProcessor.helpParse(sql);
+        ProcessorPlan plan = TestProcessor.helpGetPlan(command, RealMetadataFactory.example1Cached(), capFinder);
+        cc.setOptions(new Options().dependentJoinBloomFilter(true));
+
+        TestProcessor.helpProcess(plan, cc, dataManager, expected);
+		return plan;
+	}
+	
+	private static DependentAccessNode findDependentAccessNode(RelationalNode node) {
+		if (node instanceof DependentAccessNode) {
+			return (DependentAccessNode)node;
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			DependentAccessNode result = findDependentAccessNode(child);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
     @Test public void testLargeSetInDepAccessMultiJoinCriteria() throws Exception {
     	helpTestLargeSetInDepAccessMultiJoinCriteria(1, -1, 1, 2);
     }
@@ -918,6 +1013,59 @@ public class TestDependentJoins {
         assertEquals(4, new HashSet<String>(dataManager.getQueries()).size());
     }
     
+    @Test public void testAdaptiveDependentJoin() throws Exception {
+        FakeDataManager dataManager = helpTestAdaptive(10);
+        
+        //the independent side was small enough to use a dependent query
+        Set<String> queries = getQueries(dataManager, "pm6.g1"); //$NON-NLS-1$
+        assertEquals(1, queries.size());
+        assertTrue(queries.toString(), queries.iterator().next().indexOf("pm6.g1.e2 IN (") != -1); //$NON-NLS-1$
+    }
+    
+    @Test public void testAdaptiveDependentJoinBackoff() throws Exception {
+        FakeDataManager dataManager = helpTestAdaptive(1);
+        
+        //the independent side was too large, so the dependent side was fully scanned
+        assertEquals(new HashSet<String>(Arrays.asList("SELECT pm6.g1.e2 FROM pm6.g1")), getQueries(dataManager, "pm6.g1")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    private Set<String> getQueries(FakeDataManager dataManager, String group) {
+    	Set<String> result = new HashSet<String>();
+        for (String query : dataManager.getQueries()) {
+        	if (query.indexOf(group) != -1) {
+        		result.add(query);
+        	}
+        }
+        return result;
+    }
+
+	private FakeDataManager helpTestAdaptive(int maxInCriteriaSize) throws Exception {
+		String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e2=pm6.g1.e2"; //$NON-NLS-1$
+
+        FakeDataManager dataManager = new FakeDataManager();
+        sampleData4(dataManager);
+
+        FakeCapabilitiesFinder capFinder = new FakeCapabilitiesFinder();
+        BasicSourceCapabilities depcaps = new BasicSourceCapabilities();
+        depcaps.setCapabilitySupport(Capability.CRITERIA_IN, true);
+        depcaps.setSourceProperty(Capability.MAX_IN_CRITERIA_SIZE, maxInCriteriaSize);
+
+        capFinder.addCapabilities("pm1", new BasicSourceCapabilities()); //$NON-NLS-1$
+        capFinder.addCapabilities("pm6", depcaps); //$NON-NLS-1$
+
+        List[] expected = new List[] {
+            Arrays.asList("b"), //$NON-NLS-1$
+            Arrays.asList("b"), //$NON-NLS-1$
+        };
+
+        CommandContext cc = TestProcessor.createCommandContext();
+        cc.setOptions(new Options().adaptiveDependentJoin(true));
+        ProcessorPlan plan = TestProcessor.helpGetPlan(TestProcessor.helpParse(sql), RealMetadataFactory.example1Cached(), capFinder, cc);
+        
+        TestProcessor.helpProcess(plan, cc, dataManager, expected);
+        return dataManager;
+	}
+    
     @Test public void testIssue1899() throws Exception {
     	String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm3.g1 WHERE pm1.g1.e1=pm3.g1.e1"; //$NON-NLS-1$
 
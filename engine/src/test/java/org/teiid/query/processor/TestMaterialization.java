@@ -28,13 +28,17 @@ import static org.junit.Assert.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.STree;
+import org.teiid.common.buffer.TupleSource;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.dqp.internal.process.CachedResults;
 import org.teiid.dqp.internal.process.QueryProcessorFactoryImpl;
@@ -44,13 +48,19 @@ import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.tempdata.GlobalTableStoreImpl;
+import org.teiid.query.tempdata.TempTable;
 import org.teiid.query.tempdata.TempTableDataManager;
 import org.teiid.query.tempdata.TempTableStore;
+import org.teiid.query.tempdata.TempTableTestHelper;
 import org.teiid.query.tempdata.GlobalTableStoreImpl.MatTableInfo;
 import org.teiid.query.tempdata.TempTableStore.TransactionMode;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 @SuppressWarnings({"nls", "unchecked"})
 public class TestMaterialization {
@@ -61,6 +71,7 @@ public class TestMaterialization {
 	private GlobalTableStoreImpl globalStore;
 	private ProcessorPlan previousPlan;
 	private HardcodedDataManager hdm;
+	private Options options;
 	
 	@Before public void setUp() {
 		tempStore = new TempTableStore("1", TransactionMode.ISOLATE_WRITES); //$NON-NLS-1$
@@ -83,6 +94,9 @@ public class TestMaterialization {
 		cc.setTempTableStore(tempStore);
 		cc.setGlobalTableStore(globalStore);
 		cc.setMetadata(metadata);
+		if (options != null) {
+			cc.setOptions(options);
+		}
 		CapabilitiesFinder finder = new DefaultCapabilitiesFinder();
 		previousPlan = TestProcessor.helpGetPlan(TestProcessor.helpParse(sql), metadata, finder, cc);
 		cc.setQueryProcessorFactory(new QueryProcessorFactoryImpl(BufferManagerFactory.getStandaloneBufferManager(), dataManager, finder, null, metadata));
@@ -169,5 +183,106 @@ public class TestMaterialization {
 	@Test public void testPrimaryKeyOnOtherColumn() throws Exception {
 		execute("SELECT * from vgroup7 where y is null", Arrays.asList("1", null, 1));
 	}
+	
+	@Test public void testIncrementalRefresh() throws Exception {
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		int count = this.globalStore.updateMatViewRows(matTableName, Arrays.asList(Arrays.asList("one"), Arrays.asList("missing")), 
+				Arrays.asList(Arrays.asList("two", "zxo"), Arrays.asList("four", "zour")));
+		assertEquals(3, count);
+		execute("SELECT * from vgroup3 order by x", Arrays.asList((String)null, (String)null), Arrays.asList("four", "zour"), Arrays.asList("three", "zhree"), Arrays.asList("two", "zxo"));
+		//the secondary index should reflect the changes
+		execute("SELECT * from vgroup3 where y in ('zne', 'zwo', 'zxo', 'zour') order by y desc", Arrays.asList("two", "zxo"), Arrays.asList("four", "zour"));
+		assertEquals(1, hdm.getCommandHistory().size());
+	}
+	
+	/**
+	 * The secondary index entries must be projected using the positions of the columns 
+	 * in the table rather than in the index
+	 */
+	@Test public void testUpdateRowSecondaryIndex() throws Exception {
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		assertEquals(Arrays.asList("two", "zwo"), this.globalStore.updateMatViewRow(matTableName, Arrays.asList("two"), true));
+		assertNull(this.globalStore.updateMatViewRow(matTableName, Arrays.asList("five", "zive"), false));
+		execute("SELECT * from vgroup3 where y = 'zwo'");
+		execute("SELECT * from vgroup3 where y in ('zne', 'zive') order by y", Arrays.asList("five", "zive"), Arrays.asList("one", "zne"));
+		assertEquals(1, hdm.getCommandHistory().size());
+	}
+	
+	@Test public void testCopyOnWriteReload() throws Exception {
+		options = new Options().copyOnWriteMatViewReload(true);
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", new List[] {Arrays.asList((String)null), Arrays.asList("one"), Arrays.asList("three"), Arrays.asList("four")});
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		this.globalStore.needsLoading(matTableName, this.globalStore.getAddress(), true, true, true);
+		execute("SELECT * from vgroup3 order by x", Arrays.asList((String)null, (String)null), Arrays.asList("four", "zour"), Arrays.asList("one", "zne"), Arrays.asList("three", "zhree"));
+		assertEquals(2, hdm.getCommandHistory().size());
+		execute("SELECT * from vgroup3 where y in ('zwo', 'zour')", Arrays.asList("four", "zour"));
+		
+		//load enough rows for several leaf pages
+		List<?>[] rows = new List<?>[2000];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = Arrays.asList(String.format("r%04d", i));
+		}
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", rows);
+		this.globalStore.needsLoading(matTableName, this.globalStore.getAddress(), true, true, true);
+		execute("SELECT count(*) from vgroup3", Arrays.asList(2000));
+		STree tree = TempTableTestHelper.getTree(TempTableTestHelper.getTempTable(this.globalStore.getTempTableStore(), matTableName));
+		Set<Long> batches = tree.getLeafBatches();
+		assertTrue(batches.size() > 1);
+		
+		//removing a single row should only rewrite its page
+		List<?>[] newRows = new List<?>[rows.length - 1];
+		System.arraycopy(rows, 0, newRows, 0, 1000);
+		System.arraycopy(rows, 1001, newRows, 1000, newRows.length - 1000);
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", newRows);
+		this.globalStore.needsLoading(matTableName, this.globalStore.getAddress(), true, true, true);
+		execute("SELECT count(*) from vgroup3", Arrays.asList(1999));
+		STree reloaded = TempTableTestHelper.getTree(TempTableTestHelper.getTempTable(this.globalStore.getTempTableStore(), matTableName));
+		assertNotSame(tree, reloaded);
+		Set<Long> shared = new HashSet<Long>(reloaded.getLeafBatches());
+		shared.retainAll(batches);
+		assertEquals(batches.size() - 1, shared.size());
+		execute("SELECT * from vgroup3 where x = 'r1000'");
+		execute("SELECT * from vgroup3 where x = 'r1001'", Arrays.asList("r1001", "z1001"));
+	}
+	
+	@Test public void testMultipleSecondaryIndexes() throws Exception {
+		execute("SELECT * from vgroup8 where y = 'zwo' and z = 3", Arrays.asList("two", "zwo", 3));
+		execute("SELECT * from vgroup8 where z = 3 order by x", Arrays.asList("one", "zne", 3), Arrays.asList("two", "zwo", 3));
+		execute("SELECT * from vgroup8 where z in (3, 5) and y in ('zne', 'zhree') order by x desc", Arrays.asList("three", "zhree", 5), Arrays.asList("one", "zne", 3));
+		execute("SELECT x from vgroup8 where z is null", Arrays.asList((String)null));
+		execute("SELECT x from vgroup8 where z = 4");
+		assertEquals(1, hdm.getCommandHistory().size());
+		//the indexes are maintained by row updates
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP8";
+		this.globalStore.updateMatViewRows(matTableName, Arrays.asList(Arrays.asList("one")), Arrays.asList(Arrays.asList("two", "zwo", 4)));
+		execute("SELECT * from vgroup8 where z = 3");
+		execute("SELECT * from vgroup8 where y = 'zwo' and z = 4", Arrays.asList("two", "zwo", 4));
+	}
+	
+	@Test public void testUpdateRowsWithActiveReader() throws Exception {
+		execute("SELECT * from vgroup8 where z = 3 order by x", Arrays.asList("one", "zne", 3), Arrays.asList("two", "zwo", 3));
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP8";
+		TempTable table = TempTableTestHelper.getTempTable(this.globalStore.getTempTableStore(), matTableName);
+		//a reader holds the table, so the changes are made to a copy
+		table.getActive().incrementAndGet();
+		try {
+			this.globalStore.updateMatViewRows(matTableName, Arrays.asList(Arrays.asList("one")), Arrays.asList(Arrays.asList("two", "zwo", 4)));
+			assertNotSame(table, TempTableTestHelper.getTempTable(this.globalStore.getTempTableStore(), matTableName));
+			List<ElementSymbol> columns = table.getColumns();
+			TupleSource ts = table.createTupleSource(columns, new CompareCriteria(columns.get(2), CompareCriteria.EQ, new Constant(3)), null);
+			assertEquals(Arrays.asList("one", "zne", 3), ts.nextTuple());
+			assertEquals(Arrays.asList("two", "zwo", 3), ts.nextTuple());
+			assertNull(ts.nextTuple());
+			ts.closeSource();
+		} finally {
+			table.getActive().decrementAndGet();
+		}
+		execute("SELECT * from vgroup8 where z = 3");
+		execute("SELECT * from vgroup8 where z in (3, 4)", Arrays.asList("two", "zwo", 4));
+		execute("SELECT * from vgroup8 where y = 'zne'");
+	}
     
 }
@@ -29,6 +29,7 @@ import static org.teiid.query.processor.TestProcessor.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import javax.sql.rowset.serial.SerialClob;
 
@@ -37,6 +38,7 @@ import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.ClobImpl;
 import org.teiid.core.types.ClobType;
 import org.teiid.core.types.InputStreamFactory;
+import org.teiid.core.util.ExecutorUtils;
 import org.teiid.core.util.UnitTestUtil;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.optimizer.TestOptimizer.ComparisonMode;
@@ -46,8 +48,13 @@ import org.teiid.query.optimizer.capabilities.FakeCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.NestedTableJoinStrategy;
+import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.RelationalPlan;
+import org.teiid.query.processor.relational.TextTableNode;
+import org.teiid.query.sql.lang.Command;
 import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 @SuppressWarnings({"unchecked", "nls"})
 public class TestTextTable {
@@ -421,4 +428,144 @@ public class TestTextTable {
         processPreparedStatement(sql, null, dataManager, new DefaultCapabilitiesFinder(), RealMetadataFactory.example1Cached(), Arrays.asList(new ClobType(new SerialClob(data))));
     }
 	
+	@Test public void testParallelParsing() throws Exception {
+    	String sql = "select * from texttable(? COLUMNS x string, y integer HEADER) x"; //$NON-NLS-1$
+    	
+    	RelationalPlan plan = helpProcessText(sql, getDelimitedText(20000, -1), getExpectedRows(20000), true, true);
+    	assertTrue(findTextTableNode(plan.getRootNode()).isOrdered());
+    }
+	
+	@Test public void testParallelParsingUnordered() throws Exception {
+    	String sql = "select * from texttable(? COLUMNS x string, y integer HEADER) x order by y"; //$NON-NLS-1$
+    	
+    	RelationalPlan plan = helpProcessText(sql, getDelimitedText(20000, -1), getExpectedRows(20000), true, true);
+    	assertFalse(findTextTableNode(plan.getRootNode()).isOrdered());
+    }
+	
+	@Test public void testParallelParsingWithoutExecutor() throws Exception {
+    	String sql = "select * from texttable(? COLUMNS x string, y integer HEADER) x"; //$NON-NLS-1$
+    	
+    	helpProcessText(sql, getDelimitedText(20000, -1), getExpectedRows(20000), true, false);
+    }
+	
+	@Test public void testParallelParsingFixedWidth() throws Exception {
+    	String sql = "select * from texttable(? COLUMNS x string width 6, y integer width 6) x"; //$NON-NLS-1$
+    	
+    	StringBuilder text = new StringBuilder();
+    	List[] expected = new List[20000];
+    	for (int i = 0; i < expected.length; i++) {
+    		String x = "a" + i;
+    		String y = String.valueOf(i);
+    		text.append(x);
+    		for (int j = x.length(); j < 6; j++) {
+    			text.append(' ');
+    		}
+    		for (int j = y.length(); j < 6; j++) {
+    			text.append(' ');
+    		}
+    		text.append(y).append(i%2==0?"\r\n":"\n");
+    		expected[i] = Arrays.asList(x, i);
+    	}
+    	helpProcessText(sql, text.toString(), expected, true, true);
+    }
+	
+	/**
+	 * The line numbers reported from a chunk should account for the lines of the preceding chunks
+	 */
+	@Test public void testParallelParsingErrorLine() throws Exception {
+    	String sql = "select * from texttable(? COLUMNS x string, y integer HEADER) x"; //$NON-NLS-1$
+    	
+    	//the bad value is past the first few 64k char chunks
+    	String text = getDelimitedText(20000, 15000);
+    	assertTrue(text.indexOf("bad") > 3 << 16); //$NON-NLS-1$
+    	String parallelMessage = null;
+    	try {
+    		helpProcessText(sql, text, null, true, true);
+    		fail();
+    	} catch (TeiidProcessingException e) {
+    		parallelMessage = e.getMessage();
+    	}
+    	try {
+    		helpProcessText(sql, text, null, false, true);
+    		fail();
+    	} catch (TeiidProcessingException e) {
+    		assertEquals(e.getMessage(), parallelMessage);
+    	}
+    	//the header is line 1 and each record spans two lines
+    	assertTrue(parallelMessage, parallelMessage.contains("text line 30003")); //$NON-NLS-1$
+    }
+	
+	@Test public void testParallelParsingOrderedPlanning() throws Exception {
+		String text = "select * from texttable(? COLUMNS x string, y integer) x"; //$NON-NLS-1$
+		assertTrue(isTextTableOrdered("select x from (" + text + ") as t where y > 1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(isTextTableOrdered("select x, count(*) from (" + text + ") as t group by x")); //$NON-NLS-1$ //$NON-NLS-2$
+		//the text order is not needed if the rows are sorted or have duplicates removed
+		assertFalse(isTextTableOrdered("select x from (" + text + ") as t where y > 1 order by x")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(isTextTableOrdered("select distinct x from (" + text + ") as t")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+	
+	private static boolean isTextTableOrdered(String sql) throws Exception {
+		ProcessorPlan plan = helpGetPlan(helpParse(sql), RealMetadataFactory.example1Cached());
+		return findTextTableNode(((RelationalPlan)plan).getRootNode()).isOrdered();
+	}
+	
+	/**
+	 * Create text with a header and records having a qualified value that spans lines
+	 * @param badRow the index of a row with an invalid integer value or -1
+	 */
+	private static String getDelimitedText(int rows, int badRow) {
+    	StringBuilder text = new StringBuilder("y,x\r\n");
+        for (int i = 0; i < rows; i++) {
+        	text.append(i == badRow?"bad":String.valueOf(i)).append(",\"a\r\nb").append(i).append("\"\r\n");
+        }
+        return text.toString();
+	}
+	
+	private static List[] getExpectedRows(int rows) {
+        List[] expected = new List[rows];
+        for (int i = 0; i < expected.length; i++) {
+        	expected[i] = Arrays.asList("ab" + i, i);
+        }
+        return expected;
+	}
+	
+	private static RelationalPlan helpProcessText(String sql, String text, List[] expected, boolean parallel, boolean useExecutor) throws Exception {
+        Command command = helpParse(sql);
+        QueryMetadataInterface metadata = RealMetadataFactory.example1Cached();
+        CommandContext context = createCommandContext();
+        context.setMetadata(metadata);
+        context.setOptions(new Options().parallelTextTable(parallel));
+        ExecutorService executor = null;
+        if (useExecutor) {
+        	executor = ExecutorUtils.newFixedThreadPool(2, "text"); //$NON-NLS-1$
+        }
+        context.setExecutor(executor);
+        try {
+	        ProcessorPlan plan = helpGetPlan(command, metadata, new DefaultCapabilitiesFinder(), context);
+	        setParameterValues(Arrays.asList(new ClobType(new SerialClob(text.toCharArray()))), command, context);
+	        helpProcess(plan, context, new FakeDataManager(), expected);
+	        return (RelationalPlan)plan;
+        } finally {
+        	if (executor != null) {
+        		executor.shutdownNow();
+        	}
+        }
+	}
+	
+	private static TextTableNode findTextTableNode(RelationalNode node) {
+		if (node instanceof TextTableNode) {
+			return (TextTableNode)node;
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			TextTableNode result = findTextTableNode(child);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+	
 }
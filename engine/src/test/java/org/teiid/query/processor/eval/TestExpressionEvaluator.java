@@ -41,6 +41,7 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.function.FunctionDescriptor;
 import org.teiid.query.parser.QueryParser;
@@ -49,7 +50,10 @@ import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.resolver.TestFunctionResolving;
 import org.teiid.query.sql.lang.CollectionValueIterator;
 import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.IsNullCriteria;
+import org.teiid.query.sql.lang.NotCriteria;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
 import org.teiid.query.sql.lang.SubqueryContainer;
@@ -484,4 +488,36 @@ public class TestExpressionEvaluator {
     	assertNull(new Evaluator(null, null, null).evaluateTVL(new CompareCriteria(new Array(DataTypeManager.DefaultDataClasses.INTEGER, Arrays.asList((Expression)new Constant(1))), CompareCriteria.EQ, new Array(DataTypeManager.DefaultDataClasses.INTEGER, Arrays.asList((Expression)new Constant(null)))), null));
     }
     
+    @Test public void testCompiled() throws Exception {
+    	ElementSymbol x = new ElementSymbol("x");
+    	x.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+    	ElementSymbol y = new ElementSymbol("y");
+    	y.setType(DataTypeManager.DefaultDataClasses.STRING);
+    	Map<Expression, Integer> elements = new HashMap<Expression, Integer>();
+    	elements.put(x, 0);
+    	elements.put(y, 1);
+    	
+    	Criteria crit = new CompoundCriteria(CompoundCriteria.AND, new CompareCriteria(x, CompareCriteria.GT, new Constant(1)), 
+    			new CompoundCriteria(CompoundCriteria.AND, new IsNullCriteria(y), new NotCriteria(new CompareCriteria(x, CompareCriteria.EQ, new Constant(3)))));
+    	SearchedCaseExpression expr = new SearchedCaseExpression(Arrays.asList(crit), Arrays.asList(TestFunctionResolving.getExpression("concat('a', 'b')")));
+    	expr.setElseExpression(y);
+    	CompiledExpression compiled = CompiledExpression.compile(expr, elements);
+    	assertTrue(compiled.isCompiled());
+    	
+    	Evaluator eval = new Evaluator(elements, null, null);
+    	Object[][] tuples = new Object[][] {{1, null}, {2, null}, {3, null}, {null, null}, {2, "c"}};
+    	for (Object[] tuple : tuples) {
+    		assertEquals(eval.evaluate(expr, Arrays.asList(tuple)), eval.evaluate(compiled, Arrays.asList(tuple)));
+    	}
+    	assertEquals("ab", eval.evaluate(compiled, Arrays.asList(2, null)));
+    	assertEquals("c", eval.evaluate(compiled, Arrays.asList(2, "c")));
+    }
+    
+    @Test public void testCompiledFallback() throws Exception {
+    	Expression ex = TestFunctionResolving.getExpression("'xay' similar to 'xa{2,}y'");
+    	CompiledExpression compiled = CompiledExpression.compile(ex, null);
+    	assertFalse(compiled.isCompiled());
+    	assertFalse(new Evaluator(null, null, null).evaluateCriteria(compiled, null));
+    }
+    
 }
@@ -28,8 +28,10 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 import org.teiid.common.buffer.BlockedException;
@@ -420,6 +422,76 @@ public class TestGroupingNode {
         helpProcess(mgr, node, context, expected, null);
     }
 
+    @Test public void testHashGrouping() throws Exception {
+        BufferManager mgr = BufferManagerFactory.getStandaloneBufferManager();
+
+        GroupingNode node = getExampleGroupingNode();     
+        node.setHashGrouping(true);
+        CommandContext context = new CommandContext("pid", "test", null, null,  1);               //$NON-NLS-1$ //$NON-NLS-2$
+        
+        //groups are output in the order they are first seen
+        List[] expected = new List[] {
+            Arrays.asList(new Object[] { new Integer(5), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(2) }),
+            Arrays.asList(new Object[] { null, new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(0), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(6), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(3), new Integer(1) })
+        };
+                
+        helpProcess(mgr, node, context, expected, null);
+    }
+    
+    @Test public void testHashGroupingSpill() throws Exception {
+    	BufferManagerImpl mgr = BufferManagerFactory.createBufferManager();
+        mgr.setProcessorBatchSize(1);
+        //no reserve is available, so the groups beyond the first batch must be spilled
+        mgr.setMaxProcessingKB(0);
+        mgr.setMaxReserveKB(0);
+
+        GroupingNode node = getExampleGroupingNode();     
+        node.setHashGrouping(true);
+        CommandContext context = new CommandContext("pid", "test", null, null,  1);               //$NON-NLS-1$ //$NON-NLS-2$
+        
+        FakeTupleSource dataSource = createTupleSource1();
+        RelationalNode dataNode = new FakeRelationalNode(0, dataSource, mgr.getProcessorBatchSize());
+        dataNode.setElements(dataSource.getSchema());            
+        node.addChild(dataNode);    
+        node.initialize(context, mgr, null);
+        node.open();
+        
+        Set<List<?>> actual = new HashSet<List<?>>();
+        int rowCount = 0;
+        while(true) {
+        	try {
+	            TupleBatch batch = node.nextBatch();
+	            actual.addAll(batch.getTuples());
+	            rowCount += batch.getRowCount();
+	            if(batch.getTerminationFlag()) {
+	                break;
+	            }
+            } catch (BlockedException e) {
+                //ignore
+            }
+        }
+        
+        List[] expected = new List[] {
+            Arrays.asList(new Object[] { null, new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(0), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(3), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(5), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(6), new Integer(2) })
+        };
+        assertEquals(expected.length, rowCount);
+        assertEquals(new HashSet<List>(Arrays.asList(expected)), actual);
+        node.close();
+    }
+
 	private GroupingNode getExampleGroupingNode() {
 		GroupingNode node = new GroupingNode(1);
         List outputElements = new ArrayList();
@@ -26,6 +26,8 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -232,6 +234,10 @@ public class TestJoinNode {
     }
     
     public void helpTestJoinDirect(List[] expectedResults, int batchSize, int processingBytes) throws TeiidComponentException, TeiidProcessingException {
+    	helpTestJoinDirect(expectedResults, batchSize, processingBytes, true);
+    }
+    
+    public void helpTestJoinDirect(List[] expectedResults, int batchSize, int processingBytes, boolean ordered) throws TeiidComponentException, TeiidProcessingException {
         BufferManagerImpl mgr = BufferManagerFactory.getTestBufferManager(processingBytes, batchSize);
         mgr.setTargetBytesPerRow(100);
         CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
@@ -245,13 +251,17 @@ public class TestJoinNode {
         
         join.open();
         
+        List<List> actual = new ArrayList<List>();
         int currentRow = 1;
         while(true) {
             try {
                 TupleBatch batch = join.nextBatch();
                 for(;currentRow <= batch.getEndRow(); currentRow++) {
                     List tuple = batch.getTuple(currentRow);
-                    assertEquals("Rows don't match at " + currentRow, expectedResults[currentRow-1], tuple); //$NON-NLS-1$
+                    if (ordered) {
+                    	assertEquals("Rows don't match at " + currentRow, expectedResults[currentRow-1], tuple); //$NON-NLS-1$
+                    }
+                    actual.add(tuple);
                 }
                 if(batch.getTerminationFlag()) {
                     break;
@@ -261,6 +271,18 @@ public class TestJoinNode {
             }
         }
         assertEquals(expectedResults.length, currentRow - 1);
+        if (!ordered) {
+        	Comparator<List> comparator = new Comparator<List>() {
+        		@Override
+        		public int compare(List o1, List o2) {
+        			return String.valueOf(o1).compareTo(String.valueOf(o2));
+        		}
+			};
+			List<List> sortedExpected = new ArrayList<List>(Arrays.asList(expectedResults));
+			Collections.sort(sortedExpected, comparator);
+			Collections.sort(actual, comparator);
+			assertEquals(sortedExpected, actual);
+        }
         join.close(); 
     }
     
@@ -831,4 +853,98 @@ public class TestJoinNode {
         helpTestJoinDirect(expected, 4, 1000);
     }
 
+    @Test public void testHashJoin() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        //the right side is the build side and the order is determined by the left
+        expected = new List[] {
+        	Arrays.asList(2, 2),
+        	Arrays.asList(2, 2),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(1, 1),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        };
+        for (int batchSize : new int[] {1, 10, 100}) {
+	        helpCreateJoin();               
+	        this.joinStrategy = new HashJoinStrategy();
+	        this.join.setJoinStrategy(joinStrategy);
+	        helpTestJoinDirect(expected, batchSize, 100000);
+        }
+    }
+    
+    @Test public void testHashJoinNoRows() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        this.rightTuples = new List[] {};
+        expected = new List[] {};
+        helpCreateJoin();               
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        helpTestJoinDirect(expected, 100, 100000);
+    }
+    
+    @Test public void testHashJoinPartitioned() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        int rows = 69;
+        List[] data = new List[rows];
+        for(int i=0; i<rows; i++) { 
+            data[i]=Arrays.asList((i*17) % 91);
+        }
+        data[6] = Arrays.asList((Integer)null);
+        this.rightTuples = data;
+        this.leftTuples = new List[17];
+        for (int i = 0; i < this.leftTuples.length; i++) {
+        	this.leftTuples[i] = Arrays.asList(i*4);
+        }
+        this.leftTuples[3] = Arrays.asList(0);
+        this.leftTuples[11] = Arrays.asList((Integer)null);
+        
+        expected = new List[] {
+        		Arrays.asList(64, 64),
+        		Arrays.asList(36, 36),
+        		Arrays.asList(8, 8),
+        		Arrays.asList(48, 48),
+        		Arrays.asList(20, 20),
+        		Arrays.asList(60, 60),
+        		Arrays.asList(32, 32),
+        		Arrays.asList(4, 4),
+        		Arrays.asList(16, 16),
+        		Arrays.asList(56, 56),
+        		Arrays.asList(28, 28),
+        		Arrays.asList(0, 0),
+        		Arrays.asList(0, 0),
+        };
+        helpCreateJoin();               
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        //with no processing memory both sides will be partitioned
+        helpTestJoinDirect(expected, 4, 1, false);
+    }
+    
+    @Test public void testHashJoinSkewedPartition() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        //all of the build rows share a key, so they cannot fit in a single hash table
+        this.rightTuples = new List[30];
+        for (int i = 0; i < this.rightTuples.length; i++) {
+        	this.rightTuples[i] = Arrays.asList(i == 29?2:1);
+        }
+        this.leftTuples = new List[] {
+        	Arrays.asList(1),
+        	Arrays.asList(2),
+        	Arrays.asList(1),
+        	Arrays.asList(3),
+        	Arrays.asList(1),
+        };
+        List<List<Integer>> result = new ArrayList<List<Integer>>();
+        for (int i = 0; i < 29 * 3; i++) {
+        	result.add(Arrays.asList(1, 1));
+        }
+        result.add(Arrays.asList(2, 2));
+        expected = result.toArray(new List[result.size()]);
+        helpCreateJoin();               
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        helpTestJoinDirect(expected, 4, 1, false);
+    }
+
 }
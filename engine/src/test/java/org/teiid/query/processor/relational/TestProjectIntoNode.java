@@ -61,6 +61,10 @@ public class TestProjectIntoNode {
     private static final int NUM_ROWS = 1000;
 
     private void helpTestNextBatch(int tupleBatchSize, Mode mode) throws Exception {
+    	helpTestNextBatch(tupleBatchSize, mode, 0);
+    }
+    
+    private int helpTestNextBatch(int tupleBatchSize, Mode mode, int chunkSize) throws Exception {
         
         ProjectIntoNode node = new ProjectIntoNode(2);
         
@@ -76,12 +80,13 @@ public class TestProjectIntoNode {
         node.setIntoElements(elements); 
         child.setElements(elements);
         node.setMode(mode);
+        node.setChunkSize(chunkSize);
         node.setModelName("myModel"); //$NON-NLS-1$
         
         CommandContext context = new CommandContext();
         context.setProcessorID("processorID"); //$NON-NLS-1$
         BufferManager bm = BufferManagerFactory.getTestBufferManager(tupleBatchSize, tupleBatchSize);
-        ProcessorDataManager dataManager = new FakePDM(tupleBatchSize);
+        FakePDM dataManager = new FakePDM(tupleBatchSize);
         
         child.initialize(context, bm, dataManager);
         node.initialize(context, bm, dataManager);
@@ -105,6 +110,7 @@ public class TestProjectIntoNode {
         assertEquals(1, columns.length);
         // Should have inserted all rows
         assertEquals(new Integer(NUM_ROWS), columns[0]);
+        return dataManager.callCount;
     }
 
     @Test public void testNextBatch() throws Exception {
@@ -123,9 +129,14 @@ public class TestProjectIntoNode {
         helpTestNextBatch(100, Mode.ITERATOR);
     }
     
+    @Test public void testNextBatch_IteratorStreaming() throws Exception {
+        assertEquals(4, helpTestNextBatch(100, Mode.ITERATOR, 300));
+    }
+    
     private static final class FakePDM implements ProcessorDataManager {
         private int expectedBatchSize;
         private int callCount = 0;
+        private int rowCount = 0;
         private FakePDM(int expectedBatchSize) {
             this.expectedBatchSize = expectedBatchSize;
         }
@@ -149,11 +160,11 @@ public class TestProjectIntoNode {
             	} else if (insert.getTupleSource() != null) {
             		TupleSource ts = insert.getTupleSource();
             		List tuple = null;
-            		int i = 0;
+            		batchSize = 0;
             		while ((tuple = ts.nextTuple()) != null) {
-                		ensureValue2(tuple, 2, ++i);
+                		ensureValue2(tuple, 2, ++rowCount);
+                		batchSize++;
             		}
-            		batchSize = i;
             	} else {
             		ensureValue(insert, 2, callCount);
             	}
@@ -48,11 +48,14 @@ import org.teiid.query.sql.symbol.ExpressionSymbol;
 import org.teiid.query.sql.symbol.Function;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 
 /**
  */
 public class TestProjectNode extends TestCase {
+	
+	private Options options;
 
     /**
      * Constructor for TestSortNode.
@@ -65,6 +68,9 @@ public class TestProjectNode extends TestCase {
     public ProjectNode helpSetupProject(List elements, List[] data, List childElements, ProcessorDataManager dataMgr) throws TeiidComponentException {
         BufferManager mgr = BufferManagerFactory.getStandaloneBufferManager();
         CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+        if (options != null) {
+        	context.setOptions(options);
+        }
         
         FakeRelationalNode dataNode = new FakeRelationalNode(2, data);
         dataNode.setElements(childElements);
@@ -229,6 +235,37 @@ public class TestProjectNode extends TestCase {
         helpTestProject(projectElements, data, elements, expected, null);        
     }
 
+    public void testProjectExpressionVectorized() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.STRING);       
+        ElementSymbol es2 = new ElementSymbol("e2"); //$NON-NLS-1$
+        es2.setType(DataTypeManager.DefaultDataClasses.INTEGER);       
+        List elements = new ArrayList();
+        elements.add(es1);
+        elements.add(es2);
+        
+        Function func = new Function("concat", new Expression[] { es1, new Constant("abc")}); //$NON-NLS-1$ //$NON-NLS-2$
+        FunctionDescriptor fd = RealMetadataFactory.SFM.getSystemFunctionLibrary().findFunction("concat", new Class[] { DataTypeManager.DefaultDataClasses.STRING, DataTypeManager.DefaultDataClasses.STRING }); //$NON-NLS-1$
+        func.setFunctionDescriptor(fd);
+        func.setType(DataTypeManager.DefaultDataClasses.STRING);
+        ExpressionSymbol expr = new ExpressionSymbol("expr", func); //$NON-NLS-1$
+        List projectElements = new ArrayList();
+        projectElements.add(expr);
+        projectElements.add(es2);
+        
+        List[] data = new List[] { 
+            Arrays.asList(new Object[] { "1", 1 }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { "2", null }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { null, 3 }) }; 
+        List[] expected = new List[] { 
+            Arrays.asList(new Object[] { "1abc", 1 }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { "2abc", null }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { null, 3 }) }; 
+
+        options = new Options().vectorizedEvaluation(true);
+        helpTestProject(projectElements, data, elements, expected, null);        
+    }
+
     public void testProjectExpressionFunctionFails() throws Exception {
         ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
         es1.setType(DataTypeManager.DefaultDataClasses.STRING);       
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
@@ -45,13 +46,16 @@ import org.teiid.query.processor.FakeDataManager;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
 import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.Function;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 @SuppressWarnings("unchecked")
 public class TestSelectNode {
@@ -270,5 +274,112 @@ public class TestSelectNode {
 
         helpTestSelect(elements, crit, data, childElements, dataMgr, expected);
 
-    }    
+    }
+    
+    @Test public void testCompiledCriteria() throws TeiidComponentException, TeiidProcessingException {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+
+        ElementSymbol es2 = new ElementSymbol("e2"); //$NON-NLS-1$
+        es2.setType(DataTypeManager.DefaultDataClasses.STRING);
+        
+        List elements = new ArrayList();
+        elements.add(es1);
+        
+        Criteria crit = new CompoundCriteria(CompoundCriteria.OR, new CompareCriteria(es1, CompareCriteria.EQ, new Constant(new Integer(1))), new IsNullCriteria(es2));
+        
+        List[] data = new List[] {
+        	Arrays.asList(1, "a"), //$NON-NLS-1$
+        	Arrays.asList(2, "b"), //$NON-NLS-1$
+        	Arrays.asList(3, null)
+        };
+        
+        List childElements = new ArrayList();
+        childElements.add(es1);
+        childElements.add(es2);
+        
+        List[] expected = new List[] {
+            Arrays.asList(1),            
+            Arrays.asList(3)                      
+        };
+        
+        helpTestSelect(elements, crit, childElements, null, expected, new FakeRelationalNode(2, data), new SelectNode(3) {
+        	@Override
+        	public void initialize(CommandContext context,
+        			BufferManager bufferManager, ProcessorDataManager dataMgr) {
+        		context.setOptions(new Options().compileExpressions(true));
+        		super.initialize(context, bufferManager, dataMgr);
+        	}
+        });
+    }
+    
+    @Test public void testVectorizedCriteria() throws TeiidComponentException, TeiidProcessingException {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+
+        ElementSymbol es2 = new ElementSymbol("e2"); //$NON-NLS-1$
+        es2.setType(DataTypeManager.DefaultDataClasses.STRING);
+        
+        List elements = new ArrayList();
+        elements.add(es2);
+        
+        IsNullCriteria isNull = new IsNullCriteria(es2);
+        isNull.setNegated(true);
+        Criteria crit = new CompoundCriteria(CompoundCriteria.AND, new CompareCriteria(es1, CompareCriteria.GE, new Constant(new Integer(2))), isNull);
+        
+        final List[] data = new List[] {
+        	Arrays.asList(1, "a"), //$NON-NLS-1$
+        	Arrays.asList(2, "b"), //$NON-NLS-1$
+        	Arrays.asList(3, null),
+        	Arrays.asList(null, "d"), //$NON-NLS-1$
+        	Arrays.asList(5, "e") //$NON-NLS-1$
+        };
+        
+        final List childElements = new ArrayList();
+        childElements.add(es1);
+        childElements.add(es2);
+        
+        List[] expected = new List[] {
+            Arrays.asList("b"), //$NON-NLS-1$
+            Arrays.asList("e") //$NON-NLS-1$
+        };
+        
+        helpTestSelect(elements, crit, childElements, null, expected, new FakeRelationalNode(2, data), new VectorizedSelectNode());
+        
+        //columnar batches use the typed comparison
+        RelationalNode child = new RelationalNode(0) {
+    		int i = 0;
+    		
+			@Override
+			public Object clone() {
+				return null;
+			}
+
+			@Override
+			protected TupleBatch nextBatchDirect() throws BlockedException,
+					TeiidComponentException, TeiidProcessingException {
+				if (i++ == 0) {
+					return new TupleBatch(1, ColumnarBatch.create(new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER, DataTypeManager.DefaultDataClasses.STRING}, Arrays.asList(data)));
+				}
+				TupleBatch batch = new TupleBatch(6, new List[0] );
+				batch.setTerminationFlag(true);
+				return batch;
+			}
+    	};
+    	helpTestSelect(elements, crit, childElements, null, expected, child, new VectorizedSelectNode());
+    }
+    
+    private static class VectorizedSelectNode extends SelectNode {
+    	VectorizedSelectNode() {
+    		super(3);
+    	}
+    	
+    	@Override
+    	public void initialize(CommandContext context,
+    			BufferManager bufferManager, ProcessorDataManager dataMgr) {
+    		context.setOptions(new Options().vectorizedEvaluation(true));
+    		super.initialize(context, bufferManager, dataMgr);
+    	}
+    }
+
 }
@@ -27,6 +27,9 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.teiid.common.buffer.BlockedException;
@@ -36,9 +39,11 @@ import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.ExecutorUtils;
 import org.teiid.query.processor.FakeDataManager;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 
 /**
@@ -110,6 +115,10 @@ public class TestUnionAllNode {
     }
 
     public void helpTestUnionConfigs(int sources, int blockModIndex, int rowsPerSource, int batchSize, List[] expected) throws TeiidComponentException, TeiidProcessingException {
+    	helpTestUnionConfigs(sources, blockModIndex, rowsPerSource, batchSize, expected, false);
+    }
+    
+    public void helpTestUnionConfigs(int sources, int blockModIndex, int rowsPerSource, int batchSize, List[] expected, boolean ordered) throws TeiidComponentException, TeiidProcessingException {
         ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
         es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
 
@@ -140,6 +149,7 @@ public class TestUnionAllNode {
 
         UnionAllNode union = new UnionAllNode(nodes.length);
         union.setElements(unionElements);
+        union.setOrdered(ordered);
         
         helpTestUnion(nodes, union, expected);           
     }
@@ -224,5 +234,159 @@ public class TestUnionAllNode {
 
         helpTestUnionConfigs(3, 1, 6, 1, expected);       
     }    
+    
+    @Test public void testOrderedMultiBatchAllBlocking() throws TeiidComponentException, TeiidProcessingException {
+        List expected[] = new List[18];
+        for (int i = 0; i < expected.length; i++) {
+        	expected[i] = Arrays.asList(i/6);
+        }
+
+        helpTestUnionConfigs(3, 1, 6, 1, expected, true);       
+    }    
+
+    @Test public void testParallel() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        
+        RelationalNode[] nodes = new RelationalNode[4];
+        for(int i=0; i<nodes.length; i++) {
+            List[] tuples = new List[5];
+            for(int r = 0; r<tuples.length; r++) {
+                tuples[r] = Arrays.asList(i);
+            }
+            if (i % 2 == 0) {
+            	nodes[i] = new BlockingFakeRelationalNode(i, tuples, 1);
+            } else {
+            	nodes[i] = new FakeRelationalNode(i, tuples, 2);
+            }
+            nodes[i].setElements(Arrays.asList(es1));           
+        }
+        
+        UnionAllNode union = new UnionAllNode(nodes.length) {
+        	@Override
+        	protected boolean isParallelSafe(RelationalNode node) {
+        		return true;
+        	}
+        };
+        union.setElements(Arrays.asList(es1));
+        
+        BufferManager mgr = BufferManagerFactory.getTestBufferManager(1, 2);
+        CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+        context.setOptions(new Options().parallelUnion(true));
+        ExecutorService executor = ExecutorUtils.newFixedThreadPool(2, "union"); //$NON-NLS-1$
+        context.setExecutor(executor);
+        FakeDataManager fdm = new FakeDataManager();
+        for(int i=0; i<nodes.length; i++) {
+            union.addChild(nodes[i]);
+            nodes[i].initialize(context, mgr, fdm);
+        }
+        union.initialize(context, mgr, fdm);
+        
+        try {
+	        union.open();
+	        int[] counts = new int[nodes.length];
+	        int currentRow = 1;
+	        while(true) {
+	            try {
+	                TupleBatch batch = union.nextBatch();
+	                assertEquals(currentRow, batch.getBeginRow());
+	                for (List<?> tuple : batch.getTuples()) {
+	                	counts[(Integer)tuple.get(0)]++;
+	                }
+	                currentRow += batch.getRowCount();    
+	                if(batch.getTerminationFlag()) {
+	                    break;
+	                }
+	            } catch(BlockedException e) {
+	                // ignore and retry
+	            }
+	        }
+	        union.close();
+	        assertEquals(21, currentRow);
+	        assertEquals("[5, 5, 5, 5]", Arrays.toString(counts)); //$NON-NLS-1$
+        } finally {
+        	executor.shutdownNow();
+        }
+    }
+
+    @Test public void testParallelCloseWhileRunning() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(2);
+        final Thread[] closingThreads = new Thread[2];
+        RelationalNode[] nodes = new RelationalNode[2];
+        for(int i=0; i<nodes.length; i++) {
+        	final int index = i;
+            nodes[i] = new FakeRelationalNode(i, new List[] {Arrays.asList(i)}, 1) {
+            	@Override
+            	public TupleBatch nextBatchDirect() throws BlockedException,
+            			TeiidComponentException, TeiidProcessingException {
+            		entered.countDown();
+            		try {
+            			release.await();
+            		} catch (InterruptedException e) {
+            			throw new TeiidComponentException(e);
+            		}
+            		return super.nextBatchDirect();
+            	}
+            	
+            	@Override
+            	public void closeDirect() {
+            		closingThreads[index] = Thread.currentThread();
+            		closed.countDown();
+            	}
+            };
+            nodes[i].setElements(Arrays.asList(es1));           
+        }
+        
+        UnionAllNode union = new UnionAllNode(nodes.length) {
+        	@Override
+        	protected boolean isParallelSafe(RelationalNode node) {
+        		return true;
+        	}
+        };
+        union.setElements(Arrays.asList(es1));
+        
+        BufferManager mgr = BufferManagerFactory.getTestBufferManager(1, 2);
+        CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+        context.setOptions(new Options().parallelUnion(true));
+        //a single thread, so that the second branch is still waiting when the union is closed
+        ExecutorService executor = ExecutorUtils.newFixedThreadPool(1, "union"); //$NON-NLS-1$
+        context.setExecutor(executor);
+        FakeDataManager fdm = new FakeDataManager();
+        for(int i=0; i<nodes.length; i++) {
+            union.addChild(nodes[i]);
+            nodes[i].initialize(context, mgr, fdm);
+        }
+        union.initialize(context, mgr, fdm);
+        
+        try {
+	        union.open();
+	        try {
+	        	union.nextBatch();
+	        	fail();
+	        } catch (BlockedException e) {
+	        	//expected
+	        }
+	        assertTrue(entered.await(10, TimeUnit.SECONDS));
+	        
+	        //close must not wait for the running branch
+	        union.close();
+	        assertEquals(1, closed.getCount());
+	        assertSame(Thread.currentThread(), closingThreads[1]);
+	        assertNull(closingThreads[0]);
+	        
+	        //the running branch closes its own child once it stops
+	        release.countDown();
+	        assertTrue(closed.await(10, TimeUnit.SECONDS));
+	        assertNotSame(Thread.currentThread(), closingThreads[0]);
+        } finally {
+        	release.countDown();
+        	executor.shutdownNow();
+        }
+    }
 
 }
@@ -480,6 +480,18 @@ public class RealMetadataFactory {
         
         createKey(KeyRecord.Type.Primary, "pk", vGroup7, vElements7.subList(1, 2));
         
+        //multiple secondary indexes
+        QueryNode vTrans8 = new QueryNode("SELECT x, 'z' || substring(x, 2) as y, length(x) as z FROM matsrc");         //$NON-NLS-1$ //$NON-NLS-2$
+        Table vGroup8 = createVirtualGroup("VGroup8", virtModel, vTrans8); //$NON-NLS-1$
+        vGroup8.setMaterialized(true);
+        List<Column> vElements8 = createElements(vGroup8,
+                                      new String[] { "x", "y", "z" }, //$NON-NLS-1$
+                                      new String[] { DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.INTEGER});
+        
+        createKey(KeyRecord.Type.Primary, "pk", vGroup8, vElements8.subList(0, 1));
+        createKey(KeyRecord.Type.Index, "idx", vGroup8, vElements8.subList(1, 2)); //$NON-NLS-1$
+        createKey(KeyRecord.Type.Index, "idx1", vGroup8, vElements8.subList(2, 3)); //$NON-NLS-1$
+        
         Schema sp = createVirtualModel("sp", metadataStore); //$NON-NLS-1$
         ColumnSet<Procedure> rs = createResultSet("sp1.vsprs1", new String[] { "StringKey" }, new String[] { DataTypeManager.DefaultDataTypes.STRING }); //$NON-NLS-1$ //$NON-NLS-2$
         ProcedureParameter param = createParameter("param1", ParameterInfo.IN, DataTypeManager.DefaultDataTypes.STRING); //$NON-NLS-1$
@@ -127,6 +127,7 @@ public class TeiidExtension implements Extension {
 		new CacheTypes().register(teiidSubsystem);
 		new ClearCache().register(teiidSubsystem);
 		new CacheStatistics().register(teiidSubsystem);
+		new MetadataCacheStatistics().register(teiidSubsystem);
 		new AddDataRole().register(teiidSubsystem);
 		new RemoveDataRole().register(teiidSubsystem);
 		new AddAnyAuthenticatedDataRole().register(teiidSubsystem);
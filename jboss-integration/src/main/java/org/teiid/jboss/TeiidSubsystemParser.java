@@ -137,6 +137,7 @@ class TeiidSubsystemParser implements XMLStreamConstants, XMLElementReader<List<
     	writeAttribute(writer, Element.TRANSPORT_MAX_SOCKET_THREADS_ATTRIBUTE, node);
     	writeAttribute(writer, Element.TRANSPORT_IN_BUFFER_SIZE_ATTRIBUTE, node);
     	writeAttribute(writer, Element.TRANSPORT_OUT_BUFFER_SIZE_ATTRIBUTE, node);
+    	writeAttribute(writer, Element.TRANSPORT_RESULTS_COMPRESSION_ATTRIBUTE, node);
     	
     	// authentication
     	if (like(node, Element.AUTHENTICATION_ELEMENT)) {
@@ -406,6 +407,9 @@ class TeiidSubsystemParser implements XMLStreamConstants, XMLElementReader<List<
     			case TRANSPORT_OUT_BUFFER_SIZE_ATTRIBUTE:
     				node.get(element.getModelName()).set(Integer.parseInt(attrValue));
     				break;
+    			case TRANSPORT_RESULTS_COMPRESSION_ATTRIBUTE:
+    				node.get(element.getModelName()).set(Boolean.parseBoolean(attrValue));
+    				break;
                 default: 
                     throw ParseUtils.unexpectedAttribute(reader, i);    				
     			}
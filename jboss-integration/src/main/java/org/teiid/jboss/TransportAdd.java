@@ -74,6 +74,7 @@ class TransportAdd extends AbstractAddStepHandler implements DescriptionProvider
 		Element.TRANSPORT_MAX_SOCKET_THREADS_ATTRIBUTE,
 		Element.TRANSPORT_IN_BUFFER_SIZE_ATTRIBUTE,
 		Element.TRANSPORT_OUT_BUFFER_SIZE_ATTRIBUTE,
+		Element.TRANSPORT_RESULTS_COMPRESSION_ATTRIBUTE,
 		
 		Element.AUTHENTICATION_SECURITY_DOMAIN_ATTRIBUTE,
 		Element.AUTHENTICATION_MAX_SESSIONS_ALLOWED_ATTRIBUTE,
@@ -245,6 +246,10 @@ class TransportAdd extends AbstractAddStepHandler implements DescriptionProvider
     		socket.setOutputBufferSize(Element.TRANSPORT_OUT_BUFFER_SIZE_ATTRIBUTE.asInt(node, context));
     	}		   
     	
+    	if (Element.TRANSPORT_RESULTS_COMPRESSION_ATTRIBUTE.isDefined(node)) {
+    		socket.setResultsCompression(Element.TRANSPORT_RESULTS_COMPRESSION_ATTRIBUTE.asBoolean(node, context));
+    	}
+    	
     	SSLConfiguration ssl = new SSLConfiguration();
 
     	if (Element.SSL_MODE_ATTRIBUTE.isDefined(node)) {
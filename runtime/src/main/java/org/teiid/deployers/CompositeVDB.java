@@ -261,6 +261,9 @@ public class CompositeVDB {
 		MetadataStore mergedStore = getMetadataStore();
 		
 		TransformationMetadata metadata = buildTransformationMetaData(mergedVDB, getVisibilityMap(), mergedStore, getUDF(), systemFunctions, this.additionalStores);
+		if (Boolean.valueOf(mergedVDB.getPropertyValue(TransformationMetadata.METADATA_CACHE_WARMUP))) {
+			metadata.warmCaches();
+		}
 		QueryMetadataInterface qmi = metadata;
         Map<String, String> multiSourceModels = MultiSourceMetadataWrapper.getMultiSourceModels(vdb);
         if(multiSourceModels != null && !multiSourceModels.isEmpty()) {
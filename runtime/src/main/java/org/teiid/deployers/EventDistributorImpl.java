@@ -63,6 +63,23 @@ public abstract class EventDistributorImpl implements EventDistributor {
 		}
 	}
 	
+	@Override
+	public void updateMatViewRows(String vdbName, int vdbVersion,
+			String schema, String viewName, List<? extends List<?>> deletes,
+			List<? extends List<?>> upserts) {
+		VDBMetaData metadata = getVdbRepository().getLiveVDB(vdbName, vdbVersion);
+		if (metadata != null) {
+			GlobalTableStore gts = metadata.getAttachment(GlobalTableStore.class);
+			if (gts != null) {
+				try {
+					gts.updateMatViewRows((RelationalPlanner.MAT_PREFIX + schema + '.' + viewName).toUpperCase(), deletes, upserts);
+				} catch (TeiidComponentException e) {
+					LogManager.logError(LogConstants.CTX_RUNTIME, e, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40013, "updateMatViewRows")); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+	
 	@Override
 	public void dataModification(String vdbName, int vdbVersion, String schema,	String... tableNames) {
 		updateModified(true, vdbName, vdbVersion, schema, tableNames);
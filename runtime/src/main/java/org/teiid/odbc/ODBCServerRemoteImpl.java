@@ -491,6 +491,7 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
                     	ResultsFuture<Integer> result = new ResultsFuture<Integer>();
 		                if (future.get()) {
 		                	List<PgColInfo> cols = getPgColInfo(stmt.getResultSet().getMetaData());
+		                	setFormats(cols, query.resultColumnFormat);
                             client.sendResults(query.sql, stmt.getResultSet(), cols, result, false);
 		                } else {
 		                	client.sendUpdateCount(query.sql, stmt.getUpdateCount());
@@ -719,6 +720,7 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
 		else {
 			try {
 				List<PgColInfo> cols = getPgColInfo(query.stmt.getMetaData());
+				setFormats(cols, query.resultColumnFormat);
 				this.client.sendResultSetDescription(cols);
 			} catch (SQLException e) {
 				errorOccurred(e);
@@ -954,6 +956,29 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
 		}
 	}
 
+	/**
+	 * Apply the requested result column format codes.  No codes means all text,
+	 * a single code applies to all columns, otherwise there is a code per column.
+	 * Binary is only used for the types that have a binary encoding.
+	 */
+	static void setFormats(List<PgColInfo> cols, int[] resultColumnFormat) {
+		if (cols == null || resultColumnFormat == null || resultColumnFormat.length == 0) {
+			return;
+		}
+		for (int i = 0; i < cols.size(); i++) {
+			PgColInfo info = cols.get(i);
+			int format = TEXT_FORMAT;
+			if (resultColumnFormat.length == 1) {
+				format = resultColumnFormat[0];
+			} else if (i < resultColumnFormat.length) {
+				format = resultColumnFormat[i];
+			}
+			if (format == BINARY_FORMAT && supportsBinary(info.type)) {
+				info.format = BINARY_FORMAT;
+			}
+		}
+	}
+	
 	/**
 	 * @see PgCatalogMetadataStore add_pg_attribute for mod calculation
 	 */
@@ -51,6 +51,9 @@ public class PGUtil {
 	public static final int PG_TYPE_NUMERIC = 1700;
     //private static final int PG_TYPE_LO = 14939;
     
+	public static final short TEXT_FORMAT = 0;
+	public static final short BINARY_FORMAT = 1;
+	
 	public static class PgColInfo {
 		public String name;
 		public int reloid;
@@ -58,8 +61,33 @@ public class PGUtil {
 		public int type;
 		public int precision;
 		public int mod = -1;
+		public short format = TEXT_FORMAT;
 	}
 		
+	/**
+	 * @return true if values of the pg type may be sent in the binary format
+	 */
+	public static boolean supportsBinary(int pgType) {
+		switch (pgType) {
+		case PG_TYPE_BOOL:
+		case PG_TYPE_BYTEA:
+		case PG_TYPE_BPCHAR:
+		case PG_TYPE_VARCHAR:
+		case PG_TYPE_TEXT:
+		case PG_TYPE_INT2:
+		case PG_TYPE_INT4:
+		case PG_TYPE_INT8:
+		case PG_TYPE_FLOAT4:
+		case PG_TYPE_FLOAT8:
+		case PG_TYPE_NUMERIC:
+		case PG_TYPE_DATE:
+		case PG_TYPE_TIME:
+		case PG_TYPE_TIMESTAMP_NO_TMZONE:
+			return true;
+		}
+		return false;
+	}
+	
 	/**
 	 * Types.ARRAY is not supported
 	 */
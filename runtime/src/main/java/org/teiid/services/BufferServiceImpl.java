@@ -66,6 +66,9 @@ public class BufferServiceImpl implements BufferService, Serializable {
     private long memoryBufferSpace = -1;
     private int maxStorageObjectSize = BufferFrontedFileStoreCache.DEFAuLT_MAX_OBJECT_SIZE;
     private boolean memoryBufferOffHeap;
+    private boolean columnarBatches;
+    private int evictionSegments = 1;
+    private boolean mappedReads;
 	private FileStorageManager fsm;
 	
     /**
@@ -85,6 +88,8 @@ public class BufferServiceImpl implements BufferService, Serializable {
             this.bufferMgr.setMaxReserveKB(this.maxReserveKb);
             this.bufferMgr.setMaxProcessingKB(this.maxProcessingKb);
             this.bufferMgr.setInlineLobs(inlineLobs);
+            this.bufferMgr.setColumnarBatches(columnarBatches);
+            this.bufferMgr.setEvictionSegments(evictionSegments);
             this.bufferMgr.initialize();
             
             // If necessary, add disk storage manager
@@ -106,6 +111,8 @@ public class BufferServiceImpl implements BufferService, Serializable {
                 BufferFrontedFileStoreCache fsc = new BufferFrontedFileStoreCache();
                 fsc.setMaxStorageObjectSize(maxStorageObjectSize);
                 fsc.setDirect(memoryBufferOffHeap);
+                fsc.setEvictionSegments(evictionSegments);
+                fsc.setMappedReads(mappedReads);
                 int batchOverheadKB = (int)(this.memoryBufferSpace<0?(this.bufferMgr.getMaxReserveKB()<<8):this.memoryBufferSpace)>>20;
         		this.bufferMgr.setMaxReserveKB(Math.max(0, this.bufferMgr.getMaxReserveKB() - batchOverheadKB));
                 if (memoryBufferSpace < 0) {
@@ -180,6 +187,40 @@ public class BufferServiceImpl implements BufferService, Serializable {
 	public boolean isInlineLobs() {
 		return inlineLobs;
 	}
+	
+	public boolean isColumnarBatches() {
+		return columnarBatches;
+	}
+	
+	public void setColumnarBatches(boolean columnarBatches) {
+		this.columnarBatches = columnarBatches;
+	}
+	
+	public int getEvictionSegments() {
+		return evictionSegments;
+	}
+	
+	/**
+	 * Set the number of segments used by the buffer eviction queues.  Values
+	 * greater than 1 reduce contention between concurrent batch accesses. 
+	 * @param evictionSegments
+	 */
+	public void setEvictionSegments(int evictionSegments) {
+		this.evictionSegments = evictionSegments;
+	}
+
+	public boolean isMappedReads() {
+		return mappedReads;
+	}
+	
+	/**
+	 * Set to true to read spilled batches back through memory mapped views 
+	 * of the buffer files.
+	 * @param mappedReads
+	 */
+	public void setMappedReads(boolean mappedReads) {
+		this.mappedReads = mappedReads;
+	}
 
 	public int getProcessorBatchSize() {
 		return this.processorBatchSize;
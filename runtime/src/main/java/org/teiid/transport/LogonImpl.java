@@ -44,6 +44,7 @@ import org.teiid.client.security.SessionToken;
 import org.teiid.client.util.ResultsFuture;
 import org.teiid.core.CoreConstants;
 import org.teiid.core.TeiidComponentException;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.dqp.internal.process.DQPWorkContext;
 import org.teiid.dqp.service.SessionService;
 import org.teiid.dqp.service.SessionServiceException;
@@ -98,6 +99,8 @@ public class LogonImpl implements ILogon {
 		try {
 			SessionMetadata sessionInfo = service.createSession(user,credential, applicationName, connProps, true);
 	        updateDQPContext(sessionInfo);
+	        DQPWorkContext workContext = DQPWorkContext.getWorkContext();
+	        workContext.setCompressResults(workContext.isCompressionSupported() && PropertiesUtils.getBooleanProperty(connProps, TeiidURL.CONNECTION.COMPRESS_RESULTS, false));
 	        if (DQPWorkContext.getWorkContext().getClientAddress() == null) {
 				sessionInfo.setEmbedded(true);
 	        }
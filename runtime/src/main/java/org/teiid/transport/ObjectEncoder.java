@@ -28,6 +28,8 @@ import static org.jboss.netty.channel.Channels.*;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
 
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferOutputStream;
@@ -35,11 +37,17 @@ import org.jboss.netty.channel.ChannelDownstreamHandler;
 import org.jboss.netty.channel.ChannelEvent;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelPipelineCoverage;
+import org.jboss.netty.channel.ChannelState;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.stream.ChunkedInput;
 import org.jboss.netty.handler.stream.ChunkedStream;
+import org.teiid.client.BatchSerializer;
+import org.teiid.client.ResultsMessage;
 import org.teiid.core.util.ExternalizeUtil;
+import org.teiid.net.socket.Message;
 import org.teiid.netty.handler.codec.serialization.CompactObjectOutputStream;
 import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
 
@@ -61,11 +69,31 @@ import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
  * @apiviz.has org.jboss.netty.handler.codec.serialization.ObjectEncoderOutputStream - - - compatible with
  */
 @ChannelPipelineCoverage("all")
-public class ObjectEncoder implements ChannelDownstreamHandler {
+public class ObjectEncoder implements ChannelDownstreamHandler, ChannelUpstreamHandler {
     private static final byte[] LENGTH_PLACEHOLDER = new byte[4];
 	private static final int CHUNK_SIZE = (1 << 16) - 1;
+	
+	private static final int MIN_COMPRESSION_SIZE = 1 << 10;
+	private static final double MAX_COMPRESSION_RATIO = .9;
+	private static final int POOR_COMPRESSION_LIMIT = 8;
+	private static final int UNCOMPRESSED_FRAMES = 64;
+	
+	/**
+	 * Statistics shared by the encoders of a listener
+	 */
+	public static class EncoderStats {
+		AtomicLong bytesWritten = new AtomicLong();
+		AtomicLong compressedFrames = new AtomicLong();
+		AtomicLong uncompressedBytes = new AtomicLong();
+		AtomicLong compressedBytes = new AtomicLong();
+	}
 
     private final int estimatedLength;
+    private EncoderStats stats = new EncoderStats();
+    private Deflater deflater;
+    private int poorCompressionCount;
+    private int uncompressedFrames;
+    private boolean closed;
 
     /**
      * Creates a new encoder with the estimated length of 512 bytes.
@@ -93,6 +121,32 @@ public class ObjectEncoder implements ChannelDownstreamHandler {
         this.estimatedLength = estimatedLength;
     }
     
+    public void setStats(EncoderStats stats) {
+		this.stats = stats;
+	}
+    
+    /**
+     * Release the native resources of the {@link Deflater} once the channel is closed
+     */
+    public void handleUpstream(ChannelHandlerContext ctx, ChannelEvent evt)
+    		throws Exception {
+    	if (evt instanceof ChannelStateEvent) {
+    		ChannelStateEvent e = (ChannelStateEvent)evt;
+    		if (e.getState() == ChannelState.OPEN && Boolean.FALSE.equals(e.getValue())) {
+    			end();
+    		}
+    	}
+    	ctx.sendUpstream(evt);
+    }
+    
+    synchronized void end() {
+    	closed = true;
+    	if (deflater != null) {
+    		deflater.end();
+    		deflater = null;
+    	}
+    }
+    
     public void handleDownstream(
             final ChannelHandlerContext ctx, ChannelEvent evt) throws Exception {
         if (!(evt instanceof MessageEvent)) {
@@ -112,19 +166,89 @@ public class ObjectEncoder implements ChannelDownstreamHandler {
                     estimatedLength, ctx.getChannel().getConfig().getBufferFactory()));
         bout.write(LENGTH_PLACEHOLDER);
         final CompactObjectOutputStream oout = new CompactObjectOutputStream(bout);
+        oout.enableRawBatches();
         oout.writeObject(e.getMessage());
         ExternalizeUtil.writeCollection(oout, oout.getReferences());
         oout.flush();
         oout.close();
 
         ChannelBuffer encoded = bout.buffer();
+        //write the batch column data directly into the frame, each prefixed by its length
+        for (ResultsMessage rm : oout.getRawBatches()) {
+        	int lengthIndex = encoded.writerIndex();
+        	bout.write(LENGTH_PLACEHOLDER);
+        	BatchSerializer.writeRawBatch(bout, rm.getDataTypes(), rm.getResultsList(), rm.getClientSerializationVersion());
+        	encoded.setInt(lengthIndex, encoded.writerIndex() - lengthIndex - 4);
+        }
         encoded.setInt(0, encoded.writerIndex() - 4);
+        if (encoded.writerIndex() >= MIN_COMPRESSION_SIZE && isCompressionAllowed(e.getMessage())) {
+        	encoded = compress(encoded);
+        }
+        stats.bytesWritten.addAndGet(encoded.readableBytes());
         write(ctx, e.getFuture(), encoded, e.getRemoteAddress());
 		for (InputStream is : oout.getStreams()) {
 			Channels.write(ctx.getChannel(), new AnonymousChunkedStream(new BufferedInputStream(is, CHUNK_SIZE)));
 		}
     }
     
+    private static boolean isCompressionAllowed(Object message) {
+    	if (!(message instanceof Message)) {
+    		return false;
+    	}
+    	Object contents = ((Message)message).getContents();
+    	return contents instanceof ResultsMessage && ((ResultsMessage)contents).isAllowCompression();
+    }
+    
+    /**
+     * Deflate the frame, which is then prefixed by the negative compressed length
+     * and the uncompressed length.  If the frame does not compress well it's sent as is
+     * and after several such frames compression is skipped for a while.
+     */
+    ChannelBuffer compress(ChannelBuffer encoded) {
+    	int length = encoded.writerIndex() - 4;
+    	byte[] result = null;
+    	int compressedLength = 0;
+    	synchronized (this) {
+    		if (closed) {
+    			return encoded;
+    		}
+    		if (uncompressedFrames > 0) {
+    			uncompressedFrames--;
+    			return encoded;
+    		}
+    		if (deflater == null) {
+    			deflater = new Deflater(Deflater.BEST_SPEED);
+    		}
+    		if (encoded.hasArray()) {
+    			deflater.setInput(encoded.array(), encoded.arrayOffset() + 4, length);
+    		} else {
+    			byte[] bytes = new byte[length];
+    			encoded.getBytes(4, bytes);
+    			deflater.setInput(bytes);
+    		}
+    		deflater.finish();
+    		result = new byte[(int)(length * MAX_COMPRESSION_RATIO)];
+    		compressedLength = deflater.deflate(result);
+    		boolean finished = deflater.finished();
+    		deflater.reset();
+    		if (!finished) {
+    			if (++poorCompressionCount >= POOR_COMPRESSION_LIMIT) {
+    				poorCompressionCount = 0;
+    				uncompressedFrames = UNCOMPRESSED_FRAMES;
+    			}
+    			return encoded;
+    		}
+    		poorCompressionCount = 0;
+    	}
+    	stats.compressedFrames.getAndIncrement();
+    	stats.uncompressedBytes.addAndGet(length);
+    	stats.compressedBytes.addAndGet(compressedLength);
+    	ChannelBuffer header = buffer(8);
+    	header.writeInt(-(compressedLength + 4));
+    	header.writeInt(length);
+    	return wrappedBuffer(header, wrappedBuffer(result, 0, compressedLength));
+    }
+    
     static class AnonymousChunkedStream extends ChunkedStream {
 
 		public AnonymousChunkedStream(InputStream in) {
@@ -29,12 +29,15 @@ import java.io.StreamCorruptedException;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
 import java.sql.Blob;
 import java.sql.ParameterMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.List;
 import java.util.Properties;
@@ -54,6 +57,7 @@ import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.ssl.SslHandler;
 import org.teiid.client.util.ResultsFuture;
 import org.teiid.core.types.ArrayImpl;
+import org.teiid.core.types.BinaryType;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.ReflectionHelper;
 import org.teiid.core.util.SqlUtil;
@@ -178,6 +182,12 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 		}
 	}
 
+	private static final long MILLIS_PER_DAY = 86400000l;
+	//days from 1970-01-01 to 2000-01-01
+	private static final long PG_EPOCH_DAYS = 10957;
+	private static final int NUMERIC_POS = 0x0000;
+	private static final int NUMERIC_NEG = 0x4000;
+
 	public static final String DEFAULT_ENCODING = "UTF8";
 	public static final String CLIENT_ENCODING = "client_encoding";
 
@@ -465,23 +475,175 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 		sendMessage();
 	}
 
-	private void sendDataRow(ResultSet rs, List<PgColInfo> cols) throws SQLException, IOException {
+	private void sendDataRow(ResultSetImpl rs, List<PgColInfo> cols) throws SQLException, IOException {
 		startMessage('D', -1);
 		int lengthIndex = this.dataOut.writerIndex() - 4;
 		writeShort(cols.size());
+		//read the engine values directly rather than through the jdbc getters 
+		List<?> row = rs.getCurrentRecord();
 		for (int i = 0; i < cols.size(); i++) {
 			int dataBytesIndex = this.dataOut.writerIndex();
 			writeInt(-1);
-			getContent(rs, cols.get(i), i+1);
-			writer.flush();
-			if (!rs.wasNull()) {
-				int bytes = this.dataOut.writerIndex() - dataBytesIndex - 4;
-				this.dataOut.setInt(dataBytesIndex, bytes);
+			Object value = row.get(i);
+			if (value == null) {
+				continue;
 			}
+			PgColInfo col = cols.get(i);
+			if (col.format == BINARY_FORMAT && writeBinary(rs, col, i+1, value)) {
+				//written
+			} else if (value instanceof Number || value instanceof Boolean || value instanceof Character 
+					|| (value instanceof String && rs.getMaxFieldSize() <= 0)) {
+				//the same as the string conversion performed by getString
+				write(value.toString().getBytes(this.encoding));
+			} else {
+				getContent(rs, col, i+1);
+				writer.flush();
+				if (rs.wasNull()) {
+					continue;
+				}
+			}
+			int bytes = this.dataOut.writerIndex() - dataBytesIndex - 4;
+			this.dataOut.setInt(dataBytesIndex, bytes);
 		}
 		this.dataOut.setInt(lengthIndex, this.dataOut.writerIndex() - lengthIndex);
 	}
 	
+	/**
+	 * Write the pg binary representation of the value.  Date/time values use the 
+	 * floating point representation since integer_datetimes is reported as off.
+	 * @return false if the value should instead be written as text 
+	 */
+	private boolean writeBinary(ResultSetImpl rs, PgColInfo col, int column, Object value) throws SQLException, IOException {
+		switch (col.type) {
+		case PG_TYPE_BOOL:
+			write(((Boolean)value).booleanValue()?1:0);
+			return true;
+		case PG_TYPE_INT2:
+			writeShort(((Number)value).shortValue());
+			return true;
+		case PG_TYPE_INT4:
+			writeInt(((Number)value).intValue());
+			return true;
+		case PG_TYPE_INT8:
+			dataOut.writeLong(((Number)value).longValue());
+			return true;
+		case PG_TYPE_FLOAT4:
+			writeInt(Float.floatToIntBits(((Number)value).floatValue()));
+			return true;
+		case PG_TYPE_FLOAT8:
+			dataOut.writeLong(Double.doubleToLongBits(((Number)value).doubleValue()));
+			return true;
+		case PG_TYPE_NUMERIC:
+			BigDecimal bd = null;
+			if (value instanceof BigDecimal) {
+				bd = (BigDecimal)value;
+			} else if (value instanceof BigInteger) {
+				bd = new BigDecimal((BigInteger)value);
+			} else {
+				bd = new BigDecimal(value.toString());
+			}
+			writeNumeric(bd);
+			return true;
+		case PG_TYPE_DATE:
+		case PG_TYPE_TIME:
+		case PG_TYPE_TIMESTAMP_NO_TMZONE:
+			//get the client time zone adjusted value
+			java.util.Date date = (java.util.Date)rs.getObject(column);
+			long millis = date.getTime();
+			//local to the same calendar used by getObject
+			long localMillis = millis + rs.getDefaultCalendar().getTimeZone().getOffset(millis);
+			if (col.type == PG_TYPE_DATE) {
+				writeInt((int)(floorDiv(localMillis, MILLIS_PER_DAY) - PG_EPOCH_DAYS));
+			} else if (col.type == PG_TYPE_TIME) {
+				long timeMillis = localMillis - floorDiv(localMillis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+				dataOut.writeLong(Double.doubleToLongBits(timeMillis / 1000d));
+			} else {
+				double seconds = floorDiv(localMillis - PG_EPOCH_DAYS * MILLIS_PER_DAY, 1000);
+				if (date instanceof Timestamp) {
+					seconds += ((Timestamp)date).getNanos() / 1000000000d;
+				} else {
+					seconds += (localMillis - floorDiv(localMillis, 1000) * 1000) / 1000d;
+				}
+				dataOut.writeLong(Double.doubleToLongBits(seconds));
+			}
+			return true;
+		case PG_TYPE_BYTEA:
+			if (value instanceof BinaryType) {
+				write(((BinaryType)value).getBytesDirect());
+				return true;
+			}
+			Blob blob = rs.getBlob(column);
+			try {
+				write(ObjectConverterUtil.convertToByteArray(blob.getBinaryStream(), this.maxLobSize));
+			} catch(OutOfMemoryError e) {
+				throw new StreamCorruptedException("data too big: " + e.getMessage()); //$NON-NLS-1$ 
+			}
+			return true;
+		}
+		//character values are the same in either format, arrays are only sent as text
+		return false;
+	}
+	
+	private static long floorDiv(long value, long divisor) {
+		long result = value / divisor;
+		if (value % divisor < 0) {
+			result--;
+		}
+		return result;
+	}
+	
+	/**
+	 * Write the base 10000 pg numeric representation
+	 */
+	private void writeNumeric(BigDecimal value) {
+		int scale = value.scale();
+		StringBuilder digits = new StringBuilder(value.unscaledValue().abs().toString());
+		if (scale < 0) {
+			for (int i = 0; i < -scale; i++) {
+				digits.append('0');
+			}
+			scale = 0;
+		}
+		int intLength = digits.length() - scale;
+		while (intLength < 0 || intLength % 4 != 0) {
+			digits.insert(0, '0');
+			intLength++;
+		}
+		while ((digits.length() - intLength) % 4 != 0) {
+			digits.append('0');
+		}
+		int groups = digits.length() / 4;
+		int weight = intLength / 4 - 1;
+		int start = 0;
+		while (start < groups && isZeroGroup(digits, start)) {
+			start++;
+			weight--;
+		}
+		int end = groups;
+		while (end > start && isZeroGroup(digits, end - 1)) {
+			end--;
+		}
+		if (start == end) {
+			weight = 0;
+		}
+		writeShort(end - start);
+		writeShort(weight);
+		writeShort(value.signum() < 0?NUMERIC_NEG:NUMERIC_POS);
+		writeShort(Math.max(0, value.scale()));
+		for (int i = start; i < end; i++) {
+			writeShort(Integer.parseInt(digits.substring(i * 4, i * 4 + 4)));
+		}
+	}
+
+	private static boolean isZeroGroup(CharSequence digits, int group) {
+		for (int i = group * 4; i < group * 4 + 4; i++) {
+			if (digits.charAt(i) != '0') {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	private void getContent(ResultSet rs, PgColInfo col, int column) throws SQLException, TeiidSQLException, IOException {
 		switch (col.type) {
 			case PG_TYPE_BOOL:
@@ -657,8 +819,8 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 			writeShort(getTypeSize(info.type, info.precision));
 			// pg_attribute.atttypmod
 			writeInt(info.mod);
-			// text
-			writeShort(0);
+			// format code, 0 = text, 1 = binary
+			writeShort(info.format);
 		}
 		sendMessage();
 	}
@@ -144,6 +144,7 @@ public class SSLAwareChannelHandler extends SimpleChannelHandler implements Chan
 	private AtomicLong objectsRead = new AtomicLong(0);
 	private AtomicLong objectsWritten = new AtomicLong(0);
 	private volatile int maxChannels;
+	private ObjectEncoder.EncoderStats encoderStats = new ObjectEncoder.EncoderStats();
 	
 	private ChannelFutureListener completionListener = new ChannelFutureListener() {
 
@@ -232,7 +233,9 @@ public class SSLAwareChannelHandler extends SimpleChannelHandler implements Chan
 		}
 	    pipeline.addLast("decoder", new ObjectDecoder(1 << 20, classLoader, storageManager)); //$NON-NLS-1$
 	    pipeline.addLast("chunker", new ChunkedWriteHandler()); //$NON-NLS-1$
-	    pipeline.addLast("encoder", new ObjectEncoder()); //$NON-NLS-1$
+	    ObjectEncoder encoder = new ObjectEncoder();
+	    encoder.setStats(encoderStats);
+	    pipeline.addLast("encoder", encoder); //$NON-NLS-1$
 	    pipeline.addLast("handler", this); //$NON-NLS-1$
 	    return pipeline;
 	}
@@ -252,5 +255,9 @@ public class SSLAwareChannelHandler extends SimpleChannelHandler implements Chan
 	public int getMaxConnectedChannels() {
 		return this.maxChannels;
 	}
+	
+	public ObjectEncoder.EncoderStats getEncoderStats() {
+		return encoderStats;
+	}
 
 }
\ No newline at end of file
@@ -60,6 +60,7 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
     private boolean usingEncryption; 
     private DhKeyGenerator keyGen;
     private DQPWorkContext workContext = new DQPWorkContext();
+    private boolean resultsCompression;
         
     public SocketClientInstance(ObjectChannel objectSocket, ClientServiceRegistryImpl csr, boolean isClientEncryptionEnabled) {
         this.objectSocket = objectSocket;
@@ -74,6 +75,10 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
         }
     }
     
+    public void setResultsCompression(boolean resultsCompression) {
+		this.resultsCompression = resultsCompression;
+	}
+    
     public void send(Message message, Serializable messageKey) {
     	message.setMessageKey(messageKey);
     	if (LogManager.isMessageToBeRecorded(LogConstants.CTX_TRANSPORT, MessageLevel.DETAIL)) {
@@ -96,6 +101,8 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
 	public void onConnection() throws CommunicationException {
         Handshake handshake = new Handshake();
         handshake.setAuthType(csr.getAuthenticationType());
+        handshake.setRawBatches(true);
+        handshake.setCompression(resultsCompression);
         if (usingEncryption) {
             keyGen = new DhKeyGenerator();
             byte[] publicKey;
@@ -128,6 +135,8 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
 	private void receivedHahdshake(Handshake handshake) throws CommunicationException {
 		String clientVersion = handshake.getVersion();
 		this.workContext.setClientVersion(Version.getVersion(clientVersion));
+		this.workContext.setRawBatches(handshake.isRawBatches());
+		this.workContext.setCompressionSupported(resultsCompression && handshake.isCompression());
 		if (usingEncryption) {
             byte[] returnedPublicKey = handshake.getPublicKey();
             
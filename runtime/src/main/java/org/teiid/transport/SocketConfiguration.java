@@ -39,6 +39,7 @@ public class SocketConfiguration {
 	private String hostName;
 	private String name;
 	private String protocol = "teiid"; //$NON-NLS-1$
+	private boolean resultsCompression = true;
 	
 	public String getName() {
 		return name;
@@ -142,4 +143,17 @@ public class SocketConfiguration {
 	public void setProtocol(String protocol) {
 		this.protocol = protocol;
 	}
+	
+	public boolean isResultsCompression() {
+		return resultsCompression;
+	}
+	
+	/**
+	 * Set to false to disallow compressed result frames.  When allowed, 
+	 * clients request compression with the compressResults connection property. 
+	 * @param resultsCompression
+	 */
+	public void setResultsCompression(boolean resultsCompression) {
+		this.resultsCompression = resultsCompression;
+	}
 }
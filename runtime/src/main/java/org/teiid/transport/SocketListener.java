@@ -37,6 +37,7 @@ import org.teiid.logging.LogManager;
 import org.teiid.logging.MessageLevel;
 import org.teiid.net.socket.ObjectChannel;
 import org.teiid.runtime.RuntimePlugin;
+import org.teiid.transport.ObjectEncoder.EncoderStats;
 import org.teiid.transport.ChannelListener.ChannelListenerFactory;
 
 
@@ -47,11 +48,13 @@ public class SocketListener implements ChannelListenerFactory {
 	private SSLAwareChannelHandler channelHandler;
     private Channel serverChanel;
     private boolean isClientEncryptionEnabled;
+    private boolean resultsCompression = true;
     private ExecutorService nettyPool;
     private ClientServiceRegistryImpl csr;
     
     public SocketListener(InetSocketAddress address, SocketConfiguration config, ClientServiceRegistryImpl csr, StorageManager storageManager) {
 		this(address, config.getInputBufferSize(), config.getOutputBufferSize(), config.getMaxSocketThreads(), config.getSSLConfiguration(), csr, storageManager);
+		this.resultsCompression = config.isResultsCompression();
 		LogManager.logDetail(LogConstants.CTX_TRANSPORT, RuntimePlugin.Util.getString("SocketTransport.1", new Object[] {config.getHostAddress().getHostAddress(), String.valueOf(config.getPortNumber())})); //$NON-NLS-1$
     }
     
@@ -111,6 +114,11 @@ public class SocketListener implements ChannelListenerFactory {
         stats.objectsWritten = this.channelHandler.getObjectsWritten();
         stats.sockets = this.channelHandler.getConnectedChannels();
         stats.maxSockets = this.channelHandler.getMaxConnectedChannels();
+        EncoderStats encoderStats = this.channelHandler.getEncoderStats();
+        stats.bytesWritten = encoderStats.bytesWritten.get();
+        stats.compressedFrames = encoderStats.compressedFrames.get();
+        stats.uncompressedBytes = encoderStats.uncompressedBytes.get();
+        stats.compressedBytes = encoderStats.compressedBytes.get();
         return stats;
     }
 
@@ -119,7 +127,9 @@ public class SocketListener implements ChannelListenerFactory {
     }
     
 	public ChannelListener createChannelListener(ObjectChannel channel) {
-		return new SocketClientInstance(channel, csr, this.isClientEncryptionEnabled);
+		SocketClientInstance instance = new SocketClientInstance(channel, csr, this.isClientEncryptionEnabled);
+		instance.setResultsCompression(this.resultsCompression);
+		return instance;
 	}
 	
 }
\ No newline at end of file
@@ -36,5 +36,22 @@ public class SocketListenerStats implements Serializable {
     
     public int sockets = 0;
     public int maxSockets = 0;
+    
+    public long bytesWritten = 0;
+    public long compressedFrames = 0;
+    /** bytes of compressed frames before compression */
+    public long uncompressedBytes = 0;
+    /** bytes of compressed frames after compression */
+    public long compressedBytes = 0;
+    
+    /**
+     * @return the ratio of compressed to uncompressed size for compressed frames
+     */
+    public double getCompressionRatio() {
+    	if (uncompressedBytes == 0) {
+    		return 1;
+    	}
+    	return (double)compressedBytes/uncompressedBytes;
+    }
 }
 
@@ -30,6 +30,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -524,6 +525,40 @@ public class TestEmbeddedServer {
 		assertEquals(1, ps.executeUpdate());
 	}
 	
+	@Test public void testUpdateMatViewRows() throws Exception {
+		EmbeddedConfiguration ec = new EmbeddedConfiguration();
+		ec.setUseDisk(false);
+		es.start(ec);
+		
+		ModelMetaData mmd1 = new ModelMetaData();
+		mmd1.setName("virt");
+		mmd1.setModelType(Type.VIRTUAL);
+		mmd1.setSchemaSourceType("ddl");
+		mmd1.setSchemaText("create view v (x integer primary key, y string) OPTIONS (MATERIALIZED true) as select 1, 'a' union all select 2, 'b'");
+		
+		es.deployVDB("test", mmd1);
+		
+		Connection c = es.getDriver().connect("jdbc:teiid:test", null);
+		Statement s = c.createStatement();
+		ResultSet rs = s.executeQuery("select x, y from v order by x");
+		assertTrue(rs.next());
+		assertEquals(1, rs.getInt(1));
+		assertTrue(rs.next());
+		assertEquals("b", rs.getString(2));
+		assertFalse(rs.next());
+		
+		es.getEventDistributor().updateMatViewRows("test", 1, "virt", "v", Arrays.asList(Arrays.asList(1)), Arrays.asList(Arrays.asList(2, "c"), Arrays.asList(3, "d")));
+		
+		rs = s.executeQuery("select x, y from v order by x");
+		assertTrue(rs.next());
+		assertEquals(2, rs.getInt(1));
+		assertEquals("c", rs.getString(2));
+		assertTrue(rs.next());
+		assertEquals(3, rs.getInt(1));
+		assertEquals("d", rs.getString(2));
+		assertFalse(rs.next());
+	}
+	
 	public static boolean started;
 	
 	public static class MyEF extends ExecutionFactory<Void, Void> {
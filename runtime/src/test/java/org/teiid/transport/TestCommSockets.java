@@ -141,6 +141,15 @@ public class TestCommSockets {
 		assertTrue(Serializable.class.isAssignableFrom(fs.getReader().getClass()));
 	}
 
+	@Test public void testNonBlocking() throws Exception {
+		Properties p = new Properties();
+		p.setProperty("org.teiid.sockets.nonBlocking", Boolean.TRUE.toString()); //$NON-NLS-1$
+		SocketServerConnection conn = helpEstablishConnection(false, new SSLConfiguration(), p);
+		FakeService fs = conn.getService(FakeService.class);
+		assertEquals("hello world", ObjectConverterUtil.convertToString(fs.getReader()));
+		conn.close();
+	}
+
 	@Test public void testConnectWithoutClientEncryption() throws Exception {
 		SSLConfiguration config = new SSLConfiguration();
 		config.setMode(SSLConfiguration.DISABLED);
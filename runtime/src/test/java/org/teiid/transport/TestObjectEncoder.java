@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+
+package org.teiid.transport;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelConfig;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelState;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.DownstreamMessageEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.UpstreamChannelStateEvent;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.teiid.client.ResultsMessage;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.AccessibleBufferedInputStream;
+import org.teiid.dqp.internal.process.DQPWorkContext;
+import org.teiid.net.socket.Message;
+import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
+
+public class TestObjectEncoder {
+	
+	private static ChannelBuffer createFrame(byte[] bytes) {
+		ChannelBuffer frame = ChannelBuffers.buffer(bytes.length + 4);
+		frame.writeInt(bytes.length);
+		frame.writeBytes(bytes);
+		return frame;
+	}
+
+	@Test public void testCompress() {
+		ObjectEncoder encoder = new ObjectEncoder();
+		ChannelBuffer frame = createFrame(new byte[4096]);
+		ChannelBuffer compressed = encoder.compress(frame);
+		assertNotSame(frame, compressed);
+		assertEquals(4096, compressed.getInt(4));
+		assertTrue(compressed.getInt(0) < 0);
+		assertTrue(compressed.readableBytes() < 1024);
+	}
+	
+	@Test public void testPoorCompressionBackOff() {
+		ObjectEncoder encoder = new ObjectEncoder();
+		byte[] random = new byte[4096];
+		new Random(0).nextBytes(random);
+		ChannelBuffer incompressible = createFrame(random);
+		for (int i = 0; i < 8; i++) {
+			assertSame(incompressible, encoder.compress(incompressible));
+		}
+		//compression is skipped for the next 64 frames, even if they would compress
+		ChannelBuffer frame = createFrame(new byte[4096]);
+		for (int i = 0; i < 64; i++) {
+			assertSame(frame, encoder.compress(frame));
+		}
+		assertNotSame(frame, encoder.compress(frame));
+	}
+	
+	@Test public void testEndOnClose() throws Exception {
+		ObjectEncoder encoder = new ObjectEncoder();
+		ChannelBuffer frame = createFrame(new byte[4096]);
+		assertNotSame(frame, encoder.compress(frame));
+		ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+		UpstreamChannelStateEvent event = new UpstreamChannelStateEvent(Mockito.mock(Channel.class), ChannelState.OPEN, Boolean.FALSE);
+		encoder.handleUpstream(ctx, event);
+		Mockito.verify(ctx).sendUpstream(event);
+		//the deflater has been released
+		assertSame(frame, encoder.compress(frame));
+	}
+	
+	@Test public void testRawBatchRoundTrip() throws Exception {
+		helpTestRawBatchRoundTrip(false);
+	}
+	
+	@Test public void testCompressedRawBatchRoundTrip() throws Exception {
+		helpTestRawBatchRoundTrip(true);
+	}
+	
+	private void helpTestRawBatchRoundTrip(boolean compress) throws Exception {
+		List<List<?>> rows = new ArrayList<List<?>>();
+		for (int i = 0; i < 1000; i++) {
+			rows.add(Arrays.asList(i, i%10 == 0?null:"value" + i)); //$NON-NLS-1$
+		}
+		ResultsMessage rm = new ResultsMessage(rows, new String[] {"a", "b"}, new String[] {DataTypeManager.DefaultDataTypes.INTEGER, DataTypeManager.DefaultDataTypes.STRING}); //$NON-NLS-1$ //$NON-NLS-2$
+		rm.setClientSerializationVersion(DQPWorkContext.Version.EIGHT_2.getClientSerializationVersion());
+		rm.setAllowRawBatch(true);
+		rm.setAllowCompression(compress);
+		Message message = new Message();
+		message.setContents(rm);
+		message.setMessageKey(1);
+		
+		byte[] bytes = encode(new ObjectEncoder(), message);
+		//the frame is compressed if it has a negative length
+		assertEquals(compress, ChannelBuffers.wrappedBuffer(bytes).getInt(0) < 0);
+		ObjectDecoderInputStream odis = new ObjectDecoderInputStream(new AccessibleBufferedInputStream(new ByteArrayInputStream(bytes), 1024), Thread.currentThread().getContextClassLoader(), 1 << 20);
+		Message result = (Message)odis.readObject();
+		assertEquals(1, result.getMessageKey());
+		ResultsMessage resultRm = (ResultsMessage)result.getContents();
+		assertEquals(rows, resultRm.getResultsList());
+		assertEquals(1000, resultRm.getLastRow());
+	}
+
+	/**
+	 * Run the message through the encoder and return the bytes of the written frame
+	 */
+	private static byte[] encode(ObjectEncoder encoder, Object message) throws Exception {
+		ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+		Channel channel = Mockito.mock(Channel.class);
+		ChannelConfig config = Mockito.mock(ChannelConfig.class);
+		Mockito.stub(ctx.getChannel()).toReturn(channel);
+		Mockito.stub(channel.getConfig()).toReturn(config);
+		Mockito.stub(config.getBufferFactory()).toReturn(HeapChannelBufferFactory.getInstance());
+		encoder.handleDownstream(ctx, new DownstreamMessageEvent(channel, Channels.future(channel), message, null));
+		ArgumentCaptor<ChannelEvent> captor = ArgumentCaptor.forClass(ChannelEvent.class);
+		Mockito.verify(ctx).sendDownstream(captor.capture());
+		ChannelBuffer frame = (ChannelBuffer)((MessageEvent)captor.getValue()).getMessage();
+		byte[] bytes = new byte[frame.readableBytes()];
+		frame.getBytes(frame.readerIndex(), bytes);
+		return bytes;
+	}
+	
+}
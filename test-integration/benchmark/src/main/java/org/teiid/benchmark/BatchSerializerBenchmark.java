@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Date;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.client.BatchSerializer;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.AccessibleByteArrayOutputStream;
+
+/**
+ * Round trip of a single column batch through the {@link BatchSerializer}.
+ */
+@State(Scope.Benchmark)
+public class BatchSerializerBenchmark {
+	
+	@Param({DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.INTEGER, DataTypeManager.DefaultDataTypes.DATE, DataTypeManager.DefaultDataTypes.TIME})
+	String type;
+	
+	@Param({"1024"})
+	int rowCount;
+	
+	private String[] types;
+	private List<List<?>> batch;
+	
+	@Setup
+	public void setup() {
+		types = new String[] {type};
+		batch = new ArrayList<List<?>>(rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			Object value = null;
+			if (type.equals(DataTypeManager.DefaultDataTypes.STRING)) {
+				value = String.valueOf(i);
+			} else if (type.equals(DataTypeManager.DefaultDataTypes.INTEGER)) {
+				value = i;
+			} else if (type.equals(DataTypeManager.DefaultDataTypes.DATE)) {
+				value = new Date(i);
+			} else {
+				value = new Time(i);
+			}
+			batch.add(Arrays.asList(value));
+		}
+	}
+	
+	@Benchmark
+	public List<List<Object>> writeRead() throws Exception {
+		AccessibleByteArrayOutputStream baos = new AccessibleByteArrayOutputStream(5000);
+		ObjectOutputStream out = new ObjectOutputStream(baos);
+		BatchSerializer.writeBatch(out, types, batch);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.getBuffer(), 0, baos.getCount()));
+		List<List<Object>> result = BatchSerializer.readBatch(in, types);
+		in.close();
+		return result;
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks once for each requested thread count and writes the 
+ * JMH JSON results to the result directory as jmh-&lt;threads&gt;.json.
+ * <br/>
+ * If a baseline directory containing the results of a prior run is given, each 
+ * score is compared against the baseline and any benchmark that is slower by more 
+ * than the threshold is reported.  The exit code is 1 if there are regressions.
+ * <br/>
+ * Options are specified as system properties:
+ * <ul>
+ * <li>benchmark.include - regular expression of benchmarks to run, defaults to all</li>
+ * <li>benchmark.threads - comma separated thread counts, defaults to 1,4,16</li>
+ * <li>benchmark.forks - defaults to 1</li>
+ * <li>benchmark.iterations - warmup and measurement iterations, defaults to 5</li>
+ * <li>benchmark.results - result directory, defaults to benchmark-results</li>
+ * <li>benchmark.baseline - baseline result directory</li>
+ * <li>benchmark.threshold - allowed percentage slowdown, defaults to 10</li>
+ * </ul>
+ */
+@SuppressWarnings({"nls", "unchecked"})
+public class BenchmarkRunner {
+	
+	public static void main(String[] args) throws Exception {
+		String include = System.getProperty("benchmark.include", BenchmarkRunner.class.getPackage().getName() + ".*");
+		String[] threads = System.getProperty("benchmark.threads", "1,4,16").split(",");
+		int forks = Integer.getInteger("benchmark.forks", 1);
+		int iterations = Integer.getInteger("benchmark.iterations", 5);
+		File results = new File(System.getProperty("benchmark.results", "benchmark-results"));
+		String baseline = System.getProperty("benchmark.baseline");
+		double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "10"));
+		
+		results.mkdirs();
+		int regressions = 0;
+		for (String threadCount : threads) {
+			String name = "jmh-" + threadCount.trim() + ".json";
+			File result = new File(results, name);
+			ChainedOptionsBuilder options = new OptionsBuilder()
+				.include(include)
+				.threads(Integer.parseInt(threadCount.trim()))
+				.forks(forks)
+				.warmupIterations(iterations)
+				.measurementIterations(iterations)
+				.measurementTime(TimeValue.seconds(1))
+				.warmupTime(TimeValue.seconds(1))
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.getAbsolutePath());
+			run(options);
+			if (baseline != null) {
+				regressions += compare(new File(baseline, name), result, threshold);
+			}
+		}
+		if (regressions > 0) {
+			System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+			System.exit(1);
+		}
+	}
+
+	private static void run(ChainedOptionsBuilder options) throws RunnerException {
+		new Runner(options.build()).run();
+	}
+
+	/**
+	 * Compare the primary metric scores, which are assumed to be throughput,
+	 * for matching benchmarks and parameters. 
+	 * @return the number of regressions
+	 */
+	static int compare(File baselineFile, File resultFile, double threshold) throws IOException, ParseException {
+		if (!baselineFile.exists()) {
+			System.out.println("No baseline " + baselineFile);
+			return 0;
+		}
+		Map<String, Double> baseline = readScores(baselineFile);
+		Map<String, Double> current = readScores(resultFile);
+		int regressions = 0;
+		for (Map.Entry<String, Double> entry : current.entrySet()) {
+			Double base = baseline.get(entry.getKey());
+			if (base == null || base == 0) {
+				continue;
+			}
+			double change = (entry.getValue() - base) / base * 100;
+			boolean regressed = change < -threshold;
+			if (regressed) {
+				regressions++;
+			}
+			System.out.println(String.format(Locale.US, "%s %s %.3f -> %.3f (%+.1f%%)", regressed?"REGRESSED":"        ", entry.getKey(), base, entry.getValue(), change));
+		}
+		return regressions;
+	}
+
+	static Map<String, Double> readScores(File file) throws IOException, ParseException {
+		Map<String, Double> scores = new HashMap<String, Double>();
+		FileReader reader = new FileReader(file);
+		try {
+			JSONArray results = (JSONArray)new JSONParser().parse(reader);
+			for (Object o : results) {
+				JSONObject result = (JSONObject)o;
+				StringBuilder key = new StringBuilder((String)result.get("benchmark"));
+				JSONObject params = (JSONObject)result.get("params");
+				if (params != null) {
+					key.append(new TreeMap<Object, Object>(params));
+				}
+				JSONObject metric = (JSONObject)result.get("primaryMetric");
+				scores.put(key.toString(), ((Number)metric.get("score")).doubleValue());
+			}
+		} finally {
+			reader.close();
+		}
+		return scores;
+	}
+	
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.impl.BufferFrontedFileStoreCache;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.common.buffer.impl.FileStorageManager;
+import org.teiid.common.buffer.impl.SplittableStorageManager;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.ExecutorUtils;
+import org.teiid.core.util.UnitTestUtil;
+import org.teiid.query.processor.relational.RelationalNode;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * Shared setup for the benchmarks.  The buffer manager is configured
+ * the same as the engine performance tests so that results are comparable.
+ */
+@SuppressWarnings("nls")
+final class BenchmarkUtil {
+	
+	private static BufferManagerImpl bufferManager;
+	private static ExecutorService executor = ExecutorUtils.newFixedThreadPool(16, "Benchmark"); //$NON-NLS-1$
+	
+	private BenchmarkUtil() {
+	}
+
+	static synchronized BufferManagerImpl getBufferManager() throws TeiidComponentException {
+		if (bufferManager == null) {
+			BufferManagerImpl bm = new BufferManagerImpl();
+			bm.setMaxProcessingKB(1<<12);
+			bm.setMaxReserveKB((1<<19)-(1<<17));
+			bm.setMaxActivePlans(20);
+			
+			BufferFrontedFileStoreCache cache = new BufferFrontedFileStoreCache();
+			cache.setMemoryBufferSpace(1<<27);
+			FileStorageManager fsm = new FileStorageManager();
+			fsm.setStorageDirectory(UnitTestUtil.getTestScratchPath() + "/benchmark");
+			cache.setStorageManager(new SplittableStorageManager(fsm));
+			cache.initialize();
+			bm.setCache(cache);
+			bm.initialize();
+			bufferManager = bm;
+		}
+		return bufferManager;
+	}
+	
+	static ExecutorService getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * @return the integer/string schema used by the perf tests
+	 */
+	static List<ElementSymbol> getElements() {
+		ElementSymbol elem1 = new ElementSymbol("e1");
+		elem1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		ElementSymbol elem2 = new ElementSymbol("e2");
+		elem2.setType(DataTypeManager.DefaultDataClasses.STRING);
+		return Arrays.asList(elem1, elem2);
+	}
+	
+	static List<?>[] sampleData(int rowCount) {
+		List<?>[] data = new List<?>[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			data[i] = Arrays.asList(i, String.valueOf(i));
+		}
+		return data;
+	}
+	
+	static int process(RelationalNode node) throws TeiidComponentException, TeiidProcessingException {
+		node.open();
+		int rowCount = 0;
+		while (true) {
+			try {
+				TupleBatch batch = node.nextBatch();
+				rowCount += batch.getRowCount();
+				if (batch.getTerminationFlag()) {
+					break;
+				}
+			} catch (BlockedException e) {
+				
+			}
+		}
+		node.close();
+		return rowCount;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * Writes and reads back a {@link TupleBuffer} through the {@link BufferManagerImpl}.
+ * The larger sizes exceed the memory buffer and exercise the storage layer.
+ */
+@State(Scope.Benchmark)
+public class BufferManagerBenchmark {
+	
+	@Param({"1000", "100000", "1000000"})
+	int rowCount;
+	
+	@Param({"false", "true"})
+	boolean columnar;
+	
+	private BufferManagerImpl bufferManager;
+	private List<ElementSymbol> elements;
+	private List<?>[] data;
+	
+	@Setup
+	public void setup() throws Exception {
+		bufferManager = BenchmarkUtil.getBufferManager();
+		elements = BenchmarkUtil.getElements();
+		data = BenchmarkUtil.sampleData(rowCount);
+	}
+	
+	@Benchmark
+	public void writeRead(Blackhole bh) throws Exception {
+		TupleBuffer tb = bufferManager.createTupleBuffer(elements, "benchmark", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+		try {
+			tb.setColumnar(columnar);
+			for (List<?> tuple : data) {
+				tb.addTuple(tuple);
+			}
+			tb.close();
+			int row = 1;
+			while (row <= tb.getRowCount()) {
+				TupleBatch batch = tb.getBatch(row);
+				bh.consume(batch.getTuples());
+				row = batch.getEndRow() + 1;
+			}
+		} finally {
+			tb.remove();
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.query.eval.Evaluator;
+import org.teiid.query.parser.QueryParser;
+import org.teiid.query.resolver.util.ResolverVisitor;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.unittest.RealMetadataFactory;
+
+/**
+ * Evaluation of resolved constant expressions with {@link Evaluator#evaluate(Expression)}.
+ */
+@State(Scope.Benchmark)
+public class EvaluatorBenchmark {
+	
+	@Param({"'abcdefg' like 'a%g'", "(1 + 2) * 3 > 4 AND 'a' < 'b'", "concat(upper('abc'), substring('defg', 2))", "CASE WHEN 1 = 2 THEN 'x' ELSE 'y' END"})
+	String expression;
+	
+	private Expression ex;
+	
+	@Setup
+	public void setup() throws Exception {
+		ex = QueryParser.getQueryParser().parseExpression(expression);
+		ResolverVisitor.resolveLanguageObject(ex, RealMetadataFactory.example1Cached());
+	}
+	
+	@Benchmark
+	public Object evaluate() throws Exception {
+		return Evaluator.evaluate(ex);
+	}
+
+}
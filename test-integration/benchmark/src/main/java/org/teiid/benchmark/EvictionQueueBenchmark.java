@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.common.buffer.BaseCacheEntry;
+import org.teiid.common.buffer.CacheKey;
+import org.teiid.common.buffer.impl.LrfuEvictionQueue;
+
+/**
+ * Compares a single segment {@link LrfuEvictionQueue} against a segmented
+ * queue under concurrent access.  Most operations are touches, with an occasional
+ * check of the eviction candidate as done by the buffer manager.
+ */
+@State(Scope.Benchmark)
+public class EvictionQueueBenchmark {
+	
+	@Param({"1", "8"})
+	int segments;
+	
+	@Param({"100000"})
+	int entryCount;
+	
+	private AtomicLong clock = new AtomicLong();
+	private LrfuEvictionQueue<BaseCacheEntry> queue;
+	private BaseCacheEntry[] entries;
+	
+	@State(Scope.Thread)
+	public static class ThreadState {
+		Random random = new Random();
+	}
+	
+	@Setup
+	public void setup() {
+		queue = new LrfuEvictionQueue<BaseCacheEntry>(clock, segments);
+		entries = new BaseCacheEntry[entryCount];
+		for (int i = 0; i < entryCount; i++) {
+			entries[i] = new BaseCacheEntry(new CacheKey((long)i, 0, 0));
+			queue.add(entries[i]);
+		}
+	}
+	
+	@Benchmark
+	public Object touch(ThreadState state) {
+		clock.getAndIncrement();
+		int index = state.random.nextInt(entryCount);
+		if ((index & 0xf) == 0) {
+			return queue.firstEntry(false);
+		}
+		BaseCacheEntry entry = entries[index];
+		synchronized (entry) {
+			queue.touch(entry);
+		}
+		return entry;
+	}
+
+}
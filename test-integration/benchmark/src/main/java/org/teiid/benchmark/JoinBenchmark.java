@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.query.processor.relational.EnhancedSortMergeJoinStrategy;
+import org.teiid.query.processor.relational.FakeRelationalNode;
+import org.teiid.query.processor.relational.HashJoinStrategy;
+import org.teiid.query.processor.relational.JoinNode;
+import org.teiid.query.processor.relational.JoinStrategy;
+import org.teiid.query.processor.relational.MergeJoinStrategy;
+import org.teiid.query.processor.relational.MergeJoinStrategy.SortOption;
+import org.teiid.query.sql.lang.JoinType;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Inner equi-joins using the enhanced sort, merge and hash join strategies.
+ */
+@State(Scope.Benchmark)
+public class JoinBenchmark {
+	
+	public enum Strategy {
+		ENHANCED,
+		MERGE,
+		HASH
+	}
+	
+	/**
+	 * left row count:right row count
+	 */
+	@Param({"100:500", "4000:4000", "400:500000", "100000:100000"})
+	String sizes;
+	
+	@Param({"ENHANCED", "MERGE", "HASH"})
+	Strategy strategy;
+	
+	private BufferManagerImpl bufferManager;
+	private List<ElementSymbol> elements;
+	private List<?>[] leftData;
+	private List<?>[] rightData;
+	private JoinStrategy joinStrategy;
+	
+	@Setup
+	public void setup() throws Exception {
+		bufferManager = BenchmarkUtil.getBufferManager();
+		elements = BenchmarkUtil.getElements();
+		String[] counts = sizes.split(":"); //$NON-NLS-1$
+		leftData = BenchmarkUtil.sampleData(Integer.parseInt(counts[0]));
+		rightData = BenchmarkUtil.sampleData(Integer.parseInt(counts[1]));
+		switch (strategy) {
+		case ENHANCED:
+			joinStrategy = new EnhancedSortMergeJoinStrategy(SortOption.SORT, SortOption.SORT);
+			break;
+		case HASH:
+			joinStrategy = new HashJoinStrategy();
+			break;
+		default:
+			joinStrategy = new MergeJoinStrategy(SortOption.SORT, SortOption.SORT, false);
+		}
+	}
+	
+	@Benchmark
+	public int join() throws Exception {
+		CommandContext context = new CommandContext ("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+		
+		FakeRelationalNode dataNode1 = new FakeRelationalNode(1, leftData);
+		dataNode1.setElements(elements);
+		dataNode1.initialize(context, bufferManager, null);
+
+		FakeRelationalNode dataNode2 = new FakeRelationalNode(2, rightData);
+		dataNode2.setElements(elements);
+		dataNode2.initialize(context, bufferManager, null);
+
+		JoinNode join = new JoinNode(3);
+		join.addChild(dataNode1);
+		join.addChild(dataNode2);
+		join.setJoinStrategy(joinStrategy.clone());
+		join.setElements(elements);
+		join.setJoinType(JoinType.JOIN_INNER);
+		join.setJoinExpressions(elements.subList(0, 1), elements.subList(0, 1));
+		join.initialize(context, bufferManager, null);
+		
+		return BenchmarkUtil.process(join);
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.teiid.common.buffer.STree;
+import org.teiid.common.buffer.STree.InsertMode;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * {@link STree} insert and find.  Each thread uses its own tree 
+ * since the tree itself is not safe for concurrent modification.
+ */
+@State(Scope.Thread)
+public class STreeBenchmark {
+	
+	@Param({"10000", "200000"})
+	int rowCount;
+	
+	private BufferManagerImpl bufferManager;
+	private List<ElementSymbol> elements;
+	private int[] keys;
+	private STree tree;
+	private Random random = new Random(0);
+	
+	@Setup
+	public void setup() throws Exception {
+		bufferManager = BenchmarkUtil.getBufferManager();
+		elements = BenchmarkUtil.getElements();
+		keys = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			keys[i] = i;
+		}
+		//shuffle so that inserts are not ordered
+		for (int i = rowCount - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = temp;
+		}
+		tree = insertAll();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		tree.remove();
+	}
+
+	private STree insertAll() throws Exception {
+		STree result = bufferManager.createSTree(elements, "benchmark", 1); //$NON-NLS-1$
+		int sizeHint = result.getExpectedHeight(rowCount);
+		for (int key : keys) {
+			result.insert(Arrays.asList(key, String.valueOf(key)), InsertMode.NEW, sizeHint);
+		}
+		return result;
+	}
+	
+	@Benchmark
+	public int insert() throws Exception {
+		STree result = insertAll();
+		try {
+			return result.getRowCount();
+		} finally {
+			result.remove();
+		}
+	}
+	
+	@Benchmark
+	public List<?> find() throws Exception {
+		return tree.find(Arrays.asList(random.nextInt(rowCount)));
+	}
+	
+}
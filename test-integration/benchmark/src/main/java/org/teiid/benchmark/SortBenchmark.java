@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.query.processor.relational.BlockingFakeRelationalNode;
+import org.teiid.query.processor.relational.SortNode;
+import org.teiid.query.processor.relational.SortUtility.Mode;
+import org.teiid.query.sql.lang.OrderBy;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Sort and dup removal through the {@link SortNode}, and thus the SortUtility, 
+ * with a source that periodically blocks.
+ */
+@State(Scope.Benchmark)
+public class SortBenchmark {
+	
+	@Param({"100", "5000", "250000"})
+	int rowCount;
+	
+	@Param({"SORT", "DUP_REMOVE"})
+	Mode mode;
+	
+	private BufferManagerImpl bufferManager;
+	private List<ElementSymbol> elements;
+	private List<?>[] data;
+	
+	@Setup
+	public void setup() throws Exception {
+		bufferManager = BenchmarkUtil.getBufferManager();
+		elements = BenchmarkUtil.getElements();
+		data = BenchmarkUtil.sampleData(rowCount);
+	}
+	
+	@Benchmark
+	public int sort() throws Exception {
+		CommandContext context = new CommandContext ("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+		
+		BlockingFakeRelationalNode dataNode = new BlockingFakeRelationalNode(0, data);
+		dataNode.setReturnPeriod(3);
+		dataNode.setElements(elements);
+		dataNode.initialize(context, bufferManager, null);
+		
+		SortNode sortNode = new SortNode(1);
+		sortNode.setSortElements(new OrderBy(elements.subList(0, 1)).getOrderByItems());
+		sortNode.setMode(mode);
+		sortNode.setElements(dataNode.getElements());
+		sortNode.addChild(dataNode);        
+		sortNode.initialize(context, bufferManager, null);
+		
+		return BenchmarkUtil.process(sortNode);
+	}
+
+}
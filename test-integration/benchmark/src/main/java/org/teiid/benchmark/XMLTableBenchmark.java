@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.benchmark;
+
+import static org.teiid.query.processor.TestProcessor.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.core.types.ClobImpl;
+import org.teiid.core.types.ClobType;
+import org.teiid.query.metadata.QueryMetadataInterface;
+import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
+import org.teiid.query.parser.QueryParser;
+import org.teiid.query.processor.FakeDataManager;
+import org.teiid.query.processor.ProcessorPlan;
+import org.teiid.query.sql.lang.Command;
+import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Streaming XMLTABLE processing over a generated document.  Each thread
+ * processes its own copy of the prepared plan.
+ */
+@State(Scope.Thread)
+@SuppressWarnings("nls")
+public class XMLTableBenchmark {
+	
+	@Param({"50000"})
+	int rowCount;
+	
+	private BufferManagerImpl bufferManager;
+	private QueryMetadataInterface metadata;
+	private Command command;
+	private ProcessorPlan plan;
+	private List<?> preparedValues;
+	
+	@Setup
+	public void setup() throws Exception {
+		bufferManager = BenchmarkUtil.getBufferManager();
+		String sql = "select * from xmltable('/root/child' passing xmlparse(document cast(? as clob) wellformed) columns x integer path '@id', y long path 'gc2') as x";
+		preparedValues = Arrays.asList(new ClobType(new ClobImpl(createDocument(rowCount).toCharArray())));
+		command = QueryParser.getQueryParser().parseCommand(sql);
+		metadata = RealMetadataFactory.example1Cached();
+		plan = helpGetPlan(command, metadata, new DefaultCapabilitiesFinder(), createCommandContext());
+	}
+	
+	/**
+	 * Generates a document similar to the perf test document, 
+	 * which is approximately 5 MB for 50000 children
+	 */
+	static String createDocument(int children) throws Exception {
+		Random r = new Random(0);
+		StringWriter writer = new StringWriter();
+		XMLStreamWriter xsw = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+		xsw.writeStartDocument();
+		xsw.writeStartElement("root");
+		for (int i = 0; i < children; i++) {
+			xsw.writeStartElement("child");
+			xsw.writeAttribute("id", String.valueOf(i));
+			for (int j = 1; j <= 3; j++) {
+				xsw.writeStartElement("gc" + j);
+				xsw.writeCharacters(String.valueOf(r.nextLong()));
+				xsw.writeEndElement();
+			}
+			xsw.writeEndElement();
+		}
+		xsw.writeEndElement();
+		xsw.writeEndDocument();
+		xsw.close();
+		return writer.toString();
+	}
+	
+	@Benchmark
+	public int process() throws Exception {
+		CommandContext context = createCommandContext();
+		context.setMetadata(metadata);        
+		context.setExecutor(BenchmarkUtil.getExecutor());
+		context.setBufferManager(bufferManager);
+		setParameterValues(preparedValues, command, context);
+		plan.reset();
+		return doProcess(plan, new FakeDataManager(), null, context);
+	}
+
+}
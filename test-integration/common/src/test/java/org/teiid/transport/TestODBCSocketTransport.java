@@ -24,6 +24,10 @@ package org.teiid.transport;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -36,6 +40,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import javax.net.ssl.SSLContext;
@@ -143,6 +149,144 @@ public static class AnonSSLSocketFactory extends SSLSocketFactory {
 		
 	}
 	
+	/**
+	 * A minimal v3 protocol client that requests binary results, which the
+	 * postgresql driver used by these tests never does.
+	 */
+	static class BinaryResultsClient {
+		private Socket socket;
+		private DataInputStream in;
+		private DataOutputStream out;
+		short[] formats;
+		
+		BinaryResultsClient(InetSocketAddress addr) throws IOException {
+			socket = new Socket(addr.getHostName(), addr.getPort());
+			in = new DataInputStream(socket.getInputStream());
+			out = new DataOutputStream(socket.getOutputStream());
+			ByteArrayOutputStream startup = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(startup);
+			data.writeInt(196608);
+			writeString(data, "user");
+			writeString(data, "testuser");
+			writeString(data, "database");
+			writeString(data, "parts");
+			data.writeByte(0);
+			out.writeInt(startup.size() + 4);
+			startup.writeTo(out);
+			out.flush();
+			while (true) {
+				byte type = in.readByte();
+				byte[] message = readMessage();
+				if (type == 'R' && message[3] == 3) {
+					ByteArrayOutputStream password = new ByteArrayOutputStream();
+					writeString(new DataOutputStream(password), "testpassword");
+					sendMessage('p', password);
+				} else if (type == 'E') {
+					fail(new String(message, "UTF-8"));
+				} else if (type == 'Z') {
+					break;
+				}
+			}
+		}
+		
+		/**
+		 * Execute the query with all results in the binary format
+		 * @return the column values of the first row
+		 */
+		List<byte[]> executeQuery(String sql) throws IOException {
+			ByteArrayOutputStream parse = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(parse);
+			writeString(data, "");
+			writeString(data, sql);
+			data.writeShort(0);
+			sendMessage('P', parse);
+			ByteArrayOutputStream bind = new ByteArrayOutputStream();
+			data = new DataOutputStream(bind);
+			writeString(data, "");
+			writeString(data, "");
+			data.writeShort(0);
+			data.writeShort(0);
+			data.writeShort(1);
+			data.writeShort(1);
+			sendMessage('B', bind);
+			ByteArrayOutputStream describe = new ByteArrayOutputStream();
+			describe.write('P');
+			describe.write(0);
+			sendMessage('D', describe);
+			ByteArrayOutputStream execute = new ByteArrayOutputStream();
+			data = new DataOutputStream(execute);
+			writeString(data, "");
+			data.writeInt(0);
+			sendMessage('E', execute);
+			sendMessage('S', new ByteArrayOutputStream());
+			List<byte[]> result = null;
+			String error = null;
+			while (true) {
+				byte type = in.readByte();
+				DataInputStream message = new DataInputStream(new ByteArrayInputStream(readMessage()));
+				if (type == 'T') {
+					formats = new short[message.readShort()];
+					for (int i = 0; i < formats.length; i++) {
+						while (message.readByte() != 0) {
+							//name
+						}
+						message.skipBytes(16);
+						formats[i] = message.readShort();
+					}
+				} else if (type == 'D' && result == null) {
+					result = new ArrayList<byte[]>();
+					int count = message.readShort();
+					for (int i = 0; i < count; i++) {
+						int length = message.readInt();
+						byte[] value = null;
+						if (length >= 0) {
+							value = new byte[length];
+							message.readFully(value);
+						}
+						result.add(value);
+					}
+				} else if (type == 'E') {
+					error = new String(readFully(message), "UTF-8");
+				} else if (type == 'Z') {
+					break;
+				}
+			}
+			if (error != null) {
+				fail(error);
+			}
+			return result;
+		}
+		
+		void close() throws IOException {
+			sendMessage('X', new ByteArrayOutputStream());
+			socket.close();
+		}
+		
+		private byte[] readMessage() throws IOException {
+			byte[] message = new byte[in.readInt() - 4];
+			in.readFully(message);
+			return message;
+		}
+		
+		private static byte[] readFully(DataInputStream message) throws IOException {
+			byte[] bytes = new byte[message.available()];
+			message.readFully(bytes);
+			return bytes;
+		}
+		
+		private void sendMessage(char type, ByteArrayOutputStream message) throws IOException {
+			out.writeByte(type);
+			out.writeInt(message.size() + 4);
+			message.writeTo(out);
+			out.flush();
+		}
+		
+		private static void writeString(DataOutputStream data, String value) throws IOException {
+			data.write(value.getBytes("UTF-8"));
+			data.writeByte(0);
+		}
+	}
+	
 	private static FakeOdbcServer odbcServer = new FakeOdbcServer();
 	
 	@BeforeClass public static void oneTimeSetup() throws Exception {
@@ -202,6 +346,51 @@ public static class AnonSSLSocketFactory extends SSLSocketFactory {
 		assertEquals(7000, i);
 	}
 	
+	@Test public void testScalarValues() throws Exception {
+		Statement s = conn.createStatement();
+		ResultSet rs = s.executeQuery("select cast(1.50 as bigdecimal), cast(2 as short), true, 'a', cast(null as integer)");
+		assertTrue(rs.next());
+		assertEquals("1.50", rs.getString(1));
+		assertEquals(2, rs.getShort(2));
+		assertTrue(rs.getBoolean(3));
+		assertEquals("a", rs.getString(4));
+		assertNull(rs.getObject(5));
+	}
+	
+	@Test public void testBinaryResults() throws Exception {
+		BinaryResultsClient client = new BinaryResultsClient(odbcServer.addr);
+		try {
+			List<byte[]> row = client.executeQuery("select cast('-12345.678' as bigdecimal), cast('0.000000000012345' as bigdecimal), " +
+					"cast('123456789012345678901234567890' as bigdecimal), cast('1969-07-20' as date), cast('12:34:56' as time), " +
+					"cast('1969-07-20 20:17:40.123' as timestamp), to_bytes('abc', 'UTF-8'), cast(2 as short), cast(null as integer)");
+			for (int i = 0; i < client.formats.length; i++) {
+				assertEquals(1, client.formats[i]);
+			}
+			//ndigits, weight, sign, dscale, base 10000 digits
+			assertNumeric(row.get(0), 3, 1, 0x4000, 3, 1, 2345, 6780);
+			assertNumeric(row.get(1), 2, -3, 0, 15, 12, 3450);
+			assertNumeric(row.get(2), 8, 7, 0, 0, 12, 3456, 7890, 1234, 5678, 9012, 3456, 7890);
+			//days from 2000-01-01
+			assertEquals(-11122, new DataInputStream(new ByteArrayInputStream(row.get(3))).readInt());
+			//seconds from midnight and from 2000-01-01 00:00
+			assertEquals(45296, new DataInputStream(new ByteArrayInputStream(row.get(4))).readDouble(), 0);
+			assertEquals(-960867739.877, new DataInputStream(new ByteArrayInputStream(row.get(5))).readDouble(), .0001);
+			assertEquals("abc", new String(row.get(6), "UTF-8"));
+			assertEquals(2, new DataInputStream(new ByteArrayInputStream(row.get(7))).readShort());
+			assertNull(row.get(8));
+		} finally {
+			client.close();
+		}
+	}
+	
+	private static void assertNumeric(byte[] value, int... expected) throws IOException {
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(value));
+		assertEquals(expected.length * 2, value.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], data.readShort());
+		}
+	}
+	
 	@Test public void testBlob() throws Exception {
 		Statement s = conn.createStatement();
 		assertTrue(s.execute("select to_bytes('abc', 'UTF-16')"));